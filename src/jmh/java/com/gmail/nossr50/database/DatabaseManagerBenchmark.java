@@ -0,0 +1,77 @@
+package com.gmail.nossr50.database;
+
+import com.gmail.nossr50.MMOTestEnvironment;
+import com.gmail.nossr50.datatypes.player.PlayerProfile;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.gmail.nossr50.database.DatabaseManagerConformanceTest.createProfile;
+
+/**
+ * Saving and loading players on each local backend, with the database already holding the given number of users
+ * The plugin is mocked by {@link MMOTestEnvironment}, so the configs are the defaults and no server is needed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseManagerBenchmark {
+    private static final int BATCH_SIZE = 250;
+
+    @Param({"FLATFILE", "SQLITE"})
+    public String backend;
+
+    @Param({"1000", "10000"})
+    public int users;
+
+    private DatabaseManager databaseManager;
+    private final List<PlayerProfile> profiles = new ArrayList<>();
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        MMOTestEnvironment.getPlugin();
+        MMOTestEnvironment.useFreshFlatFileDirectory();
+        databaseManager = backend.equals("SQLITE") ? new SQLiteDatabaseManager() : new FlatfileDatabaseManager();
+
+        for (int i = 0; i < users; i++) {
+            profiles.add(createProfile("Player" + i, UUID.randomUUID(), i));
+        }
+
+        databaseManager.saveUsers(profiles);
+    }
+
+    @TearDown
+    public void tearDown() {
+        databaseManager.onDisable();
+    }
+
+    @Benchmark
+    public boolean saveUser() {
+        return databaseManager.saveUser(nextProfile());
+    }
+
+    @Benchmark
+    public PlayerProfile loadPlayerProfile() {
+        PlayerProfile profile = nextProfile();
+        return databaseManager.loadPlayerProfile(profile.getPlayerName(), profile.getUniqueId(), false);
+    }
+
+    @Benchmark
+    public boolean saveUsers() {
+        int start = index % (users - BATCH_SIZE);
+        index = start + BATCH_SIZE;
+        return databaseManager.saveUsers(profiles.subList(start, start + BATCH_SIZE));
+    }
+
+    private PlayerProfile nextProfile() {
+        index = (index + 1) % users;
+        return profiles.get(index);
+    }
+}
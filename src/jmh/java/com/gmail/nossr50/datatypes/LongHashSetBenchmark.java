@@ -0,0 +1,63 @@
+package com.gmail.nossr50.datatypes;
+
+import com.gmail.nossr50.util.BlockUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filling and probing a visited set of packed block positions, as the Tree Feller search does, against a boxed HashSet
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LongHashSetBenchmark {
+    @Param({"64", "1000", "10000"})
+    private int positions;
+
+    private long[] packedPositions;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        packedPositions = new long[positions];
+
+        // Clustered around one spot like the blocks of a tree, half of the probes hit
+        for (int i = 0; i < positions; i++) {
+            packedPositions[i] = BlockUtils.packBlockPosition(random.nextInt(32) - 16, 64 + random.nextInt(32), random.nextInt(32) - 16);
+        }
+    }
+
+    @Benchmark
+    public void longHashSet(Blackhole blackhole) {
+        LongHashSet visited = new LongHashSet(positions);
+
+        for (long packedPosition : packedPositions) {
+            blackhole.consume(visited.add(packedPosition));
+        }
+
+        for (long packedPosition : packedPositions) {
+            blackhole.consume(visited.contains(packedPosition + 1));
+        }
+    }
+
+    @Benchmark
+    public void boxedHashSet(Blackhole blackhole) {
+        Set<Long> visited = new HashSet<>(positions * 2);
+
+        for (long packedPosition : packedPositions) {
+            blackhole.consume(visited.add(packedPosition));
+        }
+
+        for (long packedPosition : packedPositions) {
+            blackhole.consume(visited.contains(packedPosition + 1));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.gmail.nossr50.datatypes.player;
+
+import com.gmail.nossr50.MMOTestEnvironment;
+import com.gmail.nossr50.datatypes.experience.XPGainReason;
+import com.gmail.nossr50.datatypes.experience.XPGainSource;
+import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handing a player the XP of a single block or hit, through the XP gain event, perks and the experience bar
+ * The player is a mock with every permission, so every check on the way passes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class McMMOPlayerBenchmark {
+    private McMMOPlayer mcMMOPlayer;
+
+    @Setup
+    public void setup() {
+        mcMMOPlayer = MMOTestEnvironment.createPlayer("XpBenchmark", MMOTestEnvironment.createWorld("benchmark_xp"), new ItemStack(Material.DIAMOND_PICKAXE));
+    }
+
+    @Benchmark
+    public McMMOPlayer beginXpGain() {
+        mcMMOPlayer.beginXpGain(PrimarySkillType.MINING, 30, XPGainReason.PVE, XPGainSource.SELF);
+        return mcMMOPlayer;
+    }
+
+    @Benchmark
+    public McMMOPlayer beginXpGainChildSkill() {
+        mcMMOPlayer.beginXpGain(PrimarySkillType.SMELTING, 30, XPGainReason.PVE, XPGainSource.PASSIVE);
+        return mcMMOPlayer;
+    }
+}
@@ -0,0 +1,86 @@
+package com.gmail.nossr50.listeners;
+
+import com.gmail.nossr50.MMOTestEnvironment;
+import com.gmail.nossr50.mcMMO;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * A player mining natural stone with a pickaxe, from the world blacklist down to the mining XP and double drops
+ * The blocks are mocks spread over 64x64 columns, so the chunk store has a few regions loaded like a real mine.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockListenerBenchmark {
+    private static final int BLOCKS = 4096;
+
+    private BlockListener listener;
+    private Player player;
+    private final Block[] blocks = new Block[BLOCKS];
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        World world = MMOTestEnvironment.createWorld("benchmark_block_break");
+        player = MMOTestEnvironment.createPlayer("BlockBreakBenchmark", world, new ItemStack(Material.DIAMOND_PICKAXE)).getPlayer();
+        listener = new BlockListener(mcMMO.p);
+
+        for (int i = 0; i < BLOCKS; i++) {
+            blocks[i] = createBlock(world, i & 63, 40, i >> 6);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mcMMO.getPlaceStore().closeAll();
+    }
+
+    @Benchmark
+    public BlockBreakEvent onBlockBreak() {
+        BlockBreakEvent event = new BlockBreakEvent(blocks[index++ & (BLOCKS - 1)], player);
+        listener.onBlockBreak(event);
+        return event;
+    }
+
+    private static Block createBlock(World world, int x, int y, int z) {
+        Block block = mock(Block.class, RETURNS_DEEP_STUBS);
+        BlockState blockState = mock(BlockState.class, RETURNS_DEEP_STUBS);
+        BlockData blockData = mock(BlockData.class);
+        Location location = new Location(world, x, y, z);
+
+        when(blockData.getMaterial()).thenReturn(Material.STONE);
+        when(block.getWorld()).thenReturn(world);
+        when(block.getType()).thenReturn(Material.STONE);
+        when(block.getX()).thenReturn(x);
+        when(block.getY()).thenReturn(y);
+        when(block.getZ()).thenReturn(z);
+        when(block.getLocation()).thenReturn(location);
+        when(block.getBlockData()).thenReturn(blockData);
+        when(block.getState()).thenReturn(blockState);
+        when(blockState.getWorld()).thenReturn(world);
+        when(blockState.getType()).thenReturn(Material.STONE);
+        when(blockState.getX()).thenReturn(x);
+        when(blockState.getY()).thenReturn(y);
+        when(blockState.getZ()).thenReturn(z);
+        when(blockState.getLocation()).thenReturn(location);
+        when(blockState.getBlockData()).thenReturn(blockData);
+        when(blockState.getBlock()).thenReturn(block);
+        return block;
+    }
+}
@@ -0,0 +1,64 @@
+package com.gmail.nossr50.listeners;
+
+import com.gmail.nossr50.MMOTestEnvironment;
+import com.gmail.nossr50.mcMMO;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Zombie;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * A player hitting a zombie with a sword, through the combat checks, Swords and the combat XP
+ * The zombie is a mock that never dies, so every hit takes the same path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityListenerBenchmark {
+    private EntityListener listener;
+    private Player player;
+    private Zombie zombie;
+
+    @Setup
+    public void setup() {
+        World world = MMOTestEnvironment.createWorld("benchmark_entity_damage");
+        player = MMOTestEnvironment.createPlayer("EntityDamageBenchmark", world, new ItemStack(Material.DIAMOND_SWORD)).getPlayer();
+        listener = new EntityListener(mcMMO.p);
+        zombie = mock(Zombie.class, RETURNS_DEEP_STUBS);
+
+        when(zombie.getType()).thenReturn(EntityType.ZOMBIE);
+        when(zombie.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(zombie.getWorld()).thenReturn(world);
+        when(zombie.getLocation()).thenReturn(new Location(world, 2.5, 64, 0.5));
+        when(zombie.isValid()).thenReturn(true);
+        when(zombie.isDead()).thenReturn(false);
+        when(zombie.getHealth()).thenReturn(20.0);
+        when(zombie.getMaxHealth()).thenReturn(20.0);
+        when(zombie.getNoDamageTicks()).thenReturn(0);
+        when(zombie.getMaximumNoDamageTicks()).thenReturn(20);
+        when(zombie.hasMetadata(anyString())).thenReturn(false);
+        when(zombie.getCustomName()).thenReturn(null);
+    }
+
+    @Benchmark
+    public EntityDamageByEntityEvent onEntityDamageByEntity() {
+        EntityDamageByEntityEvent event = new EntityDamageByEntityEvent(player, zombie, DamageCause.ENTITY_ATTACK, 6.0);
+        listener.onEntityDamageByEntity(event);
+        return event;
+    }
+}
@@ -0,0 +1,79 @@
+package com.gmail.nossr50.listeners;
+
+import com.gmail.nossr50.MMOTestEnvironment;
+import com.gmail.nossr50.mcMMO;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.Furnace;
+import org.bukkit.event.block.FurnaceBurnEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * A storage room of hopper chains feeding chests and unowned furnaces, the events mcMMO sees for every item they move
+ * Furnaces are spread over a few chunks and looked up once in the setup, as they would be after running for a while.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryListenerBenchmark {
+    private static final int FURNACES = 256;
+
+    private InventoryListener listener;
+    private Inventory hopper;
+    private Inventory chest;
+    private final ItemStack item = new ItemStack(Material.COBBLESTONE);
+    private final ItemStack fuel = new ItemStack(Material.COAL);
+    private final Block[] furnaces = new Block[FURNACES];
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        World world = MMOTestEnvironment.createWorld("benchmark_hoppers");
+        listener = new InventoryListener(mcMMO.p);
+        hopper = mock(Inventory.class);
+        chest = mock(Inventory.class);
+
+        for (int i = 0; i < FURNACES; i++) {
+            Block block = mock(Block.class);
+            Furnace furnace = mock(Furnace.class);
+            int x = (i & 15) * 3;
+            int z = (i >> 4) * 3;
+
+            when(block.getWorld()).thenReturn(world);
+            when(block.getType()).thenReturn(Material.FURNACE);
+            when(block.getX()).thenReturn(x);
+            when(block.getY()).thenReturn(64);
+            when(block.getZ()).thenReturn(z);
+            when(block.getState()).thenReturn(furnace);
+            when(furnace.getBlock()).thenReturn(block);
+            when(furnace.getType()).thenReturn(Material.FURNACE);
+            furnaces[i] = block;
+            mcMMO.getSmeltingTracker().getFurnaceOwnerUUID(block);
+        }
+    }
+
+    @Benchmark
+    public InventoryMoveItemEvent hopperIntoChest() {
+        InventoryMoveItemEvent event = new InventoryMoveItemEvent(hopper, item, chest, true);
+        listener.onInventoryMoveItemEvent(event);
+        return event;
+    }
+
+    @Benchmark
+    public FurnaceBurnEvent unownedFurnaceBurn() {
+        FurnaceBurnEvent event = new FurnaceBurnEvent(furnaces[index++ & (FURNACES - 1)], fuel, 1600);
+        listener.onFurnaceBurnEvent(event);
+        return event;
+    }
+}
@@ -0,0 +1,123 @@
+package com.gmail.nossr50.skills.woodcutting;
+
+import com.gmail.nossr50.MMOTestEnvironment;
+import com.gmail.nossr50.util.BlockUtils;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * The Tree Feller search over a synthetic 2x2 mega tree: a trunk with a branch every few blocks and a wide canopy on top
+ * Only the search is measured, the drops are left out. Every block the search reads is a mock, so a large part of the
+ * time is the mocked world, the same for every run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeFellerBenchmark {
+    private static final int BASE_Y = 64;
+
+    @Param({"16", "30"})
+    public int trunkHeight;
+
+    private final Map<Long, Block> treeBlocks = new HashMap<>();
+    private WoodcuttingManager woodcuttingManager;
+    private MethodHandle processTree;
+    private BlockState bottomLog;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        World world = MMOTestEnvironment.createWorld("benchmark_tree_feller_" + trunkHeight);
+        woodcuttingManager = MMOTestEnvironment.createPlayer("TreeFellerBenchmark" + trunkHeight, world, new ItemStack(Material.DIAMOND_AXE)).getWoodcuttingManager();
+
+        Method method = WoodcuttingManager.class.getDeclaredMethod("processTree", BlockState.class);
+        method.setAccessible(true);
+        processTree = MethodHandles.lookup().unreflect(method);
+
+        int topY = BASE_Y + trunkHeight - 1;
+
+        // Canopy, wide and flat around the top of the trunk
+        for (int dy = -2; dy <= 2; dy++) {
+            int radius = dy <= 0 ? 5 : 4 - dy;
+
+            for (int x = -radius; x <= radius + 1; x++) {
+                for (int z = -radius; z <= radius + 1; z++) {
+                    double dx = x - 0.5;
+                    double dz = z - 0.5;
+
+                    if (dx * dx + dz * dz <= (radius + 0.5) * (radius + 0.5)) {
+                        addBlock(world, x, topY + dy, z, Material.DARK_OAK_LEAVES);
+                    }
+                }
+            }
+        }
+
+        // Branches, three logs long, turning a quarter each time
+        int[][] branchDirections = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}};
+
+        for (int y = BASE_Y + 4, branch = 0; y < topY - 2; y += 4, branch++) {
+            int[] direction = branchDirections[branch & 3];
+
+            for (int length = 1; length <= 3; length++) {
+                addBlock(world, (direction[0] > 0 ? 1 : 0) + direction[0] * length, y + length / 2, (direction[1] > 0 ? 1 : 0) + direction[1] * length, Material.DARK_OAK_LOG);
+            }
+        }
+
+        // Trunk
+        for (int y = BASE_Y; y <= topY; y++) {
+            for (int x = 0; x <= 1; x++) {
+                for (int z = 0; z <= 1; z++) {
+                    addBlock(world, x, y, z, Material.DARK_OAK_LOG);
+                }
+            }
+        }
+
+        Block air = mock(Block.class, withSettings().stubOnly());
+        when(air.getType()).thenReturn(Material.AIR);
+        when(world.getBlockAt(anyInt(), anyInt(), anyInt())).thenAnswer(invocation -> treeBlocks.getOrDefault(BlockUtils.packBlockPosition(
+                invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)), air));
+
+        bottomLog = treeBlocks.get(BlockUtils.packBlockPosition(0, BASE_Y, 0)).getState();
+    }
+
+    @Benchmark
+    public WoodcuttingManager processTree() throws Throwable {
+        processTree.invoke(woodcuttingManager, bottomLog);
+        return woodcuttingManager;
+    }
+
+    private void addBlock(World world, int x, int y, int z, Material type) {
+        Block block = mock(Block.class, withSettings().stubOnly());
+        BlockState blockState = mock(BlockState.class, withSettings().stubOnly());
+
+        when(block.getType()).thenReturn(type);
+        when(block.getWorld()).thenReturn(world);
+        when(block.getX()).thenReturn(x);
+        when(block.getY()).thenReturn(y);
+        when(block.getZ()).thenReturn(z);
+        when(block.getState()).thenReturn(blockState);
+        when(blockState.getType()).thenReturn(type);
+        when(blockState.getWorld()).thenReturn(world);
+        when(blockState.getX()).thenReturn(x);
+        when(blockState.getY()).thenReturn(y);
+        when(blockState.getZ()).thenReturn(z);
+        when(blockState.getBlock()).thenReturn(block);
+        treeBlocks.put(BlockUtils.packBlockPosition(x, y, z), block);
+    }
+}
@@ -0,0 +1,33 @@
+package com.gmail.nossr50.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Packing block coordinates into a long and reading them back
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockPositionBenchmark {
+    private int x = -29999984;
+    private int y = 0;
+    private int z = 29999984;
+
+    @Benchmark
+    public long pack() {
+        y = (y + 1) & 0xFF;
+        return BlockUtils.packBlockPosition(x, y, z);
+    }
+
+    @Benchmark
+    public int packAndUnpack() {
+        y = (y + 1) & 0xFF;
+        long packedPosition = BlockUtils.packBlockPosition(x, y, z);
+        return BlockUtils.unpackBlockX(packedPosition) + BlockUtils.unpackBlockY(packedPosition) + BlockUtils.unpackBlockZ(packedPosition);
+    }
+}
@@ -0,0 +1,128 @@
+package com.gmail.nossr50.util;
+
+import com.gmail.nossr50.MMOTestEnvironment;
+import com.gmail.nossr50.config.Config;
+import com.gmail.nossr50.config.mods.CustomBlockConfig;
+import com.gmail.nossr50.config.mods.CustomToolConfig;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Checking materials against 1,000 custom blocks and tools, as a large modpack registers them, against the membership lists
+ * the mod manager used to search
+ * 700 materials are spread over the seven block lists and 300 over the six tool lists, and every material is checked.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModManagerBenchmark {
+    private static final int CUSTOM_BLOCKS = 700;
+    private static final int CUSTOM_TOOLS = 300;
+
+    private ModManager modManager;
+    private CustomBlockConfig blockConfig;
+    private CustomToolConfig toolConfig;
+    private Material[] materials;
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        MMOTestEnvironment.setConfigValue("Mods.Tool_Mods_Enabled", true);
+        MMOTestEnvironment.setConfigValue("Mods.Block_Mods_Enabled", true);
+
+        List<Material> modernMaterials = new ArrayList<>();
+
+        for (Material material : Material.values()) {
+            if (!material.isLegacy()) {
+                modernMaterials.add(material);
+            }
+        }
+
+        materials = modernMaterials.toArray(new Material[0]);
+
+        // Mocked so the configs have their lists without reading a file, the lists are filled in here
+        blockConfig = mock(CustomBlockConfig.class);
+        blockConfig.customExcavationBlocks = new ArrayList<>();
+        blockConfig.customHerbalismBlocks = new ArrayList<>();
+        blockConfig.customMiningBlocks = new ArrayList<>();
+        blockConfig.customOres = new ArrayList<>();
+        blockConfig.customLogs = new ArrayList<>();
+        blockConfig.customLeaves = new ArrayList<>();
+        blockConfig.customAbilityBlocks = new ArrayList<>();
+        blockConfig.customBlockMap = new HashMap<>();
+
+        List<List<Material>> blockLists = new ArrayList<>();
+        blockLists.add(blockConfig.customExcavationBlocks);
+        blockLists.add(blockConfig.customHerbalismBlocks);
+        blockLists.add(blockConfig.customMiningBlocks);
+        blockLists.add(blockConfig.customOres);
+        blockLists.add(blockConfig.customLogs);
+        blockLists.add(blockConfig.customLeaves);
+        blockLists.add(blockConfig.customAbilityBlocks);
+
+        toolConfig = mock(CustomToolConfig.class);
+        toolConfig.customAxes = new ArrayList<>();
+        toolConfig.customBows = new ArrayList<>();
+        toolConfig.customHoes = new ArrayList<>();
+        toolConfig.customPickaxes = new ArrayList<>();
+        toolConfig.customShovels = new ArrayList<>();
+        toolConfig.customSwords = new ArrayList<>();
+        toolConfig.customToolMap = new HashMap<>();
+        toolConfig.repairables = new ArrayList<>();
+
+        List<List<Material>> toolLists = new ArrayList<>();
+        toolLists.add(toolConfig.customAxes);
+        toolLists.add(toolConfig.customBows);
+        toolLists.add(toolConfig.customHoes);
+        toolLists.add(toolConfig.customPickaxes);
+        toolLists.add(toolConfig.customShovels);
+        toolLists.add(toolConfig.customSwords);
+
+        for (int i = 0; i < CUSTOM_BLOCKS; i++) {
+            blockLists.get(i % blockLists.size()).add(materials[i]);
+        }
+
+        for (int i = 0; i < CUSTOM_TOOLS; i++) {
+            toolLists.get(i % toolLists.size()).add(materials[CUSTOM_BLOCKS + i]);
+        }
+
+        modManager = new ModManager();
+        modManager.registerCustomBlocks(blockConfig);
+        modManager.registerCustomTools(toolConfig);
+    }
+
+    @Benchmark
+    public boolean isCustomOre() {
+        return modManager.isCustomOre(nextMaterial());
+    }
+
+    @Benchmark
+    public boolean isCustomOreList() {
+        return Config.getInstance().getBlockModsEnabled() && blockConfig.customOres.contains(nextMaterial());
+    }
+
+    @Benchmark
+    public boolean isCustomPickaxe() {
+        return modManager.isCustomPickaxe(nextMaterial());
+    }
+
+    @Benchmark
+    public boolean isCustomPickaxeList() {
+        return Config.getInstance().getToolModsEnabled() && toolConfig.customPickaxes.contains(nextMaterial());
+    }
+
+    private Material nextMaterial() {
+        index = index + 1 == materials.length ? 0 : index + 1;
+        return materials[index];
+    }
+}
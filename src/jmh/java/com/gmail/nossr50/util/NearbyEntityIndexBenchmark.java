@@ -0,0 +1,168 @@
+package com.gmail.nossr50.util;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Zombie;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * One tick of Serrated Strikes sized lookups in a mob farm, against the getNearbyEntities scan they replaced
+ * The mobs are packed into a 2x2 chunk pen. The baseline copies each chunk's entity array and allocates a location per
+ * entity, like CraftBukkit does, then filters for living entities the way mcMMO used to. Both sides call the same
+ * mocked entities, so the mock overhead is shared and the difference is the work each lookup repeats.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearbyEntityIndexBenchmark {
+    private static final int LOOKUPS_PER_TICK = 32;
+    private static final double RANGE = 2.5;
+
+    @Param({"100", "1000"})
+    public int mobs;
+
+    private final NearbyEntityIndex nearbyEntityIndex = new NearbyEntityIndex();
+    private final Map<Long, Chunk> chunks = new HashMap<>();
+    private World world;
+    private LivingEntity[] livingEntities;
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        Map<Long, List<Entity>> entitiesByChunk = new HashMap<>();
+        world = mock(World.class, withSettings().stubOnly());
+        livingEntities = new LivingEntity[mobs];
+
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        when(world.isChunkLoaded(anyInt(), anyInt())).thenReturn(true);
+
+        for (int i = 0; i < mobs; i++) {
+            double x = random.nextDouble() * 32;
+            double y = 64 + random.nextInt(3);
+            double z = random.nextDouble() * 32;
+            LivingEntity livingEntity = mock(Zombie.class, withSettings().stubOnly());
+
+            when(livingEntity.getWorld()).thenReturn(world);
+            when(livingEntity.isValid()).thenReturn(true);
+            when(livingEntity.getWidth()).thenReturn(0.6);
+            when(livingEntity.getHeight()).thenReturn(1.95);
+            when(livingEntity.getLocation()).thenAnswer(invocation -> new Location(world, x, y, z));
+            when(livingEntity.getLocation(any(Location.class))).thenAnswer(invocation -> {
+                Location location = invocation.getArgument(0);
+                location.setX(x);
+                location.setY(y);
+                location.setZ(z);
+                return location;
+            });
+
+            livingEntities[i] = livingEntity;
+            entitiesByChunk.computeIfAbsent(chunkKey((int) x >> 4, (int) z >> 4), key -> new ArrayList<>()).add(livingEntity);
+        }
+
+        for (int chunkX = -1; chunkX <= 2; chunkX++) {
+            for (int chunkZ = -1; chunkZ <= 2; chunkZ++) {
+                Chunk chunk = mock(Chunk.class, withSettings().stubOnly());
+                Entity[] chunkEntities = entitiesByChunk.getOrDefault(chunkKey(chunkX, chunkZ), Collections.emptyList()).toArray(new Entity[0]);
+
+                when(chunk.getEntities()).thenAnswer(invocation -> chunkEntities.clone());
+                when(world.getChunkAt(chunkX, chunkZ)).thenReturn(chunk);
+                chunks.put(chunkKey(chunkX, chunkZ), chunk);
+            }
+        }
+    }
+
+    @Benchmark
+    public void nearbyEntityIndex(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS_PER_TICK; i++) {
+            blackhole.consume(nearbyEntityIndex.getNearbyLivingEntities(nextMob(), RANGE, RANGE, RANGE));
+        }
+
+        nearbyEntityIndex.invalidate();
+    }
+
+    @Benchmark
+    public void getNearbyEntities(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS_PER_TICK; i++) {
+            List<LivingEntity> nearbyLivingEntities = new ArrayList<>();
+
+            for (Entity entity : getNearbyEntities(nextMob(), RANGE, RANGE, RANGE)) {
+                if (entity instanceof LivingEntity && entity.isValid()) {
+                    nearbyLivingEntities.add((LivingEntity) entity);
+                }
+            }
+
+            blackhole.consume(nearbyLivingEntities);
+        }
+    }
+
+    private LivingEntity nextMob() {
+        index = index + 1 == mobs ? 0 : index + 1;
+        return livingEntities[index];
+    }
+
+    /**
+     * What the server does for {@link Entity#getNearbyEntities(double, double, double)}, every entity in the chunks the
+     * box touches is copied out and tested against it
+     */
+    private List<Entity> getNearbyEntities(Entity center, double rangeX, double rangeY, double rangeZ) {
+        List<Entity> nearbyEntities = new ArrayList<>();
+        Location centerLocation = center.getLocation();
+        double centerHalfWidth = center.getWidth() / 2;
+        double centerHeight = center.getHeight();
+        int minChunkX = ((int) Math.floor(centerLocation.getX() - centerHalfWidth - rangeX - 2)) >> 4;
+        int maxChunkX = ((int) Math.floor(centerLocation.getX() + centerHalfWidth + rangeX + 2)) >> 4;
+        int minChunkZ = ((int) Math.floor(centerLocation.getZ() - centerHalfWidth - rangeZ - 2)) >> 4;
+        int maxChunkZ = ((int) Math.floor(centerLocation.getZ() + centerHalfWidth + rangeZ + 2)) >> 4;
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                Chunk chunk = chunks.get(chunkKey(chunkX, chunkZ));
+
+                if (chunk == null) {
+                    continue;
+                }
+
+                for (Entity entity : chunk.getEntities()) {
+                    if (entity == center) {
+                        continue;
+                    }
+
+                    Location location = entity.getLocation();
+                    double halfWidth = entity.getWidth() / 2;
+
+                    if (Math.abs(location.getX() - centerLocation.getX()) > rangeX + centerHalfWidth + halfWidth
+                            || Math.abs(location.getZ() - centerLocation.getZ()) > rangeZ + centerHalfWidth + halfWidth) {
+                        continue;
+                    }
+
+                    if (location.getY() > centerLocation.getY() + centerHeight + rangeY || location.getY() + entity.getHeight() < centerLocation.getY() - rangeY) {
+                        continue;
+                    }
+
+                    nearbyEntities.add(entity);
+                }
+            }
+        }
+
+        return nearbyEntities;
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+}
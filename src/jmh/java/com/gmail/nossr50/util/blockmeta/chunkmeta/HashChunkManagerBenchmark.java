@@ -0,0 +1,68 @@
+package com.gmail.nossr50.util.blockmeta.chunkmeta;
+
+import com.gmail.nossr50.MMOTestEnvironment;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking up whether a block was placed by a player, across a 4x4 chunk area that is already loaded
+ * Every block listener asks this, so it is paid on every block break in the world.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashChunkManagerBenchmark {
+    private static final int AREA = 64;
+    private static final int POSITIONS = 4096;
+
+    // How many of the blocks in the area were placed by players, in percent
+    @Param({"5", "50"})
+    public int placedPercent;
+
+    private HashChunkManager chunkManager;
+    private World world;
+    private final int[] xs = new int[POSITIONS];
+    private final int[] ys = new int[POSITIONS];
+    private final int[] zs = new int[POSITIONS];
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        world = MMOTestEnvironment.createWorld("benchmark_chunks_" + placedPercent);
+        chunkManager = new HashChunkManager();
+        Random random = new Random(42);
+
+        for (int x = 0; x < AREA; x++) {
+            for (int z = 0; z < AREA; z++) {
+                for (int y = 60; y < 70; y++) {
+                    if (random.nextInt(100) < placedPercent) {
+                        chunkManager.setTrue(x, y, z, world);
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < POSITIONS; i++) {
+            xs[i] = random.nextInt(AREA);
+            ys[i] = 60 + random.nextInt(10);
+            zs[i] = random.nextInt(AREA);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        chunkManager.closeAll();
+    }
+
+    @Benchmark
+    public boolean isTrue() {
+        index = (index + 1) & (POSITIONS - 1);
+        return chunkManager.isTrue(xs[index], ys[index], zs[index], world);
+    }
+}
@@ -0,0 +1,65 @@
+package com.gmail.nossr50.util.random;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drawing from an alias table against the cumulative dice roll it replaced for fishing and Shake treasures
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AliasTableBenchmark {
+    @Param({"4", "16", "64"})
+    private int outcomes;
+
+    private double[] weights;
+    private double totalWeight;
+    private AliasTable aliasTable;
+    private Random random;
+
+    @Setup
+    public void setup() {
+        Random weightRandom = new Random(42);
+        weights = new double[outcomes];
+        totalWeight = 0;
+
+        for (int i = 0; i < outcomes; i++) {
+            weights[i] = weightRandom.nextDouble() * 100;
+            totalWeight += weights[i];
+        }
+
+        aliasTable = new AliasTable(weights);
+        random = new Random(1234);
+    }
+
+    @Benchmark
+    public int aliasTable() {
+        return aliasTable.sample(random);
+    }
+
+    @Benchmark
+    public int cumulativeRoll() {
+        double diceRoll = random.nextDouble() * totalWeight;
+
+        for (int i = 0; i < weights.length; i++) {
+            if (diceRoll <= weights[i]) {
+                return i;
+            }
+
+            diceRoll -= weights[i];
+        }
+
+        return weights.length - 1;
+    }
+
+    @Benchmark
+    public AliasTable build() {
+        return new AliasTable(weights);
+    }
+}
@@ -0,0 +1,58 @@
+package com.gmail.nossr50.util.random;
+
+import com.gmail.nossr50.datatypes.skills.SubSkillType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking up a precomputed proc chance against working it out from the linear curve on every call
+ * The settings are the advanced.yml defaults for a standard mode subskill, so no server is needed
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubSkillChanceTablesBenchmark {
+    private static final double PROBABILITY_CAP = 100;
+    private static final int MAX_BONUS_LEVEL = 100;
+    private static final int LEVELS = 1024;
+
+    private SubSkillChanceTables tables;
+    private final int[] skillLevels = new int[LEVELS];
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        tables = new SubSkillChanceTables(false, subSkillType -> PROBABILITY_CAP, subSkillType -> MAX_BONUS_LEVEL, subSkillType -> Double.NaN);
+        Random random = new Random(42);
+
+        for (int i = 0; i < LEVELS; i++) {
+            skillLevels[i] = random.nextInt(MAX_BONUS_LEVEL * 2);
+        }
+    }
+
+    @Benchmark
+    public double table() {
+        return tables.getLinearChance(SubSkillType.MINING_DOUBLE_DROPS, nextSkillLevel());
+    }
+
+    @Benchmark
+    public double linearCurve() {
+        int skillLevel = nextSkillLevel();
+
+        if (skillLevel >= MAX_BONUS_LEVEL) {
+            return PROBABILITY_CAP;
+        }
+
+        return (int) (PROBABILITY_CAP * ((double) skillLevel / MAX_BONUS_LEVEL));
+    }
+
+    private int nextSkillLevel() {
+        index = (index + 1) & (LEVELS - 1);
+        return skillLevels[index];
+    }
+}
@@ -0,0 +1,165 @@
+package com.gmail.nossr50.worldguard;
+
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.bukkit.WorldGuardPlugin;
+import com.sk89q.worldguard.internal.platform.WorldGuardPlatform;
+import com.sk89q.worldguard.protection.RegionResultSet;
+import com.sk89q.worldguard.protection.flags.StateFlag;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.RegionContainer;
+import com.sk89q.worldguard.protection.regions.RegionQuery;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.mockito.MockedStatic;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testing the mcMMO flag for players standing around a spawn packed with overlapping cuboid regions
+ * WorldGuard is mocked; its region manager is a list of real cuboids bucketed per chunk like WorldGuard's own index, and a
+ * query returns the flag of the highest priority region at the location. The uncached baseline is the query every
+ * hasMainFlag call made before the cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldGuardFlagCacheBenchmark {
+    private static final int SPAWN_RADIUS = 256;
+    private static final int PLAYERS = 256;
+
+    @Param({"200", "2000"})
+    public int regions;
+
+    private final Map<Long, List<ProtectedRegion>> regionsByChunk = new HashMap<>();
+    private final Player[] players = new Player[PLAYERS];
+    private final List<MockedStatic<?>> staticMocks = new ArrayList<>();
+    private WorldGuardFlagCache flagCache;
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        World world = mock(World.class);
+        com.sk89q.worldedit.world.World adaptedWorld = mock(com.sk89q.worldedit.world.World.class);
+
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        when(world.getMaxHeight()).thenReturn(256);
+
+        for (int i = 0; i < regions; i++) {
+            int x = random.nextInt(SPAWN_RADIUS * 2) - SPAWN_RADIUS;
+            int z = random.nextInt(SPAWN_RADIUS * 2) - SPAWN_RADIUS;
+            ProtectedRegion region = new ProtectedCuboidRegion("region_" + i, BlockVector3.at(x, 0, z),
+                    BlockVector3.at(x + 8 + random.nextInt(56), 255, z + 8 + random.nextInt(56)));
+
+            region.setPriority(random.nextInt(10));
+            region.setFlag(WorldGuardFlags.MCMMO_ENABLE_WG_FLAG, random.nextBoolean() ? StateFlag.State.ALLOW : StateFlag.State.DENY);
+
+            for (int chunkX = region.getMinimumPoint().getBlockX() >> 4; chunkX <= region.getMaximumPoint().getBlockX() >> 4; chunkX++) {
+                for (int chunkZ = region.getMinimumPoint().getBlockZ() >> 4; chunkZ <= region.getMaximumPoint().getBlockZ() >> 4; chunkZ++) {
+                    regionsByChunk.computeIfAbsent(chunkKey(chunkX, chunkZ), key -> new ArrayList<>()).add(region);
+                }
+            }
+        }
+
+        for (int i = 0; i < PLAYERS; i++) {
+            Player player = mock(Player.class);
+            Location location = new Location(world, random.nextInt(SPAWN_RADIUS * 2) - SPAWN_RADIUS + 0.5, 64, random.nextInt(SPAWN_RADIUS * 2) - SPAWN_RADIUS + 0.5);
+
+            when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+            when(player.getLocation()).thenReturn(location);
+            players[i] = player;
+        }
+
+        RegionManager regionManager = mock(RegionManager.class);
+        RegionContainer regionContainer = mock(RegionContainer.class);
+        RegionQuery regionQuery = mock(RegionQuery.class);
+        WorldGuardPlatform platform = mock(WorldGuardPlatform.class);
+        WorldGuard worldGuard = mock(WorldGuard.class);
+
+        when(regionManager.getApplicableRegions(any(ProtectedRegion.class))).thenAnswer(invocation -> {
+            ProtectedRegion chunkRegion = invocation.getArgument(0);
+            List<ProtectedRegion> applicable = regionsByChunk.getOrDefault(chunkKey(chunkRegion.getMinimumPoint().getBlockX() >> 4,
+                    chunkRegion.getMinimumPoint().getBlockZ() >> 4), Collections.emptyList());
+            return new RegionResultSet(applicable, null);
+        });
+        when(regionQuery.testState(any(com.sk89q.worldedit.util.Location.class), any(), any(StateFlag.class))).thenAnswer(invocation -> {
+            com.sk89q.worldedit.util.Location location = invocation.getArgument(0);
+            return testState(location.toVector().toBlockPoint(), invocation.getArgument(2));
+        });
+        when(regionContainer.get(adaptedWorld)).thenReturn(regionManager);
+        when(regionContainer.createQuery()).thenReturn(regionQuery);
+        when(platform.getRegionContainer()).thenReturn(regionContainer);
+        when(worldGuard.getPlatform()).thenReturn(platform);
+
+        // Static mocks only apply to this thread, which is the one running the benchmark for thread scoped state
+        MockedStatic<WorldGuard> worldGuardStatic = mockStatic(WorldGuard.class);
+        MockedStatic<WorldGuardPlugin> worldGuardPluginStatic = mockStatic(WorldGuardPlugin.class);
+        MockedStatic<BukkitAdapter> bukkitAdapterStatic = mockStatic(BukkitAdapter.class);
+
+        worldGuardStatic.when(WorldGuard::getInstance).thenReturn(worldGuard);
+        worldGuardPluginStatic.when(WorldGuardPlugin::inst).thenReturn(mock(WorldGuardPlugin.class));
+        bukkitAdapterStatic.when(() -> BukkitAdapter.adapt(any(World.class))).thenReturn(adaptedWorld);
+        bukkitAdapterStatic.when(() -> BukkitAdapter.adapt(any(Location.class))).thenAnswer(invocation -> {
+            Location location = invocation.getArgument(0);
+            return new com.sk89q.worldedit.util.Location(adaptedWorld, location.getX(), location.getY(), location.getZ());
+        });
+        staticMocks.add(worldGuardStatic);
+        staticMocks.add(worldGuardPluginStatic);
+        staticMocks.add(bukkitAdapterStatic);
+
+        flagCache = new WorldGuardFlagCache(WorldGuardFlags.MCMMO_ENABLE_WG_FLAG, WorldGuardFlags.MCMMO_XP_WG_FLAG,
+                WorldGuardFlags.MCMMO_HARDCORE_WG_FLAG);
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (MockedStatic<?> staticMock : staticMocks) {
+            staticMock.close();
+        }
+    }
+
+    @Benchmark
+    public boolean cachedTestState() {
+        return flagCache.testState(nextPlayer(), WorldGuardFlags.MCMMO_ENABLE_WG_FLAG);
+    }
+
+    @Benchmark
+    public boolean uncachedQuery() {
+        Player player = nextPlayer();
+        RegionQuery query = WorldGuard.getInstance().getPlatform().getRegionContainer().createQuery();
+        return query.testState(BukkitAdapter.adapt(player.getLocation()), WorldGuardPlugin.inst().wrapPlayer(player), WorldGuardFlags.MCMMO_ENABLE_WG_FLAG);
+    }
+
+    private Player nextPlayer() {
+        return players[index++ & (PLAYERS - 1)];
+    }
+
+    private boolean testState(BlockVector3 position, StateFlag flag) {
+        ProtectedRegion highest = null;
+
+        for (ProtectedRegion region : regionsByChunk.getOrDefault(chunkKey(position.getBlockX() >> 4, position.getBlockZ() >> 4), Collections.emptyList())) {
+            if (region.contains(position) && region.getFlag(flag) != null && (highest == null || region.getPriority() > highest.getPriority())) {
+                highest = region;
+            }
+        }
+
+        return highest == null ? flag.getDefault() == StateFlag.State.ALLOW : highest.getFlag(flag) == StateFlag.State.ALLOW;
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+}
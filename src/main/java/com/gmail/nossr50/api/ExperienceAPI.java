@@ -1145,7 +1145,7 @@ public final class ExperienceAPI {
     }
 
     private static PlayerProfile getOfflineProfile(UUID uuid) {
-        PlayerProfile profile = mcMMO.getDatabaseManager().loadPlayerProfile(uuid);
+        PlayerProfile profile = mcMMO.getOfflineProfileCache().loadProfile(uuid);
 
         if (!profile.isLoaded()) {
             throw new InvalidPlayerException();
@@ -1157,7 +1157,7 @@ public final class ExperienceAPI {
     @Deprecated
     private static PlayerProfile getOfflineProfile(String playerName) {
         UUID uuid = mcMMO.p.getServer().getOfflinePlayer(playerName).getUniqueId();
-        PlayerProfile profile = mcMMO.getDatabaseManager().loadPlayerProfile(uuid);
+        PlayerProfile profile = mcMMO.getOfflineProfileCache().loadProfile(uuid);
 
         if (!profile.isLoaded()) {
             throw new InvalidPlayerException();
@@ -3,6 +3,7 @@ package com.gmail.nossr50.commands;
 import com.gmail.nossr50.config.Config;
 import com.gmail.nossr50.database.FlatfileDatabaseManager;
 import com.gmail.nossr50.database.SQLDatabaseManager;
+import com.gmail.nossr50.database.SQLiteDatabaseManager;
 import com.gmail.nossr50.datatypes.player.McMMOPlayer;
 import com.gmail.nossr50.mcMMO;
 import com.gmail.nossr50.util.player.UserManager;
@@ -21,6 +22,17 @@ public class MHDCommand implements TabExecutor {
         if (mcMMO.getDatabaseManager() instanceof SQLDatabaseManager) {
             SQLDatabaseManager m = (SQLDatabaseManager) mcMMO.getDatabaseManager();
             m.resetMobHealthSettings();
+            mcMMO.getOfflineProfileCache().clear();
+            for (McMMOPlayer player : UserManager.getPlayers()) {
+                player.getProfile().setMobHealthbarType(Config.getInstance().getMobHealthbarDefault());
+            }
+            sender.sendMessage("Mob health reset");
+            return true;
+        }
+        if (mcMMO.getDatabaseManager() instanceof SQLiteDatabaseManager) {
+            SQLiteDatabaseManager m = (SQLiteDatabaseManager) mcMMO.getDatabaseManager();
+            m.resetMobHealthSettings();
+            mcMMO.getOfflineProfileCache().clear();
             for (McMMOPlayer player : UserManager.getPlayers()) {
                 player.getProfile().setMobHealthbarType(Config.getInstance().getMobHealthbarDefault());
             }
@@ -30,6 +42,7 @@ public class MHDCommand implements TabExecutor {
         if (mcMMO.getDatabaseManager() instanceof FlatfileDatabaseManager) {
             FlatfileDatabaseManager m = (FlatfileDatabaseManager) mcMMO.getDatabaseManager();
             m.resetMobHealthSettings();
+            mcMMO.getOfflineProfileCache().clear();
             for (McMMOPlayer player : UserManager.getPlayers()) {
                 player.getProfile().setMobHealthbarType(Config.getInstance().getMobHealthbarDefault());
             }
@@ -1,5 +1,7 @@
 package com.gmail.nossr50.commands;
 
+import com.gmail.nossr50.commands.admin.LoadTestCommand;
+import com.gmail.nossr50.commands.admin.TimingsCommand;
 import com.gmail.nossr50.commands.party.PartySubcommandType;
 import com.gmail.nossr50.config.Config;
 import com.gmail.nossr50.locale.LocaleLoader;
@@ -12,8 +14,19 @@ import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.NotNull;
 
 public class McmmoCommand implements CommandExecutor {
+    private final CommandExecutor timingsCommand = new TimingsCommand();
+    private final CommandExecutor loadTestCommand = new LoadTestCommand();
+
     @Override
     public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, String[] args) {
+        if (args.length > 0 && args[0].equalsIgnoreCase("timings")) {
+            return timingsCommand.onCommand(sender, command, label, args);
+        }
+
+        if (args.length > 0 && args[0].equalsIgnoreCase("loadtest")) {
+            return loadTestCommand.onCommand(sender, command, label, args);
+        }
+
         switch (args.length) {
             case 0:
                 if (!Permissions.mcmmoDescription(sender)) {
@@ -0,0 +1,58 @@
+package com.gmail.nossr50.commands.admin;
+
+import com.gmail.nossr50.locale.LocaleLoader;
+import com.gmail.nossr50.runnables.database.DatabaseLoadTestTask;
+import com.gmail.nossr50.util.Permissions;
+import com.gmail.nossr50.util.commands.CommandUtils;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Handles /mcmmo loadtest, replaying a scripted workload of synthetic players against the database
+ */
+public class LoadTestCommand implements CommandExecutor {
+    private static final int MAX_PLAYERS = 9999;
+    private static final int MAX_SECONDS = 3600;
+    private static final int MAX_OPERATIONS_PER_SECOND = 10000;
+    private static final long DEFAULT_SEED = 0;
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, String[] args) {
+        if (!Permissions.mcmmoLoadTest(sender)) {
+            sender.sendMessage(command.getPermissionMessage());
+            return true;
+        }
+
+        if (args.length != 4 && args.length != 5) {
+            sender.sendMessage(LocaleLoader.getString("Commands.LoadTest.Usage"));
+            return true;
+        }
+
+        for (int i = 1; i < args.length; i++) {
+            if (CommandUtils.isInvalidInteger(sender, args[i])) {
+                return true;
+            }
+        }
+
+        int players = Integer.parseInt(args[1]);
+        int seconds = Integer.parseInt(args[2]);
+        int operationsPerSecond = Integer.parseInt(args[3]);
+        long seed = args.length == 5 ? Integer.parseInt(args[4]) : DEFAULT_SEED;
+
+        if (players < 1 || players > MAX_PLAYERS || seconds < 1 || seconds > MAX_SECONDS
+                || operationsPerSecond < 1 || operationsPerSecond > MAX_OPERATIONS_PER_SECOND) {
+            sender.sendMessage(LocaleLoader.getString("Commands.LoadTest.Limits", MAX_PLAYERS, MAX_SECONDS, MAX_OPERATIONS_PER_SECOND));
+            return true;
+        }
+
+        if (!DatabaseLoadTestTask.start(sender, players, seconds, operationsPerSecond, seed)) {
+            sender.sendMessage(LocaleLoader.getString("Commands.LoadTest.Running"));
+            return true;
+        }
+
+        sender.sendMessage(LocaleLoader.getString("Commands.LoadTest.Start", players, seconds, operationsPerSecond, seed));
+        return true;
+    }
+}
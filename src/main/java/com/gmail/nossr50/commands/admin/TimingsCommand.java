@@ -0,0 +1,159 @@
+package com.gmail.nossr50.commands.admin;
+
+import com.gmail.nossr50.database.ProfileSaveQueue;
+import com.gmail.nossr50.database.SQLConnectionPool;
+import com.gmail.nossr50.database.SQLDatabaseManager;
+import com.gmail.nossr50.database.SQLDatabaseManager.PoolIdentifier;
+import com.gmail.nossr50.locale.LocaleLoader;
+import com.gmail.nossr50.mcMMO;
+import com.gmail.nossr50.runnables.TimingsExportTask;
+import com.gmail.nossr50.runnables.skills.AbilityWorkQueueTask;
+import com.gmail.nossr50.util.LatencyHistogram;
+import com.gmail.nossr50.util.Permissions;
+import com.gmail.nossr50.util.metrics.MetricCounter;
+import com.gmail.nossr50.util.metrics.MetricsRegistry;
+import com.gmail.nossr50.util.metrics.TimedOperation;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handles /mcmmo timings, showing what mcMMO spends its time on
+ */
+public class TimingsCommand implements CommandExecutor {
+    private static final int MAX_HANDLERS_SHOWN = 10;
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, String[] args) {
+        if (!Permissions.mcmmoTimings(sender)) {
+            sender.sendMessage(command.getPermissionMessage());
+            return true;
+        }
+
+        MetricsRegistry metricsRegistry = mcMMO.getMetricsRegistry();
+
+        if (args.length == 1) {
+            displayTimings(sender, metricsRegistry);
+            return true;
+        }
+
+        if (args.length != 2) {
+            sender.sendMessage(LocaleLoader.getString("Commands.Timings.Usage"));
+            return true;
+        }
+
+        switch (args[1].toLowerCase(Locale.ENGLISH)) {
+            case "on":
+                metricsRegistry.setEnabled(true);
+                sender.sendMessage(LocaleLoader.getString("Commands.Timings.On"));
+                return true;
+
+            case "off":
+                metricsRegistry.setEnabled(false);
+                sender.sendMessage(LocaleLoader.getString("Commands.Timings.Off"));
+                return true;
+
+            case "reset":
+                metricsRegistry.reset();
+                sender.sendMessage(LocaleLoader.getString("Commands.Timings.Reset"));
+                return true;
+
+            case "export":
+                new TimingsExportTask(sender).runTaskAsynchronously(mcMMO.p);
+                return true;
+
+            default:
+                sender.sendMessage(LocaleLoader.getString("Commands.Timings.Usage"));
+                return true;
+        }
+    }
+
+    private void displayTimings(CommandSender sender, MetricsRegistry metricsRegistry) {
+        sender.sendMessage(LocaleLoader.getString("Commands.Timings.Header"));
+
+        if (!metricsRegistry.isEnabled()) {
+            sender.sendMessage(LocaleLoader.getString("Commands.Timings.Disabled"));
+        }
+
+        sender.sendMessage(LocaleLoader.getString("Commands.Timings.Sampling", metricsRegistry.getSampleRate()));
+        sender.sendMessage(LocaleLoader.getString("Commands.Timings.Handlers"));
+
+        if (!metricsRegistry.isTimingHandlers()) {
+            sender.sendMessage(LocaleLoader.getString("Commands.Timings.NoHandlers"));
+        }
+        else {
+            // Slowest first, by the total time spent in each handler
+            List<Map.Entry<String, LatencyHistogram>> handlerTimings = new ArrayList<>(metricsRegistry.getHandlerTimings().entrySet());
+            handlerTimings.removeIf(entry -> entry.getValue().getCount() == 0);
+            handlerTimings.sort((a, b) -> Long.compare(b.getValue().getTotalNanos(), a.getValue().getTotalNanos()));
+
+            for (Map.Entry<String, LatencyHistogram> entry : handlerTimings.subList(0, Math.min(MAX_HANDLERS_SHOWN, handlerTimings.size()))) {
+                sender.sendMessage(formatEntry(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        sender.sendMessage(LocaleLoader.getString("Commands.Timings.Operations"));
+
+        for (TimedOperation operation : TimedOperation.values()) {
+            LatencyHistogram histogram = metricsRegistry.getTiming(operation);
+
+            if (histogram.getCount() > 0) {
+                sender.sendMessage(formatEntry(operation.getMetricName(), histogram));
+            }
+        }
+
+        for (MetricCounter counter : MetricCounter.values()) {
+            sender.sendMessage(LocaleLoader.getString("Commands.Timings.Counter", counter.getMetricName(), metricsRegistry.getCount(counter)));
+        }
+
+        sender.sendMessage(LocaleLoader.getString("Commands.Timings.Queues"));
+
+        ProfileSaveQueue profileSaveQueue = mcMMO.getProfileSaveQueue();
+
+        if (profileSaveQueue != null) {
+            sender.sendMessage(LocaleLoader.getString("Commands.Timings.SaveQueue", profileSaveQueue.getQueueDepth(), profileSaveQueue.getPeakQueueDepth(),
+                    profileSaveQueue.getSavedProfiles(), profileSaveQueue.getFailedSaves(), profileSaveQueue.getCoalescedSaves()));
+        }
+
+        AbilityWorkQueueTask abilityWorkQueue = mcMMO.getAbilityWorkQueue();
+
+        if (abilityWorkQueue != null) {
+            sender.sendMessage(LocaleLoader.getString("Commands.Timings.AbilityQueue", abilityWorkQueue.getQueuedWorkCount(), abilityWorkQueue.getQueuedSteps(),
+                    abilityWorkQueue.getPeakQueuedSteps(), abilityWorkQueue.getStepsProcessedLastTick(), TimeUnit.NANOSECONDS.toMicros(abilityWorkQueue.getNanosSpentLastTick())));
+        }
+
+        if (mcMMO.getDatabaseManager() instanceof SQLDatabaseManager) {
+            displayConnectionPool(sender, ((SQLDatabaseManager) mcMMO.getDatabaseManager()).getConnectionPool());
+        }
+    }
+
+    private void displayConnectionPool(CommandSender sender, SQLConnectionPool connectionPool) {
+        sender.sendMessage(LocaleLoader.getString("Commands.Timings.Pool", connectionPool.getActiveConnections(), connectionPool.getIdleConnections(), connectionPool.getFailedBorrows()));
+
+        for (PoolIdentifier identifier : PoolIdentifier.values()) {
+            String workload = identifier.name().toLowerCase(Locale.ENGLISH);
+            LatencyHistogram borrowLatency = connectionPool.getBorrowLatency(identifier);
+
+            sender.sendMessage(LocaleLoader.getString("Commands.Timings.PoolWorkload", workload, connectionPool.getActiveConnections(identifier),
+                    connectionPool.getMaxConnections(identifier), connectionPool.getWaitingThreads(identifier)));
+
+            if (borrowLatency.getCount() > 0) {
+                sender.sendMessage(formatEntry(workload + "_borrow", borrowLatency));
+            }
+        }
+    }
+
+    private String formatEntry(String name, LatencyHistogram histogram) {
+        return LocaleLoader.getString("Commands.Timings.Entry", name, histogram.getCount(),
+                histogram.getMeanNanos() / 1000.0,
+                histogram.getPercentileNanos(0.99) / 1000.0,
+                histogram.getMaxNanos() / 1000.0);
+    }
+}
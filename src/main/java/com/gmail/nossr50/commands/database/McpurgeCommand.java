@@ -21,6 +21,8 @@ public class McpurgeCommand implements TabExecutor {
                 mcMMO.getDatabaseManager().purgeOldUsers();
             }
 
+            mcMMO.getOfflineProfileCache().clear();
+
             sender.sendMessage(LocaleLoader.getString("Commands.mcpurge.Success"));
             return true;
         }
@@ -22,7 +22,7 @@ public class MmoshowdbCommand implements TabExecutor {
                 return true;
             }
 
-            sender.sendMessage(LocaleLoader.getString("Commands.mmoshowdb", (Config.getInstance().getUseMySQL() ? "sql" : "flatfile")));
+            sender.sendMessage(LocaleLoader.getString("Commands.mmoshowdb", (Config.getInstance().getUseMySQL() ? "sql" : Config.getInstance().getUseSQLite() ? "sqlite" : "flatfile")));
             return true;
         }
         return false;
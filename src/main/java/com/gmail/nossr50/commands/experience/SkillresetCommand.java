@@ -83,7 +83,7 @@ public class SkillresetCommand implements TabExecutor {
                     if (player != null) {
                         uuid = player.getUniqueId();
                     }
-                    PlayerProfile profile = mcMMO.getDatabaseManager().loadPlayerProfile(playerName, uuid, false);
+                    PlayerProfile profile = mcMMO.getOfflineProfileCache().loadProfile(playerName, uuid);
 
                     if (CommandUtils.unloadedProfile(sender, profile)) {
                         return true;
@@ -4,6 +4,7 @@ import com.gmail.nossr50.datatypes.interactions.NotificationType;
 import com.gmail.nossr50.datatypes.skills.SubSkillType;
 import com.gmail.nossr50.datatypes.skills.subskills.AbstractSubSkill;
 import com.gmail.nossr50.mcMMO;
+import com.gmail.nossr50.util.random.RandomChanceUtil;
 import net.md_5.bungee.api.ChatColor;
 
 import java.util.ArrayList;
@@ -11,9 +12,11 @@ import java.util.List;
 
 public class AdvancedConfig extends AutoUpdateConfigLoader {
     private static AdvancedConfig instance;
+    private volatile AdvancedConfigSnapshot snapshot;
 
     private AdvancedConfig() {
         super("advanced.yml");
+        loadKeys();
         validate();
     }
 
@@ -471,16 +474,22 @@ public class AdvancedConfig extends AutoUpdateConfigLoader {
         return noErrorsInConfig(reason);
     }
 
+    /**
+     * Compile the hot settings, the new snapshot replaces the old one in a single write
+     */
     @Override
-    protected void loadKeys() {}
+    protected void loadKeys() {
+        snapshot = new AdvancedConfigSnapshot(config);
+        RandomChanceUtil.clearChanceTables();
+    }
 
     /* GENERAL */
 
-    public boolean canApplyLimitBreakPVE() { return config.getBoolean("Skills.General.LimitBreak.AllowPVE", false); }
-    public int getStartingLevel() { return config.getInt("Skills.General.StartingLevel", 1); }
+    public boolean canApplyLimitBreakPVE() { return snapshot.canApplyLimitBreakPVE; }
+    public int getStartingLevel() { return snapshot.startingLevel; }
 
     public boolean allowPlayerTips() {
-        return config.getBoolean("Feedback.PlayerTips", true);
+        return snapshot.allowPlayerTips;
     }
 
     /**
@@ -490,9 +499,9 @@ public class AdvancedConfig extends AutoUpdateConfigLoader {
      */
     public int getAbilityLengthCap() {
         if(!mcMMO.isRetroModeEnabled())
-            return config.getInt("Skills.General.Ability.Length.Standard.CapLevel", 50);
+            return snapshot.abilityLengthCapStandard;
         else
-            return config.getInt("Skills.General.Ability.Length.RetroMode.CapLevel", 500);
+            return snapshot.abilityLengthCapRetro;
     }
 
     /**
@@ -502,12 +511,12 @@ public class AdvancedConfig extends AutoUpdateConfigLoader {
      */
     public int getAbilityLength() {
         if(!mcMMO.isRetroModeEnabled())
-            return config.getInt("Skills.General.Ability.Length.Standard.IncreaseLevel", 5);
+            return snapshot.abilityLengthStandard;
         else
-            return config.getInt("Skills.General.Ability.Length.RetroMode.IncreaseLevel", 50);
+            return snapshot.abilityLengthRetro;
     }
 
-    public int getEnchantBuff() { return config.getInt("Skills.General.Ability.EnchantBuff", 5); }
+    public int getEnchantBuff() { return snapshot.enchantBuff; }
 
     /**
      * Grabs the max bonus level for a skill used in RNG calculations
@@ -517,8 +526,7 @@ public class AdvancedConfig extends AutoUpdateConfigLoader {
      * @return the level at which this skills max benefits will be reached on the curve
      */
     public int getMaxBonusLevel(SubSkillType subSkillType) {
-        String keyPath = subSkillType.getAdvConfigAddress() + ".MaxBonusLevel.";
-        return mcMMO.isRetroModeEnabled() ? config.getInt(keyPath+"RetroMode", 1000) : config.getInt(keyPath+"Standard", 100);
+        return mcMMO.isRetroModeEnabled() ? snapshot.maxBonusLevelRetro[subSkillType.ordinal()] : snapshot.maxBonusLevelStandard[subSkillType.ordinal()];
     }
 
     public int getMaxBonusLevel(AbstractSubSkill abstractSubSkill) {
@@ -526,8 +534,7 @@ public class AdvancedConfig extends AutoUpdateConfigLoader {
     }
 
     public double getMaximumProbability(SubSkillType subSkillType) {
-
-        return config.getDouble(subSkillType.getAdvConfigAddress() + ".ChanceMax", 100.0D);
+        return snapshot.maximumProbability[subSkillType.ordinal()];
     }
 
     public double getMaximumProbability(AbstractSubSkill abstractSubSkill)
@@ -544,22 +551,22 @@ public class AdvancedConfig extends AutoUpdateConfigLoader {
 
     public boolean doesNotificationUseActionBar(NotificationType notificationType)
     {
-        return config.getBoolean("Feedback.ActionBarNotifications."+notificationType.toString()+".Enabled", true);
+        return snapshot.notificationUsesActionBar[notificationType.ordinal()];
     }
 
     public boolean doesNotificationSendCopyToChat(NotificationType notificationType)
     {
-        return config.getBoolean("Feedback.ActionBarNotifications."+notificationType.toString()+".SendCopyOfMessageToChat", false);
+        return snapshot.notificationSendsCopyToChat[notificationType.ordinal()];
     }
 
     public boolean useTitlesForXPEvent()
     {
-        return config.getBoolean("Feedback.Events.XP.SendTitles", true);
+        return snapshot.useTitlesForXPEvent;
     }
 
     public boolean sendAbilityNotificationToOtherPlayers()
     {
-        return config.getBoolean("Feedback.Events.AbilityActivation.SendNotificationToOtherPlayers", true);
+        return snapshot.sendAbilityNotificationToOtherPlayers;
     }
 
     /*
@@ -671,15 +678,15 @@ public class AdvancedConfig extends AutoUpdateConfigLoader {
      */
     public boolean isSubSkillClassic(SubSkillType subSkillType)
     {
-        return config.getBoolean(subSkillType.getAdvConfigAddress()+".Classic");
+        return snapshot.subSkillClassic[subSkillType.ordinal()];
     }
 
     /* ACROBATICS */
-    public double getDodgeDamageModifier() { return config.getDouble("Skills.Acrobatics.Dodge.DamageModifier", 2.0D); }
+    public double getDodgeDamageModifier() { return snapshot.dodgeDamageModifier; }
 
-    public double getRollDamageThreshold() { return config.getDouble("Skills.Acrobatics.Roll.DamageThreshold", 7.0D); }
+    public double getRollDamageThreshold() { return snapshot.rollDamageThreshold; }
 
-    public double getGracefulRollDamageThreshold() { return config.getDouble("Skills.Acrobatics.GracefulRoll.DamageThreshold", 14.0D); }
+    public double getGracefulRollDamageThreshold() { return snapshot.gracefulRollDamageThreshold; }
 
     /* ALCHEMY */
     /*public int getCatalysisUnlockLevel() { return config.getInt("Skills.Alchemy.Catalysis.UnlockLevel", 100); }*/
@@ -691,27 +698,27 @@ public class AdvancedConfig extends AutoUpdateConfigLoader {
     //public int getConcoctionsTierLevel(Alchemy.Tier tier) { return config.getInt("Skills.Alchemy.Rank_Levels.Rank_" + rank); }
 
     /* ARCHERY */
-    public double getSkillShotRankDamageMultiplier() { return config.getDouble("Skills.Archery.SkillShot.RankDamageMultiplier", 10.0D); }
-    public double getSkillShotDamageMax() { return config.getDouble("Skills.Archery.SkillShot.MaxDamage", 9.0D); }
+    public double getSkillShotRankDamageMultiplier() { return snapshot.skillShotRankDamageMultiplier; }
+    public double getSkillShotDamageMax() { return snapshot.skillShotDamageMax; }
 
-    public double getDazeBonusDamage() { return config.getDouble("Skills.Archery.Daze.BonusDamage", 4.0D); }
+    public double getDazeBonusDamage() { return snapshot.dazeBonusDamage; }
 
-    public double getForceMultiplier() { return config.getDouble("Skills.Archery.ForceMultiplier", 2.0D); }
+    public double getForceMultiplier() { return snapshot.forceMultiplier; }
 
     /* AXES */
-    public double getAxeMasteryRankDamageMultiplier() { return config.getDouble("Skills.Axes.AxeMastery.RankDamageMultiplier", 1.0D); }
+    public double getAxeMasteryRankDamageMultiplier() { return snapshot.axeMasteryRankDamageMultiplier; }
 
-    public double getCriticalStrikesPVPModifier() { return config.getDouble("Skills.Axes.CriticalStrikes.PVP_Modifier", 1.5D); }
-    public double getCriticalStrikesPVEModifier() { return config.getDouble("Skills.Axes.CriticalStrikes.PVE_Modifier", 2.0D); }
+    public double getCriticalStrikesPVPModifier() { return snapshot.criticalStrikesPVPModifier; }
+    public double getCriticalStrikesPVEModifier() { return snapshot.criticalStrikesPVEModifier; }
 
-    public double getGreaterImpactChance() { return config.getDouble("Skills.Axes.GreaterImpact.Chance", 25.0D); }
-    public double getGreaterImpactModifier() { return config.getDouble("Skills.Axes.GreaterImpact.KnockbackModifier", 1.5D); }
-    public double getGreaterImpactBonusDamage() { return config.getDouble("Skills.Axes.GreaterImpact.BonusDamage", 2.0D); }
+    public double getGreaterImpactChance() { return snapshot.greaterImpactChance; }
+    public double getGreaterImpactModifier() { return snapshot.greaterImpactModifier; }
+    public double getGreaterImpactBonusDamage() { return snapshot.greaterImpactBonusDamage; }
 
-    public double getImpactChance() { return config.getDouble("Skills.Axes.ArmorImpact.Chance", 25.0D); }
-    public double getImpactDurabilityDamageMultiplier() { return config.getDouble("Skills.Axes.ArmorImpact.DamagePerRank", 6.5D); }
+    public double getImpactChance() { return snapshot.impactChance; }
+    public double getImpactDurabilityDamageMultiplier() { return snapshot.impactDurabilityDamageMultiplier; }
 
-    public double getSkullSplitterModifier() { return config.getDouble("Skills.Axes.SkullSplitter.DamageModifier", 2.0D); }
+    public double getSkullSplitterModifier() { return snapshot.skullSplitterModifier; }
 
     /* EXCAVATION */
     //Nothing to configure, everything is already configurable in config.yml
@@ -790,44 +797,44 @@ public class AdvancedConfig extends AutoUpdateConfigLoader {
     public int getSmeltingVanillaXPBoostMultiplier(int rank) { return config.getInt("Skills.Smelting.VanillaXPMultiplier.Rank_" + rank); }
 
     /* SWORDS */
-    public double getRuptureDamagePlayer() { return config.getDouble("Skills.Swords.Rupture.DamagePlayer", 1.0); }
-    public double getRuptureDamageMobs() { return config.getDouble("Skills.Swords.Rupture.DamageMobs", 2.0); }
+    public double getRuptureDamagePlayer() { return snapshot.ruptureDamagePlayer; }
+    public double getRuptureDamageMobs() { return snapshot.ruptureDamageMobs; }
 
-    public int getRuptureMaxTicks() { return config.getInt("Skills.Swords.Rupture.MaxTicks", 8); }
-    public int getRuptureBaseTicks() { return config.getInt("Skills.Swords.Rupture.BaseTicks", 2); }
+    public int getRuptureMaxTicks() { return snapshot.ruptureMaxTicks; }
+    public int getRuptureBaseTicks() { return snapshot.ruptureBaseTicks; }
 
-    public double getCounterModifier() { return config.getDouble("Skills.Swords.CounterAttack.DamageModifier", 2.0D); }
+    public double getCounterModifier() { return snapshot.counterModifier; }
 
-    public double getSerratedStrikesModifier() { return config.getDouble("Skills.Swords.SerratedStrikes.DamageModifier", 4.0D); }
-    public int getSerratedStrikesTicks() { return config.getInt("Skills.Swords.SerratedStrikes.RuptureTicks", 5); }
+    public double getSerratedStrikesModifier() { return snapshot.serratedStrikesModifier; }
+    public int getSerratedStrikesTicks() { return snapshot.serratedStrikesTicks; }
 
     /* TAMING */
     //public int getGoreRuptureTicks() { return config.getInt("Skills.Taming.Gore.RuptureTicks", 2); }
-    public double getGoreModifier() { return config.getDouble("Skills.Taming.Gore.Modifier", 2.0D); }
+    public double getGoreModifier() { return snapshot.goreModifier; }
 
     /*public int getFastFoodUnlock() { return config.getInt("Skills.Taming.FastFood.UnlockLevel", 50); }*/
-    public double getFastFoodChance() { return config.getDouble("Skills.Taming.FastFoodService.Chance", 50.0D); }
-    public double getPummelChance() { return config.getDouble("Skills.Taming.Pummel.Chance", 10.0D); }
+    public double getFastFoodChance() { return snapshot.fastFoodChance; }
+    public double getPummelChance() { return snapshot.pummelChance; }
 
     //public int getEnviromentallyAwareUnlock() { return config.getInt("Skills.Taming.EnvironmentallyAware.UnlockLevel", 100); }
 
     /*public int getThickFurUnlock() { return config.getInt("Skills.Taming.ThickFur.UnlockLevel", 250); }*/
-    public double getThickFurModifier() { return config.getDouble("Skills.Taming.ThickFur.Modifier", 2.0D); }
+    public double getThickFurModifier() { return snapshot.thickFurModifier; }
 
     /*public int getHolyHoundUnlock() {return config.getInt("Skills.Taming.HolyHound.UnlockLevel", 375); }*/
 
     /*public int getShockProofUnlock() { return config.getInt("Skills.Taming.ShockProof.UnlockLevel", 500); }*/
-    public double getShockProofModifier() { return config.getDouble("Skills.Taming.ShockProof.Modifier", 6.0D); }
+    public double getShockProofModifier() { return snapshot.shockProofModifier; }
 
     /*public int getSharpenedClawsUnlock() { return config.getInt("Skills.Taming.SharpenedClaws.UnlockLevel", 750); }*/
-    public double getSharpenedClawsBonus() { return config.getDouble("Skills.Taming.SharpenedClaws.Bonus", 2.0D); }
+    public double getSharpenedClawsBonus() { return snapshot.sharpenedClawsBonus; }
 
     public double getMinHorseJumpStrength() { return config.getDouble("Skills.Taming.CallOfTheWild.MinHorseJumpStrength", 0.7D); }
     public double getMaxHorseJumpStrength() { return config.getDouble("Skills.Taming.CallOfTheWild.MaxHorseJumpStrength", 2.0D); }
 
     /* UNARMED */
 
-    public boolean isSteelArmDamageCustom() { return config.getBoolean("Skills.Unarmed.SteelArmStyle.Damage_Override", false); }
+    public boolean isSteelArmDamageCustom() { return snapshot.steelArmDamageCustom; }
     public double getSteelArmOverride(int rank, double def) {
         String key = "Rank_" + rank;
         return config.getDouble("Skills.Unarmed.SteelArmStyle.Override." + key, def);
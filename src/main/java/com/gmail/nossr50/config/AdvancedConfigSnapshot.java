@@ -0,0 +1,144 @@
+package com.gmail.nossr50.config;
+
+import com.gmail.nossr50.datatypes.interactions.NotificationType;
+import com.gmail.nossr50.datatypes.skills.SubSkillType;
+import org.bukkit.configuration.file.FileConfiguration;
+
+/**
+ * The frequently read settings of advanced.yml, read out of the YAML tree once per load
+ * Per subskill and per notification values are arrays indexed by ordinal, retro and standard values are both kept
+ * so switching modes doesn't need a new snapshot.
+ */
+final class AdvancedConfigSnapshot {
+    /* GENERAL */
+    final boolean canApplyLimitBreakPVE;
+    final int startingLevel;
+    final boolean allowPlayerTips;
+    final int abilityLengthCapStandard;
+    final int abilityLengthCapRetro;
+    final int abilityLengthStandard;
+    final int abilityLengthRetro;
+    final int enchantBuff;
+
+    /* SUBSKILLS */
+    final int[] maxBonusLevelStandard = new int[SubSkillType.values().length];
+    final int[] maxBonusLevelRetro = new int[SubSkillType.values().length];
+    final double[] maximumProbability = new double[SubSkillType.values().length];
+    final boolean[] subSkillClassic = new boolean[SubSkillType.values().length];
+
+    /* NOTIFICATIONS */
+    final boolean[] notificationUsesActionBar = new boolean[NotificationType.values().length];
+    final boolean[] notificationSendsCopyToChat = new boolean[NotificationType.values().length];
+    final boolean useTitlesForXPEvent;
+    final boolean sendAbilityNotificationToOtherPlayers;
+
+    /* ACROBATICS */
+    final double dodgeDamageModifier;
+    final double rollDamageThreshold;
+    final double gracefulRollDamageThreshold;
+
+    /* ARCHERY */
+    final double skillShotRankDamageMultiplier;
+    final double skillShotDamageMax;
+    final double dazeBonusDamage;
+    final double forceMultiplier;
+
+    /* AXES */
+    final double axeMasteryRankDamageMultiplier;
+    final double criticalStrikesPVPModifier;
+    final double criticalStrikesPVEModifier;
+    final double greaterImpactChance;
+    final double greaterImpactModifier;
+    final double greaterImpactBonusDamage;
+    final double impactChance;
+    final double impactDurabilityDamageMultiplier;
+    final double skullSplitterModifier;
+
+    /* SWORDS */
+    final double ruptureDamagePlayer;
+    final double ruptureDamageMobs;
+    final int ruptureMaxTicks;
+    final int ruptureBaseTicks;
+    final double counterModifier;
+    final double serratedStrikesModifier;
+    final int serratedStrikesTicks;
+
+    /* TAMING */
+    final double goreModifier;
+    final double fastFoodChance;
+    final double pummelChance;
+    final double thickFurModifier;
+    final double shockProofModifier;
+    final double sharpenedClawsBonus;
+
+    /* UNARMED */
+    final boolean steelArmDamageCustom;
+
+    AdvancedConfigSnapshot(FileConfiguration config) {
+        canApplyLimitBreakPVE = config.getBoolean("Skills.General.LimitBreak.AllowPVE", false);
+        startingLevel = config.getInt("Skills.General.StartingLevel", 1);
+        allowPlayerTips = config.getBoolean("Feedback.PlayerTips", true);
+        abilityLengthCapStandard = config.getInt("Skills.General.Ability.Length.Standard.CapLevel", 50);
+        abilityLengthCapRetro = config.getInt("Skills.General.Ability.Length.RetroMode.CapLevel", 500);
+        abilityLengthStandard = config.getInt("Skills.General.Ability.Length.Standard.IncreaseLevel", 5);
+        abilityLengthRetro = config.getInt("Skills.General.Ability.Length.RetroMode.IncreaseLevel", 50);
+        enchantBuff = config.getInt("Skills.General.Ability.EnchantBuff", 5);
+
+        for (SubSkillType subSkillType : SubSkillType.values()) {
+            String address = subSkillType.getAdvConfigAddress();
+            int index = subSkillType.ordinal();
+
+            maxBonusLevelStandard[index] = config.getInt(address + ".MaxBonusLevel.Standard", 100);
+            maxBonusLevelRetro[index] = config.getInt(address + ".MaxBonusLevel.RetroMode", 1000);
+            maximumProbability[index] = config.getDouble(address + ".ChanceMax", 100.0D);
+            subSkillClassic[index] = config.getBoolean(address + ".Classic");
+        }
+
+        for (NotificationType notificationType : NotificationType.values()) {
+            String address = "Feedback.ActionBarNotifications." + notificationType.toString();
+            int index = notificationType.ordinal();
+
+            notificationUsesActionBar[index] = config.getBoolean(address + ".Enabled", true);
+            notificationSendsCopyToChat[index] = config.getBoolean(address + ".SendCopyOfMessageToChat", false);
+        }
+
+        useTitlesForXPEvent = config.getBoolean("Feedback.Events.XP.SendTitles", true);
+        sendAbilityNotificationToOtherPlayers = config.getBoolean("Feedback.Events.AbilityActivation.SendNotificationToOtherPlayers", true);
+
+        dodgeDamageModifier = config.getDouble("Skills.Acrobatics.Dodge.DamageModifier", 2.0D);
+        rollDamageThreshold = config.getDouble("Skills.Acrobatics.Roll.DamageThreshold", 7.0D);
+        gracefulRollDamageThreshold = config.getDouble("Skills.Acrobatics.GracefulRoll.DamageThreshold", 14.0D);
+
+        skillShotRankDamageMultiplier = config.getDouble("Skills.Archery.SkillShot.RankDamageMultiplier", 10.0D);
+        skillShotDamageMax = config.getDouble("Skills.Archery.SkillShot.MaxDamage", 9.0D);
+        dazeBonusDamage = config.getDouble("Skills.Archery.Daze.BonusDamage", 4.0D);
+        forceMultiplier = config.getDouble("Skills.Archery.ForceMultiplier", 2.0D);
+
+        axeMasteryRankDamageMultiplier = config.getDouble("Skills.Axes.AxeMastery.RankDamageMultiplier", 1.0D);
+        criticalStrikesPVPModifier = config.getDouble("Skills.Axes.CriticalStrikes.PVP_Modifier", 1.5D);
+        criticalStrikesPVEModifier = config.getDouble("Skills.Axes.CriticalStrikes.PVE_Modifier", 2.0D);
+        greaterImpactChance = config.getDouble("Skills.Axes.GreaterImpact.Chance", 25.0D);
+        greaterImpactModifier = config.getDouble("Skills.Axes.GreaterImpact.KnockbackModifier", 1.5D);
+        greaterImpactBonusDamage = config.getDouble("Skills.Axes.GreaterImpact.BonusDamage", 2.0D);
+        impactChance = config.getDouble("Skills.Axes.ArmorImpact.Chance", 25.0D);
+        impactDurabilityDamageMultiplier = config.getDouble("Skills.Axes.ArmorImpact.DamagePerRank", 6.5D);
+        skullSplitterModifier = config.getDouble("Skills.Axes.SkullSplitter.DamageModifier", 2.0D);
+
+        ruptureDamagePlayer = config.getDouble("Skills.Swords.Rupture.DamagePlayer", 1.0);
+        ruptureDamageMobs = config.getDouble("Skills.Swords.Rupture.DamageMobs", 2.0);
+        ruptureMaxTicks = config.getInt("Skills.Swords.Rupture.MaxTicks", 8);
+        ruptureBaseTicks = config.getInt("Skills.Swords.Rupture.BaseTicks", 2);
+        counterModifier = config.getDouble("Skills.Swords.CounterAttack.DamageModifier", 2.0D);
+        serratedStrikesModifier = config.getDouble("Skills.Swords.SerratedStrikes.DamageModifier", 4.0D);
+        serratedStrikesTicks = config.getInt("Skills.Swords.SerratedStrikes.RuptureTicks", 5);
+
+        goreModifier = config.getDouble("Skills.Taming.Gore.Modifier", 2.0D);
+        fastFoodChance = config.getDouble("Skills.Taming.FastFoodService.Chance", 50.0D);
+        pummelChance = config.getDouble("Skills.Taming.Pummel.Chance", 10.0D);
+        thickFurModifier = config.getDouble("Skills.Taming.ThickFur.Modifier", 2.0D);
+        shockProofModifier = config.getDouble("Skills.Taming.ShockProof.Modifier", 6.0D);
+        sharpenedClawsBonus = config.getDouble("Skills.Taming.SharpenedClaws.Bonus", 2.0D);
+
+        steelArmDamageCustom = config.getBoolean("Skills.Unarmed.SteelArmStyle.Damage_Override", false);
+    }
+}
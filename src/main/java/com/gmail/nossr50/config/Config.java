@@ -8,18 +8,18 @@ import com.gmail.nossr50.datatypes.skills.SuperAbilityType;
 import com.gmail.nossr50.util.text.StringUtils;
 import org.bukkit.Material;
 import org.bukkit.block.data.BlockData;
-import org.bukkit.configuration.ConfigurationSection;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
 
 public class Config extends AutoUpdateConfigLoader {
     private static Config instance;
+    private volatile ConfigSnapshot snapshot;
 
     private Config() {
         super("config.yml");
+        loadKeys();
         validate();
     }
 
@@ -31,9 +31,12 @@ public class Config extends AutoUpdateConfigLoader {
         return instance;
     }
 
+    /**
+     * Compile the hot settings, the new snapshot replaces the old one in a single write
+     */
     @Override
     protected void loadKeys() {
-
+        snapshot = new ConfigSnapshot(config);
     }
 
     @Override
@@ -51,9 +54,37 @@ public class Config extends AutoUpdateConfigLoader {
             if (getMySQLMaxConnections(identifier) <= 0) {
                 reason.add("MySQL.Database.MaxConnections." + StringUtils.getCapitalized(identifier.toString()) + " should be greater than 0!");
             }
-            if (getMySQLMaxPoolSize(identifier) <= 0) {
-                reason.add("MySQL.Database.MaxPoolSize." + StringUtils.getCapitalized(identifier.toString()) + " should be greater than 0!");
-            }
+        }
+
+        if (getMySQLPoolSize() < PoolIdentifier.values().length) {
+            reason.add("MySQL.Database.Pool_Size should be at least " + PoolIdentifier.values().length + "!");
+        }
+
+        if (getMySQLMaxWait() <= 0) {
+            reason.add("MySQL.Database.Max_Wait should be greater than 0!");
+        }
+
+        /* SQLite Settings */
+        if (getSQLiteReadConnections() <= 0) {
+            reason.add("SQLite.Read_Connections should be greater than 0!");
+        }
+
+        /* Offline Profile Cache */
+        if (getOfflineProfileCacheSize() <= 0) {
+            reason.add("Offline_Profile_Cache.Max_Profiles should be greater than 0!");
+        }
+
+        if (getOfflineProfileCacheExpiry() <= 0) {
+            reason.add("Offline_Profile_Cache.Expiry_Seconds should be greater than 0!");
+        }
+
+        /* Timings */
+        if (getTimingsSampleRate() <= 0) {
+            reason.add("Timings.Sample_Rate should be greater than 0!");
+        }
+
+        if (getTimingsExportInterval() < 0) {
+            reason.add("Timings.Export_Interval_Seconds should be at least 0!");
         }
 
         /* Mob Healthbar */
@@ -182,6 +213,10 @@ public class Config extends AutoUpdateConfigLoader {
             reason.add("Abilities.Limits.Tree_Feller_Threshold should be greater than 0!");
         }
 
+        if (getAbilityWorkTickBudget() <= 0) {
+            reason.add("Abilities.Spread_Work_Over_Ticks.Tick_Budget_Milliseconds should be greater than 0!");
+        }
+
         if (getFishingLureModifier() < 0) {
             reason.add("Abilities.Fishing.Lure_Modifier should be at least 0!");
         }
@@ -332,11 +367,32 @@ public class Config extends AutoUpdateConfigLoader {
     public int getMySQLServerPort() { return config.getInt("MySQL.Server.Port", 3306); }
     public String getMySQLServerName() { return config.getString("MySQL.Server.Address", "localhost"); }
     public String getMySQLUserPassword() { return getStringIncludingInts("MySQL.Database.User_Password"); }
-    public int getMySQLMaxConnections(PoolIdentifier identifier) { return config.getInt("MySQL.Database.MaxConnections." + StringUtils.getCapitalized(identifier.toString()), 30); }
-    public int getMySQLMaxPoolSize(PoolIdentifier identifier) { return config.getInt("MySQL.Database.MaxPoolSize." + StringUtils.getCapitalized(identifier.toString()), 10); }
+    public int getMySQLPoolSize() { return config.getInt("MySQL.Database.Pool_Size", 30); }
+    public int getMySQLMaxConnections(PoolIdentifier identifier) { return config.getInt("MySQL.Database.MaxConnections." + StringUtils.getCapitalized(identifier.toString()), identifier == PoolIdentifier.MISC ? 5 : identifier == PoolIdentifier.LOAD ? 15 : 10); }
+    public int getMySQLMaxWait() { return config.getInt("MySQL.Database.Max_Wait", 5000); }
     public boolean getMySQLSSL() { return config.getBoolean("MySQL.Server.SSL", true); }
     public boolean getMySQLDebug() { return config.getBoolean("MySQL.Debug", false); }
 
+    /* SQLite */
+    public boolean getUseSQLite() { return config.getBoolean("SQLite.Enabled", false); }
+    public String getSQLiteFileName() { return config.getString("SQLite.File_Name", "mcmmo.db"); }
+    public int getSQLiteReadConnections() { return config.getInt("SQLite.Read_Connections", 4); }
+
+    /* Offline Profile Cache */
+    public boolean getOfflineProfileCacheEnabled() { return config.getBoolean("Offline_Profile_Cache.Enabled", true); }
+    public int getOfflineProfileCacheSize() { return config.getInt("Offline_Profile_Cache.Max_Profiles", 1000); }
+    public int getOfflineProfileCacheExpiry() { return config.getInt("Offline_Profile_Cache.Expiry_Seconds", 300); }
+
+    /* Timings */
+    public boolean getTimingsEnabled() { return config.getBoolean("Timings.Enabled", false); }
+    public int getTimingsSampleRate() { return config.getInt("Timings.Sample_Rate", 16); }
+    public int getTimingsExportInterval() { return config.getInt("Timings.Export_Interval_Seconds", 0); }
+
+    /* World Settings */
+    public boolean getWorldXpEnabled(String worldName) { return config.getBoolean("World_Settings." + worldName + ".XP_Enabled", true); }
+    public boolean getWorldAbilitiesEnabled(String worldName) { return config.getBoolean("World_Settings." + worldName + ".Abilities_Enabled", true); }
+    public boolean getWorldPlacedBlockTrackingEnabled(String worldName) { return config.getBoolean("World_Settings." + worldName + ".Track_Placed_Blocks", true); }
+
     private String getStringIncludingInts(String key) {
         String str = config.getString(key);
 
@@ -351,16 +407,16 @@ public class Config extends AutoUpdateConfigLoader {
     }
 
     /* Hardcore Mode */
-    public boolean getHardcoreStatLossEnabled(PrimarySkillType primarySkillType) { return config.getBoolean("Hardcore.Death_Stat_Loss.Enabled." + StringUtils.getCapitalized(primarySkillType.toString()), false); }
-    public void setHardcoreStatLossEnabled(PrimarySkillType primarySkillType, boolean enabled) { config.set("Hardcore.Death_Stat_Loss.Enabled." + StringUtils.getCapitalized(primarySkillType.toString()), enabled); }
+    public boolean getHardcoreStatLossEnabled(PrimarySkillType primarySkillType) { return snapshot.hardcoreStatLossEnabled[primarySkillType.ordinal()]; }
+    public void setHardcoreStatLossEnabled(PrimarySkillType primarySkillType, boolean enabled) { config.set("Hardcore.Death_Stat_Loss.Enabled." + StringUtils.getCapitalized(primarySkillType.toString()), enabled); loadKeys(); }
 
     public double getHardcoreDeathStatPenaltyPercentage() { return config.getDouble("Hardcore.Death_Stat_Loss.Penalty_Percentage", 75.0D); }
     public void setHardcoreDeathStatPenaltyPercentage(double value) { config.set("Hardcore.Death_Stat_Loss.Penalty_Percentage", value); }
 
     public int getHardcoreDeathStatPenaltyLevelThreshold() { return config.getInt("Hardcore.Death_Stat_Loss.Level_Threshold", 0); }
 
-    public boolean getHardcoreVampirismEnabled(PrimarySkillType primarySkillType) { return config.getBoolean("Hardcore.Vampirism.Enabled." + StringUtils.getCapitalized(primarySkillType.toString()), false); }
-    public void setHardcoreVampirismEnabled(PrimarySkillType primarySkillType, boolean enabled) { config.set("Hardcore.Vampirism.Enabled." + StringUtils.getCapitalized(primarySkillType.toString()), enabled); }
+    public boolean getHardcoreVampirismEnabled(PrimarySkillType primarySkillType) { return snapshot.hardcoreVampirismEnabled[primarySkillType.ordinal()]; }
+    public void setHardcoreVampirismEnabled(PrimarySkillType primarySkillType, boolean enabled) { config.set("Hardcore.Vampirism.Enabled." + StringUtils.getCapitalized(primarySkillType.toString()), enabled); loadKeys(); }
 
     public double getHardcoreVampirismStatLeechPercentage() { return config.getDouble("Hardcore.Vampirism.Leech_Percentage", 5.0D); }
     public void setHardcoreVampirismStatLeechPercentage(double value) { config.set("Hardcore.Vampirism.Leech_Percentage", value); }
@@ -438,20 +494,24 @@ public class Config extends AutoUpdateConfigLoader {
 
     /* General Settings */
     public boolean getUrlLinksEnabled() { return config.getBoolean("Commands.Skills.URL_Links"); }
-    public boolean getAbilityMessagesEnabled() { return config.getBoolean("Abilities.Messages", true); }
-    public boolean getAbilitiesEnabled() { return config.getBoolean("Abilities.Enabled", true); }
-    public boolean getAbilitiesOnlyActivateWhenSneaking() { return config.getBoolean("Abilities.Activation.Only_Activate_When_Sneaking", false); }
-    public boolean getAbilitiesGateEnabled() { return config.getBoolean("Abilities.Activation.Level_Gate_Abilities"); }
+    public boolean getAbilityMessagesEnabled() { return snapshot.abilityMessagesEnabled; }
+    public boolean getAbilitiesEnabled() { return snapshot.abilitiesEnabled; }
+    public boolean getAbilitiesOnlyActivateWhenSneaking() { return snapshot.abilitiesOnlyActivateWhenSneaking; }
+    public boolean getAbilitiesGateEnabled() { return snapshot.abilitiesGateEnabled; }
 
-    public int getCooldown(SuperAbilityType ability) { return config.getInt("Abilities.Cooldowns." + ability.toString()); }
-    public int getMaxLength(SuperAbilityType ability) { return config.getInt("Abilities.Max_Seconds." + ability.toString()); }
+    public int getCooldown(SuperAbilityType ability) { return snapshot.cooldown[ability.ordinal()]; }
+    public int getMaxLength(SuperAbilityType ability) { return snapshot.maxLength[ability.ordinal()]; }
 
     /* Durability Settings */
-    public int getAbilityToolDamage() { return config.getInt("Abilities.Tools.Durability_Loss", 1); }
+    public int getAbilityToolDamage() { return snapshot.abilityToolDamage; }
 
     /* Thresholds */
     public int getTreeFellerThreshold() { return config.getInt("Abilities.Limits.Tree_Feller_Threshold", 1000); }
 
+    /* Work Spreading */
+    public boolean getAbilityWorkSpreadEnabled() { return config.getBoolean("Abilities.Spread_Work_Over_Ticks.Enabled", false); }
+    public double getAbilityWorkTickBudget() { return config.getDouble("Abilities.Spread_Work_Over_Ticks.Tick_Budget_Milliseconds", 2.0); }
+
     /*
      * SKILL SETTINGS
      */
@@ -460,25 +520,11 @@ public class Config extends AutoUpdateConfigLoader {
         if(material.toString().equalsIgnoreCase("LILY_PAD"))
             return false;
 
-        return config.getBoolean("Bonus_Drops." + StringUtils.getCapitalized(skill.toString()) + "." + StringUtils.getPrettyItemString(material).replace(" ", "_"));
+        return snapshot.doubleDrops[skill.ordinal()].contains(material);
     }
 
     public boolean getDoubleDropsDisabled(PrimarySkillType skill) {
-        String skillName = StringUtils.getCapitalized(skill.toString());
-        ConfigurationSection section = config.getConfigurationSection("Bonus_Drops." + skillName);
-        if (section == null)
-            return false;
-        Set<String> keys = section.getKeys(false);
-        boolean disabled = true;
-
-        for (String key : keys) {
-            if (config.getBoolean("Bonus_Drops." + skillName + "." + key)) {
-                disabled = false;
-                break;
-            }
-        }
-
-        return disabled;
+        return snapshot.doubleDropsDisabled[skill.ordinal()];
     }
 
     /* Axes */
@@ -489,9 +535,9 @@ public class Config extends AutoUpdateConfigLoader {
     public int getXPAfterTeleportCooldown() { return config.getInt("Skills.Acrobatics.XP_After_Teleport_Cooldown", 5); }
 
     /* Alchemy */
-    public boolean getEnabledForHoppers() { return config.getBoolean("Skills.Alchemy.Enabled_for_Hoppers", true); }
-    public boolean getPreventHopperTransferIngredients() { return config.getBoolean("Skills.Alchemy.Prevent_Hopper_Transfer_Ingredients", false); }
-    public boolean getPreventHopperTransferBottles() { return config.getBoolean("Skills.Alchemy.Prevent_Hopper_Transfer_Bottles", false); }
+    public boolean getEnabledForHoppers() { return snapshot.alchemyEnabledForHoppers; }
+    public boolean getPreventHopperTransferIngredients() { return snapshot.preventHopperTransferIngredients; }
+    public boolean getPreventHopperTransferBottles() { return snapshot.preventHopperTransferBottles; }
 
     /* Fishing */
     public boolean getFishingDropsEnabled() { return config.getBoolean("Skills.Fishing.Drops_Enabled", true); }
@@ -551,13 +597,11 @@ public class Config extends AutoUpdateConfigLoader {
 
     /* Level Caps */
     public int getPowerLevelCap() {
-        int cap = config.getInt("General.Power_Level_Cap", 0);
-        return (cap <= 0) ? Integer.MAX_VALUE : cap;
+        return snapshot.powerLevelCap;
     }
 
     public int getLevelCap(PrimarySkillType skill) {
-        int cap = config.getInt("Skills." + StringUtils.getCapitalized(skill.toString()) + ".Level_Cap");
-        return (cap <= 0) ? Integer.MAX_VALUE : cap;
+        return snapshot.levelCap[skill.ordinal()];
     }
 
 
@@ -565,11 +609,11 @@ public class Config extends AutoUpdateConfigLoader {
         return config.getInt("Skills." + StringUtils.getCapitalized(skill.toString()) + ".Ability_Activation_Level_Gate");
     }*/
 
-    public boolean getTruncateSkills() { return config.getBoolean("General.TruncateSkills", false); }
+    public boolean getTruncateSkills() { return snapshot.truncateSkills; }
 
     /* PVP & PVE Settings */
-    public boolean getPVPEnabled(PrimarySkillType skill) { return config.getBoolean("Skills." + StringUtils.getCapitalized(skill.toString()) + ".Enabled_For_PVP", true); }
-    public boolean getPVEEnabled(PrimarySkillType skill) { return config.getBoolean("Skills." + StringUtils.getCapitalized(skill.toString()) + ".Enabled_For_PVE", true); }
+    public boolean getPVPEnabled(PrimarySkillType skill) { return snapshot.pvpEnabled[skill.ordinal()]; }
+    public boolean getPVEEnabled(PrimarySkillType skill) { return snapshot.pveEnabled[skill.ordinal()]; }
     
     //public float getMasterVolume() { return (float) config.getDouble("Sounds.MasterVolume", 1.0); }
 
@@ -0,0 +1,107 @@
+package com.gmail.nossr50.config;
+
+import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
+import com.gmail.nossr50.datatypes.skills.SuperAbilityType;
+import com.gmail.nossr50.util.text.StringUtils;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The frequently read settings of config.yml, read out of the YAML tree once per load
+ * Per skill and per ability values are arrays indexed by ordinal.
+ */
+final class ConfigSnapshot {
+    /* LEVEL CAPS */
+    final int powerLevelCap;
+    final int[] levelCap = new int[PrimarySkillType.values().length];
+    final boolean truncateSkills;
+
+    /* PVP & PVE */
+    final boolean[] pvpEnabled = new boolean[PrimarySkillType.values().length];
+    final boolean[] pveEnabled = new boolean[PrimarySkillType.values().length];
+
+    /* HARDCORE */
+    final boolean[] hardcoreStatLossEnabled = new boolean[PrimarySkillType.values().length];
+    final boolean[] hardcoreVampirismEnabled = new boolean[PrimarySkillType.values().length];
+
+    /* BONUS DROPS */
+    @SuppressWarnings("unchecked")
+    final Set<Material>[] doubleDrops = new Set[PrimarySkillType.values().length];
+    final boolean[] doubleDropsDisabled = new boolean[PrimarySkillType.values().length];
+
+    /* ABILITIES */
+    final boolean abilitiesEnabled;
+    final boolean abilityMessagesEnabled;
+    final boolean abilitiesOnlyActivateWhenSneaking;
+    final boolean abilitiesGateEnabled;
+    final int abilityToolDamage;
+    final int[] cooldown = new int[SuperAbilityType.values().length];
+    final int[] maxLength = new int[SuperAbilityType.values().length];
+
+    /* ALCHEMY */
+    final boolean alchemyEnabledForHoppers;
+    final boolean preventHopperTransferIngredients;
+    final boolean preventHopperTransferBottles;
+
+    ConfigSnapshot(FileConfiguration config) {
+        int powerCap = config.getInt("General.Power_Level_Cap", 0);
+        powerLevelCap = (powerCap <= 0) ? Integer.MAX_VALUE : powerCap;
+        truncateSkills = config.getBoolean("General.TruncateSkills", false);
+
+        for (PrimarySkillType skill : PrimarySkillType.values()) {
+            String skillName = StringUtils.getCapitalized(skill.toString());
+            int index = skill.ordinal();
+
+            int cap = config.getInt("Skills." + skillName + ".Level_Cap");
+            levelCap[index] = (cap <= 0) ? Integer.MAX_VALUE : cap;
+            pvpEnabled[index] = config.getBoolean("Skills." + skillName + ".Enabled_For_PVP", true);
+            pveEnabled[index] = config.getBoolean("Skills." + skillName + ".Enabled_For_PVE", true);
+            hardcoreStatLossEnabled[index] = config.getBoolean("Hardcore.Death_Stat_Loss.Enabled." + skillName, false);
+            hardcoreVampirismEnabled[index] = config.getBoolean("Hardcore.Vampirism.Enabled." + skillName, false);
+
+            doubleDrops[index] = EnumSet.noneOf(Material.class);
+            ConfigurationSection section = config.getConfigurationSection("Bonus_Drops." + skillName);
+
+            if (section == null) {
+                continue;
+            }
+
+            // Resolve the keys the same way the lookups used to build them, so the result can't differ
+            for (Material material : Material.values()) {
+                if (section.getBoolean(StringUtils.getPrettyItemString(material).replace(" ", "_"))) {
+                    doubleDrops[index].add(material);
+                }
+            }
+
+            boolean disabled = true;
+
+            for (String key : section.getKeys(false)) {
+                if (section.getBoolean(key)) {
+                    disabled = false;
+                    break;
+                }
+            }
+
+            doubleDropsDisabled[index] = disabled;
+        }
+
+        abilitiesEnabled = config.getBoolean("Abilities.Enabled", true);
+        abilityMessagesEnabled = config.getBoolean("Abilities.Messages", true);
+        abilitiesOnlyActivateWhenSneaking = config.getBoolean("Abilities.Activation.Only_Activate_When_Sneaking", false);
+        abilitiesGateEnabled = config.getBoolean("Abilities.Activation.Level_Gate_Abilities");
+        abilityToolDamage = config.getInt("Abilities.Tools.Durability_Loss", 1);
+
+        for (SuperAbilityType ability : SuperAbilityType.values()) {
+            cooldown[ability.ordinal()] = config.getInt("Abilities.Cooldowns." + ability.toString());
+            maxLength[ability.ordinal()] = config.getInt("Abilities.Max_Seconds." + ability.toString());
+        }
+
+        alchemyEnabledForHoppers = config.getBoolean("Skills.Alchemy.Enabled_for_Hoppers", true);
+        preventHopperTransferIngredients = config.getBoolean("Skills.Alchemy.Prevent_Hopper_Transfer_Ingredients", false);
+        preventHopperTransferBottles = config.getBoolean("Skills.Alchemy.Prevent_Hopper_Transfer_Bottles", false);
+    }
+}
@@ -4,13 +4,21 @@ import com.gmail.nossr50.mcMMO;
 import org.bukkit.World;
 
 import java.io.*;
-import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Blacklist certain features in certain worlds
  */
 public class WorldBlacklist {
-    private static ArrayList<String> blacklist;
+    //Lower case world names
+    private static Set<String> blacklist = new HashSet<>();
+    //Resolved when a world is initialized, listeners look up the policy of a world for every event
+    private static final Map<UUID, WorldPolicy> worldPolicies = new ConcurrentHashMap<>();
     private final mcMMO plugin;
 
     private final String blackListFileName = "world_blacklist.txt";
@@ -18,7 +26,7 @@ public class WorldBlacklist {
     public WorldBlacklist(mcMMO plugin)
     {
         this.plugin = plugin;
-        blacklist = new ArrayList<>();
+        blacklist = new HashSet<>();
         init();
     }
 
@@ -37,6 +45,13 @@ public class WorldBlacklist {
         //Load up the blacklist
         loadBlacklist(blackListFile);
         //registerFlags();
+
+        //Worlds loaded before mcMMO never fire an init event
+        worldPolicies.clear();
+
+        for(World world : plugin.getServer().getWorlds()) {
+            resolveWorldPolicy(world);
+        }
     }
 
     private void loadBlacklist(File blackListFile) {
@@ -53,8 +68,7 @@ public class WorldBlacklist {
                 if(currentLine.length() == 0)
                     continue;
 
-                if(!blacklist.contains(currentLine))
-                    blacklist.add(currentLine);
+                blacklist.add(currentLine.toLowerCase(Locale.ENGLISH));
             }
 
 
@@ -79,15 +93,43 @@ public class WorldBlacklist {
         }
     }
 
-    public static boolean isWorldBlacklisted(World world)
+    /**
+     * Resolves the policy of a world from the blacklist and config.yml, replacing the existing one
+     * @param world the world being loaded
+     * @return the resolved policy
+     */
+    public static WorldPolicy resolveWorldPolicy(World world)
     {
+        String worldName = world.getName();
+        boolean blacklisted = blacklist.contains(worldName.toLowerCase(Locale.ENGLISH));
 
-        for(String s : blacklist)
-        {
-            if(world.getName().equalsIgnoreCase(s))
-                return true;
-        }
+        WorldPolicy worldPolicy = new WorldPolicy(blacklisted,
+                !blacklisted && Config.getInstance().getWorldXpEnabled(worldName),
+                !blacklisted && Config.getInstance().getWorldAbilitiesEnabled(worldName),
+                Config.getInstance().getWorldPlacedBlockTrackingEnabled(worldName));
 
-        return false;
+        worldPolicies.put(world.getUID(), worldPolicy);
+        return worldPolicy;
+    }
+
+    public static void forgetWorldPolicy(World world)
+    {
+        worldPolicies.remove(world.getUID());
+    }
+
+    public static WorldPolicy getWorldPolicy(World world)
+    {
+        WorldPolicy worldPolicy = worldPolicies.get(world.getUID());
+
+        //The world was loaded without firing an event we saw
+        if(worldPolicy == null)
+            worldPolicy = resolveWorldPolicy(world);
+
+        return worldPolicy;
+    }
+
+    public static boolean isWorldBlacklisted(World world)
+    {
+        return getWorldPolicy(world).isBlacklisted();
     }
 }
@@ -0,0 +1,41 @@
+package com.gmail.nossr50.config;
+
+/**
+ * Which mcMMO features are enabled in a world
+ * Resolved once per world by {@link WorldBlacklist}, so listeners can exit early without any string comparisons
+ */
+public class WorldPolicy {
+    private final boolean blacklisted;
+    private final boolean xpEnabled;
+    private final boolean abilitiesEnabled;
+    private final boolean placedBlockTrackingEnabled;
+
+    public WorldPolicy(boolean blacklisted, boolean xpEnabled, boolean abilitiesEnabled, boolean placedBlockTrackingEnabled) {
+        this.blacklisted = blacklisted;
+        this.xpEnabled = xpEnabled;
+        this.abilitiesEnabled = abilitiesEnabled;
+        this.placedBlockTrackingEnabled = placedBlockTrackingEnabled;
+    }
+
+    /**
+     * @return true if mcMMO is disabled in this world
+     */
+    public boolean isBlacklisted() {
+        return blacklisted;
+    }
+
+    public boolean isXpEnabled() {
+        return xpEnabled;
+    }
+
+    public boolean isAbilitiesEnabled() {
+        return abilitiesEnabled;
+    }
+
+    /**
+     * @return true if placed blocks are tracked so they don't give out XP when broken
+     */
+    public boolean isPlacedBlockTrackingEnabled() {
+        return placedBlockTrackingEnabled;
+    }
+}
@@ -32,6 +32,8 @@ public class TreasureConfig extends ConfigLoader {
     public HashMap<Rarity, List<FishingTreasure>>     fishingRewards      = new HashMap<>();
     public HashMap<Rarity, List<EnchantmentTreasure>> fishingEnchantments = new HashMap<>();
 
+    private TreasureTables treasureTables;
+
     private TreasureConfig() {
         super("treasures.yml");
         loadKeys();
@@ -86,6 +88,7 @@ public class TreasureConfig extends ConfigLoader {
     protected void loadKeys() {
         if (config.getConfigurationSection("Treasures") != null) {
             backup();
+            compileTreasureTables();
             return;
         }
 
@@ -99,6 +102,46 @@ public class TreasureConfig extends ConfigLoader {
                 loadTreasures("Shake." + entity.toString());
             }
         }
+
+        compileTreasureTables();
+    }
+
+    private void compileTreasureTables() {
+        treasureTables = new TreasureTables(loadDropRates("Item_Drop_Rates"), loadDropRates("Enchantment_Drop_Rates"),
+                fishingRewards, fishingEnchantments, shakeMap);
+    }
+
+    /**
+     * Reads the drop rates of every tier, indexed by tier then by rarity ordinal
+     */
+    private double[][] loadDropRates(String sectionName) {
+        ConfigurationSection section = config.getConfigurationSection(sectionName);
+        int maxTier = 0;
+
+        if (section != null) {
+            for (String tierKey : section.getKeys(false)) {
+                try {
+                    maxTier = Math.max(maxTier, Integer.parseInt(tierKey.substring(tierKey.indexOf('_') + 1)));
+                }
+                catch (NumberFormatException e) {
+                    plugin.getLogger().warning("Skipping invalid tier in treasures.yml: " + sectionName + "." + tierKey);
+                }
+            }
+        }
+
+        double[][] dropRates = new double[maxTier + 1][Rarity.values().length];
+
+        for (int tier = 0; tier <= maxTier; tier++) {
+            for (Rarity rarity : Rarity.values()) {
+                dropRates[tier][rarity.ordinal()] = config.getDouble(sectionName + ".Tier_" + tier + "." + rarity.toString());
+            }
+        }
+
+        return dropRates;
+    }
+
+    public TreasureTables getTreasureTables() {
+        return treasureTables;
     }
 
     private void loadTreasures(String type) {
@@ -356,10 +399,10 @@ public class TreasureConfig extends ConfigLoader {
     }
 
     public double getItemDropRate(int tier, Rarity rarity) {
-        return config.getDouble("Item_Drop_Rates.Tier_" + tier + "." + rarity.toString());
+        return treasureTables.getItemDropRate(tier, rarity);
     }
 
     public double getEnchantmentDropRate(int tier, Rarity rarity) {
-        return config.getDouble("Enchantment_Drop_Rates.Tier_" + tier + "." + rarity.toString());
+        return treasureTables.getEnchantmentDropRate(tier, rarity);
     }
 }
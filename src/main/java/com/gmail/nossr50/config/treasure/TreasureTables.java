@@ -0,0 +1,233 @@
+package com.gmail.nossr50.config.treasure;
+
+import com.gmail.nossr50.config.Config;
+import com.gmail.nossr50.datatypes.treasure.EnchantmentTreasure;
+import com.gmail.nossr50.datatypes.treasure.FishingTreasure;
+import com.gmail.nossr50.datatypes.treasure.Rarity;
+import com.gmail.nossr50.datatypes.treasure.ShakeTreasure;
+import com.gmail.nossr50.util.random.AliasTable;
+import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Fishing and Shake treasures compiled out of treasures.yml once per load
+ * Drop rates are arrays indexed by tier and rarity, every draw goes through an alias table with the same odds as rolling
+ * a dice against the configured chances, and the enchantments that can go on each fishing treasure are known in advance.
+ */
+public class TreasureTables {
+    private static final Rarity[] RARITIES = Rarity.values();
+    private static final FishingTreasure[] NO_FISHING_TREASURES = new FishingTreasure[0];
+    private static final EnchantmentTreasure[] NO_ENCHANTMENTS = new EnchantmentTreasure[0];
+
+    // Indexed by tier then by rarity ordinal
+    private final double[][] itemDropRates;
+    private final double[][] enchantmentDropRates;
+
+    // Indexed by rarity ordinal
+    private final FishingTreasure[][] fishingRewards = new FishingTreasure[RARITIES.length][];
+    private final EnchantmentTreasure[][] fishingEnchantments = new EnchantmentTreasure[RARITIES.length][];
+
+    // Rarity tables by tier and luck, the last outcome of each table is no treasure
+    private final Map<Long, AliasTable> fishingRarityTables = new HashMap<>();
+    private final Map<EntityType, ShakeTable> shakeTables = new HashMap<>();
+    // The enchantments of each rarity that can be applied to a material, indexed by rarity ordinal
+    private final Map<Material, EnchantmentTreasure[][]> enchantmentsByMaterial = new HashMap<>();
+
+    TreasureTables(double[][] itemDropRates, double[][] enchantmentDropRates,
+                   Map<Rarity, List<FishingTreasure>> fishingRewards, Map<Rarity, List<EnchantmentTreasure>> fishingEnchantments,
+                   Map<EntityType, List<ShakeTreasure>> shakeMap) {
+        this.itemDropRates = itemDropRates;
+        this.enchantmentDropRates = enchantmentDropRates;
+
+        for (Rarity rarity : RARITIES) {
+            List<FishingTreasure> rewards = fishingRewards.get(rarity);
+            List<EnchantmentTreasure> enchantments = fishingEnchantments.get(rarity);
+
+            this.fishingRewards[rarity.ordinal()] = rewards == null ? NO_FISHING_TREASURES : rewards.toArray(NO_FISHING_TREASURES);
+            this.fishingEnchantments[rarity.ordinal()] = enchantments == null ? NO_ENCHANTMENTS : enchantments.toArray(NO_ENCHANTMENTS);
+        }
+
+        for (Map.Entry<EntityType, List<ShakeTreasure>> entry : shakeMap.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                shakeTables.put(entry.getKey(), new ShakeTable(entry.getValue()));
+            }
+        }
+
+        // Fishing treasures are the only items Magic Hunter enchants
+        for (FishingTreasure[] rewards : this.fishingRewards) {
+            for (FishingTreasure reward : rewards) {
+                getApplicableEnchantments(reward.getDrop().getType(), Rarity.COMMON);
+            }
+        }
+    }
+
+    public double getItemDropRate(int tier, @NotNull Rarity rarity) {
+        return tier >= 0 && tier < itemDropRates.length ? itemDropRates[tier][rarity.ordinal()] : 0;
+    }
+
+    public double getEnchantmentDropRate(int tier, @NotNull Rarity rarity) {
+        return tier >= 0 && tier < enchantmentDropRates.length ? enchantmentDropRates[tier][rarity.ordinal()] : 0;
+    }
+
+    /**
+     * Draws the rarity of a fishing treasure
+     * The odds are those of a roll from 0 to 100, scaled down by luck, falling into the cumulative item drop rates of the tier.
+     *
+     * @param tier the Treasure Hunter tier
+     * @param luck the level of Luck of the Sea on the rod
+     * @return the rarity, or null if no treasure was found
+     */
+    public @Nullable Rarity drawFishingRarity(int tier, int luck, @NotNull Random random) {
+        long key = ((long) tier << 32) | (luck & 0xFFFFFFFFL);
+        AliasTable aliasTable = fishingRarityTables.get(key);
+
+        if (aliasTable == null) {
+            aliasTable = buildFishingRarityTable(tier, luck);
+            fishingRarityTables.put(key, aliasTable);
+        }
+
+        int outcome = aliasTable.sample(random);
+        return outcome < RARITIES.length ? RARITIES[outcome] : null;
+    }
+
+    private @NotNull AliasTable buildFishingRarityTable(int tier, int luck) {
+        double scale = 1.0 - luck * Config.getInstance().getFishingLureModifier() / 100;
+        double[] dropRates = tier >= 0 && tier < itemDropRates.length ? itemDropRates[tier] : new double[RARITIES.length];
+
+        return new AliasTable(getFishingRarityWeights(dropRates, scale));
+    }
+
+    /**
+     * Works out the odds of each rarity for a roll from 0 to 100 scaled by luck
+     *
+     * @param dropRates the item drop rates of a tier, indexed by rarity ordinal
+     * @param scale what the roll is multiplied by
+     * @return the weight of each rarity followed by the weight of no treasure
+     */
+    static double[] getFishingRarityWeights(double[] dropRates, double scale) {
+        double[] weights = new double[dropRates.length + 1];
+
+        // A roll scaled down to 0 always lands in the first rarity
+        if (scale <= 0) {
+            weights[0] = 1;
+            return weights;
+        }
+
+        double range = 100 * scale;
+        double cumulativeRate = 0;
+
+        for (int i = 0; i < dropRates.length; i++) {
+            double lower = Math.min(cumulativeRate, range);
+            cumulativeRate += dropRates[i];
+            weights[i] = Math.max(0, Math.min(cumulativeRate, range) - lower);
+        }
+
+        weights[dropRates.length] = Math.max(0, range - Math.min(cumulativeRate, range));
+        return weights;
+    }
+
+    /**
+     * Picks one of the fishing treasures of a rarity, all of them are equally likely
+     *
+     * @return the treasure, or null if the rarity has none
+     */
+    public @Nullable FishingTreasure drawFishingTreasure(@NotNull Rarity rarity, @NotNull Random random) {
+        FishingTreasure[] rewards = fishingRewards[rarity.ordinal()];
+        return rewards.length == 0 ? null : rewards[random.nextInt(rewards.length)];
+    }
+
+    /**
+     * Gets the Magic Hunter enchantments of a rarity that can be applied to a material
+     *
+     * @return the enchantments, this array must not be modified
+     */
+    public @NotNull EnchantmentTreasure[] getApplicableEnchantments(@NotNull Material material, @NotNull Rarity rarity) {
+        EnchantmentTreasure[][] applicable = enchantmentsByMaterial.get(material);
+
+        if (applicable == null) {
+            applicable = new EnchantmentTreasure[RARITIES.length][];
+            ItemStack itemStack = new ItemStack(material);
+
+            for (Rarity current : RARITIES) {
+                List<EnchantmentTreasure> enchantments = new ArrayList<>();
+
+                for (EnchantmentTreasure enchantmentTreasure : fishingEnchantments[current.ordinal()]) {
+                    if (enchantmentTreasure.getEnchantment().canEnchantItem(itemStack)) {
+                        enchantments.add(enchantmentTreasure);
+                    }
+                }
+
+                applicable[current.ordinal()] = enchantments.toArray(NO_ENCHANTMENTS);
+            }
+
+            enchantmentsByMaterial.put(material, applicable);
+        }
+
+        return applicable[rarity.ordinal()];
+    }
+
+    /**
+     * Draws a Shake treasure for an entity type
+     *
+     * @return the treasure, or null if nothing should drop
+     */
+    public @Nullable ShakeTreasure drawShakeTreasure(@NotNull EntityType entityType, @NotNull Random random) {
+        ShakeTable shakeTable = shakeTables.get(entityType);
+        return shakeTable == null ? null : shakeTable.draw(random);
+    }
+
+    /**
+     * Shake rolls a whole number from 0 to 99 and gives the first treasure whose cumulative chance is above it,
+     * so each treasure gets the whole numbers inside its share of the cumulative chances.
+     *
+     * @param dropChances the drop chance of each treasure, in the order they are configured
+     * @return the weight of each treasure followed by the weight of no treasure
+     */
+    static double[] getShakeWeights(double[] dropChances) {
+        double[] weights = new double[dropChances.length + 1];
+        double cumulatedProbability = 0;
+        double totalWeight = 0;
+
+        for (int i = 0; i < dropChances.length; i++) {
+            double lower = Math.ceil(Math.max(0, Math.min(cumulatedProbability, 100)));
+            cumulatedProbability += dropChances[i];
+            weights[i] = Math.max(0, Math.ceil(Math.max(0, Math.min(cumulatedProbability, 100))) - lower);
+            totalWeight += weights[i];
+        }
+
+        weights[dropChances.length] = Math.max(0, 100 - totalWeight);
+        return weights;
+    }
+
+    private static class ShakeTable {
+        private final ShakeTreasure[] treasures;
+        // The last outcome is no treasure
+        private final AliasTable aliasTable;
+
+        private ShakeTable(List<ShakeTreasure> possibleDrops) {
+            treasures = possibleDrops.toArray(new ShakeTreasure[0]);
+
+            double[] dropChances = new double[treasures.length];
+
+            for (int i = 0; i < treasures.length; i++) {
+                dropChances[i] = treasures[i].getDropChance();
+            }
+
+            aliasTable = new AliasTable(getShakeWeights(dropChances));
+        }
+
+        private @Nullable ShakeTreasure draw(@NotNull Random random) {
+            int outcome = aliasTable.sample(random);
+            return outcome < treasures.length ? treasures[outcome] : null;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.gmail.nossr50.database;
+
+import com.gmail.nossr50.datatypes.player.PlayerProfile;
+import com.gmail.nossr50.mcMMO;
+import com.gmail.nossr50.util.Misc;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Streams every user from one database into another
+ * The source is read in a single pass and handed in batches through a bounded queue to a writer thread, so reading
+ * and writing overlap. There is only one writer, concurrent account creation deadlocks on MySQL and the flatfile
+ * and SQLite are written under a single lock anyway.
+ * Progress is written to a checkpoint file so an interrupted conversion resumes where it stopped, the checkpoint
+ * remembers a fingerprint of the source and is thrown away if the source has changed since.
+ */
+public class DatabaseConversionPipeline {
+    private static final int BATCH_SIZE = 250;
+    private static final int QUEUED_BATCHES = 2;
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final List<PlayerProfile> END_OF_STREAM = new ArrayList<>();
+
+    private final DatabaseManager source;
+    private final DatabaseManager destination;
+    private final File checkpointFile;
+
+    private String fingerprint;
+    private volatile boolean failed = false;
+    private int convertedUsers = 0;
+    private long checkpointedUsers;
+    private long startMillis;
+
+    public DatabaseConversionPipeline(DatabaseManager source, DatabaseManager destination) {
+        this.source = source;
+        this.destination = destination;
+        this.checkpointFile = new File(mcMMO.getFlatFileDirectory(), "conversion_" + source.getDatabaseType().name().toLowerCase(Locale.ENGLISH) + "_to_" + destination.getDatabaseType().name().toLowerCase(Locale.ENGLISH) + ".checkpoint");
+    }
+
+    /**
+     * Run the conversion, blocking until every user has been written
+     *
+     * @return true if every user was converted
+     */
+    public boolean run() {
+        fingerprint = source.getUsersFingerprint();
+
+        if (fingerprint == null) {
+            mcMMO.p.getLogger().severe("Could not read the users of the " + source.getDatabaseType() + " database, nothing was converted");
+            return false;
+        }
+
+        checkpointedUsers = readCheckpoint();
+        startMillis = System.currentTimeMillis();
+
+        if (checkpointedUsers > 0) {
+            mcMMO.p.getLogger().info("Resuming database conversion after " + checkpointedUsers + " users");
+        }
+
+        destination.beginConversion(checkpointedUsers > 0);
+
+        BlockingQueue<List<PlayerProfile>> queue = new ArrayBlockingQueue<>(QUEUED_BATCHES);
+        Thread writer = new Thread(() -> writeBatches(queue), "mcMMO Database Conversion Writer");
+        writer.start();
+
+        try {
+            BatchProducer producer = new BatchProducer(queue);
+            source.readUsers(checkpointedUsers, producer::add);
+            producer.flush();
+        }
+        catch (RuntimeException e) {
+            e.printStackTrace();
+            failed = true;
+        }
+        finally {
+            putUninterruptibly(queue, END_OF_STREAM);
+        }
+
+        boolean interrupted = false;
+
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        boolean stored = destination.endConversion(!failed);
+
+        if (failed || !stored) {
+            mcMMO.p.getLogger().warning("Database conversion finished with errors, run it again to resume from the last checkpoint");
+            return false;
+        }
+
+        if (checkpointFile.exists() && !checkpointFile.delete()) {
+            mcMMO.p.getLogger().warning("Could not delete the database conversion checkpoint " + checkpointFile.getPath());
+        }
+
+        return true;
+    }
+
+    private void writeBatches(BlockingQueue<List<PlayerProfile>> queue) {
+        while (true) {
+            List<PlayerProfile> batch;
+
+            try {
+                batch = queue.take();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed = true;
+                return;
+            }
+
+            if (batch == END_OF_STREAM) {
+                return;
+            }
+
+            // The checkpoint can't move past a failed batch, keep draining so the reader isn't stuck on a full queue
+            if (failed) {
+                continue;
+            }
+
+            if (!writeBatch(batch)) {
+                mcMMO.p.getLogger().severe("Failed to convert " + batch.size() + " users after " + MAX_BATCH_ATTEMPTS + " attempts");
+                failed = true;
+                continue;
+            }
+
+            for (int i = 0; i < batch.size(); i++) {
+                Misc.printProgress(++convertedUsers, DatabaseManager.progressInterval, startMillis);
+            }
+
+            checkpointedUsers += batch.size();
+            writeCheckpoint(checkpointedUsers);
+        }
+    }
+
+    /**
+     * Write a batch, writing it again from the start if the destination rolled it back
+     *
+     * @return true if the batch was written
+     */
+    private boolean writeBatch(List<PlayerProfile> batch) {
+        for (int attempt = 1; attempt <= MAX_BATCH_ATTEMPTS; attempt++) {
+            try {
+                if (destination.saveUsers(batch)) {
+                    return true;
+                }
+            }
+            catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+
+            if (attempt < MAX_BATCH_ATTEMPTS) {
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS * attempt);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the users to skip, zero unless the checkpoint was written while converting this same source
+     */
+    private long readCheckpoint() {
+        if (!checkpointFile.exists()) {
+            return 0;
+        }
+
+        try (BufferedReader in = new BufferedReader(new FileReader(checkpointFile))) {
+            String checkpointFingerprint = in.readLine();
+            String line = in.readLine();
+
+            if (!fingerprint.equals(checkpointFingerprint) || line == null) {
+                mcMMO.p.getLogger().warning("The " + source.getDatabaseType() + " database has changed since the last conversion checkpoint, starting from the beginning");
+                return 0;
+            }
+
+            return Long.parseLong(line.trim());
+        }
+        catch (IOException | NumberFormatException e) {
+            mcMMO.p.getLogger().warning("Could not read the database conversion checkpoint, starting from the beginning");
+            return 0;
+        }
+    }
+
+    private void writeCheckpoint(long users) {
+        try (FileWriter out = new FileWriter(checkpointFile)) {
+            out.write(fingerprint + "\n" + users);
+        }
+        catch (IOException e) {
+            mcMMO.p.getLogger().warning("Could not write the database conversion checkpoint: " + e.getMessage());
+        }
+    }
+
+    private static void putUninterruptibly(BlockingQueue<List<PlayerProfile>> queue, List<PlayerProfile> batch) {
+        boolean interrupted = false;
+
+        while (true) {
+            try {
+                queue.put(batch);
+                break;
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Groups the profiles read from the source into batches for the writer
+     */
+    private class BatchProducer {
+        private final BlockingQueue<List<PlayerProfile>> queue;
+        private List<PlayerProfile> profiles = new ArrayList<>(BATCH_SIZE);
+
+        private BatchProducer(BlockingQueue<List<PlayerProfile>> queue) {
+            this.queue = queue;
+        }
+
+        private void add(PlayerProfile profile) {
+            // Nothing read after a failed batch can be checkpointed, the rest is read again on the next run
+            if (failed) {
+                return;
+            }
+
+            profiles.add(profile);
+
+            if (profiles.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (profiles.isEmpty()) {
+                return;
+            }
+
+            putUninterruptibly(queue, profiles);
+            profiles = new ArrayList<>(BATCH_SIZE);
+        }
+    }
+}
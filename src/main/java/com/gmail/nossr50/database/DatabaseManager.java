@@ -9,9 +9,11 @@ import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface DatabaseManager {
     // One month in milliseconds
@@ -38,6 +40,14 @@ public interface DatabaseManager {
      */
     boolean removeUser(String playerName, UUID uuid);
 
+    /**
+     * Remove users from the database by UUID alone, online players are left untouched.
+     *
+     * @param uuids the UUIDs of the users to remove
+     * @return the number of users that were removed
+     */
+    int removeUsersByUniqueId(Collection<UUID> uuids);
+
     /**
      * Removes any cache used for faster lookups
      * Currently only used for SQL
@@ -53,6 +63,23 @@ public interface DatabaseManager {
      */
     boolean saveUser(PlayerProfile profile);
 
+    /**
+     * Save many users to the database at once.
+     * Implementations may write the whole batch in a single pass or transaction.
+     *
+     * @param profiles The profiles of the players to save
+     * @return true if every profile was saved, false if any failed
+     */
+    default boolean saveUsers(List<PlayerProfile> profiles) {
+        boolean success = true;
+
+        for (PlayerProfile profile : profiles) {
+            success &= saveUser(profile);
+        }
+
+        return success;
+    }
+
     /**
     * Retrieve leaderboard info.
      * Will never be null but it may be empty
@@ -124,13 +151,65 @@ public interface DatabaseManager {
      */
     List<String> getStoredUsers();
 
+    /**
+     * Read every user stored in the database in a single pass.
+     * Users are always read in the same order, so a pass can be resumed by skipping the users already read.
+     *
+     * @param skip How many users to skip from the start
+     * @param consumer Receives each profile as it is read
+     */
+    default void readUsers(long skip, Consumer<PlayerProfile> consumer) {
+        long skipped = 0;
+
+        for (String playerName : getStoredUsers()) {
+            if (skipped++ < skip) {
+                continue;
+            }
+
+            consumer.accept(loadPlayerProfile(playerName, null, false));
+        }
+    }
+
+    /**
+     * Describe the users {@link #readUsers(long, Consumer)} would read, so a conversion checkpoint can tell whether it still
+     * belongs to this database.
+     *
+     * @return a value that changes whenever users are added or removed, or null if the database could not be read
+     */
+    default @Nullable String getUsersFingerprint() {
+        List<String> users = getStoredUsers();
+        return users.size() + ":" + users.hashCode();
+    }
+
+    /**
+     * Called before a conversion starts writing users to this database with {@link #saveUsers(List)}.
+     *
+     * @param resume true if the conversion picks up from a checkpoint and keeps what an earlier run wrote
+     */
+    default void beginConversion(boolean resume) {
+    }
+
+    /**
+     * Called once a conversion has stopped writing users to this database.
+     *
+     * @param completed true if every user was written, false if the conversion will have to be resumed
+     * @return true if the converted users are stored
+     */
+    default boolean endConversion(boolean completed) {
+        return true;
+    }
+
     /**
      * Convert all users from this database to the provided database using
-     * {@link #saveUser(PlayerProfile)}.
+     * a {@link DatabaseConversionPipeline}, which reads this database with
+     * {@link #readUsers(long, Consumer)} and writes with {@link #saveUsers(List)}.
      *
      * @param destination The DatabaseManager to save to
+     * @return true if every user was converted
      */
-    void convertUsers(DatabaseManager destination);
+    default boolean convertUsers(DatabaseManager destination) {
+        return new DatabaseConversionPipeline(this, destination).run();
+    }
 
     boolean saveUserUUID(String userName, UUID uuid);
 
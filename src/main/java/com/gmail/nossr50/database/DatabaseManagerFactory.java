@@ -20,10 +20,14 @@ public class DatabaseManagerFactory {
                 mcMMO.p.debug("Failed to create custom database manager");
                 e.printStackTrace();
             }
-            mcMMO.p.debug("Falling back on " + (Config.getInstance().getUseMySQL() ? "SQL" : "Flatfile") + " database");
+            mcMMO.p.debug("Falling back on " + (Config.getInstance().getUseMySQL() ? "SQL" : Config.getInstance().getUseSQLite() ? "SQLite" : "Flatfile") + " database");
         }
 
-        return Config.getInstance().getUseMySQL() ? new SQLDatabaseManager() : new FlatfileDatabaseManager();
+        if (Config.getInstance().getUseMySQL()) {
+            return new SQLDatabaseManager();
+        }
+
+        return Config.getInstance().getUseSQLite() ? new SQLiteDatabaseManager() : new FlatfileDatabaseManager();
     }
 
     /**
@@ -66,6 +70,10 @@ public class DatabaseManagerFactory {
                 mcMMO.p.getLogger().info("Using SQL Database");
                 return new SQLDatabaseManager();
 
+            case SQLITE:
+                mcMMO.p.getLogger().info("Using SQLite Database");
+                return new SQLiteDatabaseManager();
+
             case CUSTOM:
                 try {
                     mcMMO.p.getLogger().info("Attempting to use Custom Database");
@@ -20,7 +20,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.function.Consumer;
 
 public final class FlatfileDatabaseManager implements DatabaseManager {
     private final HashMap<PrimarySkillType, List<PlayerStat>> playerStatHash = new HashMap<>();
@@ -31,6 +34,9 @@ public final class FlatfileDatabaseManager implements DatabaseManager {
     private final File usersFile;
     private static final Object fileWritingLock = new Object();
 
+    // While a conversion writes to this database, its batches are appended here and merged into the users file once
+    private volatile File conversionFile;
+
     protected FlatfileDatabaseManager() {
         usersFile = new File(mcMMO.getUsersFilePath());
         checkStructure();
@@ -244,6 +250,64 @@ public final class FlatfileDatabaseManager implements DatabaseManager {
         return worked;
     }
 
+    public int removeUsersByUniqueId(Collection<UUID> uuids) {
+        Set<String> uuidStrings = new HashSet<>();
+        int removed = 0;
+
+        for (UUID uuid : uuids) {
+            uuidStrings.add(uuid.toString().toLowerCase(Locale.ENGLISH));
+        }
+
+        BufferedReader in = null;
+        FileWriter out = null;
+        String usersFilePath = mcMMO.getUsersFilePath();
+
+        synchronized (fileWritingLock) {
+            try {
+                in = new BufferedReader(new FileReader(usersFilePath));
+                StringBuilder writer = new StringBuilder();
+                String line;
+
+                while ((line = in.readLine()) != null) {
+                    String[] character = line.split(":");
+
+                    if (character.length > UUID_INDEX && uuidStrings.contains(character[UUID_INDEX].toLowerCase(Locale.ENGLISH))) {
+                        removed++;
+                        continue;
+                    }
+
+                    writer.append(line).append("\r\n");
+                }
+
+                out = new FileWriter(usersFilePath); // Write out the new file
+                out.write(writer.toString());
+            }
+            catch (Exception e) {
+                mcMMO.p.getLogger().severe("Exception while reading " + usersFilePath + " (Are you sure you formatted it correctly?)" + e.toString());
+            }
+            finally {
+                if (in != null) {
+                    try {
+                        in.close();
+                    }
+                    catch (IOException e) {
+                        // Ignore
+                    }
+                }
+                if (out != null) {
+                    try {
+                        out.close();
+                    }
+                    catch (IOException e) {
+                        // Ignore
+                    }
+                }
+            }
+        }
+
+        return removed;
+    }
+
     @Override
     public void cleanupUser(UUID uuid) {
         //Not used in FlatFile
@@ -317,6 +381,219 @@ public final class FlatfileDatabaseManager implements DatabaseManager {
         }
     }
 
+    /**
+     * Saves a whole batch of users with a single rewrite of the users file
+     * During a conversion the batch is appended to the conversion file instead, see {@link #endConversion(boolean)}
+     */
+    @Override
+    public boolean saveUsers(List<PlayerProfile> profiles) {
+        File conversionFile = this.conversionFile;
+
+        if (conversionFile != null) {
+            return appendUsers(conversionFile, profiles);
+        }
+
+        Map<String, PlayerProfile> profilesByUUID = new HashMap<>();
+        Map<String, PlayerProfile> profilesByName = new HashMap<>();
+        Set<PlayerProfile> writtenProfiles = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (PlayerProfile profile : profiles) {
+            if (profile.getUniqueId() != null) {
+                profilesByUUID.put(profile.getUniqueId().toString().toLowerCase(Locale.ENGLISH), profile);
+            }
+
+            profilesByName.put(profile.getPlayerName().toLowerCase(Locale.ENGLISH), profile);
+        }
+
+        BufferedReader in = null;
+        FileWriter out = null;
+        String usersFilePath = mcMMO.getUsersFilePath();
+
+        synchronized (fileWritingLock) {
+            try {
+                // Open the file
+                in = new BufferedReader(new FileReader(usersFilePath));
+                StringBuilder writer = new StringBuilder();
+                String line;
+
+                // While not at the end of the file
+                while ((line = in.readLine()) != null) {
+                    // Read the line in and copy it to the output if it's not one of the players we want to edit
+                    String[] character = line.split(":");
+                    PlayerProfile profile = profilesByUUID.get(character[UUID_INDEX].toLowerCase(Locale.ENGLISH));
+
+                    if (profile == null) {
+                        profile = profilesByName.get(character[USERNAME].toLowerCase(Locale.ENGLISH));
+                    }
+
+                    if (profile == null) {
+                        writer.append(line).append("\r\n");
+                    }
+                    else {
+                        // Otherwise write the new player information
+                        writeUserToLine(profile, profile.getPlayerName(), profile.getUniqueId(), writer);
+                        writtenProfiles.add(profile);
+                    }
+                }
+
+                // Add the users that were not in the file yet
+                for (PlayerProfile profile : profiles) {
+                    if (!writtenProfiles.contains(profile)) {
+                        writeUserToLine(profile, profile.getPlayerName(), profile.getUniqueId(), writer);
+                    }
+                }
+
+                // Write the new file
+                out = new FileWriter(usersFilePath);
+                out.write(writer.toString());
+                return true;
+            }
+            catch (Exception e) {
+                e.printStackTrace();
+                return false;
+            }
+            finally {
+                if (in != null) {
+                    try {
+                        in.close();
+                    }
+                    catch (IOException e) {
+                        // Ignore
+                    }
+                }
+                if (out != null) {
+                    try {
+                        out.close();
+                    }
+                    catch (IOException e) {
+                        // Ignore
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean appendUsers(File file, List<PlayerProfile> profiles) {
+        StringBuilder writer = new StringBuilder();
+
+        for (PlayerProfile profile : profiles) {
+            writeUserToLine(profile, profile.getPlayerName(), profile.getUniqueId(), writer);
+        }
+
+        synchronized (fileWritingLock) {
+            try (FileWriter out = new FileWriter(file, true)) {
+                out.write(writer.toString());
+                return true;
+            }
+            catch (IOException e) {
+                e.printStackTrace();
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public void beginConversion(boolean resume) {
+        File file = new File(mcMMO.getFlatFileDirectory(), "mcmmo.users.converting");
+
+        // Without a checkpoint to resume from, whatever an earlier run left behind is stale
+        if (!resume && file.exists() && !file.delete()) {
+            mcMMO.p.getLogger().warning("Could not delete " + file.getPath());
+        }
+
+        conversionFile = file;
+    }
+
+    /**
+     * Merge the converted users into the users file in a single pass
+     * Converted users replace the users already stored with the same UUID or name, and when a batch was written
+     * twice because a conversion was resumed, the last copy of each user wins.
+     */
+    @Override
+    public boolean endConversion(boolean completed) {
+        File file = conversionFile;
+        conversionFile = null;
+
+        // An unfinished conversion keeps its file, the next run resumes appending to it
+        if (!completed) {
+            return false;
+        }
+
+        if (file == null || !file.exists()) {
+            return true;
+        }
+
+        Map<String, Long> lastLineByKey = new HashMap<>();
+        Set<String> convertedUUIDs = new HashSet<>();
+        Set<String> convertedNames = new HashSet<>();
+        File mergedFile = new File(mcMMO.getFlatFileDirectory(), "mcmmo.users.merging");
+
+        synchronized (fileWritingLock) {
+            try {
+                try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+                    String line;
+                    long lineNumber = 0;
+
+                    while ((line = in.readLine()) != null) {
+                        String[] character = line.split(":");
+                        String uuid = character[UUID_INDEX].toLowerCase(Locale.ENGLISH);
+                        String name = character[USERNAME].toLowerCase(Locale.ENGLISH);
+
+                        lastLineByKey.put(uuid.equals("null") ? "name:" + name : uuid, lineNumber++);
+                        convertedNames.add(name);
+
+                        if (!uuid.equals("null")) {
+                            convertedUUIDs.add(uuid);
+                        }
+                    }
+                }
+
+                try (BufferedWriter out = new BufferedWriter(new FileWriter(mergedFile))) {
+                    try (BufferedReader in = new BufferedReader(new FileReader(usersFile))) {
+                        String line;
+
+                        while ((line = in.readLine()) != null) {
+                            String[] character = line.split(":");
+
+                            if (!convertedUUIDs.contains(character[UUID_INDEX].toLowerCase(Locale.ENGLISH)) && !convertedNames.contains(character[USERNAME].toLowerCase(Locale.ENGLISH))) {
+                                out.write(line);
+                                out.write("\r\n");
+                            }
+                        }
+                    }
+
+                    try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+                        String line;
+                        long lineNumber = 0;
+
+                        while ((line = in.readLine()) != null) {
+                            String[] character = line.split(":");
+                            String uuid = character[UUID_INDEX].toLowerCase(Locale.ENGLISH);
+                            String key = uuid.equals("null") ? "name:" + character[USERNAME].toLowerCase(Locale.ENGLISH) : uuid;
+
+                            if (lastLineByKey.get(key) == lineNumber++) {
+                                out.write(line);
+                                out.write("\r\n");
+                            }
+                        }
+                    }
+                }
+
+                Files.move(mergedFile.toPath(), usersFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (IOException e) {
+                e.printStackTrace();
+                return false;
+            }
+        }
+
+        if (!file.delete()) {
+            mcMMO.p.getLogger().warning("Could not delete " + file.getPath());
+        }
+
+        return true;
+    }
+
     private void writeUserToLine(PlayerProfile profile, String playerName, UUID uuid, StringBuilder writer) {
         writer.append(playerName).append(":");
         writer.append(profile.getSkillLevel(PrimarySkillType.MINING)).append(":");
@@ -547,43 +824,62 @@ public final class FlatfileDatabaseManager implements DatabaseManager {
         return new PlayerProfile(playerName, uuid);
     }
 
-    public void convertUsers(DatabaseManager destination) {
+    @Override
+    public void readUsers(long skip, Consumer<PlayerProfile> consumer) {
         BufferedReader in = null;
-        String usersFilePath = mcMMO.getUsersFilePath();
-        int convertedUsers = 0;
-        long startMillis = System.currentTimeMillis();
+        File snapshotFile = new File(mcMMO.getFlatFileDirectory(), "mcmmo.users.reading");
+        long readUsers = 0;
 
+        // The consumer can block for a long time, so the users are read from a copy instead of holding the lock
         synchronized (fileWritingLock) {
             try {
-                // Open the user file
-                in = new BufferedReader(new FileReader(usersFilePath));
-                String line;
+                Files.copy(usersFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+        }
 
-                while ((line = in.readLine()) != null) {
-                    String[] character = line.split(":");
+        try {
+            // Open the user file
+            in = new BufferedReader(new FileReader(snapshotFile));
+            String line;
 
-                    try {
-                        destination.saveUser(loadFromLine(character));
-                    }
-                    catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                    convertedUsers++;
-                    Misc.printProgress(convertedUsers, progressInterval, startMillis);
+            while ((line = in.readLine()) != null) {
+                String[] character = line.split(":");
+                PlayerProfile profile;
+
+                try {
+                    profile = loadFromLine(character);
                 }
+                catch (Exception e) {
+                    e.printStackTrace();
+                    continue;
+                }
+
+                if (readUsers++ < skip) {
+                    continue;
+                }
+
+                consumer.accept(profile);
             }
-            catch (Exception e) {
-                e.printStackTrace();
-            }
-            finally {
-                if (in != null) {
-                    try {
-                        in.close();
-                    }
-                    catch (IOException e) {
-                        // Ignore
-                    }
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+        finally {
+            if (in != null) {
+                try {
+                    in.close();
                 }
+                catch (IOException e) {
+                    // Ignore
+                }
+            }
+
+            if (!snapshotFile.delete()) {
+                mcMMO.p.getLogger().warning("Could not delete " + snapshotFile.getPath());
             }
         }
     }
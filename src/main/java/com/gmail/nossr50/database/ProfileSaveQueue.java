@@ -0,0 +1,290 @@
+package com.gmail.nossr50.database;
+
+import com.gmail.nossr50.datatypes.player.PlayerProfile;
+import com.gmail.nossr50.mcMMO;
+import com.gmail.nossr50.util.LatencyHistogram;
+import com.gmail.nossr50.util.metrics.MetricCounter;
+import com.gmail.nossr50.util.metrics.TimedOperation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes profile snapshots to the database on a single thread of its own
+ * Saving a player that already has a save waiting replaces the queued snapshot with the newer one,
+ * so logouts, autosaves and commands never write the same player more than once. Failed saves are
+ * retried on the same thread with an increasing delay.
+ */
+public class ProfileSaveQueue implements Runnable {
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long BASE_RETRY_DELAY_MILLIS = 500;
+    private static final long MAX_RETRY_DELAY_MILLIS = 30000;
+
+    private final DatabaseManager databaseManager;
+    private final Thread writerThread;
+
+    // Guarded by this
+    private final Map<String, PendingSave> pendingSaves = new LinkedHashMap<>();
+    private String inFlightKey;
+    private int flushingThreads = 0;
+    private boolean running = true;
+    private int peakQueueDepth = 0;
+
+    private final LatencyHistogram saveLatency = new LatencyHistogram();
+    private final AtomicLong savedProfiles = new AtomicLong();
+    private final AtomicLong failedSaves = new AtomicLong();
+    private final AtomicLong coalescedSaves = new AtomicLong();
+
+    public ProfileSaveQueue(@NotNull DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+        writerThread = new Thread(this, "mcMMO Profile Saver");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queue a snapshot of a profile to be written
+     *
+     * @param profile the live profile, marked dirty again if the snapshot can't be saved
+     * @param snapshot an immutable copy of the profile to write
+     */
+    public void submit(@NotNull PlayerProfile profile, @NotNull PlayerProfile snapshot) {
+        String key = getKey(snapshot.getUniqueId(), snapshot.getPlayerName());
+
+        synchronized (this) {
+            if (running) {
+                PendingSave pendingSave = pendingSaves.get(key);
+
+                if (pendingSave != null) {
+                    pendingSave.profile = profile;
+                    pendingSave.snapshot = snapshot;
+                    pendingSave.attempts = 0;
+                    pendingSave.nextAttemptMillis = 0;
+                    coalescedSaves.incrementAndGet();
+                }
+                else {
+                    pendingSaves.put(key, new PendingSave(key, profile, snapshot));
+                    peakQueueDepth = Math.max(peakQueueDepth, pendingSaves.size());
+                }
+
+                notifyAll();
+                return;
+            }
+        }
+
+        // The writer has shut down, nothing is left to queue behind
+        write(new PendingSave(key, profile, snapshot));
+    }
+
+    /**
+     * Wait until the newest queued snapshot of a player has had its first write attempt
+     */
+    public synchronized void awaitFirstAttempt(@Nullable UUID uuid, @NotNull String playerName) throws InterruptedException {
+        String key = getKey(uuid, playerName);
+
+        while (key.equals(inFlightKey) || (pendingSaves.containsKey(key) && pendingSaves.get(key).attempts == 0)) {
+            wait();
+        }
+    }
+
+    /**
+     * Wait until a player has no save queued or being written, retries included
+     */
+    public synchronized void awaitSaved(@Nullable UUID uuid, @NotNull String playerName) throws InterruptedException {
+        String key = getKey(uuid, playerName);
+
+        while (key.equals(inFlightKey) || pendingSaves.containsKey(key)) {
+            wait();
+        }
+    }
+
+    /**
+     * Write everything that is queued and wait for it, retries skip their delay while flushing
+     */
+    public synchronized void flush() {
+        flushingThreads++;
+        notifyAll();
+
+        try {
+            while (inFlightKey != null || !pendingSaves.isEmpty()) {
+                wait();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            flushingThreads--;
+        }
+    }
+
+    /**
+     * Flush the queue and stop the writer thread, later saves are written on the calling thread
+     */
+    public void shutdown() {
+        flush();
+
+        synchronized (this) {
+            running = false;
+            notifyAll();
+        }
+
+        try {
+            writerThread.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                PendingSave pendingSave = takeNextSave();
+
+                if (pendingSave == null) {
+                    return;
+                }
+
+                write(pendingSave);
+
+                synchronized (this) {
+                    inFlightKey = null;
+                    notifyAll();
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wait for the oldest save that is due
+     *
+     * @return the save, or null once the queue has shut down
+     */
+    private synchronized @Nullable PendingSave takeNextSave() throws InterruptedException {
+        while (true) {
+            if (pendingSaves.isEmpty()) {
+                if (!running) {
+                    return null;
+                }
+
+                wait();
+                continue;
+            }
+
+            long now = System.currentTimeMillis();
+            long nextAttemptMillis = Long.MAX_VALUE;
+            Iterator<PendingSave> iterator = pendingSaves.values().iterator();
+
+            while (iterator.hasNext()) {
+                PendingSave pendingSave = iterator.next();
+
+                if (flushingThreads > 0 || pendingSave.nextAttemptMillis <= now) {
+                    iterator.remove();
+                    inFlightKey = pendingSave.key;
+                    return pendingSave;
+                }
+
+                nextAttemptMillis = Math.min(nextAttemptMillis, pendingSave.nextAttemptMillis);
+            }
+
+            wait(Math.max(1, nextAttemptMillis - now));
+        }
+    }
+
+    private void write(PendingSave pendingSave) {
+        long start = System.nanoTime();
+        boolean success;
+
+        try {
+            success = databaseManager.saveUser(pendingSave.snapshot);
+        }
+        catch (Exception e) {
+            e.printStackTrace();
+            success = false;
+        }
+
+        long nanos = System.nanoTime() - start;
+        saveLatency.record(nanos);
+        mcMMO.getMetricsRegistry().record(TimedOperation.DATABASE_SAVE, nanos);
+        mcMMO.getMetricsRegistry().increment(MetricCounter.DATABASE_ROUND_TRIPS);
+
+        if (success) {
+            savedProfiles.incrementAndGet();
+            return;
+        }
+
+        failedSaves.incrementAndGet();
+        pendingSave.attempts++;
+        mcMMO.p.getLogger().severe("PlayerProfile saving failed for player: " + pendingSave.snapshot.getPlayerName() + " " + pendingSave.snapshot.getUniqueId());
+
+        if (pendingSave.attempts >= MAX_ATTEMPTS) {
+            mcMMO.p.getLogger().severe("mcMMO has failed to save the profile for "
+                    + pendingSave.snapshot.getPlayerName() + " numerous times." +
+                    " mcMMO will try again on the next save of this profile." +
+                    " Check your console for errors and inspect your DB for issues.");
+            pendingSave.profile.markProfileDirty();
+            return;
+        }
+
+        synchronized (this) {
+            // A newer snapshot queued while this one was being written replaces it
+            if (running && !pendingSaves.containsKey(pendingSave.key)) {
+                long delay = Math.min(MAX_RETRY_DELAY_MILLIS, BASE_RETRY_DELAY_MILLIS << (pendingSave.attempts - 1));
+                pendingSave.nextAttemptMillis = System.currentTimeMillis() + delay;
+                pendingSaves.put(pendingSave.key, pendingSave);
+            }
+        }
+    }
+
+    public synchronized int getQueueDepth() {
+        return pendingSaves.size() + (inFlightKey != null ? 1 : 0);
+    }
+
+    public synchronized int getPeakQueueDepth() {
+        return peakQueueDepth;
+    }
+
+    public LatencyHistogram getSaveLatency() {
+        return saveLatency;
+    }
+
+    public long getSavedProfiles() {
+        return savedProfiles.get();
+    }
+
+    public long getFailedSaves() {
+        return failedSaves.get();
+    }
+
+    public long getCoalescedSaves() {
+        return coalescedSaves.get();
+    }
+
+    private static String getKey(@Nullable UUID uuid, @NotNull String playerName) {
+        return uuid != null ? uuid.toString() : playerName;
+    }
+
+    private static class PendingSave {
+        private final String key;
+        private PlayerProfile profile;
+        private PlayerProfile snapshot;
+        private int attempts = 0;
+        private long nextAttemptMillis = 0;
+
+        private PendingSave(String key, PlayerProfile profile, PlayerProfile snapshot) {
+            this.key = key;
+            this.profile = profile;
+            this.snapshot = snapshot;
+        }
+    }
+}
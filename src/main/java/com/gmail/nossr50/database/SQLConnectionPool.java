@@ -0,0 +1,257 @@
+package com.gmail.nossr50.database;
+
+import com.gmail.nossr50.config.Config;
+import com.gmail.nossr50.database.SQLDatabaseManager.PoolIdentifier;
+import com.gmail.nossr50.mcMMO;
+import com.gmail.nossr50.util.LatencyHistogram;
+import com.gmail.nossr50.util.text.StringUtils;
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.apache.tomcat.jdbc.pool.PoolProperties;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One shared connection pool for every SQL workload
+ * Each workload has to hold a permit for every connection it uses, and the permits of all workloads
+ * never add up to more than the pool, so an autosave burst can only take its own share and loads still get through. Waits for a permit or a connection are bounded,
+ * callers get an SQLException instead of hanging when the database can't keep up.
+ */
+public class SQLConnectionPool {
+    private final DataSource dataSource;
+    private final String connectionString;
+    private final long maxWaitMillis;
+
+    private final Map<PoolIdentifier, Semaphore> permits = new EnumMap<>(PoolIdentifier.class);
+    private final Map<PoolIdentifier, Integer> maxPermits = new EnumMap<>(PoolIdentifier.class);
+    private final Map<PoolIdentifier, AtomicInteger> waiting = new EnumMap<>(PoolIdentifier.class);
+    private final Map<PoolIdentifier, LatencyHistogram> borrowLatency = new EnumMap<>(PoolIdentifier.class);
+    private final AtomicLong failedBorrows = new AtomicLong();
+
+    public SQLConnectionPool(String driverClassName, String connectionString) {
+        Config config = Config.getInstance();
+        int poolSize = config.getMySQLPoolSize();
+        this.connectionString = connectionString;
+        maxWaitMillis = config.getMySQLMaxWait();
+
+        PoolIdentifier[] identifiers = PoolIdentifier.values();
+        int[] workloadPermits = new int[identifiers.length];
+
+        for (int i = 0; i < identifiers.length; i++) {
+            workloadPermits[i] = config.getMySQLMaxConnections(identifiers[i]);
+        }
+
+        workloadPermits = partition(poolSize, workloadPermits);
+
+        for (int i = 0; i < identifiers.length; i++) {
+            PoolIdentifier identifier = identifiers[i];
+            permits.put(identifier, new Semaphore(workloadPermits[i], true));
+            maxPermits.put(identifier, workloadPermits[i]);
+            waiting.put(identifier, new AtomicInteger());
+            borrowLatency.put(identifier, new LatencyHistogram());
+        }
+
+        PoolProperties poolProperties = new PoolProperties();
+        poolProperties.setDriverClassName(driverClassName);
+        poolProperties.setUrl(connectionString);
+        poolProperties.setUsername(config.getMySQLUserName());
+        poolProperties.setPassword(config.getMySQLUserPassword());
+        poolProperties.setInitialSize(0);
+        poolProperties.setMinIdle(0);
+        poolProperties.setMaxIdle(poolSize);
+        poolProperties.setMaxActive(poolSize);
+        poolProperties.setMaxWait((int) maxWaitMillis);
+        poolProperties.setRemoveAbandoned(true);
+        poolProperties.setRemoveAbandonedTimeout(60);
+        // Validate connections while they sit idle, so borrowing one doesn't cost a round trip
+        poolProperties.setTestOnBorrow(false);
+        poolProperties.setTestWhileIdle(true);
+        poolProperties.setValidationQuery("SELECT 1");
+        poolProperties.setValidationInterval(30000);
+        poolProperties.setTimeBetweenEvictionRunsMillis(30000);
+        poolProperties.setMinEvictableIdleTimeMillis(60000);
+        dataSource = new DataSource(poolProperties);
+    }
+
+    /**
+     * Split the pool between the workloads, so together they can never ask for more connections than the pool holds
+     * Workloads asking for too much are scaled down in proportion to what they asked for, every workload keeps at least one
+     *
+     * @param poolSize the number of connections in the pool, at least one per workload
+     * @param requested the connections each workload asked for
+     * @return the connections each workload gets
+     */
+    private static int[] partition(int poolSize, int[] requested) {
+        long requestedTotal = 0;
+
+        for (int connections : requested) {
+            requestedTotal += connections;
+        }
+
+        if (requestedTotal <= poolSize) {
+            return requested;
+        }
+
+        int[] partitioned = new int[requested.length];
+        int total = 0;
+
+        for (int i = 0; i < requested.length; i++) {
+            partitioned[i] = (int) Math.max(1, requested[i] * poolSize / requestedTotal);
+            total += partitioned[i];
+        }
+
+        // Rounding every workload up to one connection can overshoot, take the difference from the largest shares
+        while (total > poolSize) {
+            int largest = 0;
+
+            for (int i = 1; i < partitioned.length; i++) {
+                if (partitioned[i] > partitioned[largest]) {
+                    largest = i;
+                }
+            }
+
+            partitioned[largest]--;
+            total--;
+        }
+
+        mcMMO.p.getLogger().warning("MySQL.Database.MaxConnections adds up to " + requestedTotal + " connections but MySQL.Database.Pool_Size is only " + poolSize
+                + ", the workloads were scaled down to " + Arrays.toString(partitioned) + " (" + Arrays.toString(PoolIdentifier.values()) + ")");
+        return partitioned;
+    }
+
+    /**
+     * Borrow a connection for a workload, closing it hands it back
+     *
+     * @param identifier the workload borrowing the connection
+     * @return a connection from the shared pool
+     * @throws SQLException if no connection could be borrowed in time
+     */
+    public Connection getConnection(PoolIdentifier identifier) throws SQLException {
+        long start = System.nanoTime();
+        Semaphore semaphore = permits.get(identifier);
+        AtomicInteger waitingCount = waiting.get(identifier);
+        boolean acquired;
+
+        waitingCount.incrementAndGet();
+
+        try {
+            acquired = semaphore.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a " + getName(identifier) + " connection", e);
+        }
+        finally {
+            waitingCount.decrementAndGet();
+        }
+
+        if (!acquired) {
+            failedBorrows.incrementAndGet();
+            throw new SQLTimeoutException("Timed out waiting for a " + getName(identifier) + " connection, increase MySQL.Database.MaxConnections." + StringUtils.getCapitalized(identifier.toString()));
+        }
+
+        Connection connection;
+
+        try {
+            connection = dataSource.getConnection();
+        }
+        catch (SQLException e) {
+            semaphore.release();
+            failedBorrows.incrementAndGet();
+            throw e;
+        }
+
+        borrowLatency.get(identifier).record(System.nanoTime() - start);
+        return wrap(connection, semaphore);
+    }
+
+    /**
+     * Open a connection outside of the pool for work that holds it for longer than a minute, such as streaming every user
+     * The pool would take such a connection back as abandoned in the middle of the work. Closing it closes the connection.
+     *
+     * @return a new connection that doesn't count against any workload
+     * @throws SQLException if the connection could not be opened
+     */
+    public Connection openUnpooledConnection() throws SQLException {
+        Config config = Config.getInstance();
+        return DriverManager.getConnection(connectionString, config.getMySQLUserName(), config.getMySQLUserPassword());
+    }
+
+    /**
+     * Hand out a connection that gives its permit back when it is closed
+     */
+    private Connection wrap(Connection connection, Semaphore semaphore) {
+        AtomicBoolean released = new AtomicBoolean();
+
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                if (released.compareAndSet(false, true)) {
+                    try {
+                        connection.close();
+                    }
+                    finally {
+                        semaphore.release();
+                    }
+                }
+
+                return null;
+            }
+
+            try {
+                return method.invoke(connection, args);
+            }
+            catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    public void close() {
+        dataSource.close();
+    }
+
+    public int getActiveConnections() {
+        return dataSource.getActive();
+    }
+
+    public int getIdleConnections() {
+        return dataSource.getIdle();
+    }
+
+    public int getMaxConnections(PoolIdentifier identifier) {
+        return maxPermits.get(identifier);
+    }
+
+    public int getActiveConnections(PoolIdentifier identifier) {
+        return maxPermits.get(identifier) - permits.get(identifier).availablePermits();
+    }
+
+    public int getWaitingThreads(PoolIdentifier identifier) {
+        return waiting.get(identifier).get();
+    }
+
+    public LatencyHistogram getBorrowLatency(PoolIdentifier identifier) {
+        return borrowLatency.get(identifier);
+    }
+
+    public long getFailedBorrows() {
+        return failedBorrows.get();
+    }
+
+    private String getName(PoolIdentifier identifier) {
+        return identifier.name().toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -14,25 +14,25 @@ import com.gmail.nossr50.datatypes.skills.SuperAbilityType;
 import com.gmail.nossr50.mcMMO;
 import com.gmail.nossr50.runnables.database.UUIDUpdateAsyncTask;
 import com.gmail.nossr50.util.Misc;
-import org.apache.tomcat.jdbc.pool.DataSource;
-import org.apache.tomcat.jdbc.pool.PoolProperties;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.sql.*;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.concurrent.locks.ReentrantLock;
 
 public final class SQLDatabaseManager implements DatabaseManager {
-    private static final String ALL_QUERY_VERSION = "total";
+    private static final int OFFSET_USER_NAME = 43;
+    private static final int OFFSET_USER_ID = 44;
+    private static final int OFFSET_MISSING_ROWS = 45;
     private final String tablePrefix = Config.getInstance().getMySQLTablePrefix();
+    private final SQLStatementCatalog statements = new SQLStatementCatalog(tablePrefix);
 
     private final Map<UUID, Integer> cachedUserIDs = new HashMap<>();
 
-    private DataSource miscPool;
-    private DataSource loadPool;
-    private DataSource savePool;
+    private SQLConnectionPool connectionPool;
 
     private boolean debug = false;
 
@@ -51,6 +51,13 @@ public final class SQLDatabaseManager implements DatabaseManager {
             connectionString+=
                     "?useSSL=false";
 
+        // Let the driver keep prepared statements per connection, the catalog always hands it the same SQL
+        connectionString +=
+                "&useServerPrepStmts=true"+
+                "&cachePrepStmts=true"+
+                "&prepStmtCacheSize=250"+
+                "&prepStmtCacheSqlLimit=2048";
+
         try {
             // Force driver to load if not yet loaded
             Class.forName("com.mysql.jdbc.Driver");
@@ -63,52 +70,7 @@ public final class SQLDatabaseManager implements DatabaseManager {
 
         debug = Config.getInstance().getMySQLDebug();
 
-
-        PoolProperties poolProperties = new PoolProperties();
-        poolProperties.setDriverClassName("com.mysql.jdbc.Driver");
-        poolProperties.setUrl(connectionString);
-        poolProperties.setUsername(Config.getInstance().getMySQLUserName());
-        poolProperties.setPassword(Config.getInstance().getMySQLUserPassword());
-        poolProperties.setMaxIdle(Config.getInstance().getMySQLMaxPoolSize(PoolIdentifier.MISC));
-        poolProperties.setMaxActive(Config.getInstance().getMySQLMaxConnections(PoolIdentifier.MISC));
-        poolProperties.setInitialSize(0);
-        poolProperties.setMaxWait(-1);
-        poolProperties.setRemoveAbandoned(true);
-        poolProperties.setRemoveAbandonedTimeout(60);
-        poolProperties.setTestOnBorrow(true);
-        poolProperties.setValidationQuery("SELECT 1");
-        poolProperties.setValidationInterval(30000);
-        miscPool = new DataSource(poolProperties);
-        poolProperties = new PoolProperties();
-        poolProperties.setDriverClassName("com.mysql.jdbc.Driver");
-        poolProperties.setUrl(connectionString);
-        poolProperties.setUsername(Config.getInstance().getMySQLUserName());
-        poolProperties.setPassword(Config.getInstance().getMySQLUserPassword());
-        poolProperties.setInitialSize(0);
-        poolProperties.setMaxIdle(Config.getInstance().getMySQLMaxPoolSize(PoolIdentifier.SAVE));
-        poolProperties.setMaxActive(Config.getInstance().getMySQLMaxConnections(PoolIdentifier.SAVE));
-        poolProperties.setMaxWait(-1);
-        poolProperties.setRemoveAbandoned(true);
-        poolProperties.setRemoveAbandonedTimeout(60);
-        poolProperties.setTestOnBorrow(true);
-        poolProperties.setValidationQuery("SELECT 1");
-        poolProperties.setValidationInterval(30000);
-        savePool = new DataSource(poolProperties);
-        poolProperties = new PoolProperties();
-        poolProperties.setDriverClassName("com.mysql.jdbc.Driver");
-        poolProperties.setUrl(connectionString);
-        poolProperties.setUsername(Config.getInstance().getMySQLUserName());
-        poolProperties.setPassword(Config.getInstance().getMySQLUserPassword());
-        poolProperties.setInitialSize(0);
-        poolProperties.setMaxIdle(Config.getInstance().getMySQLMaxPoolSize(PoolIdentifier.LOAD));
-        poolProperties.setMaxActive(Config.getInstance().getMySQLMaxConnections(PoolIdentifier.LOAD));
-        poolProperties.setMaxWait(-1);
-        poolProperties.setRemoveAbandoned(true);
-        poolProperties.setRemoveAbandonedTimeout(60);
-        poolProperties.setTestOnBorrow(true);
-        poolProperties.setValidationQuery("SELECT 1");
-        poolProperties.setValidationInterval(30000);
-        loadPool = new DataSource(poolProperties);
+        connectionPool = new SQLConnectionPool("com.mysql.jdbc.Driver", connectionString);
 
         checkStructure();
     }
@@ -125,16 +87,12 @@ public final class SQLDatabaseManager implements DatabaseManager {
             connection = getConnection(PoolIdentifier.MISC);
             statement = connection.createStatement();
 
-            purged = statement.executeUpdate("DELETE FROM " + tablePrefix + "skills WHERE "
-                    + "taming = 0 AND mining = 0 AND woodcutting = 0 AND repair = 0 "
-                    + "AND unarmed = 0 AND herbalism = 0 AND excavation = 0 AND "
-                    + "archery = 0 AND swords = 0 AND axes = 0 AND acrobatics = 0 "
-                    + "AND fishing = 0 AND alchemy = 0;");
+            purged = statement.executeUpdate(statements.purgePowerlessSkills);
 
-            statement.executeUpdate("DELETE FROM `" + tablePrefix + "experience` WHERE NOT EXISTS (SELECT * FROM `" + tablePrefix + "skills` `s` WHERE `" + tablePrefix + "experience`.`user_id` = `s`.`user_id`)");
-            statement.executeUpdate("DELETE FROM `" + tablePrefix + "huds` WHERE NOT EXISTS (SELECT * FROM `" + tablePrefix + "skills` `s` WHERE `" + tablePrefix + "huds`.`user_id` = `s`.`user_id`)");
-            statement.executeUpdate("DELETE FROM `" + tablePrefix + "cooldowns` WHERE NOT EXISTS (SELECT * FROM `" + tablePrefix + "skills` `s` WHERE `" + tablePrefix + "cooldowns`.`user_id` = `s`.`user_id`)");
-            statement.executeUpdate("DELETE FROM `" + tablePrefix + "users` WHERE NOT EXISTS (SELECT * FROM `" + tablePrefix + "skills` `s` WHERE `" + tablePrefix + "users`.`id` = `s`.`user_id`)");
+            statement.executeUpdate(statements.purgePowerlessExperience);
+            statement.executeUpdate(statements.purgePowerlessHuds);
+            statement.executeUpdate(statements.purgePowerlessCooldowns);
+            statement.executeUpdate(statements.purgePowerlessUsers);
         }
         catch (SQLException ex) {
             printErrors(ex);
@@ -153,19 +111,14 @@ public final class SQLDatabaseManager implements DatabaseManager {
         mcMMO.p.getLogger().info("Purging inactive users older than " + (PURGE_TIME / 2630000000L) + " months...");
 
         Connection connection = null;
-        Statement statement = null;
+        PreparedStatement statement = null;
         int purged = 0;
 
         try {
             connection = getConnection(PoolIdentifier.MISC);
-            statement = connection.createStatement();
-
-            purged = statement.executeUpdate("DELETE FROM u, e, h, s, c USING " + tablePrefix + "users u " +
-                    "JOIN " + tablePrefix + "experience e ON (u.id = e.user_id) " +
-                    "JOIN " + tablePrefix + "huds h ON (u.id = h.user_id) " +
-                    "JOIN " + tablePrefix + "skills s ON (u.id = s.user_id) " +
-                    "JOIN " + tablePrefix + "cooldowns c ON (u.id = c.user_id) " +
-                    "WHERE ((UNIX_TIMESTAMP() - lastlogin) > " + PURGE_TIME + ")");
+            statement = connection.prepareStatement(statements.purgeOldUsers);
+            statement.setLong(1, PURGE_TIME);
+            purged = statement.executeUpdate();
         }
         catch (SQLException ex) {
             printErrors(ex);
@@ -186,13 +139,7 @@ public final class SQLDatabaseManager implements DatabaseManager {
 
         try {
             connection = getConnection(PoolIdentifier.MISC);
-            statement = connection.prepareStatement("DELETE FROM u, e, h, s, c " +
-                    "USING " + tablePrefix + "users u " +
-                    "JOIN " + tablePrefix + "experience e ON (u.id = e.user_id) " +
-                    "JOIN " + tablePrefix + "huds h ON (u.id = h.user_id) " +
-                    "JOIN " + tablePrefix + "skills s ON (u.id = s.user_id) " +
-                    "JOIN " + tablePrefix + "cooldowns c ON (u.id = c.user_id) " +
-                    "WHERE u.user = ?");
+            statement = connection.prepareStatement(statements.removeUser);
 
             statement.setString(1, playerName);
 
@@ -216,18 +163,117 @@ public final class SQLDatabaseManager implements DatabaseManager {
         return success;
     }
 
+    public int removeUsersByUniqueId(Collection<UUID> uuids) {
+        int removed = 0;
+        Connection connection = null;
+        PreparedStatement statement = null;
+
+        try {
+            connection = getConnection(PoolIdentifier.MISC);
+            statement = connection.prepareStatement(statements.removeUserByUUID);
+
+            for (UUID uuid : uuids) {
+                statement.setString(1, uuid.toString());
+
+                if (statement.executeUpdate() != 0) {
+                    cleanupUser(uuid);
+                    removed++;
+                }
+            }
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+        }
+        finally {
+            tryClose(statement);
+            tryClose(connection);
+        }
+
+        return removed;
+    }
+
     public void cleanupUser(UUID uuid) {
         cachedUserIDs.remove(uuid);
     }
 
     public boolean saveUser(PlayerProfile profile) {
+        Connection connection = null;
+
+        try {
+            connection = getConnection(PoolIdentifier.SAVE);
+            return saveUser(connection, profile);
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+            return false;
+        }
+        finally {
+            tryClose(connection);
+        }
+    }
+
+    /**
+     * Saves a whole batch of users on one connection, committing them in a single transaction
+     * Nothing is committed if any of them fails
+     */
+    @Override
+    public boolean saveUsers(List<PlayerProfile> profiles) {
         boolean success = true;
-        PreparedStatement statement = null;
         Connection connection = null;
 
         try {
             connection = getConnection(PoolIdentifier.SAVE);
+            connection.setAutoCommit(false);
+
+            for (PlayerProfile profile : profiles) {
+                if (!saveUser(connection, profile)) {
+                    success = false;
+                    break;
+                }
+            }
+
+            // Never leave part of a batch behind, the caller writes the whole batch again
+            if (success) {
+                connection.commit();
+            }
+            else {
+                connection.rollback();
+            }
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+            success = false;
 
+            if (connection != null) {
+                try {
+                    connection.rollback();
+                }
+                catch (SQLException e) {
+                    // Ignore
+                }
+            }
+        }
+        finally {
+            if (connection != null) {
+                try {
+                    connection.setAutoCommit(true);
+                }
+                catch (SQLException e) {
+                    // Ignore
+                }
+            }
+
+            tryClose(connection);
+        }
+
+        return success;
+    }
+
+    private boolean saveUser(Connection connection, PlayerProfile profile) throws SQLException {
+        boolean success = true;
+        PreparedStatement statement = null;
+
+        try {
             int id = getUserID(connection, profile.getPlayerName(), profile.getUniqueId());
 
             if (id == -1) {
@@ -238,7 +284,7 @@ public final class SQLDatabaseManager implements DatabaseManager {
                 }
             }
 
-            statement = connection.prepareStatement("UPDATE " + tablePrefix + "users SET lastlogin = UNIX_TIMESTAMP() WHERE id = ?");
+            statement = connection.prepareStatement(statements.updateLastLogin);
             statement.setInt(1, id);
             success &= (statement.executeUpdate() != 0);
             statement.close();
@@ -247,11 +293,7 @@ public final class SQLDatabaseManager implements DatabaseManager {
                 return false;
             }
 
-            statement = connection.prepareStatement("UPDATE " + tablePrefix + "skills SET "
-                    + " taming = ?, mining = ?, repair = ?, woodcutting = ?"
-                    + ", unarmed = ?, herbalism = ?, excavation = ?"
-                    + ", archery = ?, swords = ?, axes = ?, acrobatics = ?"
-                    + ", fishing = ?, alchemy = ?, total = ? WHERE user_id = ?");
+            statement = connection.prepareStatement(statements.updateSkills);
             statement.setInt(1, profile.getSkillLevel(PrimarySkillType.TAMING));
             statement.setInt(2, profile.getSkillLevel(PrimarySkillType.MINING));
             statement.setInt(3, profile.getSkillLevel(PrimarySkillType.REPAIR));
@@ -277,11 +319,7 @@ public final class SQLDatabaseManager implements DatabaseManager {
                 return false;
             }
 
-            statement = connection.prepareStatement("UPDATE " + tablePrefix + "experience SET "
-                    + " taming = ?, mining = ?, repair = ?, woodcutting = ?"
-                    + ", unarmed = ?, herbalism = ?, excavation = ?"
-                    + ", archery = ?, swords = ?, axes = ?, acrobatics = ?"
-                    + ", fishing = ?, alchemy = ? WHERE user_id = ?");
+            statement = connection.prepareStatement(statements.updateExperience);
             statement.setInt(1, profile.getSkillXpLevel(PrimarySkillType.TAMING));
             statement.setInt(2, profile.getSkillXpLevel(PrimarySkillType.MINING));
             statement.setInt(3, profile.getSkillXpLevel(PrimarySkillType.REPAIR));
@@ -303,10 +341,7 @@ public final class SQLDatabaseManager implements DatabaseManager {
                 return false;
             }
 
-            statement = connection.prepareStatement("UPDATE " + tablePrefix + "cooldowns SET "
-                    + "  mining = ?, woodcutting = ?, unarmed = ?"
-                    + ", herbalism = ?, excavation = ?, swords = ?"
-                    + ", axes = ?, blast_mining = ?, chimaera_wing = ? WHERE user_id = ?");
+            statement = connection.prepareStatement(statements.updateCooldowns);
             statement.setLong(1, profile.getAbilityDATS(SuperAbilityType.SUPER_BREAKER));
             statement.setLong(2, profile.getAbilityDATS(SuperAbilityType.TREE_FELLER));
             statement.setLong(3, profile.getAbilityDATS(SuperAbilityType.BERSERK));
@@ -324,7 +359,7 @@ public final class SQLDatabaseManager implements DatabaseManager {
                 return false;
             }
 
-            statement = connection.prepareStatement("UPDATE " + tablePrefix + "huds SET mobhealthbar = ?, scoreboardtips = ? WHERE user_id = ?");
+            statement = connection.prepareStatement(statements.updateHuds);
             statement.setString(1, profile.getMobHealthbarType() == null ? Config.getInstance().getMobHealthbarDefault().name() : profile.getMobHealthbarType().name());
             statement.setInt(2, profile.getScoreboardTipsShown());
             statement.setInt(3, id);
@@ -335,12 +370,8 @@ public final class SQLDatabaseManager implements DatabaseManager {
                 return false;
             }
         }
-        catch (SQLException ex) {
-            printErrors(ex);
-        }
         finally {
             tryClose(statement);
-            tryClose(connection);
         }
 
         return success;
@@ -356,14 +387,13 @@ public final class SQLDatabaseManager implements DatabaseManager {
         }
 
 
-        String query = skill == null ? ALL_QUERY_VERSION : skill.name().toLowerCase(Locale.ENGLISH);
         ResultSet resultSet = null;
         PreparedStatement statement = null;
         Connection connection = null;
 
         try {
             connection = getConnection(PoolIdentifier.MISC);
-            statement = connection.prepareStatement("SELECT " + query + ", user FROM " + tablePrefix + "users JOIN " + tablePrefix + "skills ON (user_id = id) WHERE " + query + " > 0 AND NOT user = '\\_INVALID\\_OLD\\_USERNAME\\_' ORDER BY " + query + " DESC, user LIMIT ?, ?");
+            statement = connection.prepareStatement(statements.leaderboard(skill));
             statement.setInt(1, (pageNumber * statsPerPage) - statsPerPage);
             statement.setInt(2, statsPerPage);
             resultSet = statement.executeQuery();
@@ -392,57 +422,35 @@ public final class SQLDatabaseManager implements DatabaseManager {
 
     public Map<PrimarySkillType, Integer> readRank(String playerName) {
         Map<PrimarySkillType, Integer> skills = new HashMap<>();
-
-        ResultSet resultSet = null;
-        PreparedStatement statement = null;
         Connection connection = null;
 
         try {
             connection = getConnection(PoolIdentifier.MISC);
-            for (PrimarySkillType primarySkillType : PrimarySkillType.NON_CHILD_SKILLS) {
-                String skillName = primarySkillType.name().toLowerCase(Locale.ENGLISH);
-                // Get count of all users with higher skill level than player
-                String sql = "SELECT COUNT(*) AS 'rank' FROM " + tablePrefix + "users JOIN " + tablePrefix + "skills ON user_id = id WHERE " + skillName + " > 0 " +
-                        "AND " + skillName + " > (SELECT " + skillName + " FROM " + tablePrefix + "users JOIN " + tablePrefix + "skills ON user_id = id " +
-                        "WHERE user = ?)";
-
-                statement = connection.prepareStatement(sql);
-                statement.setString(1, playerName);
-                resultSet = statement.executeQuery();
-
-                resultSet.next();
 
-                int rank = resultSet.getInt("rank");
-
-                // Ties are settled by alphabetical order
-                sql = "SELECT user, " + skillName + " FROM " + tablePrefix + "users JOIN " + tablePrefix + "skills ON user_id = id WHERE " + skillName + " > 0 " +
-                        "AND " + skillName + " = (SELECT " + skillName + " FROM " + tablePrefix + "users JOIN " + tablePrefix + "skills ON user_id = id " +
-                        "WHERE user = '" + playerName + "') ORDER BY user";
-
-                resultSet.close();
-                statement.close();
-
-                statement = connection.prepareStatement(sql);
-                resultSet = statement.executeQuery();
+            for (PrimarySkillType primarySkillType : PrimarySkillType.NON_CHILD_SKILLS) {
+                readRank(connection, primarySkillType, playerName, skills);
+            }
 
-                while (resultSet.next()) {
-                    if (resultSet.getString("user").equalsIgnoreCase(playerName)) {
-                        skills.put(primarySkillType, rank + resultSet.getRow());
-                        break;
-                    }
-                }
+            // Power level
+            readRank(connection, null, playerName, skills);
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+        }
+        finally {
+            tryClose(connection);
+        }
 
-                resultSet.close();
-                statement.close();
-            }
+        return skills;
+    }
 
-            String sql = "SELECT COUNT(*) AS 'rank' FROM " + tablePrefix + "users JOIN " + tablePrefix + "skills ON user_id = id " +
-                    "WHERE " + ALL_QUERY_VERSION + " > 0 " +
-                    "AND " + ALL_QUERY_VERSION + " > " +
-                    "(SELECT " + ALL_QUERY_VERSION + " " +
-                    "FROM " + tablePrefix + "users JOIN " + tablePrefix + "skills ON user_id = id WHERE user = ?)";
+    private void readRank(Connection connection, @Nullable PrimarySkillType primarySkillType, String playerName, Map<PrimarySkillType, Integer> skills) throws SQLException {
+        ResultSet resultSet = null;
+        PreparedStatement statement = null;
 
-            statement = connection.prepareStatement(sql);
+        try {
+            // Get count of all users with higher skill level than player
+            statement = connection.prepareStatement(statements.rankCount(primarySkillType));
             statement.setString(1, playerName);
             resultSet = statement.executeQuery();
 
@@ -453,37 +461,22 @@ public final class SQLDatabaseManager implements DatabaseManager {
             resultSet.close();
             statement.close();
 
-            sql = "SELECT user, " + ALL_QUERY_VERSION + " " +
-                    "FROM " + tablePrefix + "users JOIN " + tablePrefix + "skills ON user_id = id " +
-                    "WHERE " + ALL_QUERY_VERSION + " > 0 " +
-                    "AND " + ALL_QUERY_VERSION + " = " +
-                    "(SELECT " + ALL_QUERY_VERSION + " " +
-                    "FROM " + tablePrefix + "users JOIN " + tablePrefix + "skills ON user_id = id WHERE user = ?) ORDER BY user";
-
-            statement = connection.prepareStatement(sql);
+            // Ties are settled by alphabetical order
+            statement = connection.prepareStatement(statements.rankTies(primarySkillType));
             statement.setString(1, playerName);
             resultSet = statement.executeQuery();
 
             while (resultSet.next()) {
                 if (resultSet.getString("user").equalsIgnoreCase(playerName)) {
-                    skills.put(null, rank + resultSet.getRow());
+                    skills.put(primarySkillType, rank + resultSet.getRow());
                     break;
                 }
             }
-
-            resultSet.close();
-            statement.close();
-        }
-        catch (SQLException ex) {
-            printErrors(ex);
         }
         finally {
             tryClose(resultSet);
             tryClose(statement);
-            tryClose(connection);
         }
-
-        return skills;
     }
 
     public void newUser(String playerName, UUID uuid) {
@@ -506,15 +499,12 @@ public final class SQLDatabaseManager implements DatabaseManager {
         PreparedStatement statement = null;
 
         try {
-            statement = connection.prepareStatement(
-                    "UPDATE `" + tablePrefix + "users` "
-                            + "SET user = ? "
-                            + "WHERE user = ?");
+            statement = connection.prepareStatement(statements.invalidateUserName);
             statement.setString(1, "_INVALID_OLD_USERNAME_");
             statement.setString(2, playerName);
             statement.executeUpdate();
             statement.close();
-            statement = connection.prepareStatement("INSERT INTO " + tablePrefix + "users (user, uuid, lastlogin) VALUES (?, ?, UNIX_TIMESTAMP())", Statement.RETURN_GENERATED_KEYS);
+            statement = connection.prepareStatement(statements.insertUser, Statement.RETURN_GENERATED_KEYS);
             statement.setString(1, playerName);
             statement.setString(2, uuid != null ? uuid.toString() : null);
             statement.executeUpdate();
@@ -553,86 +543,31 @@ public final class SQLDatabaseManager implements DatabaseManager {
     }
 
     private PlayerProfile loadPlayerProfile(String playerName, UUID uuid, boolean create, boolean retry) {
-        PreparedStatement statement = null;
         Connection connection = null;
-        ResultSet resultSet = null;
+        boolean created = false;
 
         try {
             connection = getConnection(PoolIdentifier.LOAD);
-            int id = getUserID(connection, playerName, uuid);
+            PlayerProfile profile = readProfile(connection, playerName, uuid, true);
 
-            if (id == -1) {
+            if (profile == null) {
                 // There is no such user
-                if (create) {
-                    id = newUser(connection, playerName, uuid);
-                    create = false;
-                    if (id == -1) {
-                        return new PlayerProfile(playerName, false);
-                    }
-                } else {
+                if (!create || newUser(connection, playerName, uuid) == -1) {
                     return new PlayerProfile(playerName, false);
                 }
-            }
-            // There is such a user
-            writeMissingRows(connection, id);
-
-            statement = connection.prepareStatement(
-                    "SELECT "
-                            + "s.taming, s.mining, s.repair, s.woodcutting, s.unarmed, s.herbalism, s.excavation, s.archery, s.swords, s.axes, s.acrobatics, s.fishing, s.alchemy, "
-                            + "e.taming, e.mining, e.repair, e.woodcutting, e.unarmed, e.herbalism, e.excavation, e.archery, e.swords, e.axes, e.acrobatics, e.fishing, e.alchemy, "
-                            + "c.taming, c.mining, c.repair, c.woodcutting, c.unarmed, c.herbalism, c.excavation, c.archery, c.swords, c.axes, c.acrobatics, c.blast_mining, c.chimaera_wing, "
-                            + "h.mobhealthbar, h.scoreboardtips, u.uuid, u.user "
-                            + "FROM " + tablePrefix + "users u "
-                            + "JOIN " + tablePrefix + "skills s ON (u.id = s.user_id) "
-                            + "JOIN " + tablePrefix + "experience e ON (u.id = e.user_id) "
-                            + "JOIN " + tablePrefix + "cooldowns c ON (u.id = c.user_id) "
-                            + "JOIN " + tablePrefix + "huds h ON (u.id = h.user_id) "
-                            + "WHERE u.id = ?");
-            statement.setInt(1, id);
-
-            resultSet = statement.executeQuery();
 
-            if (resultSet.next()) {
-                try {
-                    PlayerProfile profile = loadFromResult(playerName, resultSet);
-                    String name = resultSet.getString(42); // TODO: Magic Number, make sure it stays updated
-                    resultSet.close();
-                    statement.close();
-
-                    if (!playerName.isEmpty() && !playerName.equalsIgnoreCase(name) && uuid != null) {
-                        statement = connection.prepareStatement(
-                                "UPDATE `" + tablePrefix + "users` "
-                                        + "SET user = ? "
-                                        + "WHERE user = ?");
-                        statement.setString(1, "_INVALID_OLD_USERNAME_");
-                        statement.setString(2, name);
-                        statement.executeUpdate();
-                        statement.close();
-                        statement = connection.prepareStatement(
-                                "UPDATE `" + tablePrefix + "users` "
-                                        + "SET user = ?, uuid = ? "
-                                        + "WHERE id = ?");
-                        statement.setString(1, playerName);
-                        statement.setString(2, uuid.toString());
-                        statement.setInt(3, id);
-                        statement.executeUpdate();
-                        statement.close();
-                    }
+                created = true;
+                profile = readProfile(connection, playerName, uuid, false);
+            }
 
-                    return profile;
-                }
-                catch (SQLException e) {
-                    printErrors(e);
-                }
+            if (profile != null) {
+                return profile;
             }
-            resultSet.close();
         }
         catch (SQLException ex) {
             printErrors(ex);
         }
         finally {
-            tryClose(resultSet);
-            tryClose(statement);
             tryClose(connection);
         }
 
@@ -644,45 +579,111 @@ public final class SQLDatabaseManager implements DatabaseManager {
         }
 
         // Retry, and abort on re-failure
-        return loadPlayerProfile(playerName, uuid, create, false);
+        return loadPlayerProfile(playerName, uuid, create && !created, false);
     }
 
-    public void convertUsers(DatabaseManager destination) {
+    /**
+     * Resolve the user by uuid, falling back to name, and read all of their data in one query
+     *
+     * @param repairMissingRows whether to write any missing rows for the user and read them again
+     * @return the profile, an unloaded profile if some of their rows are missing and could not be written, or null if there is no such user
+     */
+    private @Nullable PlayerProfile readProfile(Connection connection, String playerName, UUID uuid, boolean repairMissingRows) throws SQLException {
         PreparedStatement statement = null;
-        Connection connection = null;
         ResultSet resultSet = null;
 
         try {
-            connection = getConnection(PoolIdentifier.MISC);
-            statement = connection.prepareStatement(
-                    "SELECT "
-                            + "s.taming, s.mining, s.repair, s.woodcutting, s.unarmed, s.herbalism, s.excavation, s.archery, s.swords, s.axes, s.acrobatics, s.fishing, s.alchemy, "
-                            + "e.taming, e.mining, e.repair, e.woodcutting, e.unarmed, e.herbalism, e.excavation, e.archery, e.swords, e.axes, e.acrobatics, e.fishing, e.alchemy, "
-                            + "c.taming, c.mining, c.repair, c.woodcutting, c.unarmed, c.herbalism, c.excavation, c.archery, c.swords, c.axes, c.acrobatics, c.blast_mining, c.chimaera_wing, "
-                            + "h.mobhealthbar, h.scoreboardtips, u.uuid "
-                            + "FROM " + tablePrefix + "users u "
-                            + "JOIN " + tablePrefix + "skills s ON (u.id = s.user_id) "
-                            + "JOIN " + tablePrefix + "experience e ON (u.id = e.user_id) "
-                            + "JOIN " + tablePrefix + "cooldowns c ON (u.id = c.user_id) "
-                            + "JOIN " + tablePrefix + "huds h ON (u.id = h.user_id) "
-                            + "WHERE u.user = ?");
-            List<String> usernames = getStoredUsers();
-            int convertedUsers = 0;
-            long startMillis = System.currentTimeMillis();
-            for (String playerName : usernames) {
+            if (uuid == null) {
+                statement = connection.prepareStatement(statements.selectProfileByName);
+                statement.setString(1, playerName);
+            }
+            else {
+                statement = connection.prepareStatement(statements.selectProfileByUUID);
+                statement.setString(1, uuid.toString());
+                statement.setString(2, playerName);
+            }
+
+            resultSet = statement.executeQuery();
+
+            if (!resultSet.next()) {
+                return null;
+            }
+
+            int id = resultSet.getInt(OFFSET_USER_ID);
+
+            if (resultSet.getBoolean(OFFSET_MISSING_ROWS)) {
+                tryClose(resultSet);
+                tryClose(statement);
+
+                if (repairMissingRows) {
+                    writeMissingRows(connection, id);
+                    return readProfile(connection, playerName, uuid, false);
+                }
+
+                // The missing rows read as NULL, loading them would zero those skills and the next save would write the zeros back
+                mcMMO.p.getLogger().severe("Could not repair the missing data rows of " + playerName + ", their profile was not loaded");
+                return new PlayerProfile(playerName, uuid, false);
+            }
+
+            if (uuid != null) {
+                cachedUserIDs.put(uuid, id);
+            }
+
+            PlayerProfile profile = loadFromResult(playerName, resultSet);
+            String name = resultSet.getString(OFFSET_USER_NAME);
+
+            if (!playerName.isEmpty() && !playerName.equalsIgnoreCase(name) && uuid != null) {
+                tryClose(resultSet);
+                tryClose(statement);
+
+                statement = connection.prepareStatement(statements.invalidateUserName);
+                statement.setString(1, "_INVALID_OLD_USERNAME_");
+                statement.setString(2, name);
+                statement.executeUpdate();
+                statement.close();
+                statement = connection.prepareStatement(statements.updateUserNameAndUUID);
                 statement.setString(1, playerName);
+                statement.setString(2, uuid.toString());
+                statement.setInt(3, id);
+                statement.executeUpdate();
+            }
+
+            return profile;
+        }
+        finally {
+            tryClose(resultSet);
+            tryClose(statement);
+        }
+    }
+
+    @Override
+    public void readUsers(long skip, Consumer<PlayerProfile> consumer) {
+        PreparedStatement statement = null;
+        Connection connection = null;
+        ResultSet resultSet = null;
+
+        try {
+            // Streaming can outlast the pool's abandoned connection timeout, so the rows are read on a connection of their own
+            connection = connectionPool.openUnpooledConnection();
+            // A forward only, read only statement with this fetch size makes the driver stream rows instead of loading them all
+            statement = connection.prepareStatement(statements.selectAllProfiles,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            resultSet = statement.executeQuery();
+            long readUsers = 0;
+
+            while (resultSet.next()) {
+                if (readUsers++ < skip) {
+                    continue;
+                }
+
                 try {
-                    resultSet = statement.executeQuery();
-                    resultSet.next();
-                    destination.saveUser(loadFromResult(playerName, resultSet));
-                    resultSet.close();
+                    consumer.accept(loadFromResult(resultSet.getString(OFFSET_USER_NAME), resultSet));
                 }
                 catch (SQLException e) {
                     printErrors(e);
                     // Ignore
                 }
-                convertedUsers++;
-                Misc.printProgress(convertedUsers, progressInterval, startMillis);
             }
         }
         catch (SQLException e) {
@@ -693,7 +694,33 @@ public final class SQLDatabaseManager implements DatabaseManager {
             tryClose(statement);
             tryClose(connection);
         }
+    }
+
+    @Override
+    public String getUsersFingerprint() {
+        Statement statement = null;
+        Connection connection = null;
+        ResultSet resultSet = null;
 
+        try {
+            connection = getConnection(PoolIdentifier.MISC);
+            statement = connection.createStatement();
+            resultSet = statement.executeQuery(statements.selectAllProfilesFingerprint);
+
+            if (resultSet.next()) {
+                return resultSet.getLong(1) + ":" + resultSet.getLong(2);
+            }
+        }
+        catch (SQLException e) {
+            printErrors(e);
+        }
+        finally {
+            tryClose(resultSet);
+            tryClose(statement);
+            tryClose(connection);
+        }
+
+        return null;
     }
 
     public boolean saveUserUUID(String userName, UUID uuid) {
@@ -702,9 +729,7 @@ public final class SQLDatabaseManager implements DatabaseManager {
 
         try {
             connection = getConnection(PoolIdentifier.MISC);
-            statement = connection.prepareStatement(
-                    "UPDATE `" + tablePrefix + "users` SET "
-                            + "  uuid = ? WHERE user = ?");
+            statement = connection.prepareStatement(statements.updateUUIDByName);
             statement.setString(1, uuid.toString());
             statement.setString(2, userName);
             statement.execute();
@@ -728,7 +753,7 @@ public final class SQLDatabaseManager implements DatabaseManager {
 
         try {
             connection = getConnection(PoolIdentifier.MISC);
-            statement = connection.prepareStatement("UPDATE " + tablePrefix + "users SET uuid = ? WHERE user = ?");
+            statement = connection.prepareStatement(statements.updateUUIDByName);
 
             for (Map.Entry<String, UUID> entry : fetchedUUIDs.entrySet()) {
                 statement.setString(1, entry.getValue().toString());
@@ -770,7 +795,7 @@ public final class SQLDatabaseManager implements DatabaseManager {
         try {
             connection = getConnection(PoolIdentifier.MISC);
             statement = connection.createStatement();
-            resultSet = statement.executeQuery("SELECT user FROM " + tablePrefix + "users");
+            resultSet = statement.executeQuery(statements.selectUserNames);
             while (resultSet.next()) {
                 users.add(resultSet.getString("user"));
             }
@@ -947,22 +972,11 @@ public final class SQLDatabaseManager implements DatabaseManager {
     }
 
     private Connection getConnection(PoolIdentifier identifier) throws SQLException {
-        Connection connection = null;
-        switch (identifier) {
-            case LOAD:
-                connection = loadPool.getConnection();
-                break;
-            case MISC:
-                connection = miscPool.getConnection();
-                break;
-            case SAVE:
-                connection = savePool.getConnection();
-                break;
-        }
-        if (connection == null) {
-            throw new RuntimeException("getConnection() for " + identifier.name().toLowerCase(Locale.ENGLISH) + " pool timed out.  Increase max connections settings.");
-        }
-        return connection;
+        return connectionPool.getConnection(identifier);
+    }
+
+    public SQLConnectionPool getConnectionPool() {
+        return connectionPool;
     }
 
     /**
@@ -1048,22 +1062,22 @@ public final class SQLDatabaseManager implements DatabaseManager {
         PreparedStatement statement = null;
 
         try {
-            statement = connection.prepareStatement("INSERT IGNORE INTO " + tablePrefix + "experience (user_id) VALUES (?)");
+            statement = connection.prepareStatement(statements.insertMissingExperience);
             statement.setInt(1, id);
             statement.execute();
             statement.close();
 
-            statement = connection.prepareStatement("INSERT IGNORE INTO " + tablePrefix + "skills (user_id) VALUES (?)");
+            statement = connection.prepareStatement(statements.insertMissingSkills);
             statement.setInt(1, id);
             statement.execute();
             statement.close();
 
-            statement = connection.prepareStatement("INSERT IGNORE INTO " + tablePrefix + "cooldowns (user_id) VALUES (?)");
+            statement = connection.prepareStatement(statements.insertMissingCooldowns);
             statement.setInt(1, id);
             statement.execute();
             statement.close();
 
-            statement = connection.prepareStatement("INSERT IGNORE INTO " + tablePrefix + "huds (user_id, mobhealthbar, scoreboardtips) VALUES (?, ?, ?)");
+            statement = connection.prepareStatement(statements.insertMissingHuds);
             statement.setInt(1, id);
             statement.setString(2, Config.getInstance().getMobHealthbarDefault().name());
             statement.setInt(3, 0);
@@ -1331,9 +1345,9 @@ public final class SQLDatabaseManager implements DatabaseManager {
             ResultSet resultSet = null;
             try {
                 try {
-                    connection = miscPool.getConnection();
+                    connection = getConnection(PoolIdentifier.MISC);
                     statement = connection.createStatement();
-                    resultSet = statement.executeQuery("SELECT `user` FROM `" + tablePrefix + "users` WHERE `uuid` IS NULL");
+                    resultSet = statement.executeQuery(statements.selectUserNamesWithoutUUID);
 
                     while (resultSet.next()) {
                         names.add(resultSet.getString("user"));
@@ -1463,7 +1477,7 @@ public final class SQLDatabaseManager implements DatabaseManager {
         PreparedStatement statement = null;
 
         try {
-            statement = connection.prepareStatement("SELECT id, user FROM " + tablePrefix + "users WHERE uuid = ? OR (uuid IS NULL AND user = ?)");
+            statement = connection.prepareStatement(statements.selectUserIdByUUID);
             statement.setString(1, uuid.toString());
             statement.setString(2, playerName);
             resultSet = statement.executeQuery();
@@ -1492,7 +1506,7 @@ public final class SQLDatabaseManager implements DatabaseManager {
         PreparedStatement statement = null;
 
         try {
-            statement = connection.prepareStatement("SELECT id, user FROM " + tablePrefix + "users WHERE user = ?");
+            statement = connection.prepareStatement(statements.selectUserIdByName);
             statement.setString(1, playerName);
             resultSet = statement.executeQuery();
 
@@ -1526,9 +1540,7 @@ public final class SQLDatabaseManager implements DatabaseManager {
     @Override
     public void onDisable() {
         mcMMO.p.debug("Releasing connection pool resource...");
-        miscPool.close();
-        loadPool.close();
-        savePool.close();
+        connectionPool.close();
     }
 
     public enum PoolIdentifier {
@@ -1543,7 +1555,7 @@ public final class SQLDatabaseManager implements DatabaseManager {
 
         try {
             connection = getConnection(PoolIdentifier.MISC);
-            statement = connection.prepareStatement("UPDATE " + tablePrefix + "huds SET mobhealthbar = ?");
+            statement = connection.prepareStatement(statements.resetMobHealthbars);
             statement.setString(1, Config.getInstance().getMobHealthbarDefault().toString());
             statement.executeUpdate();
         }
@@ -0,0 +1,191 @@
+package com.gmail.nossr50.database;
+
+import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Every statement SQLDatabaseManager runs after startup, built once for the configured table prefix
+ * Reusing the exact same SQL strings lets the driver cache the prepared statements per connection
+ */
+final class SQLStatementCatalog {
+    private static final String ALL_QUERY_VERSION = "total";
+
+    private static final String PROFILE_COLUMNS = "s.taming, s.mining, s.repair, s.woodcutting, s.unarmed, s.herbalism, s.excavation, s.archery, s.swords, s.axes, s.acrobatics, s.fishing, s.alchemy, "
+            + "e.taming, e.mining, e.repair, e.woodcutting, e.unarmed, e.herbalism, e.excavation, e.archery, e.swords, e.axes, e.acrobatics, e.fishing, e.alchemy, "
+            + "c.taming, c.mining, c.repair, c.woodcutting, c.unarmed, c.herbalism, c.excavation, c.archery, c.swords, c.axes, c.acrobatics, c.blast_mining, c.chimaera_wing, "
+            + "h.mobhealthbar, h.scoreboardtips, u.uuid, u.user";
+
+    final String purgePowerlessSkills;
+    final String purgePowerlessExperience;
+    final String purgePowerlessHuds;
+    final String purgePowerlessCooldowns;
+    final String purgePowerlessUsers;
+    final String purgeOldUsers;
+    final String removeUser;
+    final String removeUserByUUID;
+
+    final String updateLastLogin;
+    final String updateSkills;
+    final String updateExperience;
+    final String updateCooldowns;
+    final String updateHuds;
+
+    final String invalidateUserName;
+    final String insertUser;
+    final String insertMissingExperience;
+    final String insertMissingSkills;
+    final String insertMissingCooldowns;
+    final String insertMissingHuds;
+
+    final String selectUserIdByUUID;
+    final String selectUserIdByName;
+    final String selectProfileByUUID;
+    final String selectProfileByName;
+    final String selectAllProfiles;
+    final String selectAllProfilesFingerprint;
+    final String updateUserNameAndUUID;
+
+    final String updateUUIDByName;
+    final String selectUserNames;
+    final String selectUserNamesWithoutUUID;
+    final String resetMobHealthbars;
+
+    private final Map<PrimarySkillType, String> leaderboards = new EnumMap<>(PrimarySkillType.class);
+    private final Map<PrimarySkillType, String> rankCounts = new EnumMap<>(PrimarySkillType.class);
+    private final Map<PrimarySkillType, String> rankTies = new EnumMap<>(PrimarySkillType.class);
+    private final String totalLeaderboard;
+    private final String totalRankCount;
+    private final String totalRankTies;
+
+    SQLStatementCatalog(String tablePrefix) {
+        String users = tablePrefix + "users";
+        String skills = tablePrefix + "skills";
+        String experience = tablePrefix + "experience";
+        String cooldowns = tablePrefix + "cooldowns";
+        String huds = tablePrefix + "huds";
+
+        purgePowerlessSkills = "DELETE FROM " + skills + " WHERE "
+                + "taming = 0 AND mining = 0 AND woodcutting = 0 AND repair = 0 "
+                + "AND unarmed = 0 AND herbalism = 0 AND excavation = 0 AND "
+                + "archery = 0 AND swords = 0 AND axes = 0 AND acrobatics = 0 "
+                + "AND fishing = 0 AND alchemy = 0;";
+        purgePowerlessExperience = "DELETE FROM `" + experience + "` WHERE NOT EXISTS (SELECT * FROM `" + skills + "` `s` WHERE `" + experience + "`.`user_id` = `s`.`user_id`)";
+        purgePowerlessHuds = "DELETE FROM `" + huds + "` WHERE NOT EXISTS (SELECT * FROM `" + skills + "` `s` WHERE `" + huds + "`.`user_id` = `s`.`user_id`)";
+        purgePowerlessCooldowns = "DELETE FROM `" + cooldowns + "` WHERE NOT EXISTS (SELECT * FROM `" + skills + "` `s` WHERE `" + cooldowns + "`.`user_id` = `s`.`user_id`)";
+        purgePowerlessUsers = "DELETE FROM `" + users + "` WHERE NOT EXISTS (SELECT * FROM `" + skills + "` `s` WHERE `" + users + "`.`id` = `s`.`user_id`)";
+
+        String deleteUserJoin = "DELETE FROM u, e, h, s, c USING " + users + " u "
+                + "JOIN " + experience + " e ON (u.id = e.user_id) "
+                + "JOIN " + huds + " h ON (u.id = h.user_id) "
+                + "JOIN " + skills + " s ON (u.id = s.user_id) "
+                + "JOIN " + cooldowns + " c ON (u.id = c.user_id) ";
+        purgeOldUsers = deleteUserJoin + "WHERE ((UNIX_TIMESTAMP() - lastlogin) > ?)";
+        removeUser = deleteUserJoin + "WHERE u.user = ?";
+        removeUserByUUID = deleteUserJoin + "WHERE u.uuid = ?";
+
+        updateLastLogin = "UPDATE " + users + " SET lastlogin = UNIX_TIMESTAMP() WHERE id = ?";
+        updateSkills = "UPDATE " + skills + " SET "
+                + " taming = ?, mining = ?, repair = ?, woodcutting = ?"
+                + ", unarmed = ?, herbalism = ?, excavation = ?"
+                + ", archery = ?, swords = ?, axes = ?, acrobatics = ?"
+                + ", fishing = ?, alchemy = ?, total = ? WHERE user_id = ?";
+        updateExperience = "UPDATE " + experience + " SET "
+                + " taming = ?, mining = ?, repair = ?, woodcutting = ?"
+                + ", unarmed = ?, herbalism = ?, excavation = ?"
+                + ", archery = ?, swords = ?, axes = ?, acrobatics = ?"
+                + ", fishing = ?, alchemy = ? WHERE user_id = ?";
+        updateCooldowns = "UPDATE " + cooldowns + " SET "
+                + "  mining = ?, woodcutting = ?, unarmed = ?"
+                + ", herbalism = ?, excavation = ?, swords = ?"
+                + ", axes = ?, blast_mining = ?, chimaera_wing = ? WHERE user_id = ?";
+        updateHuds = "UPDATE " + huds + " SET mobhealthbar = ?, scoreboardtips = ? WHERE user_id = ?";
+
+        invalidateUserName = "UPDATE `" + users + "` SET user = ? WHERE user = ?";
+        insertUser = "INSERT INTO " + users + " (user, uuid, lastlogin) VALUES (?, ?, UNIX_TIMESTAMP())";
+        insertMissingExperience = "INSERT IGNORE INTO " + experience + " (user_id) VALUES (?)";
+        insertMissingSkills = "INSERT IGNORE INTO " + skills + " (user_id) VALUES (?)";
+        insertMissingCooldowns = "INSERT IGNORE INTO " + cooldowns + " (user_id) VALUES (?)";
+        insertMissingHuds = "INSERT IGNORE INTO " + huds + " (user_id, mobhealthbar, scoreboardtips) VALUES (?, ?, ?)";
+
+        selectUserIdByUUID = "SELECT id, user FROM " + users + " WHERE uuid = ? OR (uuid IS NULL AND user = ?)";
+        selectUserIdByName = "SELECT id, user FROM " + users + " WHERE user = ?";
+
+        // Left joins, so a user with missing rows is still found and the rows can be repaired
+        String selectProfile = "SELECT " + PROFILE_COLUMNS + ", u.id, "
+                + "(s.user_id IS NULL OR e.user_id IS NULL OR c.user_id IS NULL OR h.user_id IS NULL) "
+                + "FROM " + users + " u "
+                + "LEFT JOIN " + skills + " s ON (u.id = s.user_id) "
+                + "LEFT JOIN " + experience + " e ON (u.id = e.user_id) "
+                + "LEFT JOIN " + cooldowns + " c ON (u.id = c.user_id) "
+                + "LEFT JOIN " + huds + " h ON (u.id = h.user_id) ";
+        // A row matched by uuid wins over an old row that only matches by name
+        selectProfileByUUID = selectProfile + "WHERE u.uuid = ? OR (u.uuid IS NULL AND u.user = ?) ORDER BY u.uuid IS NULL LIMIT 1";
+        selectProfileByName = selectProfile + "WHERE u.user = ? LIMIT 1";
+        String allProfiles = "FROM " + users + " u "
+                + "JOIN " + skills + " s ON (u.id = s.user_id) "
+                + "JOIN " + experience + " e ON (u.id = e.user_id) "
+                + "JOIN " + cooldowns + " c ON (u.id = c.user_id) "
+                + "JOIN " + huds + " h ON (u.id = h.user_id) ";
+        selectAllProfiles = "SELECT " + PROFILE_COLUMNS + " " + allProfiles + "ORDER BY u.id";
+        selectAllProfilesFingerprint = "SELECT COUNT(*), MAX(u.id) " + allProfiles;
+        updateUserNameAndUUID = "UPDATE `" + users + "` SET user = ?, uuid = ? WHERE id = ?";
+
+        updateUUIDByName = "UPDATE " + users + " SET uuid = ? WHERE user = ?";
+        selectUserNames = "SELECT user FROM " + users;
+        selectUserNamesWithoutUUID = "SELECT `user` FROM `" + users + "` WHERE `uuid` IS NULL";
+        resetMobHealthbars = "UPDATE " + huds + " SET mobhealthbar = ?";
+
+        for (PrimarySkillType primarySkillType : PrimarySkillType.NON_CHILD_SKILLS) {
+            String column = primarySkillType.name().toLowerCase(Locale.ENGLISH);
+            leaderboards.put(primarySkillType, buildLeaderboard(users, skills, column));
+            rankCounts.put(primarySkillType, buildRankCount(users, skills, column));
+            rankTies.put(primarySkillType, buildRankTies(users, skills, column));
+        }
+
+        totalLeaderboard = buildLeaderboard(users, skills, ALL_QUERY_VERSION);
+        totalRankCount = buildRankCount(users, skills, ALL_QUERY_VERSION);
+        totalRankTies = buildRankTies(users, skills, ALL_QUERY_VERSION);
+    }
+
+    /**
+     * @param skill the skill, or null for the power level leaderboard
+     */
+    String leaderboard(PrimarySkillType skill) {
+        return skill == null ? totalLeaderboard : leaderboards.get(skill);
+    }
+
+    /**
+     * Counts every user with a higher level than the given player
+     *
+     * @param skill the skill, or null for power level
+     */
+    String rankCount(PrimarySkillType skill) {
+        return skill == null ? totalRankCount : rankCounts.get(skill);
+    }
+
+    /**
+     * Lists every user with the same level as the given player, ties are settled by alphabetical order
+     *
+     * @param skill the skill, or null for power level
+     */
+    String rankTies(PrimarySkillType skill) {
+        return skill == null ? totalRankTies : rankTies.get(skill);
+    }
+
+    private static String buildLeaderboard(String users, String skills, String column) {
+        return "SELECT " + column + ", user FROM " + users + " JOIN " + skills + " ON (user_id = id) WHERE " + column + " > 0 AND NOT user = '\\_INVALID\\_OLD\\_USERNAME\\_' ORDER BY " + column + " DESC, user LIMIT ?, ?";
+    }
+
+    private static String buildRankCount(String users, String skills, String column) {
+        return "SELECT COUNT(*) AS 'rank' FROM " + users + " JOIN " + skills + " ON user_id = id WHERE " + column + " > 0 "
+                + "AND " + column + " > (SELECT " + column + " FROM " + users + " JOIN " + skills + " ON user_id = id WHERE user = ?)";
+    }
+
+    private static String buildRankTies(String users, String skills, String column) {
+        return "SELECT user, " + column + " FROM " + users + " JOIN " + skills + " ON user_id = id WHERE " + column + " > 0 "
+                + "AND " + column + " = (SELECT " + column + " FROM " + users + " JOIN " + skills + " ON user_id = id WHERE user = ?) ORDER BY user";
+    }
+}
@@ -0,0 +1,1032 @@
+package com.gmail.nossr50.database;
+
+import com.gmail.nossr50.api.exceptions.InvalidSkillException;
+import com.gmail.nossr50.config.AdvancedConfig;
+import com.gmail.nossr50.config.Config;
+import com.gmail.nossr50.datatypes.MobHealthbarType;
+import com.gmail.nossr50.datatypes.database.DatabaseType;
+import com.gmail.nossr50.datatypes.database.PlayerStat;
+import com.gmail.nossr50.datatypes.player.PlayerProfile;
+import com.gmail.nossr50.datatypes.player.UniqueDataType;
+import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
+import com.gmail.nossr50.datatypes.skills.SuperAbilityType;
+import com.gmail.nossr50.mcMMO;
+import com.gmail.nossr50.util.Misc;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Stores every user as a single indexed row in an embedded SQLite file, no database server needed
+ * The database runs in WAL mode, so a pool of read connections can be used while the write connection is busy
+ * All writes go through the one write connection, guarded by a lock
+ */
+public final class SQLiteDatabaseManager implements DatabaseManager {
+    private static final String ALL_QUERY_VERSION = "total";
+    private static final String INVALID_OLD_USERNAME = "_INVALID_OLD_USERNAME_";
+    private static final String SQLITE_DRIVER = "org.sqlite.JDBC";
+    private static final long READ_CONNECTION_TIMEOUT_MILLIS = 5000;
+
+    private static final String LEVEL_COLUMNS;
+    private static final String XP_COLUMNS;
+    private static final String COOLDOWN_COLUMNS;
+    private static final String PROFILE_COLUMNS;
+
+    static {
+        StringBuilder levelColumns = new StringBuilder();
+        StringBuilder xpColumns = new StringBuilder();
+
+        for (PrimarySkillType primarySkillType : PrimarySkillType.NON_CHILD_SKILLS) {
+            levelColumns.append(", ").append(levelColumn(primarySkillType));
+            xpColumns.append(", ").append(xpColumn(primarySkillType));
+        }
+
+        StringBuilder cooldownColumns = new StringBuilder();
+
+        for (SuperAbilityType superAbilityType : SuperAbilityType.values()) {
+            cooldownColumns.append(", ").append(cooldownColumn(superAbilityType));
+        }
+
+        LEVEL_COLUMNS = levelColumns.substring(2);
+        XP_COLUMNS = xpColumns.substring(2);
+        COOLDOWN_COLUMNS = cooldownColumns.substring(2);
+        PROFILE_COLUMNS = "user, uuid, " + LEVEL_COLUMNS + ", " + XP_COLUMNS + ", " + COOLDOWN_COLUMNS + ", chimaera_wing, mobhealthbar, scoreboardtips";
+    }
+
+    private final String tablePrefix = Config.getInstance().getMySQLTablePrefix();
+    private final String usersTable = tablePrefix + "users";
+    private final String updateUser = buildUpdateUser(usersTable);
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private Connection writeConnection;
+    private BlockingQueue<Connection> readConnections;
+    private volatile boolean open = false;
+
+    protected SQLiteDatabaseManager() {
+        String connectionString = "jdbc:sqlite:" + new File(mcMMO.getFlatFileDirectory(), Config.getInstance().getSQLiteFileName()).getAbsolutePath();
+
+        try {
+            // Force driver to load if not yet loaded
+            Class.forName(SQLITE_DRIVER);
+        }
+        catch (ClassNotFoundException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        int readConnectionCount = Config.getInstance().getSQLiteReadConnections();
+        readConnections = new ArrayBlockingQueue<>(readConnectionCount);
+
+        try {
+            writeConnection = openConnection(connectionString);
+            checkStructure();
+
+            for (int i = 0; i < readConnectionCount; i++) {
+                readConnections.add(openConnection(connectionString));
+            }
+
+            open = true;
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+            mcMMO.p.getLogger().severe("Could not open the SQLite database, player data can't be loaded or saved: " + ex.getMessage());
+        }
+    }
+
+    private static String buildUpdateUser(String usersTable) {
+        StringBuilder sql = new StringBuilder("UPDATE " + usersTable + " SET lastlogin = ?");
+
+        for (PrimarySkillType primarySkillType : PrimarySkillType.NON_CHILD_SKILLS) {
+            sql.append(", ").append(levelColumn(primarySkillType)).append(" = ?");
+            sql.append(", ").append(xpColumn(primarySkillType)).append(" = ?");
+        }
+
+        for (SuperAbilityType superAbilityType : SuperAbilityType.values()) {
+            sql.append(", ").append(cooldownColumn(superAbilityType)).append(" = ?");
+        }
+
+        return sql.append(", total = ?, chimaera_wing = ?, mobhealthbar = ?, scoreboardtips = ? WHERE id = ?").toString();
+    }
+
+    private Connection openConnection(String connectionString) throws SQLException {
+        Connection connection = DriverManager.getConnection(connectionString);
+        Statement statement = connection.createStatement();
+
+        try {
+            // WAL lets readers carry on while a write is in progress
+            statement.execute("PRAGMA journal_mode=WAL");
+            statement.execute("PRAGMA synchronous=NORMAL");
+            statement.execute("PRAGMA busy_timeout=5000");
+        }
+        finally {
+            tryClose(statement);
+        }
+
+        return connection;
+    }
+
+    public void purgePowerlessUsers() {
+        mcMMO.p.getLogger().info("Purging powerless users...");
+
+        Statement statement = null;
+        int purged = 0;
+        StringBuilder powerless = new StringBuilder();
+
+        for (PrimarySkillType primarySkillType : PrimarySkillType.NON_CHILD_SKILLS) {
+            if (powerless.length() > 0) {
+                powerless.append(" AND ");
+            }
+
+            powerless.append(levelColumn(primarySkillType)).append(" = 0");
+        }
+
+        writeLock.lock();
+
+        try {
+            statement = writeConnection.createStatement();
+            purged = statement.executeUpdate("DELETE FROM " + usersTable + " WHERE " + powerless);
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+        }
+        finally {
+            tryClose(statement);
+            writeLock.unlock();
+        }
+
+        mcMMO.p.getLogger().info("Purged " + purged + " users from the database.");
+    }
+
+    public void purgeOldUsers() {
+        mcMMO.p.getLogger().info("Purging inactive users older than " + (PURGE_TIME / 2630000000L) + " months...");
+
+        PreparedStatement statement = null;
+        int purged = 0;
+
+        writeLock.lock();
+
+        try {
+            statement = writeConnection.prepareStatement("DELETE FROM " + usersTable + " WHERE lastlogin < ?");
+            statement.setLong(1, (System.currentTimeMillis() - PURGE_TIME) / Misc.TIME_CONVERSION_FACTOR);
+            purged = statement.executeUpdate();
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+        }
+        finally {
+            tryClose(statement);
+            writeLock.unlock();
+        }
+
+        mcMMO.p.getLogger().info("Purged " + purged + " users from the database.");
+    }
+
+    public boolean removeUser(String playerName, UUID uuid) {
+        boolean success = false;
+        PreparedStatement statement = null;
+
+        writeLock.lock();
+
+        try {
+            statement = writeConnection.prepareStatement("DELETE FROM " + usersTable + " WHERE user = ?");
+            statement.setString(1, playerName);
+            success = statement.executeUpdate() != 0;
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+        }
+        finally {
+            tryClose(statement);
+            writeLock.unlock();
+        }
+
+        if (success) {
+            Misc.profileCleanup(playerName);
+        }
+
+        return success;
+    }
+
+    public int removeUsersByUniqueId(Collection<UUID> uuids) {
+        int removed = 0;
+        PreparedStatement statement = null;
+
+        writeLock.lock();
+
+        try {
+            statement = writeConnection.prepareStatement("DELETE FROM " + usersTable + " WHERE uuid = ?");
+
+            for (UUID uuid : uuids) {
+                statement.setString(1, uuid.toString());
+                removed += statement.executeUpdate();
+            }
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+        }
+        finally {
+            tryClose(statement);
+            writeLock.unlock();
+        }
+
+        return removed;
+    }
+
+    public void cleanupUser(UUID uuid) {
+        // Nothing is cached per user
+    }
+
+    public boolean saveUser(PlayerProfile profile) {
+        writeLock.lock();
+
+        try {
+            return saveUser(writeConnection, profile);
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+            return false;
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Saves a whole batch of users in a single transaction
+     * Nothing is committed if any of them fails
+     */
+    @Override
+    public boolean saveUsers(List<PlayerProfile> profiles) {
+        boolean success = true;
+
+        writeLock.lock();
+
+        try {
+            writeConnection.setAutoCommit(false);
+
+            for (PlayerProfile profile : profiles) {
+                if (!saveUser(writeConnection, profile)) {
+                    success = false;
+                    break;
+                }
+            }
+
+            // Never leave part of a batch behind, the caller writes the whole batch again
+            if (success) {
+                writeConnection.commit();
+            }
+            else {
+                writeConnection.rollback();
+            }
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+            success = false;
+
+            try {
+                writeConnection.rollback();
+            }
+            catch (SQLException e) {
+                // Ignore
+            }
+        }
+        finally {
+            try {
+                writeConnection.setAutoCommit(true);
+            }
+            catch (SQLException e) {
+                // Ignore
+            }
+
+            writeLock.unlock();
+        }
+
+        return success;
+    }
+
+    private boolean saveUser(Connection connection, PlayerProfile profile) throws SQLException {
+        int id = getUserID(connection, profile.getPlayerName(), profile.getUniqueId());
+
+        if (id == -1) {
+            id = newUser(connection, profile.getPlayerName(), profile.getUniqueId());
+
+            if (id == -1) {
+                mcMMO.p.getLogger().severe("Failed to create new account for " + profile.getPlayerName());
+                return false;
+            }
+        }
+
+        PreparedStatement statement = connection.prepareStatement(updateUser);
+
+        try {
+            int index = 1;
+            int total = 0;
+
+            statement.setLong(index++, System.currentTimeMillis() / Misc.TIME_CONVERSION_FACTOR);
+
+            for (PrimarySkillType primarySkillType : PrimarySkillType.NON_CHILD_SKILLS) {
+                int level = profile.getSkillLevel(primarySkillType);
+                total += level;
+                statement.setInt(index++, level);
+                statement.setInt(index++, profile.getSkillXpLevel(primarySkillType));
+            }
+
+            for (SuperAbilityType superAbilityType : SuperAbilityType.values()) {
+                statement.setLong(index++, profile.getAbilityDATS(superAbilityType));
+            }
+
+            statement.setInt(index++, total);
+            statement.setLong(index++, profile.getUniqueData(UniqueDataType.CHIMAERA_WING_DATS));
+            statement.setString(index++, profile.getMobHealthbarType() == null ? Config.getInstance().getMobHealthbarDefault().name() : profile.getMobHealthbarType().name());
+            statement.setInt(index++, profile.getScoreboardTipsShown());
+            statement.setInt(index, id);
+
+            if (statement.executeUpdate() == 0) {
+                mcMMO.p.getLogger().severe("Failed to update user data for " + profile.getPlayerName());
+                return false;
+            }
+
+            return true;
+        }
+        finally {
+            tryClose(statement);
+        }
+    }
+
+    public @NotNull List<PlayerStat> readLeaderboard(@Nullable PrimarySkillType skill, int pageNumber, int statsPerPage) throws InvalidSkillException {
+        List<PlayerStat> stats = new ArrayList<>();
+
+        //Fix for a plugin that people are using that is throwing SQL errors
+        if (skill != null && skill.isChildSkill()) {
+            mcMMO.p.getLogger().severe("A plugin hooking into mcMMO is being naughty with our database commands, update all plugins that hook into mcMMO and contact their devs!");
+            throw new InvalidSkillException("A plugin hooking into mcMMO that you are using is attempting to read leaderboard skills for child skills, child skills do not have leaderboards! This is NOT an mcMMO error!");
+        }
+
+        String column = skill == null ? ALL_QUERY_VERSION : levelColumn(skill);
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = borrowReadConnection();
+            statement = connection.prepareStatement("SELECT user, " + column + " FROM " + usersTable + " WHERE " + column + " > 0 AND user <> ? ORDER BY " + column + " DESC, user LIMIT ?, ?");
+            statement.setString(1, INVALID_OLD_USERNAME);
+            statement.setInt(2, (pageNumber * statsPerPage) - statsPerPage);
+            statement.setInt(3, statsPerPage);
+            resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                stats.add(new PlayerStat(resultSet.getString(1), resultSet.getInt(2)));
+            }
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+        }
+        finally {
+            tryClose(resultSet);
+            tryClose(statement);
+            releaseReadConnection(connection);
+        }
+
+        return stats;
+    }
+
+    public Map<PrimarySkillType, Integer> readRank(String playerName) {
+        Map<PrimarySkillType, Integer> skills = new HashMap<>();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = borrowReadConnection();
+            statement = connection.prepareStatement("SELECT user, " + LEVEL_COLUMNS + ", " + ALL_QUERY_VERSION + " FROM " + usersTable + " WHERE user = ?");
+            statement.setString(1, playerName);
+            resultSet = statement.executeQuery();
+
+            if (!resultSet.next()) {
+                return skills;
+            }
+
+            // Ties are settled by alphabetical order of the stored name
+            String storedName = resultSet.getString(1);
+            int index = 2;
+
+            for (PrimarySkillType primarySkillType : PrimarySkillType.NON_CHILD_SKILLS) {
+                int rank = readRank(connection, levelColumn(primarySkillType), resultSet.getInt(index++), storedName);
+
+                if (rank > 0) {
+                    skills.put(primarySkillType, rank);
+                }
+            }
+
+            int rank = readRank(connection, ALL_QUERY_VERSION, resultSet.getInt(index), storedName);
+
+            if (rank > 0) {
+                skills.put(null, rank);
+            }
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+        }
+        finally {
+            tryClose(resultSet);
+            tryClose(statement);
+            releaseReadConnection(connection);
+        }
+
+        return skills;
+    }
+
+    private int readRank(Connection connection, String column, int level, String playerName) throws SQLException {
+        if (level <= 0) {
+            return 0;
+        }
+
+        PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) FROM " + usersTable + " WHERE " + column + " > ? OR (" + column + " = ? AND user < ?)");
+        ResultSet resultSet = null;
+
+        try {
+            statement.setInt(1, level);
+            statement.setInt(2, level);
+            statement.setString(3, playerName);
+            resultSet = statement.executeQuery();
+
+            return resultSet.next() ? resultSet.getInt(1) + 1 : 0;
+        }
+        finally {
+            tryClose(resultSet);
+            tryClose(statement);
+        }
+    }
+
+    public void newUser(String playerName, UUID uuid) {
+        writeLock.lock();
+
+        try {
+            newUser(writeConnection, playerName, uuid);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    private int newUser(Connection connection, String playerName, UUID uuid) {
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            statement = connection.prepareStatement("UPDATE " + usersTable + " SET user = ? WHERE user = ?");
+            statement.setString(1, INVALID_OLD_USERNAME);
+            statement.setString(2, playerName);
+            statement.executeUpdate();
+            statement.close();
+
+            // A user that already has this uuid keeps its row instead of failing the whole batch on the UNIQUE constraint
+            statement = connection.prepareStatement("INSERT OR IGNORE INTO " + usersTable + " (user, uuid, lastlogin, mobhealthbar) VALUES (?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, playerName);
+            statement.setString(2, uuid != null ? uuid.toString() : null);
+            statement.setLong(3, System.currentTimeMillis() / Misc.TIME_CONVERSION_FACTOR);
+            statement.setString(4, Config.getInstance().getMobHealthbarDefault().name());
+
+            if (statement.executeUpdate() == 0 && uuid != null) {
+                statement.close();
+                statement = connection.prepareStatement("SELECT id FROM " + usersTable + " WHERE uuid = ?");
+                statement.setString(1, uuid.toString());
+                resultSet = statement.executeQuery();
+
+                if (!resultSet.next()) {
+                    mcMMO.p.getLogger().severe("Unable to create new user account in DB");
+                    return -1;
+                }
+
+                mcMMO.p.getLogger().warning("Another user already has the UUID of " + playerName + ", their data is saved to that user");
+                return resultSet.getInt(1);
+            }
+
+            resultSet = statement.getGeneratedKeys();
+
+            if (!resultSet.next()) {
+                mcMMO.p.getLogger().severe("Unable to create new user account in DB");
+                return -1;
+            }
+
+            return resultSet.getInt(1);
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+        }
+        finally {
+            tryClose(resultSet);
+            tryClose(statement);
+        }
+
+        return -1;
+    }
+
+    @Deprecated
+    public PlayerProfile loadPlayerProfile(String playerName, boolean create) {
+        return loadPlayerProfile(playerName, null, false);
+    }
+
+    public PlayerProfile loadPlayerProfile(UUID uuid) {
+        return loadPlayerProfile("", uuid, false);
+    }
+
+    public PlayerProfile loadPlayerProfile(String playerName, UUID uuid, boolean create) {
+        PlayerProfile profile = readProfile(playerName, uuid);
+
+        if (profile != null) {
+            if (!playerName.isEmpty() && !playerName.equalsIgnoreCase(profile.getPlayerName()) && uuid != null) {
+                renameUser(profile.getPlayerName(), playerName, uuid);
+                profile = readProfile(playerName, uuid);
+            }
+
+            if (profile != null) {
+                return profile;
+            }
+        }
+
+        if (!create) {
+            return new PlayerProfile(playerName, false);
+        }
+
+        writeLock.lock();
+
+        try {
+            // Another thread may have created the user while we were waiting
+            if (getUserID(writeConnection, playerName, uuid) == -1 && newUser(writeConnection, playerName, uuid) == -1) {
+                return new PlayerProfile(playerName, false);
+            }
+        }
+        finally {
+            writeLock.unlock();
+        }
+
+        profile = readProfile(playerName, uuid);
+
+        return profile != null ? profile : new PlayerProfile(playerName, false);
+    }
+
+    /**
+     * Read a profile by uuid, or by name if the uuid is not known yet
+     *
+     * @return the profile, or null if there is no such user
+     */
+    private @Nullable PlayerProfile readProfile(String playerName, @Nullable UUID uuid) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = borrowReadConnection();
+
+            if (uuid == null) {
+                statement = connection.prepareStatement("SELECT " + PROFILE_COLUMNS + " FROM " + usersTable + " WHERE user = ?");
+                statement.setString(1, playerName);
+            }
+            else {
+                statement = connection.prepareStatement("SELECT " + PROFILE_COLUMNS + " FROM " + usersTable + " WHERE uuid = ? OR (uuid IS NULL AND user = ?) ORDER BY uuid IS NULL");
+                statement.setString(1, uuid.toString());
+                statement.setString(2, playerName);
+            }
+
+            resultSet = statement.executeQuery();
+
+            if (resultSet.next()) {
+                return loadFromResult(resultSet);
+            }
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+        }
+        finally {
+            tryClose(resultSet);
+            tryClose(statement);
+            releaseReadConnection(connection);
+        }
+
+        return null;
+    }
+
+    private void renameUser(String oldName, String newName, UUID uuid) {
+        PreparedStatement statement = null;
+
+        writeLock.lock();
+
+        try {
+            statement = writeConnection.prepareStatement("UPDATE " + usersTable + " SET user = ? WHERE user = ?");
+            statement.setString(1, INVALID_OLD_USERNAME);
+            statement.setString(2, newName);
+            statement.executeUpdate();
+            statement.close();
+
+            statement = writeConnection.prepareStatement("UPDATE " + usersTable + " SET user = ?, uuid = ? WHERE uuid = ? OR (uuid IS NULL AND user = ?)");
+            statement.setString(1, newName);
+            statement.setString(2, uuid.toString());
+            statement.setString(3, uuid.toString());
+            statement.setString(4, oldName);
+            statement.executeUpdate();
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+        }
+        finally {
+            tryClose(statement);
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void readUsers(long skip, Consumer<PlayerProfile> consumer) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = borrowReadConnection();
+            statement = connection.prepareStatement("SELECT " + PROFILE_COLUMNS + " FROM " + usersTable + " ORDER BY id LIMIT -1 OFFSET ?");
+            statement.setLong(1, skip);
+            resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                consumer.accept(loadFromResult(resultSet));
+            }
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+        }
+        finally {
+            tryClose(resultSet);
+            tryClose(statement);
+            releaseReadConnection(connection);
+        }
+    }
+
+    @Override
+    public String getUsersFingerprint() {
+        Connection connection = null;
+        Statement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = borrowReadConnection();
+            statement = connection.createStatement();
+            resultSet = statement.executeQuery("SELECT COUNT(*), MAX(id) FROM " + usersTable);
+
+            if (resultSet.next()) {
+                return resultSet.getLong(1) + ":" + resultSet.getLong(2);
+            }
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+        }
+        finally {
+            tryClose(resultSet);
+            tryClose(statement);
+            releaseReadConnection(connection);
+        }
+
+        return null;
+    }
+
+    public boolean saveUserUUID(String userName, UUID uuid) {
+        PreparedStatement statement = null;
+
+        writeLock.lock();
+
+        try {
+            statement = writeConnection.prepareStatement("UPDATE " + usersTable + " SET uuid = ? WHERE user = ?");
+            statement.setString(1, uuid.toString());
+            statement.setString(2, userName);
+            statement.execute();
+            return true;
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+            return false;
+        }
+        finally {
+            tryClose(statement);
+            writeLock.unlock();
+        }
+    }
+
+    public boolean saveUserUUIDs(Map<String, UUID> fetchedUUIDs) {
+        PreparedStatement statement = null;
+
+        writeLock.lock();
+
+        try {
+            writeConnection.setAutoCommit(false);
+            statement = writeConnection.prepareStatement("UPDATE " + usersTable + " SET uuid = ? WHERE user = ?");
+
+            for (Map.Entry<String, UUID> entry : fetchedUUIDs.entrySet()) {
+                statement.setString(1, entry.getValue().toString());
+                statement.setString(2, entry.getKey());
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+            writeConnection.commit();
+            return true;
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+
+            try {
+                writeConnection.rollback();
+            }
+            catch (SQLException e) {
+                // Ignore
+            }
+
+            return false;
+        }
+        finally {
+            tryClose(statement);
+
+            try {
+                writeConnection.setAutoCommit(true);
+            }
+            catch (SQLException e) {
+                // Ignore
+            }
+
+            writeLock.unlock();
+        }
+    }
+
+    public List<String> getStoredUsers() {
+        List<String> users = new ArrayList<>();
+        Connection connection = null;
+        Statement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = borrowReadConnection();
+            statement = connection.createStatement();
+            resultSet = statement.executeQuery("SELECT user FROM " + usersTable);
+
+            while (resultSet.next()) {
+                users.add(resultSet.getString(1));
+            }
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+        }
+        finally {
+            tryClose(resultSet);
+            tryClose(statement);
+            releaseReadConnection(connection);
+        }
+
+        return users;
+    }
+
+    public void resetMobHealthSettings() {
+        PreparedStatement statement = null;
+
+        writeLock.lock();
+
+        try {
+            statement = writeConnection.prepareStatement("UPDATE " + usersTable + " SET mobhealthbar = ?");
+            statement.setString(1, Config.getInstance().getMobHealthbarDefault().name());
+            statement.executeUpdate();
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+        }
+        finally {
+            tryClose(statement);
+            writeLock.unlock();
+        }
+    }
+
+    public DatabaseType getDatabaseType() {
+        return DatabaseType.SQLITE;
+    }
+
+    @Override
+    public void onDisable() {
+        mcMMO.p.debug("Closing SQLite connections...");
+
+        open = false;
+        Connection connection;
+
+        while ((connection = readConnections.poll()) != null) {
+            tryClose(connection);
+        }
+
+        writeLock.lock();
+
+        try {
+            tryClose(writeConnection);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Checks that the users table and its indexes are present
+     */
+    private void checkStructure() throws SQLException {
+        String startingLevel = String.valueOf(AdvancedConfig.getInstance().getStartingLevel());
+        String totalLevel = String.valueOf(AdvancedConfig.getInstance().getStartingLevel() * PrimarySkillType.NON_CHILD_SKILLS.size());
+        StringBuilder sql = new StringBuilder("CREATE TABLE IF NOT EXISTS " + usersTable + " ("
+                + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + "user TEXT NOT NULL, "
+                + "uuid TEXT NULL DEFAULT NULL UNIQUE, "
+                + "lastlogin INTEGER NOT NULL DEFAULT 0");
+
+        for (PrimarySkillType primarySkillType : PrimarySkillType.NON_CHILD_SKILLS) {
+            sql.append(", ").append(levelColumn(primarySkillType)).append(" INTEGER NOT NULL DEFAULT ").append(startingLevel);
+            sql.append(", ").append(xpColumn(primarySkillType)).append(" INTEGER NOT NULL DEFAULT 0");
+        }
+
+        for (SuperAbilityType superAbilityType : SuperAbilityType.values()) {
+            sql.append(", ").append(cooldownColumn(superAbilityType)).append(" INTEGER NOT NULL DEFAULT 0");
+        }
+
+        sql.append(", total INTEGER NOT NULL DEFAULT ").append(totalLevel)
+                .append(", chimaera_wing INTEGER NOT NULL DEFAULT 0")
+                .append(", mobhealthbar TEXT NOT NULL DEFAULT '").append(Config.getInstance().getMobHealthbarDefault().name()).append("'")
+                .append(", scoreboardtips INTEGER NOT NULL DEFAULT 0)");
+
+        Statement statement = writeConnection.createStatement();
+
+        try {
+            statement.executeUpdate(sql.toString());
+            statement.executeUpdate("CREATE INDEX IF NOT EXISTS " + tablePrefix + "idx_user ON " + usersTable + " (user)");
+
+            // One index per leaderboard, so reading a page or a rank never scans the table
+            for (PrimarySkillType primarySkillType : PrimarySkillType.NON_CHILD_SKILLS) {
+                statement.executeUpdate("CREATE INDEX IF NOT EXISTS " + tablePrefix + "idx_" + levelColumn(primarySkillType) + " ON " + usersTable + " (" + levelColumn(primarySkillType) + ", user)");
+            }
+
+            statement.executeUpdate("CREATE INDEX IF NOT EXISTS " + tablePrefix + "idx_" + ALL_QUERY_VERSION + " ON " + usersTable + " (" + ALL_QUERY_VERSION + ", user)");
+
+            if (Config.getInstance().getTruncateSkills()) {
+                for (PrimarySkillType primarySkillType : PrimarySkillType.NON_CHILD_SKILLS) {
+                    int cap = Config.getInstance().getLevelCap(primarySkillType);
+
+                    if (cap != Integer.MAX_VALUE) {
+                        statement.executeUpdate("UPDATE " + usersTable + " SET " + levelColumn(primarySkillType) + " = " + cap + " WHERE " + levelColumn(primarySkillType) + " > " + cap);
+                    }
+                }
+            }
+        }
+        finally {
+            tryClose(statement);
+        }
+    }
+
+    private int getUserID(Connection connection, String playerName, @Nullable UUID uuid) {
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            if (uuid == null) {
+                statement = connection.prepareStatement("SELECT id FROM " + usersTable + " WHERE user = ?");
+                statement.setString(1, playerName);
+            }
+            else {
+                statement = connection.prepareStatement("SELECT id FROM " + usersTable + " WHERE uuid = ? OR (uuid IS NULL AND user = ?) ORDER BY uuid IS NULL");
+                statement.setString(1, uuid.toString());
+                statement.setString(2, playerName);
+            }
+
+            resultSet = statement.executeQuery();
+
+            if (resultSet.next()) {
+                return resultSet.getInt(1);
+            }
+        }
+        catch (SQLException ex) {
+            printErrors(ex);
+        }
+        finally {
+            tryClose(resultSet);
+            tryClose(statement);
+        }
+
+        return -1;
+    }
+
+    private PlayerProfile loadFromResult(ResultSet result) throws SQLException {
+        Map<PrimarySkillType, Integer> skills = new EnumMap<>(PrimarySkillType.class); // Skill & Level
+        Map<PrimarySkillType, Float> skillsXp = new EnumMap<>(PrimarySkillType.class); // Skill & XP
+        Map<SuperAbilityType, Integer> skillsDATS = new EnumMap<>(SuperAbilityType.class); // Ability & Cooldown
+        Map<UniqueDataType, Integer> uniqueData = new EnumMap<>(UniqueDataType.class); //Chimaera wing cooldown and other misc info
+        MobHealthbarType mobHealthbarType;
+        UUID uuid;
+
+        // Columns are read in the same order as PROFILE_COLUMNS
+        String playerName = result.getString(1);
+        String uuidString = result.getString(2);
+        int index = 3;
+
+        for (PrimarySkillType primarySkillType : PrimarySkillType.NON_CHILD_SKILLS) {
+            skills.put(primarySkillType, result.getInt(index++));
+        }
+
+        for (PrimarySkillType primarySkillType : PrimarySkillType.NON_CHILD_SKILLS) {
+            skillsXp.put(primarySkillType, result.getFloat(index++));
+        }
+
+        for (SuperAbilityType superAbilityType : SuperAbilityType.values()) {
+            skillsDATS.put(superAbilityType, result.getInt(index++));
+        }
+
+        uniqueData.put(UniqueDataType.CHIMAERA_WING_DATS, result.getInt(index++));
+
+        try {
+            mobHealthbarType = MobHealthbarType.valueOf(result.getString(index++));
+        }
+        catch (Exception e) {
+            mobHealthbarType = Config.getInstance().getMobHealthbarDefault();
+        }
+
+        int scoreboardTipsShown = result.getInt(index);
+
+        try {
+            uuid = uuidString == null ? null : UUID.fromString(uuidString);
+        }
+        catch (IllegalArgumentException e) {
+            uuid = null;
+        }
+
+        return new PlayerProfile(playerName, uuid, skills, skillsXp, skillsDATS, mobHealthbarType, scoreboardTipsShown, uniqueData);
+    }
+
+    private Connection borrowReadConnection() throws SQLException {
+        if (!open) {
+            throw new SQLException("The SQLite database is closed, mcMMO is disabling or the database could not be opened when it started");
+        }
+
+        Connection connection;
+
+        try {
+            connection = readConnections.poll(READ_CONNECTION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a read connection", e);
+        }
+
+        if (connection == null) {
+            throw new SQLTimeoutException("Timed out waiting for an SQLite read connection, increase SQLite.Read_Connections");
+        }
+
+        return connection;
+    }
+
+    private void releaseReadConnection(@Nullable Connection connection) {
+        if (connection != null) {
+            readConnections.offer(connection);
+        }
+    }
+
+    private static String levelColumn(PrimarySkillType primarySkillType) {
+        return primarySkillType.name().toLowerCase(Locale.ENGLISH);
+    }
+
+    private static String xpColumn(PrimarySkillType primarySkillType) {
+        return "xp_" + primarySkillType.name().toLowerCase(Locale.ENGLISH);
+    }
+
+    private static String cooldownColumn(SuperAbilityType superAbilityType) {
+        return "cooldown_" + superAbilityType.name().toLowerCase(Locale.ENGLISH);
+    }
+
+    private void printErrors(SQLException ex) {
+        if (Config.getInstance().getMySQLDebug()) {
+            ex.printStackTrace();
+        }
+
+        StackTraceElement element = ex.getStackTrace()[0];
+        mcMMO.p.getLogger().severe("Location: " + element.getClassName() + " " + element.getMethodName() + " " + element.getLineNumber());
+        mcMMO.p.getLogger().severe("SQLException: " + ex.getMessage());
+        mcMMO.p.getLogger().severe("SQLState: " + ex.getSQLState());
+        mcMMO.p.getLogger().severe("VendorError: " + ex.getErrorCode());
+    }
+
+    private void tryClose(AutoCloseable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            }
+            catch (Exception e) {
+                // Ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.gmail.nossr50.datatypes;
+
+import com.gmail.nossr50.util.BlockUtils;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * A fixed size ring of recently visited block positions
+ * Positions are stored as a world UID reference plus packed block coordinates so that adding and checking
+ * positions does not allocate anything
+ */
+public class BlockLocationHistory {
+    private final UUID[] worlds;
+    private final long[] positions;
+    private int head = 0;
+    private int count = 0;
+
+    public BlockLocationHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+
+        worlds = new UUID[capacity];
+        positions = new long[capacity];
+    }
+
+    /**
+     * Adds the block position of a location to the history, replacing the oldest entry if the history is full
+     *
+     * @param location the location to add, only the block coordinates are considered
+     */
+    public void add(@NotNull Location location) {
+        World world = location.getWorld();
+
+        if (world == null) {
+            return;
+        }
+
+        worlds[head] = world.getUID();
+        positions[head] = BlockUtils.packBlockPosition(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        head = (head + 1) % positions.length;
+
+        if (count < positions.length) {
+            count++;
+        }
+    }
+
+    /**
+     * Returns true if the block position of a location is anywhere in the history
+     *
+     * @param location the location to check for, only the block coordinates are considered
+     * @return true if the block position is in the history
+     */
+    public boolean contains(@NotNull Location location) {
+        World world = location.getWorld();
+
+        if (world == null) {
+            return false;
+        }
+
+        UUID worldUID = world.getUID();
+        long packed = BlockUtils.packBlockPosition(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+
+        for (int i = 0; i < count; i++) {
+            if (positions[i] == packed && worldUID.equals(worlds[i])) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public void clear() {
+        head = 0;
+        count = 0;
+
+        for (int i = 0; i < worlds.length; i++) {
+            worlds[i] = null;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.gmail.nossr50.datatypes;
+
+import java.util.Arrays;
+
+/**
+ * A minimal open addressing hash set of primitive longs
+ * Used where a set of packed coordinates is built and thrown away often, so boxing every entry would be wasteful
+ */
+public class LongHashSet {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] table;
+    private int size = 0;
+    private boolean containsEmptyKey = false;
+
+    public LongHashSet() {
+        this(64);
+    }
+
+    public LongHashSet(int expectedSize) {
+        table = new long[tableSizeFor(expectedSize)];
+        Arrays.fill(table, EMPTY);
+    }
+
+    /**
+     * Adds a value to the set
+     *
+     * @param value the value to add
+     * @return true if the value was not already in the set
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsEmptyKey) {
+                return false;
+            }
+
+            containsEmptyKey = true;
+            size++;
+            return true;
+        }
+
+        int mask = table.length - 1;
+        int index = mix(value) & mask;
+
+        while (table[index] != EMPTY) {
+            if (table[index] == value) {
+                return false;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        table[index] = value;
+        size++;
+
+        // Keep the load factor at or below one half
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsEmptyKey;
+        }
+
+        int mask = table.length - 1;
+        int index = mix(value) & mask;
+
+        while (table[index] != EMPTY) {
+            if (table[index] == value) {
+                return true;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+        size = 0;
+        containsEmptyKey = false;
+    }
+
+    private void rehash(int newLength) {
+        long[] oldTable = table;
+        table = new long[newLength];
+        Arrays.fill(table, EMPTY);
+
+        int mask = newLength - 1;
+
+        for (long value : oldTable) {
+            if (value == EMPTY) {
+                continue;
+            }
+
+            int index = mix(value) & mask;
+
+            while (table[index] != EMPTY) {
+                index = (index + 1) & mask;
+            }
+
+            table[index] = value;
+        }
+    }
+
+    private static int mix(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int length = 16;
+
+        while (length < expectedSize * 2) {
+            length <<= 1;
+        }
+
+        return length;
+    }
+}
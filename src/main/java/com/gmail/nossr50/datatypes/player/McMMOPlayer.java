@@ -46,10 +46,12 @@ import com.gmail.nossr50.util.EventUtils;
 import com.gmail.nossr50.util.Misc;
 import com.gmail.nossr50.util.Permissions;
 import com.gmail.nossr50.util.experience.ExperienceBarManager;
+import com.gmail.nossr50.util.metrics.MetricCounter;
 import com.gmail.nossr50.util.player.NotificationManager;
 import com.gmail.nossr50.util.player.UserManager;
 import com.gmail.nossr50.util.scoreboards.ScoreboardManager;
 import com.gmail.nossr50.util.skills.PerksUtils;
+import com.gmail.nossr50.util.skills.PlayerRankVector;
 import com.gmail.nossr50.util.skills.RankUtils;
 import com.gmail.nossr50.util.skills.SkillUtils;
 import com.gmail.nossr50.util.sounds.SoundManager;
@@ -110,6 +112,13 @@ public class McMMOPlayer implements Identified {
     private int teleportATS;
     private long databaseATS;
     private double attackStrength; //captured during arm swing events
+
+    // Lucky perks are checked on every skill roll, permissions are only read again once the snapshot expires
+    private static final long PERMISSION_SNAPSHOT_MILLIS = 5000;
+    private final boolean[] luckyPerks = new boolean[PrimarySkillType.values().length];
+    private long permissionSnapshotExpiry;
+
+    private final PlayerRankVector rankVector = new PlayerRankVector();
     //private int chimeraWingLastUse;
     private Location teleportCommence;
 
@@ -551,6 +560,12 @@ public class McMMOPlayer implements Identified {
             return;
         }
 
+        mcMMO.getMetricsRegistry().increment(MetricCounter.XP_GAINS);
+
+        if (!WorldBlacklist.getWorldPolicy(player.getWorld()).isXpEnabled()) {
+            return;
+        }
+
         if (skill.isChildSkill()) {
             Set<PrimarySkillType> parentSkills = FamilyTree.getParents(skill);
             float splitXp = xp / parentSkills.size();
@@ -817,6 +832,10 @@ public class McMMOPlayer implements Identified {
             return;
         }
 
+        if (!WorldBlacklist.getWorldPolicy(player.getWorld()).isAbilitiesEnabled()) {
+            return;
+        }
+
         //TODO: This is hacky and temporary solution until skills are move to the new system
         //Potential problems with this include skills with two super abilities (ie mining)
         if(!skill.isSuperAbilityUnlocked(getPlayer()))
@@ -890,6 +909,10 @@ public class McMMOPlayer implements Identified {
             return;
         }
 
+        if (!WorldBlacklist.getWorldPolicy(player.getWorld()).isAbilitiesEnabled()) {
+            return;
+        }
+
         if (Config.getInstance().getAbilitiesOnlyActivateWhenSneaking() && !player.isSneaking()) {
             return;
         }
@@ -1007,6 +1030,30 @@ public class McMMOPlayer implements Identified {
         return (int) (((deactivatedTimestamp + (PerksUtils.handleCooldownPerks(player, ability.getCooldown()) * Misc.TIME_CONVERSION_FACTOR)) - System.currentTimeMillis()) / Misc.TIME_CONVERSION_FACTOR);
     }
 
+    /**
+     * Check if this player has the lucky perk for a skill
+     *
+     * @param primarySkillType the skill to check
+     * @return true if the player is lucky in this skill
+     */
+    public boolean isLucky(PrimarySkillType primarySkillType) {
+        long now = System.currentTimeMillis();
+
+        if (now >= permissionSnapshotExpiry) {
+            for (PrimarySkillType skill : PrimarySkillType.values()) {
+                luckyPerks[skill.ordinal()] = Permissions.lucky(player, skill);
+            }
+
+            permissionSnapshotExpiry = now + PERMISSION_SNAPSHOT_MILLIS;
+        }
+
+        return luckyPerks[primarySkillType.ordinal()];
+    }
+
+    public PlayerRankVector getRankVector() {
+        return rankVector;
+    }
+
     /*
      * These functions are wrapped from PlayerProfile so that we don't always have to store it alongside the McMMOPlayer object.
      */
@@ -1074,6 +1121,7 @@ public class McMMOPlayer implements Identified {
             getProfile().scheduleAsyncSave();
         }
 
+        mcMMO.getOfflineProfileCache().put(getProfile().copy());
         UserManager.remove(thisPlayer);
 
         if(Config.getInstance().getScoreboardsEnabled())
@@ -9,7 +9,6 @@ import com.gmail.nossr50.datatypes.experience.SkillXpGain;
 import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
 import com.gmail.nossr50.datatypes.skills.SuperAbilityType;
 import com.gmail.nossr50.mcMMO;
-import com.gmail.nossr50.runnables.player.PlayerProfileSaveTask;
 import com.gmail.nossr50.skills.child.FamilyTree;
 import com.gmail.nossr50.util.player.UserManager;
 import com.google.common.collect.ImmutableMap;
@@ -29,7 +28,6 @@ public class PlayerProfile {
     /* HUDs */
     private MobHealthbarType mobHealthbarType;
     private int scoreboardTipsShown;
-    private int saveAttempts = 0;
 
     /* Skill Data */
     private final Map<PrimarySkillType, Integer>   skills     = new HashMap<>();   // Skill & Level
@@ -92,62 +90,60 @@ public class PlayerProfile {
     }
 
     public void scheduleAsyncSave() {
-        new PlayerProfileSaveTask(this, false).runTaskAsynchronously(mcMMO.p);
+        save(false);
     }
 
+    @Deprecated
     public void scheduleSyncSave() {
-        new PlayerProfileSaveTask(this, true).runTask(mcMMO.p);
+        save(false);
     }
 
+    @Deprecated
     public void scheduleAsyncSaveDelay() {
-        new PlayerProfileSaveTask(this, false).runTaskLaterAsynchronously(mcMMO.p, 20);
+        save(false);
     }
 
     @Deprecated
     public void scheduleSyncSaveDelay() {
-        new PlayerProfileSaveTask(this, true).runTaskLater(mcMMO.p, 20);
+        save(false);
     }
 
+    /**
+     * Queue a snapshot of this profile to be written by the save queue
+     *
+     * @param useSync if true, wait until the snapshot has been written once
+     */
     public void save(boolean useSync) {
         if (!changed || !loaded) {
-            saveAttempts = 0;
             return;
         }
 
-        // TODO should this part be synchronized?
-        PlayerProfile profileCopy = new PlayerProfile(playerName, uuid, ImmutableMap.copyOf(skills), ImmutableMap.copyOf(skillsXp), ImmutableMap.copyOf(abilityDATS), mobHealthbarType, scoreboardTipsShown, ImmutableMap.copyOf(uniquePlayerData));
-        changed = !mcMMO.getDatabaseManager().saveUser(profileCopy);
-
-        if (changed) {
-            mcMMO.p.getLogger().severe("PlayerProfile saving failed for player: " + playerName + " " + uuid);
+        PlayerProfile profileCopy = copy();
+        changed = false;
+        mcMMO.getProfileSaveQueue().submit(this, profileCopy);
+        mcMMO.getOfflineProfileCache().update(profileCopy);
 
-            if(saveAttempts > 0)
-            {
-                mcMMO.p.getLogger().severe("Attempted to save profile for player "+getPlayerName()
-                        + " resulted in failure. "+saveAttempts+" have been made so far.");
+        if (useSync) {
+            try {
+                mcMMO.getProfileSaveQueue().awaitFirstAttempt(uuid, playerName);
             }
-
-            if(saveAttempts < 10)
-            {
-                saveAttempts++;
-
-                if(useSync)
-                    scheduleSyncSave(); //Execute sync saves immediately
-                else
-                    scheduleAsyncSaveDelay();
-
-            } else {
-                mcMMO.p.getLogger().severe("mcMMO has failed to save the profile for "
-                        +getPlayerName()+" numerous times." +
-                        " mcMMO will now stop attempting to save this profile." +
-                        " Check your console for errors and inspect your DB for issues.");
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-
-        } else {
-            saveAttempts = 0;
         }
     }
 
+    /**
+     * Copy the persistent data of this profile, diminished returns tracking is not copied
+     *
+     * @return a new profile holding the same data
+     */
+    public PlayerProfile copy() {
+        PlayerProfile profileCopy = new PlayerProfile(playerName, uuid, ImmutableMap.copyOf(skills), ImmutableMap.copyOf(skillsXp), ImmutableMap.copyOf(abilityDATS), mobHealthbarType, scoreboardTipsShown, ImmutableMap.copyOf(uniquePlayerData));
+        profileCopy.loaded = loaded;
+        return profileCopy;
+    }
+
     public String getPlayerName() {
         return playerName;
     }
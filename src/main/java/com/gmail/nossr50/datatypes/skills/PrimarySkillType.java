@@ -81,6 +81,9 @@ public enum PrimarySkillType {
     public static final List<PrimarySkillType> GATHERING_SKILLS = ImmutableList.of(EXCAVATION, FISHING, HERBALISM, MINING, WOODCUTTING);
     public static final List<PrimarySkillType> MISC_SKILLS = ImmutableList.of(ACROBATICS, ALCHEMY, REPAIR, SALVAGE, SMELTING);
 
+    // Parent skill of each subskill by ordinal, null for subskills no skill lists
+    private static final PrimarySkillType[] SUBSKILL_PARENTS = new PrimarySkillType[SubSkillType.values().length];
+
     static {
         List<PrimarySkillType> childSkills = new ArrayList<>();
         List<PrimarySkillType> nonChildSkills = new ArrayList<>();
@@ -97,6 +100,10 @@ public enum PrimarySkillType {
 
             for(SubSkillType subSkillType : skill.subSkillTypes)
             {
+                if (SUBSKILL_PARENTS[subSkillType.ordinal()] == null) {
+                    SUBSKILL_PARENTS[subSkillType.ordinal()] = skill;
+                }
+
                 subSkillNames.add(subSkillType.getNiceNameNoSpaces(subSkillType));
             }
             names.add(skill.getName());
@@ -216,12 +223,7 @@ public enum PrimarySkillType {
     }
 
     public static PrimarySkillType bySecondaryAbility(SubSkillType subSkillType) {
-        for (PrimarySkillType type : values()) {
-            if (type.getSkillAbilities().contains(subSkillType)) {
-                return type;
-            }
-        }
-        return null;
+        return SUBSKILL_PARENTS[subSkillType.ordinal()];
     }
 
     public static PrimarySkillType byAbility(SuperAbilityType ability) {
@@ -4,6 +4,7 @@ import com.gmail.nossr50.api.ItemSpawnReason;
 import com.gmail.nossr50.config.Config;
 import com.gmail.nossr50.config.HiddenConfig;
 import com.gmail.nossr50.config.WorldBlacklist;
+import com.gmail.nossr50.config.WorldPolicy;
 import com.gmail.nossr50.config.experience.ExperienceConfig;
 import com.gmail.nossr50.datatypes.meta.BonusDropMeta;
 import com.gmail.nossr50.datatypes.player.McMMOPlayer;
@@ -113,8 +114,10 @@ public class BlockListener implements Listener {
      */
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockPistonExtend(BlockPistonExtendEvent event) {
+        WorldPolicy worldPolicy = WorldBlacklist.getWorldPolicy(event.getBlock().getWorld());
+
         /* WORLD BLACKLIST CHECK */
-        if(WorldBlacklist.isWorldBlacklisted(event.getBlock().getWorld()))
+        if(worldPolicy.isBlacklisted() || !worldPolicy.isPlacedBlockTrackingEnabled())
             return;
 
         if(!ExperienceConfig.getInstance().isPistonCheatingPrevented()) {
@@ -137,8 +140,10 @@ public class BlockListener implements Listener {
      */
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockPistonRetract(BlockPistonRetractEvent event) {
+        WorldPolicy worldPolicy = WorldBlacklist.getWorldPolicy(event.getBlock().getWorld());
+
         /* WORLD BLACKLIST CHECK */
-        if(WorldBlacklist.isWorldBlacklisted(event.getBlock().getWorld()))
+        if(worldPolicy.isBlacklisted() || !worldPolicy.isPlacedBlockTrackingEnabled())
             return;
 
         if(!ExperienceConfig.getInstance().isPistonCheatingPrevented()) {
@@ -164,8 +169,10 @@ public class BlockListener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onEntityBlockFormEvent(EntityBlockFormEvent event)
     {
+        WorldPolicy worldPolicy = WorldBlacklist.getWorldPolicy(event.getBlock().getWorld());
+
         /* WORLD BLACKLIST CHECK */
-        if(WorldBlacklist.isWorldBlacklisted(event.getBlock().getWorld()))
+        if(worldPolicy.isBlacklisted() || !worldPolicy.isPlacedBlockTrackingEnabled())
             return;
 
         BlockState blockState = event.getNewState();
@@ -179,8 +186,10 @@ public class BlockListener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockFormEvent(BlockFormEvent event)
     {
+        WorldPolicy worldPolicy = WorldBlacklist.getWorldPolicy(event.getBlock().getWorld());
+
         /* WORLD BLACKLIST CHECK */
-        if(WorldBlacklist.isWorldBlacklisted(event.getBlock().getWorld()))
+        if(worldPolicy.isBlacklisted() || !worldPolicy.isPlacedBlockTrackingEnabled())
             return;
 
         if(ExperienceConfig.getInstance().preventStoneLavaFarming())
@@ -201,13 +210,19 @@ public class BlockListener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR)
     public void onBlockPlace(BlockPlaceEvent event) {
         BlockState blockState = event.getBlock().getState();
+        WorldPolicy worldPolicy = WorldBlacklist.getWorldPolicy(event.getBlock().getWorld());
 
         /* Check if the blocks placed should be monitored so they do not give out XP in the future */
 //      if (!Tag.LOGS.isTagged(event.getBlockReplacedState().getType()) || !Tag.LOGS.isTagged(event.getBlockPlaced().getType()))
-        mcMMO.getPlaceStore().setTrue(blockState);
+        if(worldPolicy.isPlacedBlockTrackingEnabled())
+            mcMMO.getPlaceStore().setTrue(blockState);
+
+        /* A new furnace has no owner yet */
+        if(blockState instanceof Furnace)
+            mcMMO.getSmeltingTracker().forgetFurnace(blockState.getBlock());
 
         /* WORLD BLACKLIST CHECK */
-        if(WorldBlacklist.isWorldBlacklisted(event.getBlock().getWorld())) {
+        if(worldPolicy.isBlacklisted()) {
             return;
         }
 
@@ -237,6 +252,9 @@ public class BlockListener implements Listener {
      */
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockMultiPlace(BlockMultiPlaceEvent event) {
+        if(!WorldBlacklist.getWorldPolicy(event.getBlock().getWorld()).isPlacedBlockTrackingEnabled())
+            return;
+
         for (BlockState replacedBlockState : event.getReplacedBlockStates())
         {
             BlockState blockState = replacedBlockState.getBlock().getState();
@@ -307,6 +325,10 @@ public class BlockListener implements Listener {
             Alchemy.brewingStandMap.get(location).cancelBrew();
         }
 
+        if (blockState instanceof Furnace) {
+            mcMMO.getSmeltingTracker().forgetFurnace(blockState.getBlock());
+        }
+
         Player player = event.getPlayer();
 
         if (!UserManager.hasPlayerDataKey(player) || player.getGameMode() == GameMode.CREATIVE) {
@@ -19,7 +19,6 @@ import com.gmail.nossr50.worldguard.WorldGuardUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockState;
 import org.bukkit.block.BrewingStand;
@@ -32,6 +31,8 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.*;
 import org.bukkit.inventory.*;
 
+import java.util.UUID;
+
 public class InventoryListener implements Listener {
     private final mcMMO plugin;
 
@@ -41,56 +42,59 @@ public class InventoryListener implements Listener {
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onFurnaceBurnEvent(FurnaceBurnEvent event) {
+        Block furnaceBlock = event.getBlock();
+
         /* WORLD BLACKLIST CHECK */
-        if(WorldBlacklist.isWorldBlacklisted(event.getBlock().getWorld()))
+        if(WorldBlacklist.isWorldBlacklisted(furnaceBlock.getWorld()))
             return;
 
-        Block furnaceBlock = event.getBlock();
-        BlockState furnaceState = furnaceBlock.getState();
-        ItemStack smelting = furnaceState instanceof Furnace ? ((Furnace) furnaceState).getInventory().getSmelting() : null;
+        //Furnaces without an online owner are skipped before their state is copied
+        UUID ownerUUID = mcMMO.getSmeltingTracker().getFurnaceOwnerUUID(furnaceBlock);
 
-        if (!ItemUtils.isSmeltable(smelting)) {
+        if(ownerUUID == null) {
             return;
         }
 
-        Furnace furnace = (Furnace) furnaceState;
+        Player player = Bukkit.getPlayer(ownerUUID);
 
-        OfflinePlayer offlinePlayer = mcMMO.getSmeltingTracker().getFurnaceOwner(furnace);
+        if(player == null) {
+            return;
+        }
 
-        if(offlinePlayer != null && offlinePlayer.isOnline()) {
+        BlockState furnaceState = furnaceBlock.getState();
+        ItemStack smelting = furnaceState instanceof Furnace ? ((Furnace) furnaceState).getInventory().getSmelting() : null;
 
-            Player player = Bukkit.getPlayer(offlinePlayer.getUniqueId());
+        if (!ItemUtils.isSmeltable(smelting)) {
+            return;
+        }
 
-            if(player != null) {
-                if (!Permissions.isSubSkillEnabled(player, SubSkillType.SMELTING_FUEL_EFFICIENCY)) {
-                    return;
-                }
+        Furnace furnace = (Furnace) furnaceState;
 
-                //Profile doesn't exist
-                if(UserManager.getOfflinePlayer(offlinePlayer) == null)
-                {
-                    return;
-                }
+        if (!Permissions.isSubSkillEnabled(player, SubSkillType.SMELTING_FUEL_EFFICIENCY)) {
+            return;
+        }
 
+        //Profile doesn't exist
+        if(UserManager.getPlayer(player) == null)
+        {
+            return;
+        }
 
-                boolean debugMode = player.isOnline() && UserManager.getPlayer(player).isDebugMode();
+        boolean debugMode = UserManager.getPlayer(player).isDebugMode();
 
-                if(debugMode) {
-                    player.sendMessage("FURNACE FUEL EFFICIENCY DEBUG REPORT");
-                    player.sendMessage("Furnace - "+furnace.hashCode());
-                    player.sendMessage("Furnace Type: "+furnaceBlock.getType().toString());
-                    player.sendMessage("Burn Length before Fuel Efficiency is applied - "+event.getBurnTime());
-                }
+        if(debugMode) {
+            player.sendMessage("FURNACE FUEL EFFICIENCY DEBUG REPORT");
+            player.sendMessage("Furnace - "+furnace.hashCode());
+            player.sendMessage("Furnace Type: "+furnaceBlock.getType().toString());
+            player.sendMessage("Burn Length before Fuel Efficiency is applied - "+event.getBurnTime());
+        }
 
-                event.setBurnTime(UserManager.getPlayer(player).getSmeltingManager().fuelEfficiency(event.getBurnTime()));
+        event.setBurnTime(UserManager.getPlayer(player).getSmeltingManager().fuelEfficiency(event.getBurnTime()));
 
-                if(debugMode) {
-                    player.sendMessage("New Furnace Burn Length (after applying fuel efficiency) "+event.getBurnTime());
-                    player.sendMessage("");
-                }
-            }
+        if(debugMode) {
+            player.sendMessage("New Furnace Burn Length (after applying fuel efficiency) "+event.getBurnTime());
+            player.sendMessage("");
         }
-
     }
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
@@ -99,25 +103,20 @@ public class InventoryListener implements Listener {
         if(WorldBlacklist.isWorldBlacklisted(event.getBlock().getWorld()))
             return;
 
-        BlockState blockState = event.getBlock().getState(); //Furnaces can only be cast from a BlockState not a Block
         ItemStack smelting = event.getSource();
 
         if (!ItemUtils.isSmeltable(smelting)) {
             return;
         }
 
-        if(blockState instanceof Furnace) {
-            Furnace furnace = (Furnace) blockState;
-            OfflinePlayer offlinePlayer = mcMMO.getSmeltingTracker().getFurnaceOwner(furnace);
+        UUID ownerUUID = mcMMO.getSmeltingTracker().getFurnaceOwnerUUID(event.getBlock());
 
-            if(offlinePlayer != null) {
+        if(ownerUUID != null) {
+            McMMOPlayer offlineProfile = UserManager.getOfflinePlayer(Bukkit.getOfflinePlayer(ownerUUID));
 
-                McMMOPlayer offlineProfile = UserManager.getOfflinePlayer(offlinePlayer);
-
-                //Profile doesn't exist
-                if(offlineProfile != null) {
-                    event.setResult(offlineProfile.getSmeltingManager().smeltProcessing(smelting, event.getResult()));
-                }
+            //Profile doesn't exist
+            if(offlineProfile != null) {
+                event.setResult(offlineProfile.getSmeltingManager().smeltProcessing(smelting, event.getResult()));
             }
         }
     }
@@ -361,37 +360,44 @@ public class InventoryListener implements Listener {
 
     @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
     public void onInventoryMoveItemEvent(InventoryMoveItemEvent event) {
-        /* WORLD BLACKLIST CHECK */
-
-        if(event.getSource().getLocation() != null)
-            if(WorldBlacklist.isWorldBlacklisted(event.getSource().getLocation().getWorld()))
-                return;
-
+        //Hopper chains fire this for every item moved, everything but brewing stands has to return right away
         Inventory inventory = event.getDestination();
 
         if (!(inventory instanceof BrewerInventory)) {
             return;
         }
 
+        Config config = Config.getInstance();
+
+        if (!config.getEnabledForHoppers() && !config.getPreventHopperTransferIngredients() && !config.getPreventHopperTransferBottles()) {
+            return;
+        }
+
         InventoryHolder holder = inventory.getHolder();
 
         if (!(holder instanceof BrewingStand)) {
             return;
         }
 
+        /* WORLD BLACKLIST CHECK */
+        if(WorldBlacklist.isWorldBlacklisted(((BrewingStand) holder).getWorld()))
+            return;
+
         ItemStack item = event.getItem();
+        Material itemType = item.getType();
+        boolean isPotion = itemType == Material.POTION || itemType == Material.SPLASH_POTION || itemType == Material.LINGERING_POTION;
 
-        if (Config.getInstance().getPreventHopperTransferIngredients() && item.getType() != Material.POTION && item.getType() != Material.SPLASH_POTION && item.getType() != Material.LINGERING_POTION) {
+        if (config.getPreventHopperTransferIngredients() && !isPotion) {
             event.setCancelled(true);
             return;
         }
 
-        if (Config.getInstance().getPreventHopperTransferBottles() && (item.getType() == Material.POTION || item.getType() == Material.SPLASH_POTION || item.getType() == Material.LINGERING_POTION)) {
+        if (config.getPreventHopperTransferBottles() && isPotion) {
             event.setCancelled(true);
             return;
         }
 
-        if (Config.getInstance().getEnabledForHoppers() && AlchemyPotionBrewer.isValidIngredient(null, item)) {
+        if (config.getEnabledForHoppers() && AlchemyPotionBrewer.isValidIngredient(null, item)) {
             AlchemyPotionBrewer.scheduleCheck(null, (BrewingStand) holder);
         }
     }
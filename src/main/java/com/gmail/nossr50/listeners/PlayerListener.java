@@ -5,6 +5,7 @@ import com.gmail.nossr50.config.WorldBlacklist;
 import com.gmail.nossr50.config.experience.ExperienceConfig;
 import com.gmail.nossr50.datatypes.chat.ChatChannel;
 import com.gmail.nossr50.datatypes.player.McMMOPlayer;
+import com.gmail.nossr50.datatypes.player.PlayerProfile;
 import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
 import com.gmail.nossr50.datatypes.skills.SubSkillType;
 import com.gmail.nossr50.datatypes.skills.subskills.taming.CallOfTheWildType;
@@ -22,6 +23,9 @@ import com.gmail.nossr50.skills.salvage.Salvage;
 import com.gmail.nossr50.skills.salvage.SalvageManager;
 import com.gmail.nossr50.skills.taming.TamingManager;
 import com.gmail.nossr50.util.*;
+import com.gmail.nossr50.util.metrics.MetricCounter;
+import com.gmail.nossr50.util.metrics.MetricsRegistry;
+import com.gmail.nossr50.util.metrics.TimedOperation;
 import com.gmail.nossr50.util.player.UserManager;
 import com.gmail.nossr50.util.scoreboards.ScoreboardManager;
 import com.gmail.nossr50.util.skills.RankUtils;
@@ -50,6 +54,7 @@ import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.Locale;
+import java.util.UUID;
 
 public class PlayerListener implements Listener {
     private final mcMMO plugin;
@@ -507,6 +512,72 @@ public class PlayerListener implements Listener {
         }
     }
 
+    /**
+     * Monitor AsyncPlayerPreLoginEvents.
+     * <p>
+     * These events are monitored for the purpose of loading the player's
+     * existing profile before they join, so their skills are ready the moment they do.
+     *
+     * @param event The event to monitor
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        UUID uuid = event.getUniqueId();
+
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            mcMMO.getProfilePrefetchCache().evict(uuid);
+            return;
+        }
+
+        //Still online from another session, its quit save hasn't been queued yet so load on join instead
+        if (Bukkit.getPlayer(uuid) != null) {
+            return;
+        }
+
+        //A quick reconnect is served from the snapshot taken when the player left
+        PlayerProfile cachedProfile = mcMMO.getOfflineProfileCache().takeForLogin(uuid, event.getName());
+
+        if (cachedProfile != null) {
+            mcMMO.getProfilePrefetchCache().put(uuid, cachedProfile);
+            return;
+        }
+
+        try {
+            mcMMO.getProfileSaveQueue().awaitSaved(uuid, event.getName());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        MetricsRegistry metricsRegistry = mcMMO.getMetricsRegistry();
+        long start = metricsRegistry.startTiming();
+        //Never create a profile here, the player can still be turned away by a ban, the whitelist or a full server
+        PlayerProfile profile = mcMMO.getDatabaseManager().loadPlayerProfile(event.getName(), uuid, false);
+        metricsRegistry.stopTiming(TimedOperation.DATABASE_LOAD, start);
+        metricsRegistry.increment(MetricCounter.DATABASE_ROUND_TRIPS);
+
+        //New players have nothing to load yet, their profile is created on join
+        if (profile.isLoaded()) {
+            mcMMO.getProfilePrefetchCache().put(uuid, profile);
+        }
+    }
+
+    /**
+     * Monitor PlayerLoginEvents.
+     * <p>
+     * These events are monitored for the purpose of dropping profiles
+     * loaded during pre-login for players that were not allowed in.
+     *
+     * @param event The event to monitor
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            mcMMO.getProfilePrefetchCache().evict(event.getPlayer().getUniqueId());
+        }
+    }
+
     /**
      * Monitor PlayerQuitEvents.
      * <p>
@@ -519,6 +590,12 @@ public class PlayerListener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
+        mcMMO.getProfilePrefetchCache().evict(player.getUniqueId());
+        // Tree Feller or Blast Mining work still spread over ticks is finished now, while the player can still be given XP
+        mcMMO.getAbilityWorkQueue().flush(player.getUniqueId());
+
+        if(WorldGuardUtils.isWorldGuardLoaded())
+            WorldGuardManager.getInstance().invalidateFlagCache(player);
 
         if (!UserManager.hasPlayerDataKey(player)) {
             return;
@@ -531,9 +608,8 @@ public class PlayerListener implements Listener {
         }
 
         McMMOPlayer mcMMOPlayer = UserManager.getPlayer(player);
-        //There's an issue with using Async saves on player quit
-        //Basically there are conditions in which an async task does not execute fast enough to save the data if the server shutdown shortly after this task was scheduled
-        mcMMOPlayer.logout(true);
+        //The save queue is flushed on shutdown, so the quit save doesn't need to hold up the main thread
+        mcMMOPlayer.logout(false);
     }
 
     /**
@@ -549,8 +625,15 @@ public class PlayerListener implements Listener {
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
 
-        //Delay loading for 3 seconds in case the player has a save task running, its hacky but it should do the trick
-        new PlayerProfileLoadingTask(player).runTaskLaterAsynchronously(mcMMO.p, 60);
+        PlayerProfile prefetchedProfile = mcMMO.getProfilePrefetchCache().take(player.getUniqueId());
+
+        if (prefetchedProfile != null) {
+            PlayerProfileLoadingTask.applyLoadedProfile(player, prefetchedProfile);
+        }
+        else {
+            //Not loaded during pre-login, the loading task waits for any save still queued for this player
+            new PlayerProfileLoadingTask(player).runTaskAsynchronously(mcMMO.p);
+        }
 
         if (Config.getInstance().getMOTDEnabled() && Permissions.motd(player)) {
             Motd.displayAll(player);
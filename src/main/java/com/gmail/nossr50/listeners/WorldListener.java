@@ -11,6 +11,7 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.world.ChunkUnloadEvent;
 import org.bukkit.event.world.StructureGrowEvent;
 import org.bukkit.event.world.WorldInitEvent;
+import org.bukkit.event.world.WorldLoadEvent;
 import org.bukkit.event.world.WorldUnloadEvent;
 
 import java.io.File;
@@ -50,7 +51,7 @@ public class WorldListener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onWorldInit(WorldInitEvent event) {
         /* WORLD BLACKLIST CHECK */
-        if(WorldBlacklist.isWorldBlacklisted(event.getWorld()))
+        if(WorldBlacklist.resolveWorldPolicy(event.getWorld()).isBlacklisted())
             return;
 
         World world = event.getWorld();
@@ -64,6 +65,17 @@ public class WorldListener implements Listener {
         //new BlockStoreConversionMain(world).run();
     }
 
+    /**
+     * Monitor WorldLoad events.
+     *
+     * @param event The event to watch
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onWorldLoad(WorldLoadEvent event) {
+        //Worlds created by some plugins skip the init event
+        WorldBlacklist.getWorldPolicy(event.getWorld());
+    }
+
     /**
      * Monitor WorldUnload events.
      *
@@ -71,8 +83,12 @@ public class WorldListener implements Listener {
      */
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onWorldUnload(WorldUnloadEvent event) {
+        boolean blacklisted = WorldBlacklist.isWorldBlacklisted(event.getWorld());
+        WorldBlacklist.forgetWorldPolicy(event.getWorld());
+        mcMMO.getSmeltingTracker().forgetWorld(event.getWorld());
+
         /* WORLD BLACKLIST CHECK */
-        if(WorldBlacklist.isWorldBlacklisted(event.getWorld()))
+        if(blacklisted)
             return;
 
         mcMMO.getPlaceStore().unloadWorld(event.getWorld());
@@ -92,5 +108,6 @@ public class WorldListener implements Listener {
         Chunk chunk = event.getChunk();
 
         mcMMO.getPlaceStore().chunkUnloaded(chunk.getX(), chunk.getZ(), event.getWorld());
+        mcMMO.getSmeltingTracker().forgetChunk(event.getWorld(), chunk.getX(), chunk.getZ());
     }
 }
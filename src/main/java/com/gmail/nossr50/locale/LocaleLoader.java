@@ -2,6 +2,7 @@ package com.gmail.nossr50.locale;
 
 import com.gmail.nossr50.config.Config;
 import com.gmail.nossr50.mcMMO;
+import com.gmail.nossr50.util.text.TextComponentFactory;
 import com.gmail.nossr50.util.text.TextUtils;
 import net.kyori.adventure.text.TextComponent;
 import org.bukkit.ChatColor;
@@ -70,6 +71,7 @@ public final class LocaleLoader {
         enBundle = null;
         bundleCache = new HashMap<>(); // Cheaper to replace than clear()
         initialize();
+        TextComponentFactory.clearSubSkillComponentCache();
     }
 
     private static String getRawString(String key) {
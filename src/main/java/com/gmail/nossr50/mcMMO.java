@@ -14,19 +14,23 @@ import com.gmail.nossr50.config.skills.salvage.SalvageConfigManager;
 import com.gmail.nossr50.config.treasure.TreasureConfig;
 import com.gmail.nossr50.database.DatabaseManager;
 import com.gmail.nossr50.database.DatabaseManagerFactory;
+import com.gmail.nossr50.database.ProfileSaveQueue;
 import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
 import com.gmail.nossr50.datatypes.skills.subskills.acrobatics.Roll;
 import com.gmail.nossr50.listeners.*;
 import com.gmail.nossr50.party.PartyManager;
 import com.gmail.nossr50.runnables.CheckDateTask;
 import com.gmail.nossr50.runnables.SaveTimerTask;
+import com.gmail.nossr50.runnables.TimingsExportTask;
 import com.gmail.nossr50.runnables.backups.CleanBackupsTask;
 import com.gmail.nossr50.runnables.commands.NotifySquelchReminderTask;
+import com.gmail.nossr50.runnables.database.DatabaseLoadTestTask;
 import com.gmail.nossr50.runnables.database.UserPurgeTask;
 import com.gmail.nossr50.runnables.party.PartyAutoKickTask;
 import com.gmail.nossr50.runnables.player.ClearRegisteredXPGainTask;
 import com.gmail.nossr50.runnables.player.PlayerProfileLoadingTask;
 import com.gmail.nossr50.runnables.player.PowerLevelUpdatingTask;
+import com.gmail.nossr50.runnables.skills.AbilityWorkQueueTask;
 import com.gmail.nossr50.runnables.skills.BleedTimerTask;
 import com.gmail.nossr50.skills.alchemy.Alchemy;
 import com.gmail.nossr50.skills.child.ChildConfig;
@@ -42,9 +46,12 @@ import com.gmail.nossr50.util.blockmeta.chunkmeta.ChunkManagerFactory;
 import com.gmail.nossr50.util.commands.CommandRegistrationManager;
 import com.gmail.nossr50.util.compat.CompatibilityManager;
 import com.gmail.nossr50.util.experience.FormulaManager;
+import com.gmail.nossr50.util.metrics.MetricsRegistry;
 import com.gmail.nossr50.util.platform.PlatformManager;
 import com.gmail.nossr50.util.platform.ServerSoftwareType;
 import com.gmail.nossr50.util.player.PlayerLevelUtils;
+import com.gmail.nossr50.util.player.OfflineProfileCache;
+import com.gmail.nossr50.util.player.ProfilePrefetchCache;
 import com.gmail.nossr50.util.player.UserManager;
 import com.gmail.nossr50.util.scoreboards.ScoreboardManager;
 import com.gmail.nossr50.util.skills.RankUtils;
@@ -77,6 +84,9 @@ public class mcMMO extends JavaPlugin {
     private static SalvageableManager salvageableManager;
     private static ModManager         modManager;
     private static DatabaseManager    databaseManager;
+    private static ProfileSaveQueue   profileSaveQueue;
+    private static ProfilePrefetchCache profilePrefetchCache;
+    private static OfflineProfileCache offlineProfileCache;
     private static FormulaManager     formulaManager;
     private static HolidayManager     holidayManager;
     private static UpgradeManager     upgradeManager;
@@ -84,6 +94,9 @@ public class mcMMO extends JavaPlugin {
     private static PlayerLevelUtils playerLevelUtils;
     private static SmeltingTracker smeltingTracker;
     private static TransientMetadataTools transientMetadataTools;
+    private static NearbyEntityIndex nearbyEntityIndex;
+    private static AbilityWorkQueueTask abilityWorkQueue;
+    private static MetricsRegistry metricsRegistry;
     private static ChatManager chatManager;
     private static CommandManager commandManager; //ACF
 
@@ -177,6 +190,8 @@ public class mcMMO extends JavaPlugin {
                 return;
             }
 
+            metricsRegistry = new MetricsRegistry(Config.getInstance().getTimingsEnabled(), Config.getInstance().getTimingsSampleRate());
+
             //Store this value so other plugins can check it
             isRetroModeEnabled = Config.getInstance().getIsRetroMode();
 
@@ -198,6 +213,10 @@ public class mcMMO extends JavaPlugin {
             }
 
             databaseManager = DatabaseManagerFactory.getDatabaseManager();
+            profileSaveQueue = new ProfileSaveQueue(databaseManager);
+            profilePrefetchCache = new ProfilePrefetchCache();
+            offlineProfileCache = new OfflineProfileCache();
+            getServer().getScheduler().runTaskAsynchronously(this, DatabaseLoadTestTask::removeAbandonedPlayers);
 
             //Check for the newer API and tell them what to do if its missing
             checkForOutdatedAPI();
@@ -285,6 +304,8 @@ public class mcMMO extends JavaPlugin {
 
         transientMetadataTools = new TransientMetadataTools(this);
 
+        nearbyEntityIndex = new NearbyEntityIndex();
+
         chatManager = new ChatManager(this);
 
         commandManager = new CommandManager(this);
@@ -324,6 +345,10 @@ public class mcMMO extends JavaPlugin {
     @Override
     public void onDisable() {
         try {
+            if (abilityWorkQueue != null) {
+                abilityWorkQueue.flush(); // Finish any Tree Feller or Blast Mining work that was spread over ticks
+            }
+
             UserManager.saveAll();      // Make sure to save player information if the server shuts down
             UserManager.clearAll();
             Alchemy.finishAllBrews();   // Finish all partially complete AlchemyBrewTasks to prevent vanilla brewing continuation on restart
@@ -365,6 +390,12 @@ public class mcMMO extends JavaPlugin {
             }
         }
 
+        DatabaseLoadTestTask.stop(); // Let a running load test remove its synthetic players while the database is still open
+
+        if (profileSaveQueue != null) {
+            profileSaveQueue.shutdown(); // Write anything saved since the player data was saved above
+        }
+
         databaseManager.onDisable();
         debug("Was disabled."); // How informative!
     }
@@ -429,6 +460,18 @@ public class mcMMO extends JavaPlugin {
         return databaseManager;
     }
 
+    public static ProfileSaveQueue getProfileSaveQueue() {
+        return profileSaveQueue;
+    }
+
+    public static ProfilePrefetchCache getProfilePrefetchCache() {
+        return profilePrefetchCache;
+    }
+
+    public static OfflineProfileCache getOfflineProfileCache() {
+        return offlineProfileCache;
+    }
+
     public static ModManager getModManager() {
         return modManager;
     }
@@ -558,15 +601,13 @@ public class mcMMO extends JavaPlugin {
     }
 
     private void registerEvents() {
-        PluginManager pluginManager = getServer().getPluginManager();
-
-        // Register events
-        pluginManager.registerEvents(new PlayerListener(this), this);
-        pluginManager.registerEvents(new BlockListener(this), this);
-        pluginManager.registerEvents(new EntityListener(this), this);
-        pluginManager.registerEvents(new InventoryListener(this), this);
-        pluginManager.registerEvents(new SelfListener(this), this);
-        pluginManager.registerEvents(new WorldListener(this), this);
+        // Register events, timed if timings are enabled
+        metricsRegistry.registerEvents(new PlayerListener(this), this);
+        metricsRegistry.registerEvents(new BlockListener(this), this);
+        metricsRegistry.registerEvents(new EntityListener(this), this);
+        metricsRegistry.registerEvents(new InventoryListener(this), this);
+        metricsRegistry.registerEvents(new SelfListener(this), this);
+        metricsRegistry.registerEvents(new WorldListener(this), this);
 //        pluginManager.registerEvents(new CommandListener(this), this);
     }
 
@@ -608,6 +649,10 @@ public class mcMMO extends JavaPlugin {
         // Cleanup the backups folder
         new CleanBackupsTask().runTaskAsynchronously(mcMMO.p);
 
+        // Tree Feller and Blast Mining work queue (Runs every tick)
+        abilityWorkQueue = new AbilityWorkQueueTask(Config.getInstance().getAbilityWorkSpreadEnabled(), Config.getInstance().getAbilityWorkTickBudget());
+        abilityWorkQueue.runTaskTimer(this, 1, 1);
+
         // Bleed timer (Runs every 0.5 seconds)
         new BleedTimerTask().runTaskTimer(this, Misc.TICK_CONVERSION_FACTOR, (Misc.TICK_CONVERSION_FACTOR / 2));
 
@@ -647,6 +692,16 @@ public class mcMMO extends JavaPlugin {
         {
             new NotifySquelchReminderTask().runTaskTimer(this, 60, ((20 * 60) * 60));
         }
+
+        // Entity proximity lookups are only cached for the tick they were made in
+        getServer().getScheduler().runTaskTimer(this, () -> nearbyEntityIndex.invalidate(), 1, 1);
+
+        // Export timings for Prometheus
+        long timingsExportTicks = Config.getInstance().getTimingsExportInterval() * Misc.TICK_CONVERSION_FACTOR;
+
+        if (timingsExportTicks > 0) {
+            new TimingsExportTask(null).runTaskTimerAsynchronously(this, timingsExportTicks, timingsExportTicks);
+        }
     }
 
     private void checkModConfigs() {
@@ -710,6 +765,18 @@ public class mcMMO extends JavaPlugin {
         return transientMetadataTools;
     }
 
+    public static NearbyEntityIndex getNearbyEntityIndex() {
+        return nearbyEntityIndex;
+    }
+
+    public static MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    public static AbilityWorkQueueTask getAbilityWorkQueue() {
+        return abilityWorkQueue;
+    }
+
     public ChatManager getChatManager() {
         return chatManager;
     }
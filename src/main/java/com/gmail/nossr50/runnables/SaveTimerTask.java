@@ -3,21 +3,21 @@ package com.gmail.nossr50.runnables;
 import com.gmail.nossr50.datatypes.player.McMMOPlayer;
 import com.gmail.nossr50.mcMMO;
 import com.gmail.nossr50.party.PartyManager;
-import com.gmail.nossr50.runnables.player.PlayerProfileSaveTask;
+import com.gmail.nossr50.util.metrics.TimedOperation;
 import com.gmail.nossr50.util.player.UserManager;
 import org.bukkit.scheduler.BukkitRunnable;
 
 public class SaveTimerTask extends BukkitRunnable {
     @Override
     public void run() {
-        // All player data will be saved periodically through this
-        int count = 1;
+        long start = mcMMO.getMetricsRegistry().startTiming();
 
+        // All player data will be saved periodically through this, the save queue writes it off the main thread
         for (McMMOPlayer mcMMOPlayer : UserManager.getPlayers()) {
-            new PlayerProfileSaveTask(mcMMOPlayer.getProfile(), false).runTaskLaterAsynchronously(mcMMO.p, count);
-            count++;
+            mcMMOPlayer.getProfile().save(false);
         }
 
         PartyManager.saveParties();
+        mcMMO.getMetricsRegistry().stopTiming(TimedOperation.SAVE_TIMER_TASK, start);
     }
 }
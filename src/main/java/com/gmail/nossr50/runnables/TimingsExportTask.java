@@ -0,0 +1,41 @@
+package com.gmail.nossr50.runnables;
+
+import com.gmail.nossr50.locale.LocaleLoader;
+import com.gmail.nossr50.mcMMO;
+import org.bukkit.command.CommandSender;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes the timings to timings.prom in the Prometheus text format, meant to be run asynchronously
+ */
+public class TimingsExportTask extends BukkitRunnable {
+    private final @Nullable CommandSender sender;
+
+    public TimingsExportTask(@Nullable CommandSender sender) {
+        this.sender = sender;
+    }
+
+    @Override
+    public void run() {
+        File file = new File(mcMMO.p.getDataFolder(), "timings.prom");
+        String message;
+
+        try {
+            mcMMO.getMetricsRegistry().exportPrometheus(file);
+            message = LocaleLoader.getString("Commands.Timings.Exported", file.getPath());
+        }
+        catch (IOException e) {
+            mcMMO.p.getLogger().warning("Could not export timings to " + file.getPath() + ": " + e.getMessage());
+            message = LocaleLoader.getString("Commands.Timings.ExportFailed");
+        }
+
+        if (sender != null) {
+            String reply = message;
+            mcMMO.p.getServer().getScheduler().runTask(mcMMO.p, () -> sender.sendMessage(reply));
+        }
+    }
+}
@@ -9,17 +9,19 @@ import org.bukkit.scheduler.BukkitRunnable;
 public class DatabaseConversionTask extends BukkitRunnable {
     private final DatabaseManager sourceDatabase;
     private final CommandSender sender;
-    private final String message;
+    private final String finishMessage;
+    private final String failedMessage;
 
     public DatabaseConversionTask(DatabaseManager sourceDatabase, CommandSender sender, String oldType, String newType) {
         this.sourceDatabase = sourceDatabase;
         this.sender = sender;
-        message = LocaleLoader.getString("Commands.mcconvert.Database.Finish", oldType, newType);
+        finishMessage = LocaleLoader.getString("Commands.mcconvert.Database.Finish", oldType, newType);
+        failedMessage = LocaleLoader.getString("Commands.mcconvert.Database.Failed", oldType, newType);
     }
 
     @Override
     public void run() {
-        sourceDatabase.convertUsers(mcMMO.getDatabaseManager());
+        String message = sourceDatabase.convertUsers(mcMMO.getDatabaseManager()) ? finishMessage : failedMessage;
 
         mcMMO.p.getServer().getScheduler().runTask(mcMMO.p, () -> sender.sendMessage(message));
     }
@@ -0,0 +1,371 @@
+package com.gmail.nossr50.runnables.database;
+
+import com.gmail.nossr50.database.DatabaseManager;
+import com.gmail.nossr50.database.ProfileSaveQueue;
+import com.gmail.nossr50.datatypes.player.PlayerProfile;
+import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
+import com.gmail.nossr50.locale.LocaleLoader;
+import com.gmail.nossr50.mcMMO;
+import com.gmail.nossr50.util.LatencyHistogram;
+import org.bukkit.command.CommandSender;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a scripted login, experience, save and relog workload of synthetic players against the database in use,
+ * meant to be run asynchronously on a staging server
+ * The same seed always produces the same sequence of operations, so runs can be compared before and after a change.
+ * Saves go through the profile save queue and therefore through the same connection pool as real players.
+ * Synthetic players have names no Minecraft account can have and are removed by UUID once the run is over,
+ * a run cut short by a crash is cleaned up the next time mcMMO starts.
+ */
+public class DatabaseLoadTestTask extends BukkitRunnable {
+    // Minecraft names only ever contain letters, digits and underscores
+    public static final String PLAYER_NAME_PREFIX = "mcmmo-load-";
+
+    private static final String PENDING_FILE_NAME = "loadtest.pending";
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    private static final AtomicBoolean running = new AtomicBoolean();
+    private static volatile boolean stopping = false;
+    private static volatile CountDownLatch finished = new CountDownLatch(0);
+
+    // Out of 100 operations
+    private static final int SAVE_CHANCE = 30;
+    private static final int RELOG_CHANCE = 5;
+    private static final int MAX_XP_GAIN = 500;
+
+    private final CommandSender sender;
+    private final int players;
+    private final int seconds;
+    private final int operationsPerSecond;
+    private final long seed;
+
+    private final LatencyHistogram loginLatency = new LatencyHistogram();
+    private final LatencyHistogram relogLatency = new LatencyHistogram();
+    private final LatencyHistogram operationLag = new LatencyHistogram();
+    private final LatencyHistogram tickIntervals = new LatencyHistogram();
+
+    private DatabaseLoadTestTask(@NotNull CommandSender sender, int players, int seconds, int operationsPerSecond, long seed) {
+        this.sender = sender;
+        this.players = players;
+        this.seconds = seconds;
+        this.operationsPerSecond = operationsPerSecond;
+        this.seed = seed;
+    }
+
+    /**
+     * Start a load test unless one is already running
+     *
+     * @return true if the load test was started
+     */
+    public static boolean start(@NotNull CommandSender sender, int players, int seconds, int operationsPerSecond, long seed) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        stopping = false;
+        finished = new CountDownLatch(1);
+        new DatabaseLoadTestTask(sender, players, seconds, operationsPerSecond, seed).runTaskAsynchronously(mcMMO.p);
+        return true;
+    }
+
+    /**
+     * Cut a running load test short and wait for it to remove its synthetic players, used when mcMMO is disabled
+     */
+    public static void stop() {
+        if (!running.get()) {
+            return;
+        }
+
+        stopping = true;
+
+        try {
+            if (!finished.await(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                mcMMO.p.getLogger().warning("The load test did not stop in time, its synthetic players will be removed on the next start");
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Remove the synthetic players of a load test that never got to clean up after itself, meant to be run asynchronously
+     */
+    public static void removeAbandonedPlayers() {
+        File pendingFile = getPendingFile();
+
+        if (!pendingFile.exists()) {
+            return;
+        }
+
+        try {
+            int players = Integer.parseInt(new String(Files.readAllBytes(pendingFile.toPath()), StandardCharsets.UTF_8).trim());
+            int removed = removePlayers(mcMMO.getDatabaseManager(), players);
+            mcMMO.p.getLogger().info("Removed " + removed + " synthetic players left behind by an interrupted load test");
+        }
+        catch (IOException | NumberFormatException e) {
+            mcMMO.p.getLogger().warning("Could not read " + pendingFile.getPath() + ": " + e.getMessage());
+        }
+
+        if (!pendingFile.delete()) {
+            mcMMO.p.getLogger().warning("Could not delete " + pendingFile.getPath());
+        }
+    }
+
+    public static String getPlayerName(int index) {
+        return PLAYER_NAME_PREFIX + index;
+    }
+
+    public static UUID getUniqueId(int index) {
+        return UUID.nameUUIDFromBytes(("mcMMO load test:" + getPlayerName(index)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void run() {
+        TickSampler tickSampler = new TickSampler();
+
+        try {
+            tickSampler.runTaskTimer(mcMMO.p, 1, 1);
+            runLoadTest();
+        }
+        finally {
+            tickSampler.cancel();
+            running.set(false);
+            finished.countDown();
+        }
+    }
+
+    private void runLoadTest() {
+        DatabaseManager databaseManager = mcMMO.getDatabaseManager();
+        ProfileSaveQueue profileSaveQueue = mcMMO.getProfileSaveQueue();
+        Random random = new Random(seed);
+        List<PlayerProfile> profiles = new ArrayList<>(players);
+        long allocatedBefore = getAllocatedBytes();
+        long savedBefore = profileSaveQueue.getSavedProfiles();
+        long failedBefore = profileSaveQueue.getFailedSaves();
+        long coalescedBefore = profileSaveQueue.getCoalescedSaves();
+        int failedLoads = 0;
+
+        removeAbandonedPlayers();
+
+        // Written before the first synthetic player exists, so a crash can always be cleaned up
+        try {
+            Files.write(getPendingFile().toPath(), Integer.toString(players).getBytes(StandardCharsets.UTF_8));
+        }
+        catch (IOException e) {
+            mcMMO.p.getLogger().warning("Could not write " + getPendingFile().getPath() + ", the load test was not started: " + e.getMessage());
+            return;
+        }
+
+        for (int i = 0; i < players && !stopping; i++) {
+            PlayerProfile profile = load(databaseManager, i, true, loginLatency);
+
+            if (!profile.isLoaded()) {
+                failedLoads++;
+            }
+
+            profiles.add(profile);
+        }
+
+        long plannedOperations = (long) seconds * operationsPerSecond;
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / operationsPerSecond;
+        long startNanos = System.nanoTime();
+        long operations = 0;
+
+        for (; operations < plannedOperations && !stopping; operations++) {
+            long scheduledNanos = startNanos + operations * periodNanos;
+            long waitNanos = scheduledNanos - System.nanoTime();
+
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+
+            // How far behind the schedule the database is holding the driver
+            operationLag.record(Math.max(0, System.nanoTime() - scheduledNanos));
+
+            // Draw everything up front so the sequence doesn't depend on which profiles failed to load
+            int index = random.nextInt(players);
+            int action = random.nextInt(100);
+            PrimarySkillType skill = PrimarySkillType.NON_CHILD_SKILLS.get(random.nextInt(PrimarySkillType.NON_CHILD_SKILLS.size()));
+            float xp = 1 + random.nextInt(MAX_XP_GAIN);
+            PlayerProfile profile = profiles.get(index);
+
+            if (!profile.isLoaded()) {
+                continue;
+            }
+
+            profile.addXp(skill, xp);
+
+            if (action < RELOG_CHANCE) {
+                profiles.set(index, relog(databaseManager, profileSaveQueue, profile, index));
+            }
+            else if (action < SAVE_CHANCE) {
+                profileSaveQueue.submit(profile, profile.copy());
+            }
+        }
+
+        long flushStartNanos = System.nanoTime();
+
+        for (PlayerProfile profile : profiles) {
+            if (profile.isLoaded()) {
+                profileSaveQueue.submit(profile, profile.copy());
+            }
+        }
+
+        profileSaveQueue.flush();
+
+        long endNanos = System.nanoTime();
+        long allocatedBytes = getAllocatedBytes() - allocatedBefore;
+        long saved = profileSaveQueue.getSavedProfiles() - savedBefore;
+        long failed = profileSaveQueue.getFailedSaves() - failedBefore;
+        long coalesced = profileSaveQueue.getCoalescedSaves() - coalescedBefore;
+        double elapsedSeconds = (endNanos - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        int removed = removePlayers(databaseManager, players);
+
+        if (!getPendingFile().delete()) {
+            mcMMO.p.getLogger().warning("Could not delete " + getPendingFile().getPath());
+        }
+
+        List<String> report = new ArrayList<>();
+        report.add(LocaleLoader.getString("Commands.LoadTest.Header"));
+        report.add(LocaleLoader.getString("Commands.LoadTest.Workload", databaseManager.getDatabaseType().toString(), players, plannedOperations, seed));
+        report.add(LocaleLoader.getString("Commands.LoadTest.Operations", operations, String.format("%.1f", elapsedSeconds), String.format("%.1f", operations / elapsedSeconds), failedLoads));
+        report.add(formatEntry("login", loginLatency));
+        report.add(formatEntry("relog", relogLatency));
+        report.add(formatEntry("operation_lag", operationLag));
+        report.add(LocaleLoader.getString("Commands.LoadTest.Saves", saved, failed, coalesced, String.format("%.1f", saved / elapsedSeconds), TimeUnit.NANOSECONDS.toMillis(endNanos - flushStartNanos)));
+        report.add(formatEntry("tick_interval", tickIntervals));
+
+        if (allocatedBytes >= 0) {
+            report.add(LocaleLoader.getString("Commands.LoadTest.Allocated", allocatedBytes / (1024 * 1024)));
+        }
+
+        report.add(LocaleLoader.getString("Commands.LoadTest.Cleanup", removed, players));
+
+        for (String line : report) {
+            mcMMO.p.getLogger().info(line);
+        }
+
+        // The server is shutting down, the report is only logged
+        if (stopping) {
+            return;
+        }
+
+        mcMMO.p.getServer().getScheduler().runTask(mcMMO.p, () -> {
+            for (String line : report) {
+                sender.sendMessage(line);
+            }
+        });
+    }
+
+    private static int removePlayers(DatabaseManager databaseManager, int players) {
+        List<UUID> uuids = new ArrayList<>(players);
+
+        for (int i = 0; i < players; i++) {
+            uuids.add(getUniqueId(i));
+        }
+
+        return databaseManager.removeUsersByUniqueId(Collections.unmodifiableList(uuids));
+    }
+
+    private static File getPendingFile() {
+        return new File(mcMMO.p.getDataFolder(), PENDING_FILE_NAME);
+    }
+
+    private PlayerProfile load(DatabaseManager databaseManager, int index, boolean createNew, LatencyHistogram latency) {
+        long startNanos = System.nanoTime();
+        PlayerProfile profile = databaseManager.loadPlayerProfile(getPlayerName(index), getUniqueId(index), createNew);
+        latency.record(System.nanoTime() - startNanos);
+        return profile;
+    }
+
+    /**
+     * Log a player out and back in the way a real logout and login would, the login waits for the logout save
+     */
+    private PlayerProfile relog(DatabaseManager databaseManager, ProfileSaveQueue profileSaveQueue, PlayerProfile profile, int index) {
+        long startNanos = System.nanoTime();
+        profileSaveQueue.submit(profile, profile.copy());
+
+        try {
+            profileSaveQueue.awaitSaved(profile.getUniqueId(), profile.getPlayerName());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return profile;
+        }
+
+        PlayerProfile reloaded = databaseManager.loadPlayerProfile(getPlayerName(index), getUniqueId(index), false);
+        relogLatency.record(System.nanoTime() - startNanos);
+        return reloaded.isLoaded() ? reloaded : profile;
+    }
+
+    private String formatEntry(String name, LatencyHistogram histogram) {
+        return LocaleLoader.getString("Commands.Timings.Entry", name, histogram.getCount(),
+                histogram.getMeanNanos() / 1000.0,
+                histogram.getPercentileNanos(0.99) / 1000.0,
+                histogram.getMaxNanos() / 1000.0);
+    }
+
+    /**
+     * @return the bytes allocated by every live thread of the JVM, or -1 if the JVM can't tell
+     */
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+
+        if (!allocationBean.isThreadAllocatedMemorySupported() || !allocationBean.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+
+        long total = 0;
+
+        for (long allocated : allocationBean.getThreadAllocatedBytes(threadMXBean.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Records the time between server ticks while the load test runs
+     */
+    private class TickSampler extends BukkitRunnable {
+        private long lastTickNanos = -1;
+
+        @Override
+        public void run() {
+            long now = System.nanoTime();
+
+            if (lastTickNanos != -1) {
+                tickIntervals.record(now - lastTickNanos);
+            }
+
+            lastTickNanos = now;
+        }
+    }
+}
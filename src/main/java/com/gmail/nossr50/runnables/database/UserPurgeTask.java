@@ -16,6 +16,8 @@ public class UserPurgeTask extends BukkitRunnable {
         if (Config.getInstance().getOldUsersCutoff() != -1) {
             mcMMO.getDatabaseManager().purgeOldUsers();
         }
+
+        mcMMO.getOfflineProfileCache().clear();
         lock.unlock();
     }
 }
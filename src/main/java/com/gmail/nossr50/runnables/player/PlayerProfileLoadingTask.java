@@ -8,6 +8,9 @@ import com.gmail.nossr50.mcMMO;
 import com.gmail.nossr50.runnables.commands.McScoreboardKeepTask;
 import com.gmail.nossr50.util.EventUtils;
 import com.gmail.nossr50.util.Misc;
+import com.gmail.nossr50.util.metrics.MetricCounter;
+import com.gmail.nossr50.util.metrics.MetricsRegistry;
+import com.gmail.nossr50.util.metrics.TimedOperation;
 import com.gmail.nossr50.util.player.UserManager;
 import com.gmail.nossr50.util.scoreboards.ScoreboardManager;
 import org.bukkit.Server;
@@ -42,7 +45,24 @@ public class PlayerProfileLoadingTask extends BukkitRunnable {
             return;
         }
 
-        PlayerProfile profile = mcMMO.getDatabaseManager().loadPlayerProfile(player.getName(), player.getUniqueId(), true);
+        PlayerProfile profile = mcMMO.getOfflineProfileCache().takeForLogin(player.getUniqueId(), player.getName());
+
+        if (profile == null) {
+            // A quick reconnect can still have its quit save queued, load after it has been written
+            try {
+                mcMMO.getProfileSaveQueue().awaitSaved(player.getUniqueId(), player.getName());
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            MetricsRegistry metricsRegistry = mcMMO.getMetricsRegistry();
+            long start = metricsRegistry.startTiming();
+            profile = mcMMO.getDatabaseManager().loadPlayerProfile(player.getName(), player.getUniqueId(), true);
+            metricsRegistry.stopTiming(TimedOperation.DATABASE_LOAD, start);
+            metricsRegistry.increment(MetricCounter.DATABASE_ROUND_TRIPS);
+        }
 
         // If successful, schedule the apply
         if (profile.isLoaded()) {
@@ -71,6 +91,44 @@ public class PlayerProfileLoadingTask extends BukkitRunnable {
         new PlayerProfileLoadingTask(player, attempt).runTaskLaterAsynchronously(mcMMO.p, (100 + (attempt * 100)));
     }
 
+    /**
+     * Attach a profile that was loaded ahead of time, such as during pre-login
+     * Must be called on the main thread
+     *
+     * @param player the player the profile belongs to
+     * @param profile the loaded profile
+     */
+    public static void applyLoadedProfile(Player player, PlayerProfile profile) {
+        EventUtils.callPlayerProfileLoadEvent(player, profile);
+        setupPlayer(player, new McMMOPlayer(player, profile));
+    }
+
+    // Synchronized
+    // No database access permitted
+    private static void setupPlayer(Player player, McMMOPlayer mcMMOPlayer) {
+        if (!player.isOnline()) {
+            mcMMO.p.getLogger().info("Aborting profile loading recovery for " + player.getName() + " - player logged out");
+            return;
+        }
+
+        mcMMOPlayer.setupPartyData();
+        UserManager.track(mcMMOPlayer);
+        mcMMOPlayer.actualizeRespawnATS();
+
+        if (Config.getInstance().getScoreboardsEnabled()) {
+            ScoreboardManager.setupPlayer(player);
+
+            if (Config.getInstance().getShowStatsAfterLogin()) {
+                ScoreboardManager.enablePlayerStatsScoreboard(player);
+                new McScoreboardKeepTask(player).runTaskLater(mcMMO.p, Misc.TICK_CONVERSION_FACTOR);
+            }
+        }
+
+        if (Config.getInstance().getShowProfileLoadedMessage()) {
+            player.sendMessage(LocaleLoader.getString("Profile.Loading.Success"));
+        }
+    }
+
     private class ApplySuccessfulProfile extends BukkitRunnable {
         private final McMMOPlayer mcMMOPlayer;
 
@@ -78,32 +136,9 @@ public class PlayerProfileLoadingTask extends BukkitRunnable {
             this.mcMMOPlayer = mcMMOPlayer;
         }
 
-        // Synchronized task
-        // No database access permitted
         @Override
         public void run() {
-            if (!player.isOnline()) {
-                mcMMO.p.getLogger().info("Aborting profile loading recovery for " + player.getName() + " - player logged out");
-                return;
-            }
-
-            mcMMOPlayer.setupPartyData();
-            UserManager.track(mcMMOPlayer);
-            mcMMOPlayer.actualizeRespawnATS();
-
-            if (Config.getInstance().getScoreboardsEnabled()) {
-                ScoreboardManager.setupPlayer(player);
-
-                if (Config.getInstance().getShowStatsAfterLogin()) {
-                    ScoreboardManager.enablePlayerStatsScoreboard(player);
-                    new McScoreboardKeepTask(player).runTaskLater(mcMMO.p, Misc.TICK_CONVERSION_FACTOR);
-                }
-            }
-
-            if (Config.getInstance().getShowProfileLoadedMessage()) {
-                player.sendMessage(LocaleLoader.getString("Profile.Loading.Success"));
-            }
-
+            setupPlayer(player, mcMMOPlayer);
         }
     }
 }
@@ -1,19 +0,0 @@
-package com.gmail.nossr50.runnables.player;
-
-import com.gmail.nossr50.datatypes.player.PlayerProfile;
-import org.bukkit.scheduler.BukkitRunnable;
-
-public class PlayerProfileSaveTask extends BukkitRunnable {
-    private final PlayerProfile playerProfile;
-    private final boolean isSync;
-
-    public PlayerProfileSaveTask(PlayerProfile playerProfile, boolean isSync) {
-        this.playerProfile = playerProfile;
-        this.isSync = isSync;
-    }
-
-    @Override
-    public void run() {
-        playerProfile.save(isSync);
-    }
-}
@@ -1,13 +1,19 @@
 package com.gmail.nossr50.runnables.player;
 
+import com.gmail.nossr50.mcMMO;
+import com.gmail.nossr50.util.metrics.TimedOperation;
 import com.gmail.nossr50.util.scoreboards.ScoreboardManager;
 import org.bukkit.scheduler.BukkitRunnable;
 
 public class PowerLevelUpdatingTask extends BukkitRunnable {
     @Override
     public void run() {
+        long start = mcMMO.getMetricsRegistry().startTiming();
+
         if (!ScoreboardManager.powerLevelHeartbeat()) {
             this.cancel();
         }
+
+        mcMMO.getMetricsRegistry().stopTiming(TimedOperation.POWER_LEVEL_UPDATING_TASK, start);
     }
 }
@@ -0,0 +1,53 @@
+package com.gmail.nossr50.runnables.skills;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * A piece of ability work that can be split into small steps, such as the blocks of a tree felled by Tree Feller
+ * Steps are run by {@link AbilityWorkQueueTask}, either all at once or spread over several ticks
+ */
+public abstract class AbilityWork {
+    private final UUID owner;
+    private boolean cancelled = false;
+
+    /**
+     * @param owner the player whose ability this work belongs to
+     */
+    protected AbilityWork(@NotNull UUID owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Process the next step of this work
+     *
+     * @return true if there are more steps left
+     */
+    protected abstract boolean processNextStep();
+
+    /**
+     * Called once after the last step has been processed, or the work was cancelled
+     */
+    protected abstract void complete();
+
+    /**
+     * @return how many steps are left to process
+     */
+    public abstract int getRemainingSteps();
+
+    /**
+     * Stop this work early, {@link #complete()} is still called
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public @NotNull UUID getOwner() {
+        return owner;
+    }
+}
@@ -0,0 +1,172 @@
+package com.gmail.nossr50.runnables.skills;
+
+import com.gmail.nossr50.mcMMO;
+import com.gmail.nossr50.util.metrics.TimedOperation;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.UUID;
+
+/**
+ * Runs {@link AbilityWork} under a per tick time budget
+ * Work is processed a step at a time in a round robin between all queued work, so one huge tree can't starve the others
+ * When spreading is disabled work is processed in full as soon as it is submitted
+ */
+public class AbilityWorkQueueTask extends BukkitRunnable {
+    private final Deque<AbilityWork> queue = new ArrayDeque<>();
+    private final boolean spreadOverTicks;
+    private final long tickBudgetNanos;
+
+    /* Metrics, written on the main thread and safe to read from any thread */
+    private volatile int queuedWorkCount = 0;
+    private volatile int queuedSteps = 0;
+    private volatile int peakQueuedSteps = 0;
+    private volatile int stepsProcessedLastTick = 0;
+    private volatile long nanosSpentLastTick = 0;
+    private volatile long totalStepsProcessed = 0;
+
+    public AbilityWorkQueueTask(boolean spreadOverTicks, double tickBudgetMillis) {
+        this.spreadOverTicks = spreadOverTicks;
+        this.tickBudgetNanos = (long) (tickBudgetMillis * 1000000);
+    }
+
+    @Override
+    public void run() {
+        stepsProcessedLastTick = 0;
+
+        if (queue.isEmpty()) {
+            nanosSpentLastTick = 0;
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        // Always make some progress, even if the budget is tiny
+        do {
+            AbilityWork work = queue.poll();
+            int remainingSteps = work.getRemainingSteps();
+
+            if (processStep(work)) {
+                queue.addLast(work);
+                remainingSteps -= work.getRemainingSteps();
+            }
+
+            queuedSteps -= remainingSteps;
+        } while (!queue.isEmpty() && System.nanoTime() - start < tickBudgetNanos);
+
+        nanosSpentLastTick = System.nanoTime() - start;
+        mcMMO.getMetricsRegistry().record(TimedOperation.ABILITY_WORK_QUEUE_TASK, nanosSpentLastTick);
+        queuedWorkCount = queue.size();
+    }
+
+    /**
+     * Queue up work, or process it right away if spreading work over ticks is disabled
+     *
+     * @param work the work to process
+     */
+    public void submit(AbilityWork work) {
+        if (!spreadOverTicks) {
+            finish(work);
+            return;
+        }
+
+        queue.addLast(work);
+        queuedWorkCount = queue.size();
+        queuedSteps += work.getRemainingSteps();
+        peakQueuedSteps = Math.max(peakQueuedSteps, queuedSteps);
+    }
+
+    /**
+     * Process all queued work right away, used when the plugin shuts down
+     */
+    public void flush() {
+        AbilityWork work;
+
+        while ((work = queue.poll()) != null) {
+            finish(work);
+        }
+
+        queuedWorkCount = 0;
+        queuedSteps = 0;
+    }
+
+    /**
+     * Process all work queued for a player right away, so nothing they're owed is lost when they log out
+     *
+     * @param owner the player's UUID
+     */
+    public void flush(UUID owner) {
+        Iterator<AbilityWork> iterator = queue.iterator();
+
+        while (iterator.hasNext()) {
+            AbilityWork work = iterator.next();
+
+            if (work.getOwner().equals(owner)) {
+                iterator.remove();
+                queuedSteps -= work.getRemainingSteps();
+                finish(work);
+            }
+        }
+
+        queuedWorkCount = queue.size();
+    }
+
+    /**
+     * @return how much work was queued at the end of the last tick or submission
+     */
+    public int getQueuedWorkCount() {
+        return queuedWorkCount;
+    }
+
+    /**
+     * @return how many steps are queued, kept as a running count so reading it never walks the queue
+     */
+    public int getQueuedSteps() {
+        return queuedSteps;
+    }
+
+    public int getPeakQueuedSteps() {
+        return peakQueuedSteps;
+    }
+
+    public int getStepsProcessedLastTick() {
+        return stepsProcessedLastTick;
+    }
+
+    public long getNanosSpentLastTick() {
+        return nanosSpentLastTick;
+    }
+
+    public long getTotalStepsProcessed() {
+        return totalStepsProcessed;
+    }
+
+    private void finish(AbilityWork work) {
+        while (processStep(work)) {
+            // Keep going until the work is done
+        }
+    }
+
+    /**
+     * @return true if the work has more steps left
+     */
+    private boolean processStep(AbilityWork work) {
+        if (work.isCancelled()) {
+            work.complete();
+            return false;
+        }
+
+        boolean hasMoreSteps = work.processNextStep();
+        stepsProcessedLastTick++;
+        totalStepsProcessed++;
+
+        if (!hasMoreSteps || work.isCancelled()) {
+            work.complete();
+            return false;
+        }
+
+        return true;
+    }
+}
@@ -5,6 +5,7 @@ import com.gmail.nossr50.datatypes.interactions.NotificationType;
 import com.gmail.nossr50.events.fake.FakeEntityDamageByEntityEvent;
 import com.gmail.nossr50.mcMMO;
 import com.gmail.nossr50.util.MobHealthbarUtils;
+import com.gmail.nossr50.util.metrics.TimedOperation;
 import com.gmail.nossr50.util.player.NotificationManager;
 import com.gmail.nossr50.util.skills.CombatUtils;
 import com.gmail.nossr50.util.skills.ParticleEffectUtils;
@@ -17,146 +18,195 @@ import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.scheduler.BukkitRunnable;
 
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Map.Entry;
-
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Handles the damage of every bleeding entity
+ * Bleeding entities are stored as parallel arrays indexed by a slot, with a map from entity id to slot
+ * New bleeds are queued and merged in at the start of every run, so they can be added at any time, even while the bleeds are being processed
+ */
 public class BleedTimerTask extends BukkitRunnable {
-    private static final Map<LivingEntity, BleedContainer> bleedList = new HashMap<>();
-    private static boolean isIterating = false;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final Queue<BleedContainer> pendingBleeds = new ConcurrentLinkedQueue<>();
+    private static final Map<Integer, Integer> slotByEntityId = new HashMap<>();
+
+    private static LivingEntity[] targets = new LivingEntity[INITIAL_CAPACITY];
+    private static LivingEntity[] damageSources = new LivingEntity[INITIAL_CAPACITY];
+    private static int[] remainingTicks = new int[INITIAL_CAPACITY];
+    private static int[] toolTiers = new int[INITIAL_CAPACITY];
+    private static double[] damagePerTick = new double[INITIAL_CAPACITY];
+    private static int bleedCount = 0;
 
     @Override
     public void run() {
-        isIterating = true;
-        Iterator<Entry<LivingEntity, BleedContainer>> bleedIterator = bleedList.entrySet().iterator();
+        long start = mcMMO.getMetricsRegistry().startTiming();
+        applyPendingBleeds();
 
-        while (bleedIterator.hasNext()) {
-            Entry<LivingEntity, BleedContainer> containerEntry = bleedIterator.next();
-            LivingEntity target = containerEntry.getKey();
-            int toolTier = containerEntry.getValue().toolTier;
+        int slot = 0;
 
-//            String debugMessage = "";
-//            debugMessage += ChatColor.GOLD + "Target ["+target.getName()+"]: " + ChatColor.RESET;
+        while (slot < bleedCount) {
+            LivingEntity target = targets[slot];
 
-//            debugMessage+="RemainingTicks=["+containerEntry.getValue().bleedTicks+"], ";
-
-            if (containerEntry.getValue().bleedTicks <= 0 || !target.isValid()) {
-                if(target instanceof Player)
-                {
+            if (remainingTicks[slot] <= 0 || !target.isValid()) {
+                if (target instanceof Player) {
                     NotificationManager.sendPlayerInformation((Player) target, NotificationType.SUBSKILL_MESSAGE, "Swords.Combat.Bleeding.Stopped");
                 }
 
-                bleedIterator.remove();
+                // The last bleed is moved into this slot, so don't advance
+                removeSlot(slot);
                 continue;
             }
 
-            int armorCount = 0;
-
-            double damage;
+            double damage = damagePerTick[slot];
 
             if (target instanceof Player) {
-                damage = AdvancedConfig.getInstance().getRuptureDamagePlayer();
-
-                //Above Bleed Rank 3 deals 50% more damage
-                if (containerEntry.getValue().toolTier >= 4 && containerEntry.getValue().bleedRank >= 3)
-                    damage = damage * 1.5;
-
-                Player player = (Player) target;
-
-                if (!player.isOnline()) {
+                if (!((Player) target).isOnline()) {
+                    slot++;
                     continue;
                 }
+            }
+            else {
+                MobHealthbarUtils.handleMobHealthbars(target, damage, mcMMO.p); //Update health bars
+            }
 
-                //Count Armor
-                for (ItemStack armorPiece : ((Player) target).getInventory().getArmorContents()) {
-                    //We only want to count slots that contain armor.
-                    if (armorPiece != null) {
-                        armorCount++;
-                    }
-                }
-
-            } else {
-                damage = AdvancedConfig.getInstance().getRuptureDamageMobs();
+            double victimHealth = target.getHealth();
 
-//                debugMessage+="BaseDMG=["+damage+"], ";
+            //Fire a fake event
+            FakeEntityDamageByEntityEvent fakeEntityDamageByEntityEvent = (FakeEntityDamageByEntityEvent) CombatUtils.sendEntityDamageEvent(damageSources[slot], target, EntityDamageEvent.DamageCause.CUSTOM, damage);
+            Bukkit.getPluginManager().callEvent(fakeEntityDamageByEntityEvent);
 
-                //Above Bleed Rank 3 deals 50% more damage
-                if (containerEntry.getValue().bleedRank >= 3)
-                {
-                    damage = damage * 1.5;
-                }
+            CombatUtils.dealNoInvulnerabilityTickDamageRupture(target, damage, damageSources[slot], toolTiers[slot]);
 
-//                debugMessage+="Rank4Bonus=["+String.valueOf(containerEntry.getValue().bleedRank >= 3)+"], ";
+            double victimHealthAftermath = target.getHealth();
 
+            if (victimHealthAftermath <= 0 || victimHealth != victimHealthAftermath) {
+                //Play Bleed Sound
+                SoundManager.worldSendSound(target.getWorld(), target.getLocation(), SoundType.BLEED);
 
-                MobHealthbarUtils.handleMobHealthbars(target, damage, mcMMO.p); //Update health bars
+                ParticleEffectUtils.playBleedEffect(target);
             }
 
-//            debugMessage+="FullArmor=["+String.valueOf(armorCount > 3)+"], ";
+            //Lower Bleed Ticks
+            remainingTicks[slot]--;
+            slot++;
+        }
 
-            if(armorCount > 3)
-            {
-                damage = damage * .75;
-            }
+        mcMMO.getMetricsRegistry().stopTiming(TimedOperation.BLEED_TIMER_TASK, start);
+    }
+
+    /**
+     * Moves every queued bleed into the bleed arrays, working out its damage per tick once
+     * The rupture damage is read from the current config, so a reload applies to every bleed started after it
+     */
+    private void applyPendingBleeds() {
+        BleedContainer bleedContainer;
 
-//            debugMessage+="AfterRankAndArmorChecks["+damage+"], ";
+        while ((bleedContainer = pendingBleeds.poll()) != null) {
+            LivingEntity target = bleedContainer.target;
+            Integer existingSlot = slotByEntityId.get(target.getEntityId());
+            int slot;
 
-            //Weapons below Diamond get damage cut in half
-            if(toolTier < 4)
-                damage = damage / 2;
+            if (existingSlot != null) {
+                slot = existingSlot;
+            }
+            else {
+                ensureCapacity(bleedCount + 1);
+                slot = bleedCount++;
+                slotByEntityId.put(target.getEntityId(), slot);
+            }
 
-//            debugMessage+="AfterDiamondCheck=["+String.valueOf(damage)+"], ";
+            targets[slot] = target;
+            damageSources[slot] = bleedContainer.damageSource;
+            remainingTicks[slot] = bleedContainer.bleedTicks;
+            toolTiers[slot] = bleedContainer.toolTier;
+            damagePerTick[slot] = calculateDamagePerTick(target, bleedContainer.bleedRank, bleedContainer.toolTier);
+        }
+    }
 
-            //Wood weapons get damage cut in half again
-            if(toolTier < 2)
-                damage = damage / 2;
+    private double calculateDamagePerTick(LivingEntity target, int bleedRank, int toolTier) {
+        double damage;
 
-//            debugMessage+="AfterWoodenCheck=["+String.valueOf(damage)+"], ";
+        if (target instanceof Player) {
+            damage = AdvancedConfig.getInstance().getRuptureDamagePlayer();
 
-            double victimHealth = target.getHealth();
+            //Above Bleed Rank 3 deals 50% more damage
+            if (toolTier >= 4 && bleedRank >= 3) {
+                damage = damage * 1.5;
+            }
 
-//            debugMessage+="TargetHealthBeforeDMG=["+String.valueOf(target.getHealth())+"], ";
+            //Full armor reduces the damage
+            if (countArmorPieces((Player) target) > 3) {
+                damage = damage * .75;
+            }
+        }
+        else {
+            damage = AdvancedConfig.getInstance().getRuptureDamageMobs();
 
-            //Fire a fake event
-            FakeEntityDamageByEntityEvent fakeEntityDamageByEntityEvent = (FakeEntityDamageByEntityEvent) CombatUtils.sendEntityDamageEvent(containerEntry.getValue().damageSource, target, EntityDamageEvent.DamageCause.CUSTOM, damage);
-            Bukkit.getPluginManager().callEvent(fakeEntityDamageByEntityEvent);
+            //Above Bleed Rank 3 deals 50% more damage
+            if (bleedRank >= 3) {
+                damage = damage * 1.5;
+            }
+        }
 
-            CombatUtils.dealNoInvulnerabilityTickDamageRupture(target, damage, containerEntry.getValue().damageSource, toolTier);
+        //Weapons below Diamond get damage cut in half
+        if (toolTier < 4) {
+            damage = damage / 2;
+        }
 
-            double victimHealthAftermath = target.getHealth();
+        //Wood weapons get damage cut in half again
+        if (toolTier < 2) {
+            damage = damage / 2;
+        }
 
-//            debugMessage+="TargetHealthAfterDMG=["+String.valueOf(target.getHealth())+"], ";
+        return damage;
+    }
 
-            if(victimHealthAftermath <= 0 || victimHealth != victimHealthAftermath)
-            {
-                //Play Bleed Sound
-                SoundManager.worldSendSound(target.getWorld(), target.getLocation(), SoundType.BLEED);
+    private int countArmorPieces(Player player) {
+        int armorCount = 0;
 
-                ParticleEffectUtils.playBleedEffect(target);
+        for (ItemStack armorPiece : player.getInventory().getArmorContents()) {
+            //We only want to count slots that contain armor.
+            if (armorPiece != null) {
+                armorCount++;
             }
+        }
 
-            //Lower Bleed Ticks
-            BleedContainer loweredBleedContainer = copyContainer(containerEntry.getValue());
-            loweredBleedContainer.bleedTicks -= 1;
-
-//            debugMessage+="RemainingTicks=["+loweredBleedContainer.bleedTicks+"]";
-            containerEntry.setValue(loweredBleedContainer);
+        return armorCount;
+    }
 
-//            Bukkit.broadcastMessage(debugMessage);
+    private static void removeSlot(int slot) {
+        int lastSlot = --bleedCount;
+        slotByEntityId.remove(targets[slot].getEntityId());
+
+        if (slot != lastSlot) {
+            targets[slot] = targets[lastSlot];
+            damageSources[slot] = damageSources[lastSlot];
+            remainingTicks[slot] = remainingTicks[lastSlot];
+            toolTiers[slot] = toolTiers[lastSlot];
+            damagePerTick[slot] = damagePerTick[lastSlot];
+            slotByEntityId.put(targets[slot].getEntityId(), slot);
         }
-        isIterating = false;
+
+        targets[lastSlot] = null;
+        damageSources[lastSlot] = null;
     }
 
-    public static BleedContainer copyContainer(BleedContainer container)
-    {
-        LivingEntity target = container.target;
-        LivingEntity source = container.damageSource;
-        int bleedTicks = container.bleedTicks;
-        int bleedRank = container.bleedRank;
-        int toolTier = container.toolTier;
+    private static void ensureCapacity(int capacity) {
+        if (capacity <= targets.length) {
+            return;
+        }
 
-        return new BleedContainer(target, bleedTicks, bleedRank, toolTier, source);
+        int newCapacity = Math.max(capacity, targets.length * 2);
+        targets = Arrays.copyOf(targets, newCapacity);
+        damageSources = Arrays.copyOf(damageSources, newCapacity);
+        remainingTicks = Arrays.copyOf(remainingTicks, newCapacity);
+        toolTiers = Arrays.copyOf(toolTiers, newCapacity);
+        damagePerTick = Arrays.copyOf(damagePerTick, newCapacity);
     }
 
     /**
@@ -169,35 +219,40 @@ public class BleedTimerTask extends BukkitRunnable {
          * Don't remove anything from the list outside of run()
          */
 
-        if (bleedList.containsKey(entity)) {
-            CombatUtils.dealNoInvulnerabilityTickDamage(entity, bleedList.get(entity).bleedTicks * 2, bleedList.get(entity).damageSource);
+        Integer slot = slotByEntityId.get(entity.getEntityId());
+
+        if (slot != null) {
+            CombatUtils.dealNoInvulnerabilityTickDamage(entity, remainingTicks[slot] * 2, damageSources[slot]);
         }
     }
 
     /**
-     * Add a LivingEntity to the bleedList if it is not in it.
+     * Queue a LivingEntity to start bleeding, replacing any bleed it already has.
+     * This is safe to call at any time, the bleed starts on the next run of the task.
      *
      * @param entity LivingEntity to add
      * @param ticks Number of bleeding ticks
      */
     public static void add(LivingEntity entity, LivingEntity attacker, int ticks, int bleedRank, int toolTier) {
-        if (!Bukkit.isPrimaryThread()) {
-            throw new IllegalStateException("Cannot add bleed task async!");
-        }
-
-        if (isIterating) throw new IllegalStateException("Cannot add task while iterating timers!");
-
         if(toolTier < 4)
             ticks = Math.max(1, (ticks / 3));
 
         ticks+=1;
 
-
-        BleedContainer newBleedContainer = new BleedContainer(entity, ticks, bleedRank, toolTier, attacker);
-        bleedList.put(entity, newBleedContainer);
+        pendingBleeds.add(new BleedContainer(entity, ticks, bleedRank, toolTier, attacker));
     }
 
     public static boolean isBleeding(LivingEntity entity) {
-        return bleedList.containsKey(entity);
+        if (slotByEntityId.containsKey(entity.getEntityId())) {
+            return true;
+        }
+
+        for (BleedContainer bleedContainer : pendingBleeds) {
+            if (bleedContainer.target.getEntityId() == entity.getEntityId()) {
+                return true;
+            }
+        }
+
+        return false;
     }
 }
@@ -4,20 +4,15 @@ import com.gmail.nossr50.config.treasure.TreasureConfig;
 import com.gmail.nossr50.datatypes.treasure.ShakeTreasure;
 import com.gmail.nossr50.util.Misc;
 import com.gmail.nossr50.util.adapter.BiomeAdapter;
-import org.bukkit.Material;
 import org.bukkit.block.Biome;
-import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
 
 public final class Fishing {
 
-    protected static final HashMap<Material, List<Enchantment>> ENCHANTABLE_CACHE = new HashMap<>();
-
     public static Set<Biome> masterAnglerBiomes = BiomeAdapter.WATER_BIOMES;
     public static Set<Biome> iceFishingBiomes   = BiomeAdapter.ICE_BIOMES;
 
@@ -38,24 +33,15 @@ public final class Fishing {
     }
 
     /**
-     * Randomly chooses a drop among the list
+     * Randomly chooses a drop for an entity
      *
-     * @param possibleDrops
-     *            List of ItemStack that can be dropped
-     * @return Chosen ItemStack
+     * @param target
+     *            Targeted entity
+     * @return Chosen ItemStack, null if nothing should drop
      */
-    protected static ItemStack chooseDrop(List<ShakeTreasure> possibleDrops) {
-        int dropProbability = Misc.getRandom().nextInt(100);
-        double cumulatedProbability = 0;
+    protected static ItemStack chooseDrop(LivingEntity target) {
+        ShakeTreasure treasure = TreasureConfig.getInstance().getTreasureTables().drawShakeTreasure(target.getType(), Misc.getRandom());
 
-        for (ShakeTreasure treasure : possibleDrops) {
-            cumulatedProbability += treasure.getDropChance();
-
-            if (dropProbability < cumulatedProbability) {
-                return treasure.getDrop().clone();
-            }
-        }
-
-        return null;
+        return treasure == null ? null : treasure.getDrop().clone();
     }
 }
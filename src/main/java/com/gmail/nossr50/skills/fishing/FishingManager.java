@@ -5,6 +5,7 @@ import com.gmail.nossr50.config.AdvancedConfig;
 import com.gmail.nossr50.config.Config;
 import com.gmail.nossr50.config.experience.ExperienceConfig;
 import com.gmail.nossr50.config.treasure.TreasureConfig;
+import com.gmail.nossr50.config.treasure.TreasureTables;
 import com.gmail.nossr50.datatypes.experience.XPGainReason;
 import com.gmail.nossr50.datatypes.interactions.NotificationType;
 import com.gmail.nossr50.datatypes.player.McMMOPlayer;
@@ -467,7 +468,7 @@ public class FishingManager extends SkillManager {
                 return;
             }
 
-            ItemStack drop = Fishing.chooseDrop(possibleDrops);
+            ItemStack drop = Fishing.chooseDrop(target);
 
             // It's possible that chooseDrop returns null if the sum of probability in possibleDrops is inferior than 100
             if (drop == null) {
@@ -549,7 +550,6 @@ public class FishingManager extends SkillManager {
      * @return The {@link FishingTreasure} found, or null if no treasure was found.
      */
     private FishingTreasure getFishingTreasure() {
-        double diceRoll = Misc.getRandom().nextDouble() * 100;
         int luck;
 
         if (getPlayer().getInventory().getItemInMainHand().getType() == Material.FISHING_ROD) {
@@ -560,33 +560,16 @@ public class FishingManager extends SkillManager {
             luck = getPlayer().getInventory().getItemInOffHand().getEnchantmentLevel(Enchantment.LUCK);
         }
 
-        // Rather than subtracting luck (and causing a minimum 3% chance for every drop), scale by luck.
-        diceRoll *= (1.0 - luck * Config.getInstance().getFishingLureModifier() / 100);
-
-        FishingTreasure treasure = null;
-
-        for (Rarity rarity : Rarity.values()) {
-            double dropRate = TreasureConfig.getInstance().getItemDropRate(getLootTier(), rarity);
-
-            if (diceRoll <= dropRate) {
-                /*if (rarity == Rarity.TRAP) {
-                    handleTraps();
-                    break;
-                }*/
+        // Rather than subtracting luck (and causing a minimum 3% chance for every drop), the roll is scaled by luck.
+        TreasureTables treasureTables = TreasureConfig.getInstance().getTreasureTables();
+        Rarity rarity = treasureTables.drawFishingRarity(getLootTier(), luck, Misc.getRandom());
 
-                List<FishingTreasure> fishingTreasures = TreasureConfig.getInstance().fishingRewards.get(rarity);
-
-                if (fishingTreasures.isEmpty()) {
-                    return null;
-                }
-
-                treasure = fishingTreasures.get(Misc.getRandom().nextInt(fishingTreasures.size()));
-                break;
-            }
-
-            diceRoll -= dropRate;
+        if (rarity == null) {
+            return null;
         }
 
+        FishingTreasure treasure = treasureTables.drawFishingTreasure(rarity, Misc.getRandom());
+
         if (treasure == null) {
             return null;
         }
@@ -617,7 +600,9 @@ public class FishingManager extends SkillManager {
      */
     private Map<Enchantment, Integer> handleMagicHunter(ItemStack treasureDrop) {
         Map<Enchantment, Integer> enchants = new HashMap<>();
-        List<EnchantmentTreasure> fishingEnchantments = null;
+        TreasureTables treasureTables = TreasureConfig.getInstance().getTreasureTables();
+        int lootTier = getLootTier();
+        Rarity enchantmentRarity = null;
 
         double diceRoll = Misc.getRandom().nextDouble() * 100;
 
@@ -626,7 +611,7 @@ public class FishingManager extends SkillManager {
                 continue;
             }
 
-            double dropRate = TreasureConfig.getInstance().getEnchantmentDropRate(getLootTier(), rarity);
+            double dropRate = treasureTables.getEnchantmentDropRate(lootTier, rarity);
 
             if (diceRoll <= dropRate) {
                 // Make sure enchanted books always get some kind of enchantment.  --hoorigan
@@ -634,30 +619,25 @@ public class FishingManager extends SkillManager {
                     diceRoll = dropRate + 1;
                     continue;
                 }
-                fishingEnchantments = TreasureConfig.getInstance().fishingEnchantments.get(rarity);
+                enchantmentRarity = rarity;
                 break;
             }
 
             diceRoll -= dropRate;
         }
 
-        if (fishingEnchantments == null) {
+        if (enchantmentRarity == null) {
             return enchants;
         }
 
-        List<Enchantment> validEnchantments = getPossibleEnchantments(treasureDrop);
-        List<EnchantmentTreasure> possibleEnchants = new ArrayList<>();
-
-        for (EnchantmentTreasure enchantmentTreasure : fishingEnchantments) {
-            if (validEnchantments.contains(enchantmentTreasure.getEnchantment())) {
-                possibleEnchants.add(enchantmentTreasure);
-            }
-        }
+        EnchantmentTreasure[] applicableEnchants = treasureTables.getApplicableEnchantments(treasureDrop.getType(), enchantmentRarity);
 
-        if (possibleEnchants.isEmpty()) {
+        if (applicableEnchants.length == 0) {
             return enchants;
         }
 
+        List<EnchantmentTreasure> possibleEnchants = Arrays.asList(applicableEnchants.clone());
+
         // This make sure that the order isn't always the same, for example previously Unbreaking had a lot more chance to be used than any other enchant
         Collections.shuffle(possibleEnchants, Misc.getRandom());
 
@@ -678,25 +658,6 @@ public class FishingManager extends SkillManager {
         return enchants;
     }
 
-    private List<Enchantment> getPossibleEnchantments(ItemStack treasureDrop) {
-        Material dropType = treasureDrop.getType();
-
-        if (Fishing.ENCHANTABLE_CACHE.containsKey(dropType)) {
-            return Fishing.ENCHANTABLE_CACHE.get(dropType);
-        }
-
-        List<Enchantment> possibleEnchantments = new ArrayList<>();
-
-        for (Enchantment enchantment : Enchantment.values()) {
-            if (enchantment.canEnchantItem(treasureDrop)) {
-                possibleEnchantments.add(enchantment);
-            }
-        }
-
-        Fishing.ENCHANTABLE_CACHE.put(dropType, possibleEnchantments);
-        return possibleEnchantments;
-    }
-
     /**
      * Gets the vanilla XP multiplier
      *
@@ -12,6 +12,7 @@ import com.gmail.nossr50.datatypes.skills.SubSkillType;
 import com.gmail.nossr50.datatypes.skills.SuperAbilityType;
 import com.gmail.nossr50.mcMMO;
 import com.gmail.nossr50.runnables.skills.AbilityCooldownTask;
+import com.gmail.nossr50.runnables.skills.AbilityWork;
 import com.gmail.nossr50.skills.SkillManager;
 import com.gmail.nossr50.util.*;
 import com.gmail.nossr50.util.player.NotificationManager;
@@ -178,42 +179,82 @@ public class MiningManager extends SkillManager {
             }
         }
 
-        int xp = 0;
-
         float oreBonus = (float) (getOreBonus() / 100);
         //TODO: Pretty sure something is fucked with debrisReduction stuff
         float debrisReduction = (float) (getDebrisReduction() / 100);
         int dropMultiplier = getDropMultiplier();
         float debrisYield = yield - debrisReduction;
 
-        //Drop "debris" based on skill modifiers
-        for(BlockState blockState : notOres) {
-            if(RandomUtils.nextFloat() < debrisYield) {
-                Misc.spawnItem(Misc.getBlockCenter(blockState), new ItemStack(blockState.getType()), ItemSpawnReason.BLAST_MINING_DEBRIS_NON_ORES); // Initial block that would have been dropped
-            }
+        //Replace the event blocklist with the newYield list
+        event.setYield(0F);
+//        event.blockList().clear();
+//        event.blockList().addAll(notOres);
+
+        //The drops and XP may be spread over several ticks
+        mcMMO.getAbilityWorkQueue().submit(new BlastMiningDropWork(notOres, ores, debrisYield, yield + oreBonus, dropMultiplier));
+    }
+
+    /**
+     * Spawns the drops of a Blast Mining explosion, one block per step
+     * XP is handed out once all the blocks are done
+     */
+    private class BlastMiningDropWork extends AbilityWork {
+        private final List<BlockState> notOres;
+        private final List<BlockState> ores;
+        private final float debrisYield;
+        private final float oreYield;
+        private final int dropMultiplier;
+        private int index = 0;
+        private int xp = 0;
+
+        private BlastMiningDropWork(List<BlockState> notOres, List<BlockState> ores, float debrisYield, float oreYield, int dropMultiplier) {
+            super(getPlayer().getUniqueId());
+            this.notOres = notOres;
+            this.ores = ores;
+            this.debrisYield = debrisYield;
+            this.oreYield = oreYield;
+            this.dropMultiplier = dropMultiplier;
         }
 
-        for (BlockState blockState : ores) {
-            if (RandomUtils.nextFloat() < (yield + oreBonus)) {
-                xp += Mining.getBlockXp(blockState);
+        @Override
+        protected boolean processNextStep() {
+            if (index < notOres.size()) {
+                BlockState blockState = notOres.get(index++);
 
-                Misc.spawnItem(Misc.getBlockCenter(blockState), new ItemStack(blockState.getType()), ItemSpawnReason.BLAST_MINING_ORES); // Initial block that would have been dropped
+                //Drop "debris" based on skill modifiers
+                if(RandomUtils.nextFloat() < debrisYield) {
+                    Misc.spawnItem(Misc.getBlockCenter(blockState), new ItemStack(blockState.getType()), ItemSpawnReason.BLAST_MINING_DEBRIS_NON_ORES); // Initial block that would have been dropped
+                }
+            }
+            else if (index < notOres.size() + ores.size()) {
+                BlockState blockState = ores.get(index++ - notOres.size());
+
+                if (RandomUtils.nextFloat() < oreYield) {
+                    xp += Mining.getBlockXp(blockState);
+
+                    Misc.spawnItem(Misc.getBlockCenter(blockState), new ItemStack(blockState.getType()), ItemSpawnReason.BLAST_MINING_ORES); // Initial block that would have been dropped
 
-                if (!mcMMO.getPlaceStore().isTrue(blockState)) {
+                    //Placed blocks were already filtered out when the ores were collected
                     for (int i = 1; i < dropMultiplier; i++) {
-//                        Bukkit.broadcastMessage("Bonus Drop on Ore: "+blockState.getType().toString());
                         Misc.spawnItem(Misc.getBlockCenter(blockState), new ItemStack(blockState.getType()), ItemSpawnReason.BLAST_MINING_ORES_BONUS_DROP); // Initial block that would have been dropped
                     }
                 }
             }
+
+            return getRemainingSteps() > 0;
         }
 
-        //Replace the event blocklist with the newYield list
-        event.setYield(0F);
-//        event.blockList().clear();
-//        event.blockList().addAll(notOres);
+        @Override
+        protected void complete() {
+            if (getPlayer().isOnline()) {
+                applyXpGain(xp, XPGainReason.PVE);
+            }
+        }
 
-        applyXpGain(xp, XPGainReason.PVE);
+        @Override
+        public int getRemainingSteps() {
+            return notOres.size() + ores.size() - index;
+        }
     }
 
     /**
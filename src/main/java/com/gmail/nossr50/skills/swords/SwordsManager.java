@@ -1,5 +1,6 @@
 package com.gmail.nossr50.skills.swords;
 
+import com.gmail.nossr50.config.AdvancedConfig;
 import com.gmail.nossr50.datatypes.interactions.NotificationType;
 import com.gmail.nossr50.datatypes.player.McMMOPlayer;
 import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
@@ -112,9 +113,10 @@ public class SwordsManager extends SkillManager {
     public int getRuptureBleedTicks()
     {
         int bleedTicks = 2 * RankUtils.getRank(getPlayer(), SubSkillType.SWORDS_RUPTURE);
+        int bleedMaxTicks = AdvancedConfig.getInstance().getRuptureMaxTicks();
 
-        if(bleedTicks > Swords.bleedMaxTicks)
-            bleedTicks = Swords.bleedMaxTicks;
+        if(bleedTicks > bleedMaxTicks)
+            bleedTicks = bleedMaxTicks;
 
         return bleedTicks;
     }
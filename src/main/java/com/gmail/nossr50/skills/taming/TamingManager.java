@@ -311,7 +311,7 @@ public class TamingManager extends SkillManager {
         double range = 5;
         Player player = getPlayer();
 
-        for (Entity entity : player.getNearbyEntities(range, range, range)) {
+        for (LivingEntity entity : mcMMO.getNearbyEntityIndex().getNearbyLivingEntities(player, range, range, range)) {
             if (entity.getType() != EntityType.WOLF) {
                 continue;
             }
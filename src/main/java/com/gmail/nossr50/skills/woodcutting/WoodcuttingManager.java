@@ -3,6 +3,7 @@ package com.gmail.nossr50.skills.woodcutting;
 import com.gmail.nossr50.api.ItemSpawnReason;
 import com.gmail.nossr50.config.Config;
 import com.gmail.nossr50.config.experience.ExperienceConfig;
+import com.gmail.nossr50.datatypes.LongHashSet;
 import com.gmail.nossr50.datatypes.experience.XPGainReason;
 import com.gmail.nossr50.datatypes.interactions.NotificationType;
 import com.gmail.nossr50.datatypes.player.McMMOPlayer;
@@ -10,6 +11,7 @@ import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
 import com.gmail.nossr50.datatypes.skills.SubSkillType;
 import com.gmail.nossr50.datatypes.skills.SuperAbilityType;
 import com.gmail.nossr50.mcMMO;
+import com.gmail.nossr50.runnables.skills.AbilityWork;
 import com.gmail.nossr50.skills.SkillManager;
 import com.gmail.nossr50.util.*;
 import com.gmail.nossr50.util.player.NotificationManager;
@@ -20,9 +22,10 @@ import com.gmail.nossr50.util.skills.SkillActivationType;
 import com.gmail.nossr50.util.skills.SkillUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
-import org.bukkit.block.BlockFace;
 import org.bukkit.block.BlockState;
+import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
 import org.bukkit.event.player.PlayerItemDamageEvent;
 import org.bukkit.inventory.ItemStack;
@@ -31,14 +34,26 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 
 public class WoodcuttingManager extends SkillManager {
     private boolean treeFellerReachedThreshold = false;
     private static int treeFellerThreshold; //TODO: Shared setting, will be removed in 2.2
 
+    private static final byte UNKNOWN = 0;
+    private static final byte NOT_TREE = 1;
+    private static final byte LOG = 2;
+    private static final byte LEAF = 3;
+
+    /* Scratch arrays reused between Tree Feller uses */
+    private long[] treeFellerBlockPositions = new long[64];
+    private int treeFellerCount = 0;
+    private long[] centerStack = new long[64];
+    private long[] candidatePositions = new long[64];
+    private byte[] candidateKinds = new byte[64];
+    private boolean[] candidatePlaced = new boolean[64];
+
     /**
      * The x/y differences to the blocks in a flat cylinder around the center
      * block, which is excluded.
@@ -97,11 +112,10 @@ public class WoodcuttingManager extends SkillManager {
      */
     public void processTreeFeller(BlockState blockState) {
         Player player = getPlayer();
-        Set<BlockState> treeFellerBlocks = new HashSet<>();
 
         treeFellerReachedThreshold = false;
 
-        processTree(blockState, treeFellerBlocks);
+        processTree(blockState);
 
         // If the player is trying to break too many blocks
         if (treeFellerReachedThreshold) {
@@ -111,8 +125,19 @@ public class WoodcuttingManager extends SkillManager {
             return;
         }
 
+        // Only snapshot the blocks that are actually going to be removed
+        List<BlockState> treeFellerBlocks = new ArrayList<>(treeFellerCount);
+        World world = blockState.getWorld();
+
+        for (int i = 0; i < treeFellerCount; i++) {
+            long packedPosition = treeFellerBlockPositions[i];
+            treeFellerBlocks.add(world.getBlockAt(BlockUtils.unpackBlockX(packedPosition), BlockUtils.unpackBlockY(packedPosition), BlockUtils.unpackBlockZ(packedPosition)).getState());
+        }
+
+        ItemStack inHand = player.getInventory().getItemInMainHand();
+
         // If the tool can't sustain the durability loss
-        if (!handleDurabilityLoss(treeFellerBlocks, player.getInventory().getItemInMainHand(), player)) {
+        if (!canSustainDurabilityLoss(inHand, getDurabilityLoss(treeFellerBlocks))) {
             NotificationManager.sendPlayerInformation(player, NotificationType.SUBSKILL_MESSAGE_FAILED, "Woodcutting.Skills.TreeFeller.Splinter");
 
             double health = player.getHealth();
@@ -124,25 +149,26 @@ public class WoodcuttingManager extends SkillManager {
             return;
         }
 
-        dropTreeFellerLootFromBlocks(treeFellerBlocks);
+        dropTreeFellerLootFromBlocks(treeFellerBlocks, inHand);
         treeFellerReachedThreshold = false; // Reset the value after we're done with Tree Feller each time.
     }
 
     /**
-     * Processes Tree Feller in a recursive manner
+     * Finds the blocks of a tree with an iterative search over packed block coordinates
+     * The found blocks are stored in treeFellerBlockPositions
      *
-     * @param blockState Block being checked
-     * @param treeFellerBlocks List of blocks to be removed
+     * @param blockState Block the search starts from
      */
     /*
      * Algorithm: An int[][] of X/Z directions is created on static class
      * initialization, representing a cylinder with radius of about 2 - the
      * (0,0) center and all (+-2, +-2) corners are omitted.
      *
-     * processTreeFellerTargetBlock() returns a boolean, which is used for the sole purpose of
-     * switching between these two behaviors:
+     * Every log found becomes a new center and is pushed on a stack, so
+     * giant trees can't overflow the call stack. Each center is searched
+     * in one of two ways:
      *
-     * (Call blockState "this log" for the below explanation.)
+     * (Call the center "this log" for the below explanation.)
      *
      *  [A] There is another log above this log (TRUNK)
      *    Only the flat cylinder in the directions array is searched.
@@ -152,58 +178,177 @@ public class WoodcuttingManager extends SkillManager {
      *    well. Due to the fact that the directions array will catch all
      *    blocks on a red mushroom, the special method for it is eliminated.
      *
-     * This algorithm has been shown to achieve a performance of 2-5
-     * milliseconds on regular trees and 10-15 milliseconds on jungle trees
-     * once the JIT has optimized the function (use the ability about 4 times
-     * before taking measurements).
+     * Only the Material of each neighbour is read, and neighbours that are
+     * part of a tree are checked against the place store in one batch per
+     * center. BlockStates are only created once the whole tree is known.
      */
-    private void processTree(BlockState blockState, Set<BlockState> treeFellerBlocks) {
-        List<BlockState> futureCenterBlocks = new ArrayList<>();
+    private void processTree(BlockState blockState) {
+        World world = blockState.getWorld();
+        LongHashSet visited = new LongHashSet(treeFellerThreshold * 4);
+        byte[] materialKinds = new byte[Material.values().length];
+
+        treeFellerCount = 0;
+        int centerCount = 0;
+        centerStack = ensureCapacity(centerStack, 1);
+        centerStack[centerCount++] = BlockUtils.packBlockPosition(blockState.getX(), blockState.getY(), blockState.getZ());
+
+        while (centerCount > 0) {
+            long center = centerStack[--centerCount];
+            int x = BlockUtils.unpackBlockX(center);
+            int y = BlockUtils.unpackBlockY(center);
+            int z = BlockUtils.unpackBlockZ(center);
+            int candidateCount = 0;
+
+            // Check the block up and take different behavior (smaller search) if it's a log
+            boolean isTrunk = false;
+            long up = BlockUtils.packBlockPosition(x, y + 1, z);
+
+            if (visited.add(up)) {
+                byte kind = getTreeMaterialKind(world.getBlockAt(x, y + 1, z).getType(), materialKinds);
+
+                if (kind == LOG && !mcMMO.getPlaceStore().isTrue(x, y + 1, z, world)) {
+                    isTrunk = true;
+                    addTreeFellerBlock(up);
+                    centerStack = ensureCapacity(centerStack, centerCount + 1);
+                    centerStack[centerCount++] = up;
+                }
+                else if (kind == LEAF && !mcMMO.getPlaceStore().isTrue(x, y + 1, z, world)) {
+                    addTreeFellerBlock(up);
+                }
+            }
 
-        // Check the block up and take different behavior (smaller search) if it's a log
-        if (processTreeFellerTargetBlock(blockState.getBlock().getRelative(BlockFace.UP).getState(), futureCenterBlocks, treeFellerBlocks)) {
-            for (int[] dir : directions) {
-                processTreeFellerTargetBlock(blockState.getBlock().getRelative(dir[0], 0, dir[1]).getState(), futureCenterBlocks, treeFellerBlocks);
+            if (isTrunk) {
+                for (int[] dir : directions) {
+                    candidateCount = addCandidate(world, x + dir[0], y, z + dir[1], visited, materialKinds, candidateCount);
+                }
+            }
+            else {
+                // Cover DOWN
+                candidateCount = addCandidate(world, x, y - 1, z, visited, materialKinds, candidateCount);
+
+                // Search in a cube
+                for (int yOffset = -1; yOffset <= 1; yOffset++) {
+                    for (int[] dir : directions) {
+                        candidateCount = addCandidate(world, x + dir[0], y + yOffset, z + dir[1], visited, materialKinds, candidateCount);
+                    }
+                }
+            }
 
-                if (treeFellerReachedThreshold) {
+            if (candidateCount == 0) {
+                continue;
+            }
+
+            // Ignore blocks placed by players, checked in one go for all the candidates of this center
+            mcMMO.getPlaceStore().isTrue(world, candidatePositions, candidateCount, candidatePlaced);
+
+            for (int i = 0; i < candidateCount; i++) {
+                if (candidatePlaced[i]) {
+                    continue;
+                }
+
+                // Without this check Tree Feller propagates through leaves until the threshold is hit
+                if (treeFellerCount > treeFellerThreshold) {
+                    treeFellerReachedThreshold = true;
                     return;
                 }
-            }
-        }
-        else {
-            // Cover DOWN
-            processTreeFellerTargetBlock(blockState.getBlock().getRelative(BlockFace.DOWN).getState(), futureCenterBlocks, treeFellerBlocks);
-            // Search in a cube
-            for (int y = -1; y <= 1; y++) {
-                for (int[] dir : directions) {
-                    processTreeFellerTargetBlock(blockState.getBlock().getRelative(dir[0], y, dir[1]).getState(), futureCenterBlocks, treeFellerBlocks);
 
-                    if (treeFellerReachedThreshold) {
-                        return;
-                    }
+                addTreeFellerBlock(candidatePositions[i]);
+
+                if (candidateKinds[i] == LOG) {
+                    centerStack = ensureCapacity(centerStack, centerCount + 1);
+                    centerStack[centerCount++] = candidatePositions[i];
                 }
             }
         }
+    }
+
+    /**
+     * Queues a neighbouring block for the place store check if it is part of a tree and has not been looked at yet
+     *
+     * @return the new number of candidates
+     */
+    private int addCandidate(World world, int x, int y, int z, LongHashSet visited, byte[] materialKinds, int candidateCount) {
+        long packedPosition = BlockUtils.packBlockPosition(x, y, z);
+
+        if (!visited.add(packedPosition)) {
+            return candidateCount;
+        }
+
+        byte kind = getTreeMaterialKind(world.getBlockAt(x, y, z).getType(), materialKinds);
+
+        if (kind == NOT_TREE) {
+            return candidateCount;
+        }
+
+        if (candidateCount == candidatePositions.length) {
+            candidatePositions = Arrays.copyOf(candidatePositions, candidateCount * 2);
+            candidateKinds = Arrays.copyOf(candidateKinds, candidateCount * 2);
+            candidatePlaced = Arrays.copyOf(candidatePlaced, candidateCount * 2);
+        }
+
+        candidatePositions[candidateCount] = packedPosition;
+        candidateKinds[candidateCount] = kind;
+        return candidateCount + 1;
+    }
+
+    private void addTreeFellerBlock(long packedPosition) {
+        treeFellerBlockPositions = ensureCapacity(treeFellerBlockPositions, treeFellerCount + 1);
+        treeFellerBlockPositions[treeFellerCount++] = packedPosition;
+    }
+
+    /**
+     * Works out whether a material is a log, a leaf or not part of a tree, remembering the answer for the rest of the search
+     */
+    private static byte getTreeMaterialKind(Material material, byte[] materialKinds) {
+        byte kind = materialKinds[material.ordinal()];
 
-        // Recursive call for each log found
-        for (BlockState futureCenterBlock : futureCenterBlocks) {
-            if (treeFellerReachedThreshold) {
-                return;
+        if (kind == UNKNOWN) {
+            if (BlockUtils.hasWoodcuttingXP(material)) {
+                kind = LOG;
+            }
+            else if (BlockUtils.isNonWoodPartOfTree(material)) {
+                kind = LEAF;
+            }
+            else {
+                kind = NOT_TREE;
             }
 
-            processTree(futureCenterBlock, treeFellerBlocks);
+            materialKinds[material.ordinal()] = kind;
         }
+
+        return kind;
+    }
+
+    private static long[] ensureCapacity(long[] array, int capacity) {
+        if (capacity <= array.length) {
+            return array;
+        }
+
+        return Arrays.copyOf(array, Math.max(capacity, array.length * 2));
     }
 
     /**
-     * Handles the durability loss
-     *
      * @param treeFellerBlocks List of blocks to be removed
+     * @return the durability the tool loses for felling all of the blocks
+     */
+    private static int getDurabilityLoss(@NotNull List<BlockState> treeFellerBlocks) {
+        int durabilityLoss = 0;
+
+        for (BlockState blockState : treeFellerBlocks) {
+            if (BlockUtils.hasWoodcuttingXP(blockState)) {
+                durabilityLoss += Config.getInstance().getAbilityToolDamage();
+            }
+        }
+
+        return durabilityLoss;
+    }
+
+    /**
      * @param inHand tool being used
-     * @param player the player holding the item
+     * @param durabilityLoss the durability the tool would lose
      * @return True if the tool can sustain the durability loss
      */
-    private static boolean handleDurabilityLoss(@NotNull Set<BlockState> treeFellerBlocks, @NotNull ItemStack inHand, @NotNull Player player) {
+    private static boolean canSustainDurabilityLoss(@NotNull ItemStack inHand, int durabilityLoss) {
         //Treat the NBT tag for unbreakable and the durability enchant differently
         ItemMeta meta = inHand.getItemMeta();
 
@@ -211,13 +356,22 @@ public class WoodcuttingManager extends SkillManager {
             return true;
         }
 
-        int durabilityLoss = 0;
         Material type = inHand.getType();
+        int durability = meta instanceof Damageable ? ((Damageable) meta).getDamage() : 0;
+        int maxDurability = mcMMO.getRepairableManager().isRepairable(type) ? mcMMO.getRepairableManager().getRepairable(type).getMaximumDurability() : type.getMaxDurability();
+        return durability + durabilityLoss / (inHand.getEnchantmentLevel(Enchantment.DURABILITY) + 1) < maxDurability;
+    }
 
-        for (BlockState blockState : treeFellerBlocks) {
-            if (BlockUtils.hasWoodcuttingXP(blockState)) {
-                durabilityLoss += Config.getInstance().getAbilityToolDamage();
-            }
+    /**
+     * Handles the durability loss
+     *
+     * @param inHand tool being used
+     * @param player the player holding the item
+     * @param durabilityLoss the durability to take from the tool
+     */
+    private static void handleDurabilityLoss(@NotNull ItemStack inHand, @NotNull Player player, int durabilityLoss) {
+        if (durabilityLoss <= 0) {
+            return;
         }
 
         // Call PlayerItemDamageEvent first to make sure it's not cancelled
@@ -226,66 +380,69 @@ public class WoodcuttingManager extends SkillManager {
         Bukkit.getPluginManager().callEvent(event);
 
         if (event.isCancelled()) {
-            return true;
+            return;
         }
 
         SkillUtils.handleDurabilityChange(inHand, durabilityLoss);
-        int durability = meta instanceof Damageable ? ((Damageable) meta).getDamage(): 0;
-        return (durability < (mcMMO.getRepairableManager().isRepairable(type) ? mcMMO.getRepairableManager().getRepairable(type).getMaximumDurability() : type.getMaxDurability()));
     }
 
     /**
-     * Handle a block addition to the list of blocks to be removed and to the
-     * list of blocks used for future recursive calls of
-     * 'processTree()'
+     * Handles the dropping of blocks
+     * The blocks are handed to the ability work queue, which may spread them over several ticks
      *
-     * @param blockState Block to be added
-     * @param futureCenterBlocks List of blocks that will be used to call
-     *     'processTree()'
-     * @param treeFellerBlocks List of blocks to be removed
-     * @return true if and only if the given blockState was a Log not already
-     *     in treeFellerBlocks.
+     * @param treeFellerBlocks List of blocks to be dropped
+     * @param inHand tool being used, it loses durability for the logs that are actually felled
      */
-    private boolean processTreeFellerTargetBlock(@NotNull BlockState blockState, @NotNull List<BlockState> futureCenterBlocks, @NotNull Set<BlockState> treeFellerBlocks) {
-        if (treeFellerBlocks.contains(blockState) || mcMMO.getPlaceStore().isTrue(blockState)) {
-            return false;
-        }
-
-        // Without this check Tree Feller propagates through leaves until the threshold is hit
-        if (treeFellerBlocks.size() > treeFellerThreshold) {
-            treeFellerReachedThreshold = true;
-        }
-
-        if (BlockUtils.hasWoodcuttingXP(blockState)) {
-            treeFellerBlocks.add(blockState);
-            futureCenterBlocks.add(blockState);
-            return true;
-        }
-        else if (BlockUtils.isNonWoodPartOfTree(blockState)) {
-            treeFellerBlocks.add(blockState);
-            return false;
-        }
-        return false;
+    private void dropTreeFellerLootFromBlocks(@NotNull List<BlockState> treeFellerBlocks, @NotNull ItemStack inHand) {
+        mcMMO.getAbilityWorkQueue().submit(new TreeFellerWork(treeFellerBlocks, inHand));
     }
 
     /**
-     * Handles the dropping of blocks
-     *
-     * @param treeFellerBlocks List of blocks to be dropped
+     * Breaks, drops and awards XP for the blocks of a felled tree, one block per step
+     * XP and tool durability are handed out once all the blocks are done, only for the blocks that were felled
      */
-    private void dropTreeFellerLootFromBlocks(@NotNull Set<BlockState> treeFellerBlocks) {
-        Player player = getPlayer();
-        int xp = 0;
-        int processedLogCount = 0;
+    private class TreeFellerWork extends AbilityWork {
+        private final List<BlockState> treeFellerBlocks;
+        private final ItemStack inHand;
+        private int index = 0;
+        private int xp = 0;
+        private int durabilityLoss = 0;
+        private int processedLogCount = 0;
+
+        private TreeFellerWork(@NotNull List<BlockState> treeFellerBlocks, @NotNull ItemStack inHand) {
+            super(getPlayer().getUniqueId());
+            this.treeFellerBlocks = treeFellerBlocks;
+            this.inHand = inHand;
+        }
 
-        for (BlockState blockState : treeFellerBlocks) {
-            int beforeXP = xp;
+        @Override
+        protected boolean processNextStep() {
+            if (index >= treeFellerBlocks.size()) {
+                return false;
+            }
+
+            Player player = getPlayer();
+
+            if (!player.isOnline()) {
+                cancel();
+                return false;
+            }
+
+            BlockState blockState = treeFellerBlocks.get(index++);
             Block block = blockState.getBlock();
 
+            // The block may have changed since the tree was scanned if this work was spread over several ticks
+            if (!isStillPartOfTree(block, blockState)) {
+                return index < treeFellerBlocks.size();
+            }
+
+            // Protection plugins may only deny part of the tree, the rest still falls
             if (!EventUtils.simulateBlockBreak(block, player, true)) {
-                break; // TODO: Shouldn't we use continue instead?
+                return index < treeFellerBlocks.size();
             }
 
+            int beforeXP = xp;
+
             /*
              * Handle Drops & XP
              */
@@ -293,6 +450,7 @@ public class WoodcuttingManager extends SkillManager {
             if (BlockUtils.hasWoodcuttingXP(blockState)) {
                 //Add XP
                 xp += processTreeFellerXPGains(blockState, processedLogCount);
+                durabilityLoss += Config.getInstance().getAbilityToolDamage();
 
                 //Drop displaced block
                 Misc.spawnItemsFromCollection(Misc.getBlockCenter(blockState), block.getDrops(), ItemSpawnReason.TREE_FELLER_DISPLACED_BLOCK);
@@ -322,9 +480,41 @@ public class WoodcuttingManager extends SkillManager {
 
             //Update only when XP changes
             processedLogCount = updateProcessedLogCount(xp, processedLogCount, beforeXP);
+
+            return index < treeFellerBlocks.size();
         }
 
-        applyXpGain(xp, XPGainReason.PVE);
+        /**
+         * Runs the same checks as the tree search again, a player may have broken the block and placed their own since
+         */
+        private boolean isStillPartOfTree(@NotNull Block block, @NotNull BlockState blockState) {
+            Material type = block.getType();
+
+            if (type != blockState.getType()) {
+                return false;
+            }
+
+            if (!BlockUtils.hasWoodcuttingXP(type) && !BlockUtils.isNonWoodPartOfTree(type)) {
+                return false;
+            }
+
+            return !mcMMO.getPlaceStore().isTrue(block);
+        }
+
+        @Override
+        protected void complete() {
+            Player player = getPlayer();
+
+            if (player.isOnline()) {
+                handleDurabilityLoss(inHand, player, durabilityLoss);
+                applyXpGain(xp, XPGainReason.PVE);
+            }
+        }
+
+        @Override
+        public int getRemainingSteps() {
+            return treeFellerBlocks.size() - index;
+        }
     }
 
     private int updateProcessedLogCount(int xp, int processedLogCount, int beforeXP) {
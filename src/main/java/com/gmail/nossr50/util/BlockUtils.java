@@ -170,6 +170,16 @@ public final class BlockUtils {
         return ExperienceConfig.getInstance().doesBlockGiveSkillXP(PrimarySkillType.WOODCUTTING, blockState.getBlockData());
     }
 
+    /**
+     * Check if a given material is a log
+     *
+     * @param material The {@link Material} to check
+     * @return true if the material is a log, false otherwise
+     */
+    public static boolean hasWoodcuttingXP(Material material) {
+        return ExperienceConfig.getInstance().doesBlockGiveSkillXP(PrimarySkillType.WOODCUTTING, material);
+    }
+
     /**
      * Check if a given block is a leaf
      *
@@ -283,4 +293,28 @@ public final class BlockUtils {
     public static boolean isPartOfTree(Block rayCast) {
         return hasWoodcuttingXP(rayCast.getState()) || isNonWoodPartOfTree(rayCast.getType());
     }
+
+    /**
+     * Packs block coordinates into a single long, using 26 bits for x and z and 12 bits for y
+     *
+     * @param x block x coordinate
+     * @param y block y coordinate
+     * @param z block z coordinate
+     * @return the packed coordinates
+     */
+    public static long packBlockPosition(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public static int unpackBlockX(long packedPosition) {
+        return (int) (packedPosition >> 38);
+    }
+
+    public static int unpackBlockY(long packedPosition) {
+        return (int) (packedPosition << 52 >> 52);
+    }
+
+    public static int unpackBlockZ(long packedPosition) {
+        return (int) (packedPosition << 26 >> 38);
+    }
 }
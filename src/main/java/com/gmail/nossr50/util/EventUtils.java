@@ -22,6 +22,7 @@ import com.gmail.nossr50.events.party.McMMOPartyLevelUpEvent;
 import com.gmail.nossr50.events.party.McMMOPartyTeleportEvent;
 import com.gmail.nossr50.events.party.McMMOPartyXpGainEvent;
 import com.gmail.nossr50.events.players.McMMOPlayerProfileLoadEvent;
+import com.gmail.nossr50.events.skills.McMMOPlayerSkillEvent;
 import com.gmail.nossr50.events.skills.abilities.McMMOPlayerAbilityActivateEvent;
 import com.gmail.nossr50.events.skills.abilities.McMMOPlayerAbilityDeactivateEvent;
 import com.gmail.nossr50.events.skills.fishing.McMMOPlayerFishingTreasureEvent;
@@ -41,20 +42,28 @@ import org.bukkit.entity.FishHook;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.player.PlayerFishEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.RegisteredListener;
 import org.jetbrains.annotations.NotNull;
 
+import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This class is meant to help make event related code less boilerplate
  */
 public final class EventUtils {
+    private static volatile SubSkillListenerCheck subSkillListenerCheck;
 
     /**
      * This is a static utility class, therefore we don't want any instances of
@@ -182,6 +191,59 @@ public final class EventUtils {
         return event;
     }
 
+    /**
+     * Check if any listener can receive a {@link SubSkillEvent}
+     * Every mcMMO skill event shares one handler list, so the registered listeners are inspected for handlers that accept the event.
+     * The result is kept until the handler list changes.
+     *
+     * @return true if firing a SubSkillEvent could reach a listener
+     */
+    public static boolean hasSubSkillEventListeners() {
+        RegisteredListener[] registeredListeners = McMMOPlayerSkillEvent.getHandlerList().getRegisteredListeners();
+        SubSkillListenerCheck check = subSkillListenerCheck;
+
+        if (check == null || check.registeredListeners != registeredListeners) {
+            check = new SubSkillListenerCheck(registeredListeners, listensForSubSkillEvent(registeredListeners));
+            subSkillListenerCheck = check;
+        }
+
+        return check.hasListeners;
+    }
+
+    private static boolean listensForSubSkillEvent(RegisteredListener[] registeredListeners) {
+        for (RegisteredListener registeredListener : registeredListeners) {
+            Listener listener = registeredListener.getListener();
+            Set<Method> methods = new HashSet<>(Arrays.asList(listener.getClass().getMethods()));
+            methods.addAll(Arrays.asList(listener.getClass().getDeclaredMethods()));
+            boolean hasHandlers = false;
+
+            for (Method method : methods) {
+                if (!method.isAnnotationPresent(EventHandler.class) || method.getParameterCount() != 1) {
+                    continue;
+                }
+
+                Class<?> eventClass = method.getParameterTypes()[0];
+
+                if (!McMMOPlayerSkillEvent.class.isAssignableFrom(eventClass) && !eventClass.isAssignableFrom(McMMOPlayerSkillEvent.class)) {
+                    continue;
+                }
+
+                hasHandlers = true;
+
+                if (eventClass.isAssignableFrom(SubSkillEvent.class)) {
+                    return true;
+                }
+            }
+
+            // Registered without annotated handlers, there is no telling what it listens for
+            if (!hasHandlers) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Calls a new SubSkillEvent for this SubSkill and then returns it
      * @param player target player
@@ -471,5 +533,13 @@ public final class EventUtils {
         return event;
     }
 
+    private static class SubSkillListenerCheck {
+        private final RegisteredListener[] registeredListeners;
+        private final boolean hasListeners;
 
+        private SubSkillListenerCheck(RegisteredListener[] registeredListeners, boolean hasListeners) {
+            this.registeredListeners = registeredListeners;
+            this.hasListeners = hasListeners;
+        }
+    }
 }
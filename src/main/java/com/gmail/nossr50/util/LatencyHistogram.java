@@ -0,0 +1,93 @@
+package com.gmail.nossr50.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock free histogram of durations, bucketed by powers of two nanoseconds
+ * Bucket i counts samples under 2^i nanoseconds, the last bucket takes everything slower than about 34 seconds
+ */
+public class LatencyHistogram {
+    private static final int BUCKET_COUNT = 36;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        int bucket = Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, nanos)));
+
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    public long getMeanNanos() {
+        long samples = count.get();
+        return samples == 0 ? 0 : totalNanos.get() / samples;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Get the upper bound of the bucket holding the given percentile
+     *
+     * @param percentile the percentile, from 0 to 1
+     * @return the upper bound in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        long samples = count.get();
+
+        if (samples == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(samples * percentile));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+
+            if (seen >= target) {
+                return 1L << i;
+            }
+        }
+
+        return 1L << (BUCKET_COUNT - 1);
+    }
+
+    /**
+     * @return a copy of the bucket counts, bucket i holds samples under 2^i nanoseconds
+     */
+    public long[] getBuckets() {
+        long[] copy = new long[BUCKET_COUNT];
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = buckets.get(i);
+        }
+
+        return copy;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+}
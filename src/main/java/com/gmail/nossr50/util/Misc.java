@@ -251,6 +251,7 @@ public final class Misc {
     }
 
     public static void profileCleanup(@NotNull String playerName) {
+        mcMMO.getOfflineProfileCache().invalidate(playerName);
         Player player = mcMMO.p.getServer().getPlayerExact(playerName);
 
         if (player != null) {
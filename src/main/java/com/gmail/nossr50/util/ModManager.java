@@ -14,142 +14,179 @@ import org.bukkit.Material;
 import org.bukkit.block.BlockState;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
 import org.bukkit.inventory.ItemStack;
 
 import java.io.File;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public class ModManager {
+    // Bits of the per-material descriptors
+    private static final int BOOTS              = 1;
+    private static final int CHESTPLATE         = 1 << 1;
+    private static final int HELMET             = 1 << 2;
+    private static final int LEGGINGS           = 1 << 3;
+    private static final int EXCAVATION_BLOCK   = 1 << 4;
+    private static final int HERBALISM_BLOCK    = 1 << 5;
+    private static final int MINING_BLOCK       = 1 << 6;
+    private static final int ORE                = 1 << 7;
+    private static final int LOG                = 1 << 8;
+    private static final int LEAVES             = 1 << 9;
+    private static final int ABILITY_BLOCK      = 1 << 10;
+    private static final int AXE                = 1 << 11;
+    private static final int BOW                = 1 << 12;
+    private static final int HOE                = 1 << 13;
+    private static final int PICKAXE            = 1 << 14;
+    private static final int SHOVEL             = 1 << 15;
+    private static final int SWORD              = 1 << 16;
+
+    // Remembers that an entity type or class is not a custom entity
+    private static final CustomEntity NOT_CUSTOM = new CustomEntity(1.0D, false, 0, false, null, 0);
+
     private final List<Repairable> repairables = new ArrayList<>();
 
-    // Armor Mods
-    private final List<Material> customBoots       = new ArrayList<>();
-    private final List<Material> customChestplates = new ArrayList<>();
-    private final List<Material> customHelmets     = new ArrayList<>();
-    private final List<Material> customLeggings    = new ArrayList<>();
-
-    // Block Mods
-    private final List<Material> customExcavationBlocks  = new ArrayList<>();
-    private final List<Material> customHerbalismBlocks   = new ArrayList<>();
-    private final List<Material> customMiningBlocks      = new ArrayList<>();
-    private final List<Material> customOres              = new ArrayList<>();
-    private final List<Material> customLogs              = new ArrayList<>();
-    private final List<Material> customLeaves            = new ArrayList<>();
-    private final List<Material> customAbilityBlocks     = new ArrayList<>();
-    private final HashMap<Material, CustomBlock> customBlockMap = new HashMap<>();
-
-    // Entity Mods
+    // What each custom material is, indexed by material ordinal
+    private int[] materialFlags = new int[Material.values().length];
+
+    // Block Mods, hashed rather than in an EnumMap since hybrid servers add materials after this class is loaded
+    private final Map<Material, CustomBlock> customBlockMap = new HashMap<>();
+
+    // Entity Mods, as configured
     private final HashMap<String, CustomEntity> customEntityClassMap = new HashMap<>();
     private final HashMap<String, CustomEntity> customEntityTypeMap  = new HashMap<>();
+    // Entity Mods, resolved the first time each type or class is seen
+    private final Map<EntityType, CustomEntity> entitiesByType = new HashMap<>();
+    private final Map<Class<?>, CustomEntity> entitiesByClass = new HashMap<>();
+    // The entityClass field of the wrappers hybrid servers use for modded entities, if there is one
+    private final Map<Class<?>, Optional<Field>> entityClassFields = new HashMap<>();
 
     // Tool Mods
-    private final List<Material> customAxes     = new ArrayList<>();
-    private final List<Material> customBows     = new ArrayList<>();
-    private final List<Material> customHoes     = new ArrayList<>();
-    private final List<Material> customPickaxes = new ArrayList<>();
-    private final List<Material> customShovels  = new ArrayList<>();
-    private final List<Material> customSwords   = new ArrayList<>();
-    private final HashMap<Material, CustomTool> customToolMap = new HashMap<>();
+    private final Map<Material, CustomTool> customToolMap = new HashMap<>();
 
     public void registerCustomArmor(CustomArmorConfig config) {
-        customBoots.addAll(config.customBoots);
-        customChestplates.addAll(config.customChestplates);
-        customHelmets.addAll(config.customHelmets);
-        customLeggings.addAll(config.customLeggings);
+        addMaterialFlag(config.customBoots, BOOTS);
+        addMaterialFlag(config.customChestplates, CHESTPLATE);
+        addMaterialFlag(config.customHelmets, HELMET);
+        addMaterialFlag(config.customLeggings, LEGGINGS);
         repairables.addAll(config.repairables);
     }
 
     public void registerCustomBlocks(CustomBlockConfig config) {
-        customExcavationBlocks.addAll(config.customExcavationBlocks);
-        customHerbalismBlocks.addAll(config.customHerbalismBlocks);
-        customMiningBlocks.addAll(config.customMiningBlocks);
-        customOres.addAll(config.customOres);
-        customLogs.addAll(config.customLogs);
-        customLeaves.addAll(config.customLeaves);
-        customAbilityBlocks.addAll(config.customAbilityBlocks);
+        addMaterialFlag(config.customExcavationBlocks, EXCAVATION_BLOCK);
+        addMaterialFlag(config.customHerbalismBlocks, HERBALISM_BLOCK);
+        addMaterialFlag(config.customMiningBlocks, MINING_BLOCK);
+        addMaterialFlag(config.customOres, ORE);
+        addMaterialFlag(config.customLogs, LOG);
+        addMaterialFlag(config.customLeaves, LEAVES);
+        addMaterialFlag(config.customAbilityBlocks, ABILITY_BLOCK);
         customBlockMap.putAll(config.customBlockMap);
     }
 
     public void registerCustomEntities(CustomEntityConfig config) {
         customEntityClassMap.putAll(config.customEntityClassMap);
         customEntityTypeMap.putAll(config.customEntityTypeMap);
+        entitiesByType.clear();
+        entitiesByClass.clear();
     }
 
     public void registerCustomTools(CustomToolConfig config) {
-        customAxes.addAll(config.customAxes);
-        customBows.addAll(config.customBows);
-        customHoes.addAll(config.customHoes);
-        customPickaxes.addAll(config.customPickaxes);
-        customShovels.addAll(config.customShovels);
-        customSwords.addAll(config.customSwords);
+        addMaterialFlag(config.customAxes, AXE);
+        addMaterialFlag(config.customBows, BOW);
+        addMaterialFlag(config.customHoes, HOE);
+        addMaterialFlag(config.customPickaxes, PICKAXE);
+        addMaterialFlag(config.customShovels, SHOVEL);
+        addMaterialFlag(config.customSwords, SWORD);
         customToolMap.putAll(config.customToolMap);
         repairables.addAll(config.repairables);
     }
 
+    private void addMaterialFlag(List<Material> materials, int flag) {
+        for (Material material : materials) {
+            if (material == null) {
+                continue;
+            }
+
+            // Hybrid servers can add materials after this manager was created
+            if (material.ordinal() >= materialFlags.length) {
+                materialFlags = Arrays.copyOf(materialFlags, Math.max(material.ordinal() + 1, Material.values().length));
+            }
+
+            materialFlags[material.ordinal()] |= flag;
+        }
+    }
+
+    private boolean hasMaterialFlag(Material material, int flag) {
+        return material != null && material.ordinal() < materialFlags.length && (materialFlags[material.ordinal()] & flag) != 0;
+    }
+
     public boolean isCustomBoots(Material material) {
-        return Config.getInstance().getArmorModsEnabled() && customBoots.contains(material);
+        return Config.getInstance().getArmorModsEnabled() && hasMaterialFlag(material, BOOTS);
     }
 
     public boolean isCustomChestplate(Material material) {
-        return Config.getInstance().getArmorModsEnabled() && customChestplates.contains(material);
+        return Config.getInstance().getArmorModsEnabled() && hasMaterialFlag(material, CHESTPLATE);
     }
 
     public boolean isCustomHelmet(Material material) {
-        return Config.getInstance().getArmorModsEnabled() && customHelmets.contains(material);
+        return Config.getInstance().getArmorModsEnabled() && hasMaterialFlag(material, HELMET);
     }
 
     public boolean isCustomLeggings(Material material) {
-        return Config.getInstance().getArmorModsEnabled() && customLeggings.contains(material);
+        return Config.getInstance().getArmorModsEnabled() && hasMaterialFlag(material, LEGGINGS);
     }
 
     public boolean isCustomAxe(Material material) {
-        return Config.getInstance().getToolModsEnabled() && customAxes.contains(material);
+        return Config.getInstance().getToolModsEnabled() && hasMaterialFlag(material, AXE);
     }
 
     public boolean isCustomBow(Material material) {
-        return Config.getInstance().getToolModsEnabled() && customBows.contains(material);
+        return Config.getInstance().getToolModsEnabled() && hasMaterialFlag(material, BOW);
     }
 
     public boolean isCustomHoe(Material material) {
-        return Config.getInstance().getToolModsEnabled() && customHoes.contains(material);
+        return Config.getInstance().getToolModsEnabled() && hasMaterialFlag(material, HOE);
     }
 
     public boolean isCustomPickaxe(Material material) {
-        return Config.getInstance().getToolModsEnabled() && customPickaxes.contains(material);
+        return Config.getInstance().getToolModsEnabled() && hasMaterialFlag(material, PICKAXE);
     }
 
     public boolean isCustomShovel(Material material) {
-        return Config.getInstance().getToolModsEnabled() && customShovels.contains(material);
+        return Config.getInstance().getToolModsEnabled() && hasMaterialFlag(material, SHOVEL);
     }
 
     public boolean isCustomSword(Material material) {
-        return Config.getInstance().getToolModsEnabled() && customSwords.contains(material);
+        return Config.getInstance().getToolModsEnabled() && hasMaterialFlag(material, SWORD);
     }
 
     public boolean isCustomOre(Material data) {
-        return Config.getInstance().getBlockModsEnabled() && customOres.contains(data);
+        return Config.getInstance().getBlockModsEnabled() && hasMaterialFlag(data, ORE);
     }
 
     public boolean isCustomLog(BlockState state) {
-        return Config.getInstance().getBlockModsEnabled() && customLogs.contains(state.getType());
+        return Config.getInstance().getBlockModsEnabled() && hasMaterialFlag(state.getType(), LOG);
     }
 
     public boolean isCustomAbilityBlock(BlockState state) {
-        return Config.getInstance().getBlockModsEnabled() && customAbilityBlocks.contains(state.getType());
+        return Config.getInstance().getBlockModsEnabled() && hasMaterialFlag(state.getType(), ABILITY_BLOCK);
     }
 
     public boolean isCustomExcavationBlock(BlockState state) {
-        return Config.getInstance().getBlockModsEnabled() && customExcavationBlocks.contains(state.getType());
+        return Config.getInstance().getBlockModsEnabled() && hasMaterialFlag(state.getType(), EXCAVATION_BLOCK);
     }
 
     public boolean isCustomHerbalismBlock(BlockState state) {
-        return Config.getInstance().getBlockModsEnabled() && customHerbalismBlocks.contains(state.getType());
+        return Config.getInstance().getBlockModsEnabled() && hasMaterialFlag(state.getType(), HERBALISM_BLOCK);
     }
 
     public boolean isCustomMiningBlock(BlockState state) {
-        return Config.getInstance().getBlockModsEnabled() && customMiningBlocks.contains(state.getType());
+        return Config.getInstance().getBlockModsEnabled() && hasMaterialFlag(state.getType(), MINING_BLOCK);
     }
 
     public CustomBlock getBlock(BlockState state) {
@@ -185,45 +222,60 @@ public class ModManager {
     }
 
     public boolean isCustomEntity(Entity entity) {
-        if (!Config.getInstance().getEntityModsEnabled()) {
-            return false;
-        }
+        return Config.getInstance().getEntityModsEnabled() && getEntity(entity) != null;
+    }
 
-        if (customEntityTypeMap.containsKey(entity.getType().toString())) {
-            return true;
-        }
+    public CustomEntity getEntity(Entity entity) {
+        EntityType entityType = entity.getType();
+        CustomEntity customEntity = entitiesByType.get(entityType);
 
-        try {
-            return customEntityClassMap.containsKey(((Class<?>) entity.getClass().getDeclaredField("entityClass").get(entity)).getName());
+        if (customEntity == null) {
+            customEntity = customEntityTypeMap.getOrDefault(entityType.toString(), NOT_CUSTOM);
+            entitiesByType.put(entityType, customEntity);
         }
-        catch (Exception e) {
-            if (e instanceof NoSuchFieldException || e instanceof IllegalArgumentException || e instanceof IllegalAccessException) {
-                return customEntityClassMap.containsKey(entity.getClass().getName());
-            }
 
-            e.printStackTrace();
-            return false;
+        if (customEntity == NOT_CUSTOM) {
+            Class<?> entityClass = getEntityClass(entity);
+            customEntity = entitiesByClass.get(entityClass);
+
+            if (customEntity == null) {
+                customEntity = customEntityClassMap.getOrDefault(entityClass.getName(), NOT_CUSTOM);
+                entitiesByClass.put(entityClass, customEntity);
+            }
         }
-    }
 
-    public CustomEntity getEntity(Entity entity) {
-        CustomEntity customEntity = customEntityTypeMap.get(entity.getType().toString());
+        return customEntity == NOT_CUSTOM ? null : customEntity;
+    }
 
-        if (customEntity == null) {
+    /**
+     * Gets the class mods registered an entity with, which hybrid servers keep in the entityClass field of their wrapper
+     *
+     * @param entity Entity to check
+     * @return the modded entity class if there is one, the class of the entity otherwise
+     */
+    private Class<?> getEntityClass(Entity entity) {
+        Optional<Field> entityClassField = entityClassFields.computeIfAbsent(entity.getClass(), clazz -> {
             try {
-                customEntity = customEntityClassMap.get(((Class<?>) entity.getClass().getDeclaredField("entityClass").get(entity)).getName());
+                return Optional.of(clazz.getDeclaredField("entityClass"));
             }
-            catch (Exception e) {
-                if (e instanceof NoSuchFieldException || e instanceof IllegalArgumentException || e instanceof IllegalAccessException) {
-                    customEntity = customEntityClassMap.get(entity.getClass().getName());
-                }
-                else {
-                    e.printStackTrace();
+            catch (NoSuchFieldException e) {
+                return Optional.empty();
+            }
+        });
+
+        if (entityClassField.isPresent()) {
+            try {
+                Object entityClass = entityClassField.get().get(entity);
+
+                if (entityClass instanceof Class) {
+                    return (Class<?>) entityClass;
                 }
             }
+            catch (IllegalArgumentException | IllegalAccessException ignored) {
+            }
         }
 
-        return customEntity;
+        return entity.getClass();
     }
 
     public void addCustomEntity(Entity entity) {
@@ -249,23 +301,13 @@ public class ModManager {
         entitiesFile.set(sanitizedEntityName + ".COTW_Material_Data", 0);
         entitiesFile.set(sanitizedEntityName + ".COTW_Material_Amount", 0);
 
-        String className = "";
-
-        try {
-            className = ((Class<?>) entity.getClass().getDeclaredField("entityClass").get(entity)).getName();
-        }
-        catch (Exception e) {
-            if (e instanceof NoSuchFieldException || e instanceof IllegalArgumentException || e instanceof IllegalAccessException) {
-                className = entity.getClass().getName();
-            }
-            else {
-                e.printStackTrace();
-            }
-        }
+        String className = getEntityClass(entity).getName();
 
         CustomEntity customEntity = new CustomEntity(1.0D, false, 0, false, null, 0);
         customEntityTypeMap.put(entityName, customEntity);
         customEntityClassMap.put(className, customEntity);
+        entitiesByType.remove(entity.getType());
+        entitiesByClass.clear();
 
         try {
             entitiesFile.save(entityFile);
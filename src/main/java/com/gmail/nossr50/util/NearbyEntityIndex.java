@@ -0,0 +1,158 @@
+package com.gmail.nossr50.util;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A per tick cache of the living entities in each chunk, used for proximity lookups such as ability AoE
+ * Chunks are only indexed when a lookup touches them, and the whole index is thrown away every tick
+ * This avoids scanning the same chunk entity slices over and over when many lookups happen in the same area
+ */
+public class NearbyEntityIndex {
+    private final HashMap<UUID, HashMap<Long, ChunkBucket>> worldIndex = new HashMap<>();
+    private final Location scratchLocation = new Location(null, 0, 0, 0);
+
+    /**
+     * Drops every cached chunk, called once per tick
+     */
+    public void invalidate() {
+        if (worldIndex.isEmpty()) {
+            return;
+        }
+
+        worldIndex.clear();
+    }
+
+    /**
+     * Finds living entities whose bounding box intersects the bounding box of the center entity expanded by the given ranges
+     * This mirrors {@link Entity#getNearbyEntities(double, double, double)} but only returns valid living entities
+     *
+     * @param center the entity to search around, it is never part of the result
+     * @param rangeX the distance to expand the search box on the x axis
+     * @param rangeY the distance to expand the search box on the y axis
+     * @param rangeZ the distance to expand the search box on the z axis
+     * @return the living entities found near the center entity
+     */
+    public @NotNull List<LivingEntity> getNearbyLivingEntities(@NotNull Entity center, double rangeX, double rangeY, double rangeZ) {
+        List<LivingEntity> nearbyEntities = new ArrayList<>();
+        World world = center.getWorld();
+        center.getLocation(scratchLocation);
+
+        double centerX = scratchLocation.getX();
+        double centerY = scratchLocation.getY();
+        double centerZ = scratchLocation.getZ();
+        double centerHalfWidth = center.getWidth() / 2;
+        double centerHeight = center.getHeight();
+
+        // Entities can hang over chunk borders, so search one extra block of chunk coverage
+        int minChunkX = ((int) Math.floor(centerX - centerHalfWidth - rangeX - 2)) >> 4;
+        int maxChunkX = ((int) Math.floor(centerX + centerHalfWidth + rangeX + 2)) >> 4;
+        int minChunkZ = ((int) Math.floor(centerZ - centerHalfWidth - rangeZ - 2)) >> 4;
+        int maxChunkZ = ((int) Math.floor(centerZ + centerHalfWidth + rangeZ + 2)) >> 4;
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                ChunkBucket bucket = getBucket(world, chunkX, chunkZ);
+
+                if (bucket == null) {
+                    continue;
+                }
+
+                for (int i = 0; i < bucket.size; i++) {
+                    LivingEntity livingEntity = bucket.entities[i];
+
+                    if (livingEntity == center || !livingEntity.isValid()) {
+                        continue;
+                    }
+
+                    double reachX = rangeX + centerHalfWidth + bucket.halfWidths[i];
+                    double reachZ = rangeZ + centerHalfWidth + bucket.halfWidths[i];
+
+                    if (Math.abs(bucket.xs[i] - centerX) > reachX || Math.abs(bucket.zs[i] - centerZ) > reachZ) {
+                        continue;
+                    }
+
+                    if (bucket.ys[i] > centerY + centerHeight + rangeY || bucket.ys[i] + bucket.heights[i] < centerY - rangeY) {
+                        continue;
+                    }
+
+                    nearbyEntities.add(livingEntity);
+                }
+            }
+        }
+
+        return nearbyEntities;
+    }
+
+    private ChunkBucket getBucket(@NotNull World world, int chunkX, int chunkZ) {
+        // Never load chunks just to look for entities
+        if (!world.isChunkLoaded(chunkX, chunkZ)) {
+            return null;
+        }
+
+        HashMap<Long, ChunkBucket> chunkIndex = worldIndex.computeIfAbsent(world.getUID(), key -> new HashMap<>());
+        long chunkKey = ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+        ChunkBucket bucket = chunkIndex.get(chunkKey);
+
+        if (bucket == null) {
+            bucket = buildBucket(world.getChunkAt(chunkX, chunkZ));
+            chunkIndex.put(chunkKey, bucket);
+        }
+
+        return bucket;
+    }
+
+    private ChunkBucket buildBucket(@NotNull Chunk chunk) {
+        Entity[] chunkEntities = chunk.getEntities();
+        ChunkBucket bucket = new ChunkBucket(chunkEntities.length);
+
+        for (Entity entity : chunkEntities) {
+            if (!(entity instanceof LivingEntity)) {
+                continue;
+            }
+
+            entity.getLocation(scratchLocation);
+
+            int index = bucket.size++;
+            bucket.entities[index] = (LivingEntity) entity;
+            bucket.xs[index] = scratchLocation.getX();
+            bucket.ys[index] = scratchLocation.getY();
+            bucket.zs[index] = scratchLocation.getZ();
+            bucket.halfWidths[index] = entity.getWidth() / 2;
+            bucket.heights[index] = entity.getHeight();
+        }
+
+        return bucket;
+    }
+
+    /**
+     * Positions and sizes of the living entities in a chunk, stored as parallel arrays
+     */
+    private static class ChunkBucket {
+        private final LivingEntity[] entities;
+        private final double[] xs;
+        private final double[] ys;
+        private final double[] zs;
+        private final double[] halfWidths;
+        private final double[] heights;
+        private int size = 0;
+
+        private ChunkBucket(int capacity) {
+            entities = new LivingEntity[capacity];
+            xs = new double[capacity];
+            ys = new double[capacity];
+            zs = new double[capacity];
+            halfWidths = new double[capacity];
+            heights = new double[capacity];
+        }
+    }
+}
@@ -73,6 +73,8 @@ public final class Permissions {
 
     public static boolean mcmmoDescription(Permissible permissible) { return permissible.hasPermission("mcmmo.commands.mcmmo.description"); }
     public static boolean mcmmoHelp(Permissible permissible) { return permissible.hasPermission("mcmmo.commands.mcmmo.help"); }
+    public static boolean mcmmoTimings(Permissible permissible) { return permissible.hasPermission("mcmmo.commands.mcmmo.timings"); }
+    public static boolean mcmmoLoadTest(Permissible permissible) { return permissible.hasPermission("mcmmo.commands.mcmmo.loadtest"); }
 
     public static boolean mcrank(Permissible permissible) { return (permissible.hasPermission("mcmmo.commands.mcrank")); }
     public static boolean mcrankOthers(Permissible permissible) { return (permissible.hasPermission("mcmmo.commands.mcrank.others")); }
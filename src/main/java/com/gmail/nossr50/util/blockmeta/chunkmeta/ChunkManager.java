@@ -141,6 +141,17 @@ public interface ChunkManager {
      */
     boolean isTrue(BlockState blockState);
 
+    /**
+     * Check many locations in the same world at once
+     * Each chunk store is only looked up once for every run of locations in the same chunk
+     *
+     * @param world World to check in
+     * @param packedPositions Block coordinates packed with {@link com.gmail.nossr50.util.BlockUtils#packBlockPosition(int, int, int)}
+     * @param count Number of coordinates to check
+     * @param results Filled with the result for each coordinate
+     */
+    void isTrue(World world, long[] packedPositions, int count, boolean[] results);
+
     /**
      * Set a given location to true, should create stores as necessary if the location does not exist
      *
@@ -1,7 +1,11 @@
 package com.gmail.nossr50.util.blockmeta.chunkmeta;
 
 import com.gmail.nossr50.mcMMO;
+import com.gmail.nossr50.util.BlockUtils;
 import com.gmail.nossr50.util.blockmeta.conversion.BlockStoreConversionZDirectory;
+import com.gmail.nossr50.util.metrics.MetricCounter;
+import com.gmail.nossr50.util.metrics.MetricsRegistry;
+import com.gmail.nossr50.util.metrics.TimedOperation;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockState;
@@ -132,12 +136,17 @@ public class HashChunkManager implements ChunkManager {
         }
 
         ChunkStore chunkStore = null;
+        MetricsRegistry metricsRegistry = mcMMO.getMetricsRegistry();
+        long start = metricsRegistry.startTiming();
 
         try {
             chunkStore = readChunkStore(world, cx, cz);
         }
         catch (Exception e) { e.printStackTrace(); }
 
+        metricsRegistry.stopTiming(TimedOperation.CHUNK_STORE_READ, start);
+        metricsRegistry.increment(MetricCounter.CHUNK_STORE_READS);
+
         if (chunkStore == null) {
             return;
         }
@@ -171,7 +180,11 @@ public class HashChunkManager implements ChunkManager {
                 return;
             }
 
+            MetricsRegistry metricsRegistry = mcMMO.getMetricsRegistry();
+            long start = metricsRegistry.startTiming();
             writeChunkStore(world, cx, cz, out);
+            metricsRegistry.stopTiming(TimedOperation.CHUNK_STORE_WRITE, start);
+            metricsRegistry.increment(MetricCounter.CHUNK_STORE_WRITES);
         }
     }
 
@@ -307,6 +320,43 @@ public class HashChunkManager implements ChunkManager {
         return isTrue(blockState.getX(), blockState.getY(), blockState.getZ(), blockState.getWorld());
     }
 
+    @Override
+    public synchronized void isTrue(World world, long[] packedPositions, int count, boolean[] results) {
+        ChunkStore check = null;
+        int lastCx = 0;
+        int lastCz = 0;
+        boolean hasLastChunk = false;
+
+        for (int i = 0; i < count; i++) {
+            if (world == null) {
+                results[i] = false;
+                continue;
+            }
+
+            int x = BlockUtils.unpackBlockX(packedPositions[i]);
+            int y = BlockUtils.unpackBlockY(packedPositions[i]);
+            int z = BlockUtils.unpackBlockZ(packedPositions[i]);
+            int cx = x >> 4;
+            int cz = z >> 4;
+
+            // Neighbouring lookups are usually in the same chunk, so only build the key when the chunk changes
+            if (!hasLastChunk || cx != lastCx || cz != lastCz) {
+                String key = world.getName() + "," + cx + "," + cz;
+
+                if (!store.containsKey(key)) {
+                    loadChunk(cx, cz, world, null);
+                }
+
+                check = store.get(key);
+                lastCx = cx;
+                lastCz = cz;
+                hasLastChunk = true;
+            }
+
+            results[i] = check != null && check.isTrue(Math.abs(x) % 16, y, Math.abs(z) % 16);
+        }
+    }
+
     @Override
     public synchronized void setTrue(int x, int y, int z, World world) {
         if (world == null) {
@@ -6,6 +6,7 @@ import org.bukkit.block.BlockState;
 import org.bukkit.entity.Entity;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 public class NullChunkManager implements ChunkManager {
 
@@ -79,6 +80,11 @@ public class NullChunkManager implements ChunkManager {
         return false;
     }
 
+    @Override
+    public void isTrue(World world, long[] packedPositions, int count, boolean[] results) {
+        Arrays.fill(results, 0, count, false);
+    }
+
     @Override
     public void setTrue(int x, int y, int z, World world) {}
 
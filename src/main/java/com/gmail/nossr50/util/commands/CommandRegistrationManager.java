@@ -240,10 +240,12 @@ public final class CommandRegistrationManager {
     private static void registerMcmmoCommand() {
         PluginCommand command = mcMMO.p.getCommand("mcmmo");
         command.setDescription(LocaleLoader.getString("Commands.Description.mcmmo"));
-        command.setPermission("mcmmo.commands.mcmmo.description;mcmmo.commands.mcmmo.help");
+        command.setPermission("mcmmo.commands.mcmmo.description;mcmmo.commands.mcmmo.help;mcmmo.commands.mcmmo.timings;mcmmo.commands.mcmmo.loadtest");
         command.setPermissionMessage(permissionsMessage);
         command.setUsage(LocaleLoader.getString("Commands.Usage.0", "mcmmo"));
         command.setUsage(command.getUsage() + "\n" + LocaleLoader.getString("Commands.Usage.1", "mcmmo", "help"));
+        command.setUsage(command.getUsage() + "\n" + LocaleLoader.getString("Commands.Usage.1", "mcmmo", "timings [on|off|reset|export]"));
+        command.setUsage(command.getUsage() + "\n" + LocaleLoader.getString("Commands.Usage.1", "mcmmo", "loadtest <players> <seconds> <operations per second> [seed]"));
         command.setExecutor(new McmmoCommand());
     }
 
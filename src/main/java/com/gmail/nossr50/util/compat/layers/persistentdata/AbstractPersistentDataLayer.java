@@ -24,6 +24,7 @@ public abstract class AbstractPersistentDataLayer extends AbstractCompatibilityL
     protected final @NotNull NamespacedKey NSK_PLAYER_TAMED_MOB;
     protected final @NotNull NamespacedKey NSK_VILLAGER_TRADE_ORIGIN_ITEM;
     protected final @NotNull NamespacedKey NSK_EXPLOITED_ENDERMEN;
+    protected final @NotNull NamespacedKey NSK_MOB_FLAGS;
 
     //Never change these constants
     public final @NotNull String STR_SUPER_ABILITY_BOOSTED_ITEM = "super_ability_boosted";
@@ -35,6 +36,8 @@ public abstract class AbstractPersistentDataLayer extends AbstractCompatibilityL
     public final @NotNull String STR_PLAYER_TAMED_MOB = "mcmmo_player_tamed_mob";
     public final @NotNull String STR_VILLAGER_TRADE_ORIGIN_ITEM = "mcmmo_villager_trade_origin_item";
     public final @NotNull String STR_EXPLOITED_ENDERMEN = "mcmmo_exploited_endermen";
+    //Bitfield of every persistent mob flag, bump the version if the layout of the bits ever changes
+    public final @NotNull String STR_MOB_FLAGS = "mcmmo_mob_flags_v1";
 
     /*
      * Don't modify these keys
@@ -59,6 +62,7 @@ public abstract class AbstractPersistentDataLayer extends AbstractCompatibilityL
         NSK_PLAYER_TAMED_MOB = getNamespacedKey(STR_PLAYER_TAMED_MOB);
         NSK_VILLAGER_TRADE_ORIGIN_ITEM = getNamespacedKey(STR_VILLAGER_TRADE_ORIGIN_ITEM);
         NSK_EXPLOITED_ENDERMEN = getNamespacedKey(STR_EXPLOITED_ENDERMEN);
+        NSK_MOB_FLAGS = getNamespacedKey(STR_MOB_FLAGS);
         NSK_FURNACE_UUID_MOST_SIG = getNamespacedKey(STR_FURNACE_UUID_MOST_SIG);
         NSK_FURNACE_UUID_LEAST_SIG = getNamespacedKey(STR_FURNACE_UUID_LEAST_SIG);
 
@@ -90,6 +94,23 @@ public abstract class AbstractPersistentDataLayer extends AbstractCompatibilityL
      */
     public abstract boolean hasMobFlags(@NotNull LivingEntity livingEntity);
 
+    /**
+     * Gets all mcMMO mob flags of a {@link LivingEntity} at once
+     * @param livingEntity the living entity to check for metadata
+     * @return a bitfield of the {@link MobMetaFlagType#getBit()} of every flag the mob has
+     */
+    public int getMobFlagBits(@NotNull LivingEntity livingEntity) {
+        int mobFlagBits = 0;
+
+        for(MobMetaFlagType flag : MobMetaFlagType.values()) {
+            if(hasMobFlag(flag, livingEntity)) {
+                mobFlagBits |= flag.getBit();
+            }
+        }
+
+        return mobFlagBits;
+    }
+
     /**
      * Copies all mcMMO mob flags from one {@link LivingEntity} to another {@link LivingEntity}
      * This does not clear existing mcMMO mob flags on the target
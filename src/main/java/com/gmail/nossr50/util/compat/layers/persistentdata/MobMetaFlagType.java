@@ -1,11 +1,34 @@
 package com.gmail.nossr50.util.compat.layers.persistentdata;
 
 public enum MobMetaFlagType {
-    MOB_SPAWNER_MOB,
-    EGG_MOB,
-    NETHER_PORTAL_MOB,
-    COTW_SUMMONED_MOB,
-    PLAYER_BRED_MOB,
-    PLAYER_TAMED_MOB,
-    EXPLOITED_ENDERMEN,
+    //Never change these bits, they are saved to disk as part of the mob flag bitfield
+    MOB_SPAWNER_MOB(0x1),
+    EGG_MOB(0x2),
+    NETHER_PORTAL_MOB(0x4),
+    COTW_SUMMONED_MOB(0x8),
+    PLAYER_BRED_MOB(0x10),
+    PLAYER_TAMED_MOB(0x20),
+    EXPLOITED_ENDERMEN(0x40);
+
+    private final int bit;
+
+    MobMetaFlagType(int bit) {
+        this.bit = bit;
+    }
+
+    /**
+     * @return the bit of this flag within a mob flag bitfield
+     */
+    public int getBit() {
+        return bit;
+    }
+
+    /**
+     * Whether or not this flag is set in a mob flag bitfield
+     * @param mobFlagBits the bitfield, see {@link AbstractPersistentDataLayer#getMobFlagBits(org.bukkit.entity.LivingEntity)}
+     * @return true if the bit of this flag is set
+     */
+    public boolean isSet(int mobFlagBits) {
+        return (mobFlagBits & bit) != 0;
+    }
 }
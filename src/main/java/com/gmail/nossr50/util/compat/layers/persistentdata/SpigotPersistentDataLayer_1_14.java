@@ -16,17 +16,26 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.EnumMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.WeakHashMap;
 
 public class SpigotPersistentDataLayer_1_14 extends AbstractPersistentDataLayer {
 
+    //Keys of the old one key per flag format, only read to migrate mobs to the bitfield
     private final @NotNull EnumMap<MobMetaFlagType, NamespacedKey> mobFlagKeyMap;
     private final @NotNull SpigotPersistentDataLayer_1_13 transientLayer;
+    //Bits of the flags saved to disk, the others are left to the transient layer
+    private final int persistentFlagBits;
+    //All mob flag bits of every entity looked up so far, entries go away along with the entity
+    private final @NotNull Map<LivingEntity, Integer> mobFlagCache;
 
     public SpigotPersistentDataLayer_1_14() {
         mobFlagKeyMap = new EnumMap<>(MobMetaFlagType.class);
         initMobFlagKeyMap();
         transientLayer = new SpigotPersistentDataLayer_1_13(); //For disabled persistent types
+        persistentFlagBits = initPersistentFlagBits();
+        mobFlagCache = new WeakHashMap<>();
     }
 
     @Override
@@ -67,56 +76,155 @@ public class SpigotPersistentDataLayer_1_14 extends AbstractPersistentDataLayer
         }
     }
 
+    private int initPersistentFlagBits() {
+        int flagBits = 0;
+
+        for(MobMetaFlagType mobMetaFlagType : MobMetaFlagType.values()) {
+            if(PersistentDataConfig.getInstance().isMobPersistent(mobMetaFlagType)) {
+                flagBits |= mobMetaFlagType.getBit();
+            }
+        }
+
+        return flagBits;
+    }
+
+    private boolean isPersistent(@NotNull MobMetaFlagType flag) {
+        return (persistentFlagBits & flag.getBit()) != 0;
+    }
+
     @Override
     public boolean hasMobFlag(@NotNull MobMetaFlagType flag, @NotNull LivingEntity livingEntity) {
-        if(PersistentDataConfig.getInstance().isMobPersistent(flag)) {
-            return livingEntity.getPersistentDataContainer().has(mobFlagKeyMap.get(flag), PersistentDataType.BYTE);
-        } else {
-            return transientLayer.hasMobFlag(flag, livingEntity);
-        }
+        return flag.isSet(getMobFlagBits(livingEntity));
     }
 
     @Override
     public boolean hasMobFlags(@NotNull LivingEntity livingEntity) {
-        for(MobMetaFlagType currentFlag : MobMetaFlagType.values()) {
-            if(hasMobFlag(currentFlag, livingEntity)) {
-                return true;
-            }
+        return getMobFlagBits(livingEntity) != 0;
+    }
+
+    @Override
+    public int getMobFlagBits(@NotNull LivingEntity livingEntity) {
+        Integer mobFlagBits = mobFlagCache.get(livingEntity);
+
+        if(mobFlagBits == null) {
+            mobFlagBits = readMobFlagBits(livingEntity);
+            mobFlagCache.put(livingEntity, mobFlagBits);
         }
 
-        return false;
+        return mobFlagBits;
     }
 
     @Override
     public void addMobFlags(@NotNull LivingEntity sourceEntity, @NotNull LivingEntity targetEntity) {
+        int sourceFlagBits = getMobFlagBits(sourceEntity);
+
+        if(sourceFlagBits == 0)
+            return;
+
         for(MobMetaFlagType flag : MobMetaFlagType.values()) {
-            if(hasMobFlag(flag, sourceEntity)) {
-                flagMetadata(flag, targetEntity);
+            if(!isPersistent(flag) && flag.isSet(sourceFlagBits)) {
+                transientLayer.flagMetadata(flag, targetEntity);
             }
         }
+
+        writeMobFlagBits(targetEntity, getMobFlagBits(targetEntity) | sourceFlagBits);
     }
 
     @Override
     public void flagMetadata(@NotNull MobMetaFlagType flag, @NotNull LivingEntity livingEntity) {
-        if(PersistentDataConfig.getInstance().isMobPersistent(flag)) {
-            if(!hasMobFlag(flag, livingEntity)) {
-                PersistentDataContainer persistentDataContainer = livingEntity.getPersistentDataContainer();
-                persistentDataContainer.set(mobFlagKeyMap.get(flag), PersistentDataType.BYTE, SIMPLE_FLAG_VALUE);
-            }
-        } else {
+        int mobFlagBits = getMobFlagBits(livingEntity);
+
+        if(flag.isSet(mobFlagBits))
+            return;
+
+        if(!isPersistent(flag)) {
             transientLayer.flagMetadata(flag, livingEntity);
         }
+
+        writeMobFlagBits(livingEntity, mobFlagBits | flag.getBit());
     }
 
     @Override
     public void removeMobFlag(@NotNull MobMetaFlagType flag, @NotNull LivingEntity livingEntity) {
-        if(PersistentDataConfig.getInstance().isMobPersistent(flag)) {
-            if(hasMobFlag(flag, livingEntity)) {
-                PersistentDataContainer persistentDataContainer = livingEntity.getPersistentDataContainer();
-                persistentDataContainer.remove(mobFlagKeyMap.get(flag));
+        int mobFlagBits = getMobFlagBits(livingEntity);
+
+        if(!flag.isSet(mobFlagBits))
+            return;
+
+        if(!isPersistent(flag)) {
+            transientLayer.removeMobFlag(flag, livingEntity);
+        }
+
+        writeMobFlagBits(livingEntity, mobFlagBits & ~flag.getBit());
+    }
+
+    @Override
+    public void removeMobFlags(@NotNull LivingEntity livingEntity) {
+        int mobFlagBits = getMobFlagBits(livingEntity);
+
+        if(mobFlagBits == 0)
+            return;
+
+        for(MobMetaFlagType flag : MobMetaFlagType.values()) {
+            if(!isPersistent(flag) && flag.isSet(mobFlagBits)) {
+                transientLayer.removeMobFlag(flag, livingEntity);
+            }
+        }
+
+        writeMobFlagBits(livingEntity, 0);
+    }
+
+    /**
+     * Reads every mob flag of an entity, migrating flags saved with the old one key per flag format to the bitfield
+     */
+    private int readMobFlagBits(@NotNull LivingEntity livingEntity) {
+        PersistentDataContainer persistentDataContainer = livingEntity.getPersistentDataContainer();
+        Integer savedFlagBits = persistentDataContainer.get(NSK_MOB_FLAGS, PersistentDataType.INTEGER);
+        int mobFlagBits = savedFlagBits == null ? 0 : savedFlagBits & persistentFlagBits;
+
+        //Mobs saved by older versions of mcMMO only have the old keys
+        if(savedFlagBits == null) {
+            for(MobMetaFlagType flag : MobMetaFlagType.values()) {
+                NamespacedKey legacyKey = mobFlagKeyMap.get(flag);
+
+                if(isPersistent(flag) && persistentDataContainer.has(legacyKey, PersistentDataType.BYTE)) {
+                    persistentDataContainer.remove(legacyKey);
+                    mobFlagBits |= flag.getBit();
+                }
+            }
+
+            if(mobFlagBits != 0) {
+                persistentDataContainer.set(NSK_MOB_FLAGS, PersistentDataType.INTEGER, mobFlagBits);
             }
+        }
+
+        for(MobMetaFlagType flag : MobMetaFlagType.values()) {
+            if(!isPersistent(flag) && transientLayer.hasMobFlag(flag, livingEntity)) {
+                mobFlagBits |= flag.getBit();
+            }
+        }
+
+        return mobFlagBits;
+    }
+
+    /**
+     * Caches the new mob flags of an entity and saves the persistent ones, the transient layer has to be updated by the caller
+     */
+    private void writeMobFlagBits(@NotNull LivingEntity livingEntity, int mobFlagBits) {
+        int oldFlagBits = getMobFlagBits(livingEntity);
+        mobFlagCache.put(livingEntity, mobFlagBits);
+
+        int savedFlagBits = mobFlagBits & persistentFlagBits;
+
+        if(savedFlagBits == (oldFlagBits & persistentFlagBits))
+            return;
+
+        PersistentDataContainer persistentDataContainer = livingEntity.getPersistentDataContainer();
+
+        if(savedFlagBits == 0) {
+            persistentDataContainer.remove(NSK_MOB_FLAGS);
         } else {
-            transientLayer.removeMobFlag(flag, livingEntity);
+            persistentDataContainer.set(NSK_MOB_FLAGS, PersistentDataType.INTEGER, savedFlagBits);
         }
     }
 
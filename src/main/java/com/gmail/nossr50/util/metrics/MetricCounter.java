@@ -0,0 +1,19 @@
+package com.gmail.nossr50.util.metrics;
+
+import java.util.Locale;
+
+/**
+ * Events the {@link MetricsRegistry} counts, every occurrence is counted even when timings are sampled or disabled
+ */
+public enum MetricCounter {
+    XP_GAINS,
+    CHUNK_STORE_READS,
+    CHUNK_STORE_WRITES,
+    DATABASE_ROUND_TRIPS;
+
+    private final String metricName = "mcmmo_" + name().toLowerCase(Locale.ENGLISH) + "_total";
+
+    public String getMetricName() {
+        return metricName;
+    }
+}
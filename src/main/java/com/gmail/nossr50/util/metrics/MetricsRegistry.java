@@ -0,0 +1,392 @@
+package com.gmail.nossr50.util.metrics;
+
+import com.gmail.nossr50.database.ProfileSaveQueue;
+import com.gmail.nossr50.database.SQLConnectionPool;
+import com.gmail.nossr50.database.SQLDatabaseManager;
+import com.gmail.nossr50.database.SQLDatabaseManager.PoolIdentifier;
+import com.gmail.nossr50.mcMMO;
+import com.gmail.nossr50.runnables.skills.AbilityWorkQueueTask;
+import com.gmail.nossr50.util.LatencyHistogram;
+import com.gmail.nossr50.util.player.OfflineProfileCache;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times mcMMO's event handlers, tasks and I/O, and counts the events worth watching
+ * Only one of every sampleRate calls is timed, counters count every call and are striped so any thread can bump them
+ * cheaply. While timings are disabled nothing is timed or counted, every timing and counter checks a single flag.
+ * Event handlers are registered as usual and cost nothing until timings are first enabled, from then on they are
+ * wrapped in timed executors.
+ */
+public class MetricsRegistry {
+    // Returned by startTiming when a call isn't timed
+    public static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private volatile boolean enabled;
+    private volatile boolean timingHandlers;
+    private final int sampleRate;
+
+    // Every listener registered through this registry, so their handlers can be wrapped once timings are enabled
+    private final Map<Listener, Plugin> listeners = new LinkedHashMap<>();
+
+    private final Map<String, LatencyHistogram> handlerTimings = new ConcurrentHashMap<>();
+    private final LatencyHistogram[] operationTimings = new LatencyHistogram[TimedOperation.values().length];
+    private final LongAdder[] counters = new LongAdder[MetricCounter.values().length];
+
+    public MetricsRegistry(boolean enabled, int sampleRate) {
+        this.enabled = enabled;
+        this.timingHandlers = enabled;
+        this.sampleRate = Math.max(1, sampleRate);
+
+        for (int i = 0; i < operationTimings.length; i++) {
+            operationTimings[i] = new LatencyHistogram();
+        }
+
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Register the event handlers of a listener, timing each of them if timings are enabled
+     *
+     * @param listener the listener to register
+     * @param plugin the plugin owning the listener
+     */
+    public synchronized void registerEvents(@NotNull Listener listener, @NotNull Plugin plugin) {
+        listeners.put(listener, plugin);
+
+        if (!timingHandlers) {
+            plugin.getServer().getPluginManager().registerEvents(listener, plugin);
+            return;
+        }
+
+        registerTimedEvents(listener, plugin);
+    }
+
+    private void registerTimedEvents(@NotNull Listener listener, @NotNull Plugin plugin) {
+        // Same lookup as Bukkit's own registration, public methods including inherited ones and every declared method
+        Set<Method> methods = new HashSet<>();
+        Collections.addAll(methods, listener.getClass().getMethods());
+        Collections.addAll(methods, listener.getClass().getDeclaredMethods());
+
+        for (Method method : methods) {
+            EventHandler eventHandler = method.getAnnotation(EventHandler.class);
+
+            if (eventHandler == null || method.isBridge() || method.isSynthetic()
+                    || method.getParameterCount() != 1 || !Event.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                continue;
+            }
+
+            Class<? extends Event> eventClass = method.getParameterTypes()[0].asSubclass(Event.class);
+            LatencyHistogram histogram = handlerTimings.computeIfAbsent(listener.getClass().getSimpleName() + "." + method.getName(), name -> new LatencyHistogram());
+            method.setAccessible(true);
+
+            plugin.getServer().getPluginManager().registerEvent(eventClass, listener, eventHandler.priority(),
+                    new TimedEventExecutor(method, eventClass, histogram), plugin, eventHandler.ignoreCancelled());
+        }
+    }
+
+    /**
+     * Start timing a call
+     *
+     * @return the start time to pass to {@link #stopTiming(TimedOperation, long)}, or {@link #NOT_TIMED}
+     */
+    public long startTiming() {
+        if (!enabled || (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0)) {
+            return NOT_TIMED;
+        }
+
+        return System.nanoTime();
+    }
+
+    public void stopTiming(@NotNull TimedOperation operation, long start) {
+        if (start != NOT_TIMED) {
+            operationTimings[operation.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Record a call that was already timed by the caller, subject to sampling like any other call
+     */
+    public void record(@NotNull TimedOperation operation, long nanos) {
+        if (startTiming() != NOT_TIMED) {
+            operationTimings[operation.ordinal()].record(nanos);
+        }
+    }
+
+    public void increment(@NotNull MetricCounter counter) {
+        if (enabled) {
+            counters[counter.ordinal()].increment();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable timings, the first time they are enabled the registered event handlers are wrapped in timed executors
+     * Wrapping re-registers mcMMO's listeners, which puts their handlers behind other plugins' handlers of the same
+     * priority. They stay wrapped when timings are disabled again, the wrappers then only check the flag.
+     * Must be called on the main thread.
+     *
+     * @param enabled whether or not to record timings and counters
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        if (enabled && !timingHandlers) {
+            timingHandlers = true;
+
+            for (Map.Entry<Listener, Plugin> entry : listeners.entrySet()) {
+                HandlerList.unregisterAll(entry.getKey());
+                registerTimedEvents(entry.getKey(), entry.getValue());
+            }
+        }
+
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return true if event handlers are registered with timed executors, which they are once timings have been enabled
+     */
+    public boolean isTimingHandlers() {
+        return timingHandlers;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public @NotNull Map<String, LatencyHistogram> getHandlerTimings() {
+        return Collections.unmodifiableMap(handlerTimings);
+    }
+
+    public @NotNull LatencyHistogram getTiming(@NotNull TimedOperation operation) {
+        return operationTimings[operation.ordinal()];
+    }
+
+    public long getCount(@NotNull MetricCounter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : handlerTimings.values()) {
+            histogram.reset();
+        }
+
+        for (LatencyHistogram histogram : operationTimings) {
+            histogram.reset();
+        }
+
+        for (LongAdder counter : counters) {
+            counter.reset();
+        }
+    }
+
+    /**
+     * Write every metric in the Prometheus text format, replacing the file in one move so scrapers never read half of it
+     *
+     * @param file the file to write
+     * @throws IOException if the file couldn't be written
+     */
+    public void exportPrometheus(@NotNull File file) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+
+        try (Writer writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+            writePrometheus(writer);
+        }
+
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public void writePrometheus(@NotNull Writer writer) throws IOException {
+        writer.write("# HELP mcmmo_handler_duration_seconds Sampled duration of mcMMO event handlers\n");
+        writer.write("# TYPE mcmmo_handler_duration_seconds histogram\n");
+
+        for (Map.Entry<String, LatencyHistogram> entry : handlerTimings.entrySet()) {
+            writeHistogram(writer, "mcmmo_handler_duration_seconds", "handler", entry.getKey(), entry.getValue());
+        }
+
+        writer.write("# HELP mcmmo_operation_duration_seconds Sampled duration of mcMMO tasks and I/O\n");
+        writer.write("# TYPE mcmmo_operation_duration_seconds histogram\n");
+
+        for (TimedOperation operation : TimedOperation.values()) {
+            writeHistogram(writer, "mcmmo_operation_duration_seconds", "operation", operation.getMetricName(), getTiming(operation));
+        }
+
+        for (MetricCounter counter : MetricCounter.values()) {
+            writeCounter(writer, counter.getMetricName(), getCount(counter));
+        }
+
+        writer.write("# HELP mcmmo_timings_sample_rate One of every this many calls is timed\n");
+        writeGauge(writer, "mcmmo_timings_sample_rate", sampleRate);
+
+        ProfileSaveQueue profileSaveQueue = mcMMO.getProfileSaveQueue();
+
+        if (profileSaveQueue != null) {
+            writeGauge(writer, "mcmmo_profile_save_queue_depth", profileSaveQueue.getQueueDepth());
+            writeGauge(writer, "mcmmo_profile_save_queue_peak_depth", profileSaveQueue.getPeakQueueDepth());
+            writeCounter(writer, "mcmmo_profile_saves_total", profileSaveQueue.getSavedProfiles());
+            writeCounter(writer, "mcmmo_profile_save_failures_total", profileSaveQueue.getFailedSaves());
+            writeCounter(writer, "mcmmo_profile_saves_coalesced_total", profileSaveQueue.getCoalescedSaves());
+            writer.write("# TYPE mcmmo_profile_save_duration_seconds histogram\n");
+            writeHistogram(writer, "mcmmo_profile_save_duration_seconds", null, null, profileSaveQueue.getSaveLatency());
+        }
+
+        AbilityWorkQueueTask abilityWorkQueue = mcMMO.getAbilityWorkQueue();
+
+        if (abilityWorkQueue != null) {
+            writeGauge(writer, "mcmmo_ability_work_queue_work", abilityWorkQueue.getQueuedWorkCount());
+            writeGauge(writer, "mcmmo_ability_work_queue_steps", abilityWorkQueue.getQueuedSteps());
+            writeGauge(writer, "mcmmo_ability_work_queue_peak_steps", abilityWorkQueue.getPeakQueuedSteps());
+            writeGauge(writer, "mcmmo_ability_work_queue_last_tick_steps", abilityWorkQueue.getStepsProcessedLastTick());
+            writeGauge(writer, "mcmmo_ability_work_queue_last_tick_seconds", abilityWorkQueue.getNanosSpentLastTick() / 1000000000.0);
+            writeCounter(writer, "mcmmo_ability_work_queue_steps_processed_total", abilityWorkQueue.getTotalStepsProcessed());
+        }
+
+        OfflineProfileCache offlineProfileCache = mcMMO.getOfflineProfileCache();
+
+        if (offlineProfileCache != null) {
+            writeGauge(writer, "mcmmo_offline_profile_cache_hit_ratio", offlineProfileCache.getHitRate());
+        }
+
+        if (mcMMO.getDatabaseManager() instanceof SQLDatabaseManager) {
+            writeConnectionPool(writer, ((SQLDatabaseManager) mcMMO.getDatabaseManager()).getConnectionPool());
+        }
+    }
+
+    private static void writeConnectionPool(Writer writer, SQLConnectionPool connectionPool) throws IOException {
+        writer.write("# HELP mcmmo_sql_pool_connections Connections held by the shared MySQL pool\n");
+        writer.write("# TYPE mcmmo_sql_pool_connections gauge\n");
+        writer.write("mcmmo_sql_pool_connections{state=\"active\"} " + connectionPool.getActiveConnections() + "\n");
+        writer.write("mcmmo_sql_pool_connections{state=\"idle\"} " + connectionPool.getIdleConnections() + "\n");
+        writer.write("# HELP mcmmo_sql_pool_failed_borrows_total Connections that could not be borrowed in time\n");
+        writeCounter(writer, "mcmmo_sql_pool_failed_borrows_total", connectionPool.getFailedBorrows());
+
+        writer.write("# HELP mcmmo_sql_pool_workload_connections Connections each workload may use and is using\n");
+        writer.write("# TYPE mcmmo_sql_pool_workload_connections gauge\n");
+
+        for (PoolIdentifier identifier : PoolIdentifier.values()) {
+            String workload = identifier.name().toLowerCase(Locale.ENGLISH);
+            writer.write("mcmmo_sql_pool_workload_connections{workload=\"" + workload + "\",state=\"max\"} " + connectionPool.getMaxConnections(identifier) + "\n");
+            writer.write("mcmmo_sql_pool_workload_connections{workload=\"" + workload + "\",state=\"active\"} " + connectionPool.getActiveConnections(identifier) + "\n");
+        }
+
+        writer.write("# HELP mcmmo_sql_pool_waiting_threads Threads waiting for a connection, by workload\n");
+        writer.write("# TYPE mcmmo_sql_pool_waiting_threads gauge\n");
+
+        for (PoolIdentifier identifier : PoolIdentifier.values()) {
+            writer.write("mcmmo_sql_pool_waiting_threads{workload=\"" + identifier.name().toLowerCase(Locale.ENGLISH) + "\"} " + connectionPool.getWaitingThreads(identifier) + "\n");
+        }
+
+        writer.write("# HELP mcmmo_sql_pool_borrow_duration_seconds Time spent waiting for a connection, by workload\n");
+        writer.write("# TYPE mcmmo_sql_pool_borrow_duration_seconds histogram\n");
+
+        for (PoolIdentifier identifier : PoolIdentifier.values()) {
+            writeHistogram(writer, "mcmmo_sql_pool_borrow_duration_seconds", "workload", identifier.name().toLowerCase(Locale.ENGLISH), connectionPool.getBorrowLatency(identifier));
+        }
+    }
+
+    /**
+     * @param metric the name of the counter, which must end in _total
+     */
+    private static void writeCounter(Writer writer, String metric, long value) throws IOException {
+        writer.write("# TYPE " + metric + " counter\n");
+        writer.write(metric + " " + value + "\n");
+    }
+
+    private static void writeGauge(Writer writer, String metric, double value) throws IOException {
+        writer.write("# TYPE " + metric + " gauge\n");
+        writer.write(metric + " " + formatValue(value) + "\n");
+    }
+
+    private static String formatValue(double value) {
+        return value == Math.rint(value) && !Double.isInfinite(value) ? Long.toString((long) value) : String.format(Locale.ENGLISH, "%.9f", value);
+    }
+
+    /**
+     * Bucket i of a {@link LatencyHistogram} holds samples under 2^i nanoseconds, which makes 2^i nanoseconds the cumulative bound
+     */
+    private static void writeHistogram(Writer writer, String metric, String labelName, String labelValue, LatencyHistogram histogram) throws IOException {
+        String labels = labelName == null ? "" : labelName + "=\"" + escapeLabel(labelValue) + "\",";
+        long[] buckets = histogram.getBuckets();
+        long cumulative = 0;
+
+        for (int i = 0; i < buckets.length - 1; i++) {
+            cumulative += buckets[i];
+            writer.write(metric + "_bucket{" + labels + "le=\"" + String.format(Locale.ENGLISH, "%.9f", (1L << i) / 1000000000.0) + "\"} " + cumulative + "\n");
+        }
+
+        cumulative += buckets[buckets.length - 1];
+        writer.write(metric + "_bucket{" + labels + "le=\"+Inf\"} " + cumulative + "\n");
+
+        String sumLabels = labelName == null ? "" : "{" + labels.substring(0, labels.length() - 1) + "}";
+        writer.write(metric + "_sum" + sumLabels + " " + String.format(Locale.ENGLISH, "%.9f", histogram.getTotalNanos() / 1000000000.0) + "\n");
+        writer.write(metric + "_count" + sumLabels + " " + cumulative + "\n");
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private class TimedEventExecutor implements EventExecutor {
+        private final Method method;
+        private final Class<? extends Event> eventClass;
+        private final LatencyHistogram histogram;
+
+        private TimedEventExecutor(Method method, Class<? extends Event> eventClass, LatencyHistogram histogram) {
+            this.method = method;
+            this.eventClass = eventClass;
+            this.histogram = histogram;
+        }
+
+        @Override
+        public void execute(@NotNull Listener listener, @NotNull Event event) throws EventException {
+            // Handlers for a parent event are handed its subclasses too
+            if (!eventClass.isAssignableFrom(event.getClass())) {
+                return;
+            }
+
+            long start = startTiming();
+
+            try {
+                method.invoke(listener, event);
+            }
+            catch (InvocationTargetException e) {
+                throw new EventException(e.getCause());
+            }
+            catch (Throwable t) {
+                throw new EventException(t);
+            }
+            finally {
+                if (start != NOT_TIMED) {
+                    histogram.record(System.nanoTime() - start);
+                }
+            }
+        }
+    }
+}
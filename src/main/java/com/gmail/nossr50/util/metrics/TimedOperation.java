@@ -0,0 +1,23 @@
+package com.gmail.nossr50.util.metrics;
+
+import java.util.Locale;
+
+/**
+ * Work outside of event handlers that the {@link MetricsRegistry} times
+ */
+public enum TimedOperation {
+    ABILITY_WORK_QUEUE_TASK,
+    BLEED_TIMER_TASK,
+    POWER_LEVEL_UPDATING_TASK,
+    SAVE_TIMER_TASK,
+    CHUNK_STORE_READ,
+    CHUNK_STORE_WRITE,
+    DATABASE_LOAD,
+    DATABASE_SAVE;
+
+    private final String metricName = name().toLowerCase(Locale.ENGLISH);
+
+    public String getMetricName() {
+        return metricName;
+    }
+}
@@ -0,0 +1,265 @@
+package com.gmail.nossr50.util.player;
+
+import com.gmail.nossr50.config.Config;
+import com.gmail.nossr50.datatypes.player.PlayerProfile;
+import com.gmail.nossr50.mcMMO;
+import com.gmail.nossr50.util.metrics.MetricCounter;
+import com.gmail.nossr50.util.metrics.MetricsRegistry;
+import com.gmail.nossr50.util.metrics.TimedOperation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps snapshots of recently departed and recently looked up players, so reconnects and offline lookups skip the database
+ * Every save of a cached player replaces its snapshot, so the cache never falls behind the save queue.
+ * Lookups hand out copies, callers are free to modify them and save them as usual.
+ */
+public class OfflineProfileCache {
+    private final boolean enabled;
+    private final int maxProfiles;
+    private final long expiryMillis;
+
+    // Guarded by this, kept in access order so the least recently used profile is evicted first
+    private final LinkedHashMap<UUID, CachedProfile> profiles = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, UUID> uuidsByName = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public OfflineProfileCache() {
+        enabled = Config.getInstance().getOfflineProfileCacheEnabled();
+        maxProfiles = Config.getInstance().getOfflineProfileCacheSize();
+        expiryMillis = Config.getInstance().getOfflineProfileCacheExpiry() * 1000L;
+    }
+
+    /**
+     * Cache a snapshot of a profile, the snapshot must not be modified afterwards
+     */
+    public synchronized void put(@NotNull PlayerProfile snapshot) {
+        if (!enabled || !snapshot.isLoaded() || snapshot.getUniqueId() == null) {
+            return;
+        }
+
+        remove(snapshot.getUniqueId());
+        profiles.put(snapshot.getUniqueId(), new CachedProfile(snapshot, System.currentTimeMillis() + expiryMillis));
+
+        if (!snapshot.getPlayerName().isEmpty()) {
+            uuidsByName.put(snapshot.getPlayerName().toLowerCase(Locale.ENGLISH), snapshot.getUniqueId());
+        }
+
+        evictOverflow();
+    }
+
+    /**
+     * Replace the snapshot of a player that is already cached, called for every profile save
+     */
+    public synchronized void update(@NotNull PlayerProfile snapshot) {
+        if (snapshot.getUniqueId() != null && profiles.containsKey(snapshot.getUniqueId())) {
+            put(snapshot);
+        }
+    }
+
+    /**
+     * Get a copy of a cached profile
+     *
+     * @return the copy, or null if the player isn't cached
+     */
+    public @Nullable PlayerProfile get(@NotNull UUID uuid) {
+        PlayerProfile snapshot = getSnapshot(uuid);
+
+        if (snapshot == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return snapshot.copy();
+    }
+
+    /**
+     * Get a copy of a cached profile by player name
+     *
+     * @return the copy, or null if the player isn't cached
+     */
+    public @Nullable PlayerProfile get(@NotNull String playerName) {
+        UUID uuid;
+
+        synchronized (this) {
+            uuid = uuidsByName.get(playerName.toLowerCase(Locale.ENGLISH));
+        }
+
+        if (uuid == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        return get(uuid);
+    }
+
+    /**
+     * Remove and return a copy of the profile of a player that is logging in
+     * The profile is only handed out if the name still matches, renames have to go through the database
+     *
+     * @return the copy, or null if the player isn't cached
+     */
+    public @Nullable PlayerProfile takeForLogin(@NotNull UUID uuid, @NotNull String playerName) {
+        PlayerProfile snapshot = getSnapshot(uuid);
+        invalidate(uuid);
+
+        if (snapshot == null || !snapshot.getPlayerName().equalsIgnoreCase(playerName)) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return snapshot.copy();
+    }
+
+    /**
+     * Load an offline profile, from the cache if possible
+     */
+    public @NotNull PlayerProfile loadProfile(@NotNull UUID uuid) {
+        PlayerProfile profile = get(uuid);
+
+        if (profile != null) {
+            return profile;
+        }
+
+        MetricsRegistry metricsRegistry = mcMMO.getMetricsRegistry();
+        long start = metricsRegistry.startTiming();
+        profile = mcMMO.getDatabaseManager().loadPlayerProfile(uuid);
+        metricsRegistry.stopTiming(TimedOperation.DATABASE_LOAD, start);
+        metricsRegistry.increment(MetricCounter.DATABASE_ROUND_TRIPS);
+        put(profile.copy());
+        return profile;
+    }
+
+    /**
+     * Load an offline profile, from the cache if possible
+     */
+    public @NotNull PlayerProfile loadProfile(@NotNull String playerName, @Nullable UUID uuid) {
+        PlayerProfile profile = uuid != null ? get(uuid) : get(playerName);
+
+        if (profile != null) {
+            return profile;
+        }
+
+        MetricsRegistry metricsRegistry = mcMMO.getMetricsRegistry();
+        long start = metricsRegistry.startTiming();
+        profile = mcMMO.getDatabaseManager().loadPlayerProfile(playerName, uuid, false);
+        metricsRegistry.stopTiming(TimedOperation.DATABASE_LOAD, start);
+        metricsRegistry.increment(MetricCounter.DATABASE_ROUND_TRIPS);
+        put(profile.copy());
+        return profile;
+    }
+
+    public synchronized void invalidate(@NotNull UUID uuid) {
+        remove(uuid);
+    }
+
+    public synchronized void invalidate(@NotNull String playerName) {
+        UUID uuid = uuidsByName.get(playerName.toLowerCase(Locale.ENGLISH));
+
+        if (uuid != null) {
+            remove(uuid);
+        }
+    }
+
+    public synchronized void clear() {
+        profiles.clear();
+        uuidsByName.clear();
+    }
+
+    private synchronized @Nullable PlayerProfile getSnapshot(UUID uuid) {
+        if (!enabled) {
+            return null;
+        }
+
+        CachedProfile cachedProfile = profiles.get(uuid);
+
+        if (cachedProfile == null) {
+            return null;
+        }
+
+        if (cachedProfile.expiresAtMillis < System.currentTimeMillis()) {
+            remove(uuid);
+            evictions.incrementAndGet();
+            return null;
+        }
+
+        return cachedProfile.snapshot;
+    }
+
+    private void remove(UUID uuid) {
+        CachedProfile cachedProfile = profiles.remove(uuid);
+
+        if (cachedProfile != null) {
+            String name = cachedProfile.snapshot.getPlayerName().toLowerCase(Locale.ENGLISH);
+
+            // The name may have been taken by someone else since
+            if (uuid.equals(uuidsByName.get(name))) {
+                uuidsByName.remove(name);
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<UUID, CachedProfile>> iterator = profiles.entrySet().iterator();
+
+        while (profiles.size() > maxProfiles && iterator.hasNext()) {
+            Map.Entry<UUID, CachedProfile> eldest = iterator.next();
+            String name = eldest.getValue().snapshot.getPlayerName().toLowerCase(Locale.ENGLISH);
+
+            if (eldest.getKey().equals(uuidsByName.get(name))) {
+                uuidsByName.remove(name);
+            }
+
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    public synchronized int getSize() {
+        return profiles.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return the share of lookups served from the cache, from 0 to 1
+     */
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : hitCount / (double) total;
+    }
+
+    private static class CachedProfile {
+        private final PlayerProfile snapshot;
+        private final long expiresAtMillis;
+
+        private CachedProfile(PlayerProfile snapshot, long expiresAtMillis) {
+            this.snapshot = snapshot;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.gmail.nossr50.util.player;
+
+import com.gmail.nossr50.datatypes.player.PlayerProfile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds profiles loaded during pre-login until the player joins
+ * Entries are taken on join, evicted when the login is denied, and expire if the player never arrives
+ */
+public class ProfilePrefetchCache {
+    private static final long EXPIRY_MILLIS = 60000;
+
+    private final Map<UUID, PrefetchedProfile> profiles = new ConcurrentHashMap<>();
+
+    public void put(@NotNull UUID uuid, @NotNull PlayerProfile profile) {
+        evictExpired();
+        profiles.put(uuid, new PrefetchedProfile(profile, System.currentTimeMillis() + EXPIRY_MILLIS));
+    }
+
+    /**
+     * Remove and return the profile loaded for a player
+     *
+     * @return the profile, or null if none was loaded or it expired
+     */
+    public @Nullable PlayerProfile take(@NotNull UUID uuid) {
+        PrefetchedProfile prefetchedProfile = profiles.remove(uuid);
+
+        if (prefetchedProfile == null || prefetchedProfile.expiresAtMillis < System.currentTimeMillis()) {
+            return null;
+        }
+
+        return prefetchedProfile.profile;
+    }
+
+    public void evict(@NotNull UUID uuid) {
+        profiles.remove(uuid);
+    }
+
+    public void clear() {
+        profiles.clear();
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        profiles.values().removeIf(prefetchedProfile -> prefetchedProfile.expiresAtMillis < now);
+    }
+
+    private static class PrefetchedProfile {
+        private final PlayerProfile profile;
+        private final long expiresAtMillis;
+
+        private PrefetchedProfile(PlayerProfile profile, long expiresAtMillis) {
+            this.profile = profile;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
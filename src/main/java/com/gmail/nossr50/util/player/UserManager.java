@@ -65,7 +65,7 @@ public final class UserManager {
     }
 
     /**
-     * Save all users ON THIS THREAD.
+     * Save all users, waiting until the save queue has written them.
      */
     public static void saveAll() {
         if(playerDataSet == null)
@@ -79,7 +79,7 @@ public final class UserManager {
             try
             {
                 mcMMO.p.getLogger().info("Saving data for player: "+playerData.getPlayerName());
-                playerData.getProfile().save(true);
+                playerData.getProfile().save(false);
             }
             catch (Exception e)
             {
@@ -87,6 +87,8 @@ public final class UserManager {
             }
         }
 
+        mcMMO.getProfileSaveQueue().flush();
+
         mcMMO.p.getLogger().info("Finished save operation for "+trackedSyncData.size()+" players!");
     }
 
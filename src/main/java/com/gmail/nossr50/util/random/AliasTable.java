@@ -0,0 +1,107 @@
+package com.gmail.nossr50.util.random;
+
+import java.util.Random;
+
+/**
+ * Draws an index with probability proportional to its weight in constant time, using Vose's alias method
+ * Building the table is linear in the number of weights, so tables should be built once and reused.
+ */
+public final class AliasTable {
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    /**
+     * @param weights non negative weights, at least one of which must be positive
+     */
+    public AliasTable(double[] weights) {
+        int size = weights.length;
+        double total = 0;
+        int heaviest = 0;
+
+        for (int i = 0; i < size; i++) {
+            double weight = weights[i];
+
+            if (weight < 0 || Double.isNaN(weight)) {
+                throw new IllegalArgumentException("Alias table weights must be non negative numbers");
+            }
+
+            if (weight > weights[heaviest]) {
+                heaviest = i;
+            }
+
+            total += weight;
+        }
+
+        if (size == 0 || total <= 0) {
+            throw new IllegalArgumentException("Alias table needs at least one positive weight");
+        }
+
+        probabilities = new double[size];
+        aliases = new int[size];
+
+        double[] scaled = new double[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smallCount = 0;
+        int largeCount = 0;
+
+        for (int i = 0; i < size; i++) {
+            scaled[i] = weights[i] * size / total;
+
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            }
+            else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+
+            probabilities[less] = scaled[less];
+            aliases[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            }
+            else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // Whatever is left is 1 up to rounding errors, except a zero weight which must never be drawn
+        while (largeCount > 0) {
+            fillColumn(large[--largeCount], weights, heaviest);
+        }
+
+        while (smallCount > 0) {
+            fillColumn(small[--smallCount], weights, heaviest);
+        }
+    }
+
+    private void fillColumn(int column, double[] weights, int heaviest) {
+        if (weights[column] > 0) {
+            probabilities[column] = 1.0;
+        }
+        else {
+            probabilities[column] = 0.0;
+            aliases[column] = heaviest;
+        }
+    }
+
+    /**
+     * @return an index drawn with probability weight / total weight
+     */
+    public int sample(Random random) {
+        int column = random.nextInt(probabilities.length);
+        return random.nextDouble() < probabilities[column] ? column : aliases[column];
+    }
+
+    public int size() {
+        return probabilities.length;
+    }
+}
@@ -1,13 +1,16 @@
 package com.gmail.nossr50.util.random;
 
 import com.gmail.nossr50.config.AdvancedConfig;
+import com.gmail.nossr50.datatypes.player.McMMOPlayer;
 import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
 import com.gmail.nossr50.datatypes.skills.SubSkillType;
 import com.gmail.nossr50.datatypes.skills.subskills.AbstractSubSkill;
 import com.gmail.nossr50.events.skills.secondaryabilities.SubSkillEvent;
 import com.gmail.nossr50.events.skills.secondaryabilities.SubSkillRandomCheckEvent;
+import com.gmail.nossr50.mcMMO;
 import com.gmail.nossr50.util.EventUtils;
 import com.gmail.nossr50.util.Permissions;
+import com.gmail.nossr50.util.player.UserManager;
 import com.gmail.nossr50.util.skills.SkillActivationType;
 import org.bukkit.entity.Player;
 
@@ -20,6 +23,8 @@ public class RandomChanceUtil
     //public static final DecimalFormat decimal = new DecimalFormat("##0.00");
     public static final double LINEAR_CURVE_VAR = 100.0D;
 
+    private static volatile SubSkillChanceTables chanceTables;
+
     /**
      * This method is the final step in determining if a Sub-Skill / Secondary Skill in mcMMO successfully activates either from chance or otherwise
      * Random skills check for success based on numbers and then fire a cancellable event, if that event is not cancelled they succeed
@@ -39,6 +44,10 @@ public class RandomChanceUtil
             case RANDOM_STATIC_CHANCE:
                 return checkRandomStaticChanceExecutionSuccess(player, subSkillType);
             case ALWAYS_FIRES:
+                if (!EventUtils.hasSubSkillEventListeners()) {
+                    return true;
+                }
+
                 SubSkillEvent event = EventUtils.callSubSkillEvent(player, subSkillType);
                 return !event.isCancelled();
             default:
@@ -65,6 +74,10 @@ public class RandomChanceUtil
             case RANDOM_STATIC_CHANCE:
                 return checkRandomStaticChanceExecutionSuccess(player, subSkillType, resultModifier);
             case ALWAYS_FIRES:
+                if (!EventUtils.hasSubSkillEventListeners()) {
+                    return true;
+                }
+
                 SubSkillEvent event = EventUtils.callSubSkillEvent(player, subSkillType);
                 return !event.isCancelled();
             default:
@@ -222,6 +235,10 @@ public class RandomChanceUtil
 
     public static double getRandomChanceExecutionSuccess(Player player, SubSkillType subSkillType, boolean hasCap)
     {
+        if (hasCap) {
+            return getCappedChanceOfSuccess(player, subSkillType);
+        }
+
         RandomChanceSkill rcs = new RandomChanceSkill(player, subSkillType, hasCap);
         return calculateChanceOfSuccess(rcs);
     }
@@ -229,7 +246,7 @@ public class RandomChanceUtil
     public static double getRandomStaticChanceExecutionSuccess(Player player, SubSkillType subSkillType)
     {
         try {
-            return getRandomChanceExecutionChance(new RandomChanceSkillStatic(getStaticRandomChance(subSkillType), player, subSkillType));
+            return getChanceTables().getStaticChance(subSkillType);
         } catch (InvalidStaticChance invalidStaticChance) {
             //Catch invalid static skills
             invalidStaticChance.printStackTrace();
@@ -240,6 +257,10 @@ public class RandomChanceUtil
 
     public static boolean checkRandomChanceExecutionSuccess(Player player, SubSkillType subSkillType, boolean hasCap)
     {
+        if (hasCap) {
+            return rollDice(getCappedChanceOfSuccess(player, subSkillType), 100);
+        }
+
         return checkRandomChanceExecutionSuccess(new RandomChanceSkill(player, subSkillType, hasCap));
     }
 
@@ -262,7 +283,8 @@ public class RandomChanceUtil
     public static boolean checkRandomStaticChanceExecutionSuccess(Player player, SubSkillType subSkillType, double resultModifier)
     {
         try {
-            return checkRandomChanceExecutionSuccess(new RandomChanceSkillStatic(getStaticRandomChance(subSkillType), player, subSkillType));
+            double chanceOfSuccess = getChanceTables().getStaticChance(subSkillType);
+            return rollDice(addLuck(isLucky(player, subSkillType.getParentSkill()), chanceOfSuccess), 100);
         } catch (InvalidStaticChance invalidStaticChance) {
             //Catch invalid static skills
             invalidStaticChance.printStackTrace();
@@ -360,7 +382,7 @@ public class RandomChanceUtil
 
     public static double addLuck(Player player, PrimarySkillType primarySkillType, double chance)
     {
-        if(Permissions.lucky(player, primarySkillType))
+        if(isLucky(player, primarySkillType))
             return chance * 1.333D;
         else
             return chance;
@@ -373,4 +395,54 @@ public class RandomChanceUtil
         else
             return chance;
     }
+
+    /**
+     * Check the lucky perk, using the permissions cached on the McMMOPlayer when there is one
+     */
+    private static boolean isLucky(Player player, PrimarySkillType primarySkillType)
+    {
+        if (player == null)
+            return false;
+
+        McMMOPlayer mcMMOPlayer = UserManager.getPlayer(player);
+
+        if (mcMMOPlayer != null)
+            return mcMMOPlayer.isLucky(primarySkillType);
+
+        return Permissions.lucky(player, primarySkillType);
+    }
+
+    /**
+     * Chance of success on the capped linear curve, read from the precomputed tables
+     */
+    private static double getCappedChanceOfSuccess(Player player, SubSkillType subSkillType)
+    {
+        PrimarySkillType primarySkillType = subSkillType.getParentSkill();
+        McMMOPlayer mcMMOPlayer = UserManager.getPlayer(player);
+        int skillLevel = mcMMOPlayer != null ? mcMMOPlayer.getSkillLevel(primarySkillType) : 0;
+        boolean isLucky = mcMMOPlayer != null ? mcMMOPlayer.isLucky(primarySkillType) : player != null && Permissions.lucky(player, primarySkillType);
+
+        return addLuck(isLucky, getChanceTables().getLinearChance(subSkillType, skillLevel));
+    }
+
+    private static SubSkillChanceTables getChanceTables()
+    {
+        SubSkillChanceTables tables = chanceTables;
+        boolean retroMode = mcMMO.isRetroModeEnabled();
+
+        if (tables == null || tables.isRetroMode() != retroMode) {
+            tables = new SubSkillChanceTables(retroMode);
+            chanceTables = tables;
+        }
+
+        return tables;
+    }
+
+    /**
+     * Drop the precomputed chance tables, they are rebuilt from the current config on the next roll
+     */
+    public static void clearChanceTables()
+    {
+        chanceTables = null;
+    }
 }
@@ -0,0 +1,89 @@
+package com.gmail.nossr50.util.random;
+
+import com.gmail.nossr50.config.AdvancedConfig;
+import com.gmail.nossr50.datatypes.skills.SubSkillType;
+
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Success chances of every subskill precomputed per skill level, for either standard or retro scaling
+ * Chances are from 0 to 100 before luck is applied, exactly as the linear curve in {@link RandomChanceUtil} computes them.
+ */
+final class SubSkillChanceTables {
+    private final boolean retroMode;
+
+    // Indexed by subskill ordinal, then by skill level below the max bonus level
+    private final double[][] linearChances = new double[SubSkillType.values().length][];
+    private final double[] probabilityCaps = new double[SubSkillType.values().length];
+    // NaN for subskills without a static chance
+    private final double[] staticChances = new double[SubSkillType.values().length];
+
+    SubSkillChanceTables(boolean retroMode) {
+        this(retroMode, AdvancedConfig.getInstance()::getMaximumProbability, AdvancedConfig.getInstance()::getMaxBonusLevel, SubSkillChanceTables::getConfiguredStaticChance);
+    }
+
+    /**
+     * Builds the tables from the given settings rather than from advanced.yml
+     *
+     * @param probabilityCaps the highest chance of each subskill
+     * @param maxBonusLevels the level each subskill reaches its highest chance at
+     * @param staticChances the static chance of each subskill, NaN for subskills without one
+     */
+    SubSkillChanceTables(boolean retroMode, ToDoubleFunction<SubSkillType> probabilityCaps, ToIntFunction<SubSkillType> maxBonusLevels, ToDoubleFunction<SubSkillType> staticChances) {
+        this.retroMode = retroMode;
+
+        for (SubSkillType subSkillType : SubSkillType.values()) {
+            int index = subSkillType.ordinal();
+            double probabilityCap = probabilityCaps.applyAsDouble(subSkillType);
+            int maxBonusLevel = Math.max(0, maxBonusLevels.applyAsInt(subSkillType));
+            double[] chances = new double[maxBonusLevel];
+
+            for (int level = 0; level < maxBonusLevel; level++) {
+                chances[level] = (int) (probabilityCap * ((double) level / maxBonusLevel));
+            }
+
+            linearChances[index] = chances;
+            this.probabilityCaps[index] = probabilityCap;
+
+            double staticChance = staticChances.applyAsDouble(subSkillType);
+            this.staticChances[index] = Double.isNaN(staticChance) ? Double.NaN : (int) (100 * (staticChance / 100));
+        }
+    }
+
+    private static double getConfiguredStaticChance(SubSkillType subSkillType) {
+        try {
+            return RandomChanceUtil.getStaticRandomChance(subSkillType);
+        }
+        catch (InvalidStaticChance invalidStaticChance) {
+            return Double.NaN;
+        }
+    }
+
+    boolean isRetroMode() {
+        return retroMode;
+    }
+
+    /**
+     * @return the chance of success at this level, capped once the max bonus level is reached
+     */
+    double getLinearChance(SubSkillType subSkillType, int skillLevel) {
+        double[] chances = linearChances[subSkillType.ordinal()];
+
+        if (skillLevel >= chances.length) {
+            return probabilityCaps[subSkillType.ordinal()];
+        }
+
+        return chances[Math.max(0, skillLevel)];
+    }
+
+    double getStaticChance(SubSkillType subSkillType) throws InvalidStaticChance {
+        double chance = staticChances[subSkillType.ordinal()];
+
+        if (Double.isNaN(chance)) {
+            throw new InvalidStaticChance();
+        }
+
+        return chance;
+    }
+}
@@ -687,30 +687,29 @@ public final class CombatUtils {
         int numberOfTargets = getTier(attacker.getInventory().getItemInMainHand()); // The higher the weapon tier, the more targets you hit
         double damageAmount = Math.max(damage, 1);
 
-        for (Entity entity : target.getNearbyEntities(2.5, 2.5, 2.5)) {
+        for (LivingEntity livingEntity : mcMMO.getNearbyEntityIndex().getNearbyLivingEntities(target, 2.5, 2.5, 2.5)) {
             if (numberOfTargets <= 0) {
                 break;
             }
 
-            if (Misc.isNPCEntityExcludingVillagers(entity) || !(entity instanceof LivingEntity) || !shouldBeAffected(attacker, entity)) {
+            if (Misc.isNPCEntityExcludingVillagers(livingEntity) || !shouldBeAffected(attacker, livingEntity)) {
                 continue;
             }
 
-            LivingEntity livingEntity = (LivingEntity) entity;
             EventUtils.callFakeArmSwingEvent(attacker);
 
             switch (type) {
                 case SWORDS:
-                    if (entity instanceof Player) {
-                        NotificationManager.sendPlayerInformation((Player)entity, NotificationType.SUBSKILL_MESSAGE, "Swords.Combat.SS.Struck");
+                    if (livingEntity instanceof Player) {
+                        NotificationManager.sendPlayerInformation((Player)livingEntity, NotificationType.SUBSKILL_MESSAGE, "Swords.Combat.SS.Struck");
                     }
 
                     UserManager.getPlayer(attacker).getSwordsManager().ruptureCheck(target);
                     break;
 
                 case AXES:
-                    if (entity instanceof Player) {
-                        NotificationManager.sendPlayerInformation((Player)entity, NotificationType.SUBSKILL_MESSAGE, "Axes.Combat.SS.Struck");
+                    if (livingEntity instanceof Player) {
+                        NotificationManager.sendPlayerInformation((Player)livingEntity, NotificationType.SUBSKILL_MESSAGE, "Axes.Combat.SS.Struck");
                     }
 
                     break;
@@ -794,17 +793,19 @@ public final class CombatUtils {
                 }
             }
 
-            if(getPersistentData().hasMobFlag(MobMetaFlagType.COTW_SUMMONED_MOB, target)) {
+            int mobFlagBits = getPersistentData().getMobFlagBits(target);
+
+            if(MobMetaFlagType.COTW_SUMMONED_MOB.isSet(mobFlagBits)) {
                 baseXP = 0;
-            } else if(getPersistentData().hasMobFlag(MobMetaFlagType.MOB_SPAWNER_MOB, target) || target.hasMetadata("ES")) {
+            } else if(MobMetaFlagType.MOB_SPAWNER_MOB.isSet(mobFlagBits) || target.hasMetadata("ES")) {
                 baseXP *= ExperienceConfig.getInstance().getSpawnedMobXpMultiplier();
-            } else if(getPersistentData().hasMobFlag(MobMetaFlagType.NETHER_PORTAL_MOB, target)) {
+            } else if(MobMetaFlagType.NETHER_PORTAL_MOB.isSet(mobFlagBits)) {
                 baseXP *= ExperienceConfig.getInstance().getNetherPortalXpMultiplier();
-            } else if(getPersistentData().hasMobFlag(MobMetaFlagType.EGG_MOB, target)) {
+            } else if(MobMetaFlagType.EGG_MOB.isSet(mobFlagBits)) {
                 baseXP *= ExperienceConfig.getInstance().getEggXpMultiplier();
-            } else if (getPersistentData().hasMobFlag(MobMetaFlagType.PLAYER_BRED_MOB, target)) {
+            } else if (MobMetaFlagType.PLAYER_BRED_MOB.isSet(mobFlagBits)) {
                 baseXP *= ExperienceConfig.getInstance().getBredMobXpMultiplier();
-            } else if(getPersistentData().hasMobFlag(MobMetaFlagType.PLAYER_TAMED_MOB, target)) {
+            } else if(MobMetaFlagType.PLAYER_TAMED_MOB.isSet(mobFlagBits)) {
                 baseXP *= ExperienceConfig.getInstance().getTamedMobXpMultiplier();
             }
 
@@ -0,0 +1,38 @@
+package com.gmail.nossr50.util.skills;
+
+import com.gmail.nossr50.datatypes.player.McMMOPlayer;
+import com.gmail.nossr50.datatypes.skills.SubSkillType;
+
+import java.util.Arrays;
+
+/**
+ * The subskill ranks of one player, each rank is only searched for again once its parent skill level changes
+ */
+public class PlayerRankVector {
+    private final int[] ranks = new int[SubSkillType.values().length];
+    // The parent skill level each rank was found at, -1 when it has to be found again
+    private final int[] rankSkillLevels = new int[SubSkillType.values().length];
+    private int[][] unlockLevels;
+
+    public PlayerRankVector() {
+        Arrays.fill(rankSkillLevels, -1);
+    }
+
+    int getRank(McMMOPlayer mcMMOPlayer, SubSkillType subSkillType, int[][] unlockLevels) {
+        // The rank tables were rebuilt, every rank has to be found again
+        if (this.unlockLevels != unlockLevels) {
+            Arrays.fill(rankSkillLevels, -1);
+            this.unlockLevels = unlockLevels;
+        }
+
+        int index = subSkillType.ordinal();
+        int skillLevel = mcMMOPlayer.getSkillLevel(subSkillType.getParentSkill());
+
+        if (rankSkillLevels[index] != skillLevel) {
+            ranks[index] = RankUtils.findRank(unlockLevels[index], skillLevel);
+            rankSkillLevels[index] = skillLevel;
+        }
+
+        return ranks[index];
+    }
+}
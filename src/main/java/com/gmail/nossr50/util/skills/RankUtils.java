@@ -10,6 +10,7 @@ import com.gmail.nossr50.listeners.InteractionManager;
 import com.gmail.nossr50.runnables.skills.SkillUnlockNotificationTask;
 import com.gmail.nossr50.util.Permissions;
 import com.gmail.nossr50.util.player.UserManager;
+import com.gmail.nossr50.util.text.TextComponentFactory;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
@@ -17,6 +18,8 @@ import java.util.HashMap;
 
 public class RankUtils {
     private static HashMap<String, HashMap<Integer, Integer>> subSkillRanks;
+    // Unlock level of every rank by subskill ordinal, index 0 holds rank 1
+    private static volatile int[][] unlockLevels;
     private static int count = 0;
 
     /**
@@ -28,14 +31,14 @@ public class RankUtils {
      */
     public static void executeSkillUnlockNotifications(Plugin plugin, McMMOPlayer mcMMOPlayer, PrimarySkillType primarySkillType, int newLevel)
     {
+        int[][] levels = getUnlockLevels();
+
         for(SubSkillType subSkillType : primarySkillType.getSkillAbilities())
         {
-            int playerRankInSkill = getRank(mcMMOPlayer.getPlayer(), subSkillType);
-
-            HashMap<Integer, Integer> innerMap = subSkillRanks.get(subSkillType.toString());
+            int playerRankInSkill = getRank(mcMMOPlayer, subSkillType);
 
             //If the skill doesn't have registered ranks gtfo
-            if(innerMap == null || innerMap.get(playerRankInSkill) == null)
+            if(playerRankInSkill < 1)
                 continue;
 
             //Don't send notifications if the player lacks the permission node
@@ -43,7 +46,7 @@ public class RankUtils {
                 continue;
 
             //The players level is the exact level requirement for this skill
-            if(newLevel == innerMap.get(playerRankInSkill))
+            if(newLevel == levels[subSkillType.ordinal()][playerRankInSkill - 1])
             {
                 SkillUnlockNotificationTask skillUnlockNotificationTask = new SkillUnlockNotificationTask(mcMMOPlayer, subSkillType, newLevel);
 
@@ -100,6 +103,73 @@ public class RankUtils {
         {
             addRanks(abstractSubSkill);
         }
+
+        unlockLevels = buildUnlockLevels();
+        TextComponentFactory.clearSubSkillComponentCache();
+    }
+
+    private static int[][] getUnlockLevels()
+    {
+        int[][] levels = unlockLevels;
+
+        if(levels == null)
+        {
+            levels = buildUnlockLevels();
+            unlockLevels = levels;
+        }
+
+        return levels;
+    }
+
+    private static int[][] buildUnlockLevels()
+    {
+        int[][] levels = new int[SubSkillType.values().length][];
+
+        for(SubSkillType subSkillType : SubSkillType.values())
+        {
+            int numRanks = subSkillType.getNumRanks();
+            int[] rankLevels = new int[numRanks];
+
+            for(int rank = 1; rank <= numRanks; rank++)
+            {
+                rankLevels[rank - 1] = getRankUnlockLevel(subSkillType, rank);
+            }
+
+            //A rank counts as reached once any rank above it is, this keeps the levels ascending for the search
+            for(int i = numRanks - 2; i >= 0; i--)
+            {
+                rankLevels[i] = Math.min(rankLevels[i], rankLevels[i + 1]);
+            }
+
+            levels[subSkillType.ordinal()] = rankLevels;
+        }
+
+        return levels;
+    }
+
+    /**
+     * Finds the highest rank unlocked at a skill level
+     * @param rankLevels ascending unlock levels, index 0 holds rank 1
+     * @param skillLevel the level of the parent skill
+     * @return the highest unlocked rank, 0 if none are unlocked
+     */
+    static int findRank(int[] rankLevels, int skillLevel)
+    {
+        int low = 0;
+        int high = rankLevels.length;
+
+        //Count the ranks unlocked at this level
+        while(low < high)
+        {
+            int mid = (low + high) >>> 1;
+
+            if(rankLevels[mid] <= skillLevel)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low;
     }
 
     /**
@@ -162,7 +232,10 @@ public class RankUtils {
      */
     public static int getRank(McMMOPlayer mmoPlayer, SubSkillType subSkillType)
     {
-        return getRank(mmoPlayer.getPlayer(), subSkillType);
+        if(subSkillType.getNumRanks() == 0)
+            return -1; //-1 Means the skill doesn't have ranks
+
+        return mmoPlayer.getRankVector().getRank(mmoPlayer, subSkillType, getUnlockLevels());
     }
 
     /**
@@ -173,43 +246,15 @@ public class RankUtils {
      */
     public static int getRank(Player player, SubSkillType subSkillType)
     {
-        String skillName = subSkillType.toString();
-        int numRanks = subSkillType.getNumRanks();
-
-        if(subSkillRanks == null)
-            subSkillRanks = new HashMap<>();
-
-        if(numRanks == 0)
+        if(subSkillType.getNumRanks() == 0)
             return -1; //-1 Means the skill doesn't have ranks
 
-        if(subSkillRanks.get(skillName) == null && numRanks > 0)
-            addRanks(subSkillType);
-
-        //Get our rank map
-        HashMap<Integer, Integer> rankMap = subSkillRanks.get(skillName);
+        McMMOPlayer mmoPlayer = UserManager.getPlayer(player);
 
-        if(UserManager.getPlayer(player) == null)
+        if(mmoPlayer == null)
             return 0;
 
-        //Skill level of parent skill
-        int currentSkillLevel = UserManager.getPlayer(player).getSkillLevel(subSkillType.getParentSkill());
-
-        for(int i = 0; i < numRanks; i++)
-        {
-            //Compare against the highest to lowest rank in that order
-            int rank = numRanks-i;
-            int unlockLevel = getRankUnlockLevel(subSkillType, rank);
-
-            //If we check all ranks and still cannot unlock the skill, we return rank 0
-            if(rank == 0)
-                return 0;
-
-            //True if our skill level can unlock the current rank
-            if(currentSkillLevel >= unlockLevel)
-                return rank;
-        }
-
-        return 0; //We should never reach this
+        return mmoPlayer.getRankVector().getRank(mmoPlayer, subSkillType, getUnlockLevels());
     }
 
     /**
@@ -3,22 +3,34 @@ package com.gmail.nossr50.util.skills;
 import com.gmail.nossr50.datatypes.player.McMMOPlayer;
 import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
 import com.gmail.nossr50.mcMMO;
+import com.gmail.nossr50.util.BlockUtils;
 import com.gmail.nossr50.util.Permissions;
 import com.gmail.nossr50.util.player.UserManager;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.Material;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
 import org.bukkit.block.Furnace;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.FurnaceInventory;
 import org.bukkit.inventory.Inventory;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 public class SmeltingTracker {
+    //Remembered for furnaces that have no owner, so they aren't looked up again
+    private static final UUID NO_OWNER = new UUID(0, 0);
 
-//    private final HashMap<Furnace, OfflinePlayer> furnaceOwners;
+    //Owners of the furnaces looked up so far by world, chunk and packed block position, so furnace events don't copy the block state
+    //Chunks are dropped when they unload, so only furnaces in loaded chunks are remembered
+    private final Map<UUID, Map<Long, Map<Long, FurnaceOwner>>> furnaceOwners = new HashMap<>();
 
     private void changeFurnaceOwnership(Furnace furnace, Player player) {
 
@@ -36,6 +48,7 @@ public class SmeltingTracker {
 
     private void setFurnaceOwner(Furnace furnace, Player player) {
         mcMMO.getCompatibilityManager().getPersistentDataLayer().setFurnaceOwner(furnace, player.getUniqueId());
+        getChunkFurnaceOwners(furnace.getBlock()).put(BlockUtils.packBlockPosition(furnace.getX(), furnace.getY(), furnace.getZ()), new FurnaceOwner(furnace.getType(), player.getUniqueId()));
     }
 
     private void printOwnershipGainDebug(Furnace furnace, McMMOPlayer mcMMOPlayer) {
@@ -66,7 +79,7 @@ public class SmeltingTracker {
     }
 
     public @Nullable OfflinePlayer getFurnaceOwner(Furnace furnace) {
-        UUID uuid = mcMMO.getCompatibilityManager().getPersistentDataLayer().getFurnaceOwner(furnace);
+        UUID uuid = getFurnaceOwnerUUID(furnace.getBlock(), furnace);
 
         if(uuid != null) {
             return Bukkit.getOfflinePlayer(uuid);
@@ -75,6 +88,94 @@ public class SmeltingTracker {
         }
     }
 
+    /**
+     * Gets the owner of a furnace without copying its block state, unless the furnace hasn't been looked up before
+     * @param block the furnace block
+     * @return the {@link UUID} of the owner, null if the block is not an owned furnace
+     */
+    public @Nullable UUID getFurnaceOwnerUUID(@NotNull Block block) {
+        return getFurnaceOwnerUUID(block, null);
+    }
+
+    private @Nullable UUID getFurnaceOwnerUUID(@NotNull Block block, @Nullable Furnace furnace) {
+        Map<Long, FurnaceOwner> chunkFurnaceOwners = getChunkFurnaceOwners(block);
+        long positionKey = BlockUtils.packBlockPosition(block.getX(), block.getY(), block.getZ());
+        FurnaceOwner furnaceOwner = chunkFurnaceOwners.get(positionKey);
+        Material type = block.getType();
+
+        //Furnaces can disappear without being broken by a player, in explosions or through other plugins
+        if(furnaceOwner == null || furnaceOwner.type != type) {
+            UUID uuid;
+
+            if(furnace == null) {
+                BlockState blockState = block.getState();
+
+                if(!(blockState instanceof Furnace)) {
+                    chunkFurnaceOwners.remove(positionKey);
+                    return null;
+                }
+
+                furnace = (Furnace) blockState;
+            }
+
+            uuid = mcMMO.getCompatibilityManager().getPersistentDataLayer().getFurnaceOwner(furnace);
+
+            if(uuid == null)
+                uuid = NO_OWNER;
+
+            furnaceOwner = new FurnaceOwner(type, uuid);
+            chunkFurnaceOwners.put(positionKey, furnaceOwner);
+        }
+
+        return furnaceOwner.owner == NO_OWNER ? null : furnaceOwner.owner;
+    }
+
+    /**
+     * Forgets the remembered owner of a block position, called when a furnace is placed or broken
+     * @param block the block
+     */
+    public void forgetFurnace(@NotNull Block block) {
+        Map<Long, Map<Long, FurnaceOwner>> worldFurnaceOwners = furnaceOwners.get(block.getWorld().getUID());
+
+        if(worldFurnaceOwners == null)
+            return;
+
+        Map<Long, FurnaceOwner> chunkFurnaceOwners = worldFurnaceOwners.get(getChunkKey(block.getX() >> 4, block.getZ() >> 4));
+
+        if(chunkFurnaceOwners != null)
+            chunkFurnaceOwners.remove(BlockUtils.packBlockPosition(block.getX(), block.getY(), block.getZ()));
+    }
+
+    /**
+     * Forgets the remembered owners of every furnace in a chunk
+     * @param world the world of the chunk
+     * @param chunkX the x coordinate of the chunk being unloaded
+     * @param chunkZ the z coordinate of the chunk being unloaded
+     */
+    public void forgetChunk(@NotNull World world, int chunkX, int chunkZ) {
+        Map<Long, Map<Long, FurnaceOwner>> worldFurnaceOwners = furnaceOwners.get(world.getUID());
+
+        if(worldFurnaceOwners != null)
+            worldFurnaceOwners.remove(getChunkKey(chunkX, chunkZ));
+    }
+
+    /**
+     * Forgets the remembered owners of every furnace in a world
+     * @param world the world being unloaded
+     */
+    public void forgetWorld(@NotNull World world) {
+        furnaceOwners.remove(world.getUID());
+    }
+
+    private @NotNull Map<Long, FurnaceOwner> getChunkFurnaceOwners(@NotNull Block block) {
+        return furnaceOwners.computeIfAbsent(block.getWorld().getUID(), uuid -> new HashMap<>())
+                .computeIfAbsent(getChunkKey(block.getX() >> 4, block.getZ() >> 4), chunkKey -> new HashMap<>());
+    }
+
+    private static long getChunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
     @Nullable
     public Furnace getFurnaceFromInventory(Inventory inventory) {
         if (!(inventory instanceof FurnaceInventory)) {
@@ -93,11 +194,20 @@ public class SmeltingTracker {
             return;
 
         //Don't swap ownership if its the same player
-        if(getFurnaceOwner(furnace) != null) {
-            if(getFurnaceOwner(furnace).getUniqueId().equals(player.getUniqueId()))
-                return;
-        }
+        if(player.getUniqueId().equals(getFurnaceOwnerUUID(furnace.getBlock(), furnace)))
+            return;
 
         changeFurnaceOwnership(furnace, player);
     }
+
+    private static class FurnaceOwner {
+        //The block type when the owner was looked up, a different type at the same position is a different block
+        private final Material type;
+        private final UUID owner;
+
+        private FurnaceOwner(Material type, UUID owner) {
+            this.type = type;
+            this.owner = owner;
+        }
+    }
 }
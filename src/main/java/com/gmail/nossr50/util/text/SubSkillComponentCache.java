@@ -0,0 +1,142 @@
+package com.gmail.nossr50.util.text;
+
+import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
+import com.gmail.nossr50.datatypes.skills.SubSkillType;
+import com.gmail.nossr50.datatypes.skills.subskills.AbstractSubSkill;
+import com.gmail.nossr50.listeners.InteractionManager;
+import com.gmail.nossr50.mcMMO;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * The subskill components of the skill commands, built once per subskill and rank and shared by every player
+ * Apart from the rank, these components only depend on the locale and the rank config, so they are thrown away
+ * whenever the locale is reloaded or the ranks are populated again. Stats of the new skill system are per player
+ * and are never cached. Only used from the main thread.
+ */
+final class SubSkillComponentCache {
+    private static final SubSkillType[] SUB_SKILL_TYPES = SubSkillType.values();
+
+    // Indexed by subskill ordinal, then by rank + 1 since subskills without ranks are at rank -1
+    private static Component[][] textComponents = new Component[SUB_SKILL_TYPES.length][];
+    private static Component[][] hoverComponents = new Component[SUB_SKILL_TYPES.length][];
+    private static TextComponent[][] textComponentsWithoutHover = new TextComponent[SUB_SKILL_TYPES.length][];
+    private static TextComponent[][] hoverComponentsWithoutStats = new TextComponent[SUB_SKILL_TYPES.length][];
+
+    // The subskills listed by each skill command
+    private static Map<PrimarySkillType, SubSkillType[]> subSkillTypesByParent;
+    private static Map<PrimarySkillType, AbstractSubSkill[]> abstractSubSkillsByParent;
+
+    private SubSkillComponentCache() {}
+
+    static void clear() {
+        textComponents = new Component[SUB_SKILL_TYPES.length][];
+        hoverComponents = new Component[SUB_SKILL_TYPES.length][];
+        textComponentsWithoutHover = new TextComponent[SUB_SKILL_TYPES.length][];
+        hoverComponentsWithoutStats = new TextComponent[SUB_SKILL_TYPES.length][];
+        subSkillTypesByParent = null;
+        abstractSubSkillsByParent = null;
+    }
+
+    static @NotNull Component getTextComponent(@NotNull SubSkillType subSkillType, int rank, @NotNull IntFunction<Component> factory) {
+        return get(textComponents, subSkillType, rank, factory);
+    }
+
+    static @NotNull Component getHoverComponent(@NotNull SubSkillType subSkillType, int rank, @NotNull IntFunction<Component> factory) {
+        return get(hoverComponents, subSkillType, rank, factory);
+    }
+
+    static @NotNull TextComponent getTextComponentWithoutHover(@NotNull SubSkillType subSkillType, int rank, @NotNull IntFunction<TextComponent> factory) {
+        return get(textComponentsWithoutHover, subSkillType, rank, factory);
+    }
+
+    static @NotNull TextComponent getHoverComponentWithoutStats(@NotNull SubSkillType subSkillType, int rank, @NotNull IntFunction<TextComponent> factory) {
+        return get(hoverComponentsWithoutStats, subSkillType, rank, factory);
+    }
+
+    private static <T extends Component> T get(Component[][] cache, SubSkillType subSkillType, int rank, IntFunction<T> factory) {
+        int index = rank + 1;
+
+        // Ranks outside of the config can only come from a misconfiguration, don't cache them
+        if (index < 0 || index > subSkillType.getNumRanks() + 1) {
+            return factory.apply(rank);
+        }
+
+        Component[] byRank = cache[subSkillType.ordinal()];
+
+        if (byRank == null) {
+            byRank = new Component[subSkillType.getNumRanks() + 2];
+            cache[subSkillType.ordinal()] = byRank;
+        }
+
+        @SuppressWarnings("unchecked")
+        T component = (T) byRank[index];
+
+        if (component == null) {
+            component = factory.apply(rank);
+            byRank[index] = component;
+        }
+
+        return component;
+    }
+
+    /**
+     * @return the subskills of a skill that are not part of the new skill system, in the order they are listed
+     */
+    static @NotNull SubSkillType[] getSubSkillTypes(@NotNull PrimarySkillType parentSkill) {
+        if (subSkillTypesByParent == null) {
+            subSkillTypesByParent = new EnumMap<>(PrimarySkillType.class);
+
+            for (PrimarySkillType primarySkillType : PrimarySkillType.values()) {
+                List<SubSkillType> subSkillTypes = new ArrayList<>();
+
+                for (SubSkillType subSkillType : SUB_SKILL_TYPES) {
+                    if (subSkillType.getParentSkill() != primarySkillType || InteractionManager.hasSubSkill(subSkillType)) {
+                        continue;
+                    }
+
+                    //Only some versions of MC have this skill
+                    if (subSkillType == SubSkillType.FISHING_MASTER_ANGLER && mcMMO.getCompatibilityManager().getMasterAnglerCompatibilityLayer() == null) {
+                        continue;
+                    }
+
+                    subSkillTypes.add(subSkillType);
+                }
+
+                subSkillTypesByParent.put(primarySkillType, subSkillTypes.toArray(new SubSkillType[0]));
+            }
+        }
+
+        return subSkillTypesByParent.get(parentSkill);
+    }
+
+    /**
+     * @return the subskills of a skill that are part of the new skill system, in the order they were registered
+     */
+    static @NotNull AbstractSubSkill[] getAbstractSubSkills(@NotNull PrimarySkillType parentSkill) {
+        if (abstractSubSkillsByParent == null) {
+            abstractSubSkillsByParent = new EnumMap<>(PrimarySkillType.class);
+
+            for (PrimarySkillType primarySkillType : PrimarySkillType.values()) {
+                List<AbstractSubSkill> abstractSubSkills = new ArrayList<>();
+
+                for (AbstractSubSkill abstractSubSkill : InteractionManager.getSubSkillList()) {
+                    if (abstractSubSkill.getPrimarySkill() == primarySkillType) {
+                        abstractSubSkills.add(abstractSubSkill);
+                    }
+                }
+
+                abstractSubSkillsByParent.put(primarySkillType, abstractSubSkills.toArray(new AbstractSubSkill[0]));
+            }
+        }
+
+        return abstractSubSkillsByParent.get(parentSkill);
+    }
+}
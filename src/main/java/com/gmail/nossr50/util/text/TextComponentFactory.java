@@ -7,7 +7,6 @@ import com.gmail.nossr50.datatypes.json.McMMOWebLinks;
 import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
 import com.gmail.nossr50.datatypes.skills.SubSkillType;
 import com.gmail.nossr50.datatypes.skills.subskills.AbstractSubSkill;
-import com.gmail.nossr50.listeners.InteractionManager;
 import com.gmail.nossr50.locale.LocaleLoader;
 import com.gmail.nossr50.mcMMO;
 import com.gmail.nossr50.util.Permissions;
@@ -241,16 +240,19 @@ public class TextComponentFactory {
     }
 
     private static Component getSubSkillTextComponent(Player player, SubSkillType subSkillType)
+    {
+        return SubSkillComponentCache.getTextComponent(subSkillType, RankUtils.getRank(player, subSkillType), rank -> buildSubSkillTextComponent(subSkillType, rank));
+    }
+
+    private static Component buildSubSkillTextComponent(SubSkillType subSkillType, int rank)
     {
         //Get skill name
         String skillName = subSkillType.getLocaleName();
 
-        boolean skillUnlocked = RankUtils.hasUnlockedSubskill(player, subSkillType);
-
-        TextComponent.Builder textComponent = initNewSkillTextComponent(player, skillName, subSkillType, skillUnlocked);
+        TextComponent.Builder textComponent = initNewSkillTextComponent(skillName, subSkillType, rank, isUnlocked(rank));
 
         //Hover Event
-        TextUtils.addNewHoverComponentToTextComponent(textComponent, getSubSkillHoverComponent(player, subSkillType));
+        TextUtils.addNewHoverComponentToTextComponent(textComponent, getSubSkillHoverComponent(subSkillType, rank));
 
         //Insertion
         textComponent.insertion(skillName);
@@ -260,18 +262,22 @@ public class TextComponentFactory {
 
     private static TextComponent getSubSkillTextComponent(Player player, AbstractSubSkill abstractSubSkill)
     {
-        //String key = abstractSubSkill.getConfigKeyName();
-        String skillName = abstractSubSkill.getNiceName();
-
         //Setup Text Component
         SubSkillType subSkillType = abstractSubSkill.getSubSkillType();
 
-        boolean skillUnlocked = RankUtils.hasUnlockedSubskill(player, subSkillType);
+        TextComponent textComponent = SubSkillComponentCache.getTextComponentWithoutHover(subSkillType, RankUtils.getRank(player, subSkillType),
+                rank -> buildSubSkillTextComponentWithoutHover(abstractSubSkill, rank));
 
-        TextComponent.Builder textComponent = initNewSkillTextComponent(player, skillName, subSkillType, skillUnlocked);
+        //Hover Event, the stats in it are different for every player
+        return textComponent.hoverEvent(HoverEvent.showText(getSubSkillHoverComponent(player, abstractSubSkill)));
+    }
 
-        //Hover Event
-        TextUtils.addNewHoverComponentToTextComponent(textComponent, getSubSkillHoverComponent(player, abstractSubSkill));
+    private static TextComponent buildSubSkillTextComponentWithoutHover(AbstractSubSkill abstractSubSkill, int rank)
+    {
+        //String key = abstractSubSkill.getConfigKeyName();
+        String skillName = abstractSubSkill.getNiceName();
+
+        TextComponent.Builder textComponent = initNewSkillTextComponent(skillName, abstractSubSkill.getSubSkillType(), rank, isUnlocked(rank));
 
         //Insertion
         textComponent.insertion(skillName);
@@ -279,10 +285,19 @@ public class TextComponentFactory {
         return textComponent.build();
     }
 
-    private static TextComponent.Builder initNewSkillTextComponent(Player player, String skillName, SubSkillType subSkillType, boolean skillUnlocked) {
+    /**
+     * @param rank the rank of a player in a subskill
+     * @return true if that rank unlocks the subskill, -1 means the subskill has no ranks and is always unlocked
+     */
+    private static boolean isUnlocked(int rank)
+    {
+        return rank == -1 || rank >= 1;
+    }
+
+    private static TextComponent.Builder initNewSkillTextComponent(String skillName, SubSkillType subSkillType, int rank, boolean skillUnlocked) {
         TextComponent.Builder textComponent;
         if (skillUnlocked) {
-            if (RankUtils.getHighestRank(subSkillType) == RankUtils.getRank(player, subSkillType) && subSkillType.getNumRanks() > 1)
+            if (RankUtils.getHighestRank(subSkillType) == rank && subSkillType.getNumRanks() > 1)
                 textComponent = Component.text().content(LocaleLoader.getString("JSON.Hover.MaxRankSkillName", skillName));
             else
                 textComponent = Component.text().content(LocaleLoader.getString("JSON.Hover.SkillName", skillName));
@@ -303,18 +318,39 @@ public class TextComponentFactory {
         return getSubSkillHoverEventJSON(abstractSubSkill, player);
     }
 
-    private static Component getSubSkillHoverComponent(Player player, SubSkillType subSkillType)
+    private static Component getSubSkillHoverComponent(SubSkillType subSkillType, int rank)
     {
-        return getSubSkillHoverEventJSON(subSkillType, player);
+        return SubSkillComponentCache.getHoverComponent(subSkillType, rank, cachedRank -> getSubSkillHoverEventJSON(subSkillType, cachedRank));
     }
 
     /**
      * Used for the skill in the new skill system (Deriving from AbstractSubSkill)
+     * Everything but the stats is the same for every player with the same rank, so only the stats are added per player
      * @param abstractSubSkill this subskill
      * @param player the player who owns this subskill
      * @return the hover basecomponent object for this subskill
      */
     private static Component getSubSkillHoverEventJSON(AbstractSubSkill abstractSubSkill, Player player)
+    {
+        SubSkillType subSkillType = abstractSubSkill.getSubSkillType();
+        int nameRank = RankUtils.getRank(player, subSkillType);
+        int curRank = RankUtils.getRank(player, abstractSubSkill);
+
+        //The name is styled by the rank of the subskill type, only share components when both ranks agree
+        TextComponent hoverComponent = nameRank == curRank
+                ? SubSkillComponentCache.getHoverComponentWithoutStats(subSkillType, curRank, rank -> buildSubSkillHoverWithoutStats(abstractSubSkill, rank, rank))
+                : buildSubSkillHoverWithoutStats(abstractSubSkill, nameRank, curRank);
+
+        if(!isUnlocked(curRank))
+            return hoverComponent;
+
+        //Finally, add details to the tooltip
+        TextComponent.Builder componentBuilder = hoverComponent.toBuilder();
+        abstractSubSkill.addStats(componentBuilder, player);
+        return componentBuilder.build();
+    }
+
+    private static TextComponent buildSubSkillHoverWithoutStats(AbstractSubSkill abstractSubSkill, int nameRank, int curRank)
     {
         String skillName = abstractSubSkill.getNiceName();
 
@@ -334,9 +370,9 @@ public class TextComponentFactory {
         SubSkillType subSkillType = abstractSubSkill.getSubSkillType();
 
         //SubSkillType Name
-        TextComponent.Builder componentBuilder = setupSkillComponentNameStyle(player, skillName, subSkillType, RankUtils.hasUnlockedSubskill(player, abstractSubSkill));
+        TextComponent.Builder componentBuilder = setupSkillComponentNameStyle(skillName, subSkillType, nameRank, isUnlocked(curRank));
 
-        if(!RankUtils.hasUnlockedSubskill(player, abstractSubSkill))
+        if(!isUnlocked(curRank))
         {
             //Skill is not unlocked yet
             addLocked(abstractSubSkill, ccLocked, ccLevelRequirement, ccLevelRequired, componentBuilder);
@@ -344,7 +380,6 @@ public class TextComponentFactory {
             addSubSkillTypeToHoverEventJSON(abstractSubSkill, componentBuilder);
 
             //RANK
-            int curRank = RankUtils.getRank(player, abstractSubSkill);
             int nextRank = 0;
 
             if(curRank < abstractSubSkill.getNumRanks() && abstractSubSkill.getNumRanks() > 0)
@@ -352,7 +387,7 @@ public class TextComponentFactory {
                 nextRank = RankUtils.getRankUnlockLevel(abstractSubSkill, curRank+1);
             }
 
-            addRanked(ccRank, ccCurRank, ccPossessive, ccCurRank, componentBuilder, abstractSubSkill.getNumRanks(), RankUtils.getRank(player, abstractSubSkill), nextRank);
+            addRanked(ccRank, ccCurRank, ccPossessive, ccCurRank, componentBuilder, abstractSubSkill.getNumRanks(), curRank, nextRank);
 
             componentBuilder.append(Component.text(LocaleLoader.getString("JSON.DescriptionHeader")));
             componentBuilder.append(Component.newline()).append(Component.text(abstractSubSkill.getDescription())).append(Component.newline());
@@ -360,18 +395,15 @@ public class TextComponentFactory {
             //Empty line
             componentBuilder.append(Component.newline()).decoration(TextDecoration.BOLD, false);
             componentBuilder.append(Component.newline());
-
-            //Finally, add details to the tooltip
-            abstractSubSkill.addStats(componentBuilder, player);
         }
 
         return componentBuilder.build();
     }
 
-    private static TextComponent.Builder setupSkillComponentNameStyle(Player player, String skillName, SubSkillType subSkillType, boolean skillUnlocked) {
+    private static TextComponent.Builder setupSkillComponentNameStyle(String skillName, SubSkillType subSkillType, int rank, boolean skillUnlocked) {
         TextComponent.Builder componentBuilder;
         if (skillUnlocked) {
-            if (RankUtils.getHighestRank(subSkillType) == RankUtils.getRank(player, subSkillType) && subSkillType.getNumRanks() > 1)
+            if (RankUtils.getHighestRank(subSkillType) == rank && subSkillType.getNumRanks() > 1)
                 componentBuilder = getNewComponentBuilder(LocaleLoader.getString("JSON.Hover.MaxRankSkillName", skillName));
             else
                 componentBuilder = getNewComponentBuilder(LocaleLoader.getString("JSON.Hover.SkillName", skillName));
@@ -420,7 +452,7 @@ public class TextComponentFactory {
     }
 
     @Deprecated
-    private static Component getSubSkillHoverEventJSON(SubSkillType subSkillType, Player player)
+    private static Component getSubSkillHoverEventJSON(SubSkillType subSkillType, int curRank)
     {
         String skillName = subSkillType.getLocaleName();
 
@@ -438,9 +470,9 @@ public class TextComponentFactory {
         TextColor ccLevelRequired       = NamedTextColor.RED;
 
         //SubSkillType Name
-        TextComponent.Builder componentBuilder = setupSkillComponentNameStyle(player, skillName, subSkillType, RankUtils.hasUnlockedSubskill(player, subSkillType));
+        TextComponent.Builder componentBuilder = setupSkillComponentNameStyle(skillName, subSkillType, curRank, isUnlocked(curRank));
 
-        if(!RankUtils.hasUnlockedSubskill(player, subSkillType))
+        if(!isUnlocked(curRank))
         {
             //Skill is not unlocked yet
             addLocked(subSkillType, ccLocked, ccLevelRequirement, ccLevelRequired, componentBuilder);
@@ -450,7 +482,6 @@ public class TextComponentFactory {
             //RANK
             if(subSkillType.getNumRanks() > 0)
             {
-                int curRank = RankUtils.getRank(player, subSkillType);
                 int nextRank = 0;
 
                 if(curRank < subSkillType.getNumRanks())
@@ -458,7 +489,7 @@ public class TextComponentFactory {
                     nextRank = RankUtils.getRankUnlockLevel(subSkillType, curRank+1);
                 }
 
-                addRanked(ccRank, ccCurRank, ccPossessive, ccCurRank, componentBuilder, subSkillType.getNumRanks(), RankUtils.getRank(player, subSkillType), nextRank);
+                addRanked(ccRank, ccCurRank, ccPossessive, ccCurRank, componentBuilder, subSkillType.getNumRanks(), curRank, nextRank);
 
             }
 
@@ -489,38 +520,32 @@ public class TextComponentFactory {
     }
 
     public static void getSubSkillTextComponents(Player player, List<Component> textComponents, PrimarySkillType parentSkill) {
-        for(SubSkillType subSkillType : SubSkillType.values())
+        for(SubSkillType subSkillType : SubSkillComponentCache.getSubSkillTypes(parentSkill))
         {
-            if(subSkillType.getParentSkill() == parentSkill)
-            {
-                //TODO: Hacky rewrite later
-                //Only some versions of MC have this skill
-                if(subSkillType == SubSkillType.FISHING_MASTER_ANGLER && mcMMO.getCompatibilityManager().getMasterAnglerCompatibilityLayer() == null)
-                    continue;
-
-                if(Permissions.isSubSkillEnabled(player, subSkillType))
-                {
-                    if(!InteractionManager.hasSubSkill(subSkillType))
-                        textComponents.add(TextComponentFactory.getSubSkillTextComponent(player, subSkillType));
-                }
-            }
+            if(Permissions.isSubSkillEnabled(player, subSkillType))
+                textComponents.add(TextComponentFactory.getSubSkillTextComponent(player, subSkillType));
         }
 
         /* NEW SKILL SYSTEM */
-        for(AbstractSubSkill abstractSubSkill : InteractionManager.getSubSkillList())
+        for(AbstractSubSkill abstractSubSkill : SubSkillComponentCache.getAbstractSubSkills(parentSkill))
         {
-            if(abstractSubSkill.getPrimarySkill() == parentSkill)
-            {
-                if(Permissions.isSubSkillEnabled(player, abstractSubSkill))
-                    textComponents.add(TextComponentFactory.getSubSkillTextComponent(player, abstractSubSkill));
-            }
+            if(Permissions.isSubSkillEnabled(player, abstractSubSkill))
+                textComponents.add(TextComponentFactory.getSubSkillTextComponent(player, abstractSubSkill));
         }
     }
 
+    /**
+     * Throws away the cached subskill components, they have to be built again after the locale or the ranks change
+     */
+    public static void clearSubSkillComponentCache() {
+        SubSkillComponentCache.clear();
+    }
+
     public static TextComponent getSubSkillUnlockedNotificationComponents(Player player, SubSkillType subSkillType)
     {
-        TextComponent.Builder unlockMessage = Component.text().content(LocaleLoader.getString("JSON.SkillUnlockMessage", subSkillType.getLocaleName(), RankUtils.getRank(player, subSkillType)));
-        unlockMessage.hoverEvent(HoverEvent.showText(getSubSkillHoverComponent(player, subSkillType)));
+        int rank = RankUtils.getRank(player, subSkillType);
+        TextComponent.Builder unlockMessage = Component.text().content(LocaleLoader.getString("JSON.SkillUnlockMessage", subSkillType.getLocaleName(), rank));
+        unlockMessage.hoverEvent(HoverEvent.showText(getSubSkillHoverComponent(subSkillType, rank)));
         unlockMessage.clickEvent(ClickEvent.runCommand("/"+subSkillType.getParentSkill().toString().toLowerCase(Locale.ENGLISH)));
         return unlockMessage.build();
     }
@@ -0,0 +1,136 @@
+package com.gmail.nossr50.worldguard;
+
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.bukkit.WorldGuardPlugin;
+import com.sk89q.worldguard.protection.flags.StateFlag;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.RegionQuery;
+import com.sk89q.worldguard.protection.regions.RegionType;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the state of mcMMO flags for each player in the chunk they are standing in
+ * States are only cached in chunks where every region covers either the whole chunk or none of it, as only then is the state
+ * the same everywhere in the chunk. Region and membership changes are picked up once the cached states expire.
+ */
+class WorldGuardFlagCache {
+    private static final long CACHE_TTL_MILLIS = 5000;
+    private static final byte STATE_UNKNOWN = 0;
+    private static final byte STATE_ALLOW = 1;
+    private static final byte STATE_DENY = 2;
+
+    private final @NotNull StateFlag[] flags;
+    private final @NotNull Map<UUID, ChunkFlagStates> statesByPlayer = new ConcurrentHashMap<>();
+
+    WorldGuardFlagCache(@NotNull StateFlag... flags) {
+        this.flags = flags;
+    }
+
+    boolean testState(@NotNull Player player, @NotNull StateFlag flag) {
+        Location location = player.getLocation();
+        World world = location.getWorld();
+        int flagIndex = indexOf(flag);
+
+        //Above the build limit the chunk regions say nothing about the location
+        if(world == null || flagIndex == -1 || location.getBlockY() < 0 || location.getBlockY() >= world.getMaxHeight())
+            return query(player, location, flag);
+
+        int chunkX = location.getBlockX() >> 4;
+        int chunkZ = location.getBlockZ() >> 4;
+        long now = System.currentTimeMillis();
+        ChunkFlagStates chunkFlagStates = statesByPlayer.get(player.getUniqueId());
+
+        if(chunkFlagStates == null || !chunkFlagStates.isValidFor(world, chunkX, chunkZ, now)) {
+            chunkFlagStates = new ChunkFlagStates(world.getUID(), chunkX, chunkZ, now + CACHE_TTL_MILLIS, isUniform(world, chunkX, chunkZ), flags.length);
+            statesByPlayer.put(player.getUniqueId(), chunkFlagStates);
+        }
+
+        if(!chunkFlagStates.uniform)
+            return query(player, location, flag);
+
+        byte state = chunkFlagStates.states[flagIndex];
+
+        if(state == STATE_UNKNOWN) {
+            state = query(player, location, flag) ? STATE_ALLOW : STATE_DENY;
+            chunkFlagStates.states[flagIndex] = state;
+        }
+
+        return state == STATE_ALLOW;
+    }
+
+    void invalidate(@NotNull UUID uuid) {
+        statesByPlayer.remove(uuid);
+    }
+
+    private int indexOf(@NotNull StateFlag flag) {
+        for(int i = 0; i < flags.length; i++) {
+            if(flags[i] == flag)
+                return i;
+        }
+
+        return -1;
+    }
+
+    private boolean query(@NotNull Player player, @NotNull Location location, @NotNull StateFlag flag) {
+        RegionQuery query = WorldGuard.getInstance().getPlatform().getRegionContainer().createQuery();
+        return query.testState(BukkitAdapter.adapt(location), WorldGuardPlugin.inst().wrapPlayer(player), flag);
+    }
+
+    /**
+     * Whether or not every region touching a chunk covers all of it
+     * Only cuboids are checked exactly, any other shape touching the chunk makes it non-uniform
+     */
+    private boolean isUniform(@NotNull World world, int chunkX, int chunkZ) {
+        RegionManager regionManager = WorldGuard.getInstance().getPlatform().getRegionContainer().get(BukkitAdapter.adapt(world));
+
+        if(regionManager == null)
+            return true;
+
+        BlockVector3 min = BlockVector3.at(chunkX << 4, 0, chunkZ << 4);
+        BlockVector3 max = BlockVector3.at((chunkX << 4) + 15, world.getMaxHeight() - 1, (chunkZ << 4) + 15);
+        ProtectedCuboidRegion chunkRegion = new ProtectedCuboidRegion("mcmmo_chunk", min, max);
+
+        for(ProtectedRegion region : regionManager.getApplicableRegions(chunkRegion)) {
+            if(region.getType() == RegionType.GLOBAL)
+                continue;
+
+            if(region.getType() != RegionType.CUBOID || !region.contains(min) || !region.contains(max))
+                return false;
+        }
+
+        return true;
+    }
+
+    private static class ChunkFlagStates {
+        private final @NotNull UUID worldUUID;
+        private final int chunkX;
+        private final int chunkZ;
+        private final long expiresAtMillis;
+        private final boolean uniform;
+        private final byte[] states;
+
+        private ChunkFlagStates(@NotNull UUID worldUUID, int chunkX, int chunkZ, long expiresAtMillis, boolean uniform, int flagCount) {
+            this.worldUUID = worldUUID;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.expiresAtMillis = expiresAtMillis;
+            this.uniform = uniform;
+            this.states = new byte[flagCount];
+        }
+
+        private boolean isValidFor(@NotNull World world, int chunkX, int chunkZ, long now) {
+            return this.chunkX == chunkX && this.chunkZ == chunkZ && expiresAtMillis > now && worldUUID.equals(world.getUID());
+        }
+    }
+}
@@ -1,21 +1,21 @@
 package com.gmail.nossr50.worldguard;
 
 import com.gmail.nossr50.mcMMO;
-import com.sk89q.worldedit.bukkit.BukkitAdapter;
-import com.sk89q.worldedit.bukkit.BukkitPlayer;
 import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.bukkit.WorldGuardPlugin;
 import com.sk89q.worldguard.protection.flags.registry.FlagConflictException;
 import com.sk89q.worldguard.protection.flags.registry.FlagRegistry;
-import com.sk89q.worldguard.protection.regions.RegionQuery;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
 
 import static org.bukkit.Bukkit.getServer;
 
 public class WorldGuardManager {
     private static WorldGuardManager instance;
     private WorldGuardPlugin worldGuardPluginRef;
+    private final WorldGuardFlagCache flagCache = new WorldGuardFlagCache(WorldGuardFlags.MCMMO_ENABLE_WG_FLAG,
+            WorldGuardFlags.MCMMO_XP_WG_FLAG, WorldGuardFlags.MCMMO_HARDCORE_WG_FLAG);
 
     public static WorldGuardManager getInstance() {
         if(instance == null)
@@ -29,15 +29,7 @@ public class WorldGuardManager {
         if(player == null)
             return false;
 
-        BukkitPlayer localPlayer = BukkitAdapter.adapt(player);
-        com.sk89q.worldedit.util.Location loc = localPlayer.getLocation();
-
-        //WorldGuardPlugin worldGuard = getWorldGuard();
-        RegionQuery query = WorldGuard.getInstance().getPlatform().getRegionContainer().createQuery();
-
-        //ApplicableRegionSet set = query.getApplicableRegions(loc);
-
-        return query.testState(loc, WorldGuardPlugin.inst().wrapPlayer(player), WorldGuardFlags.MCMMO_ENABLE_WG_FLAG);
+        return flagCache.testState(player, WorldGuardFlags.MCMMO_ENABLE_WG_FLAG);
     }
 
     public boolean hasXPFlag(Player player)
@@ -45,15 +37,7 @@ public class WorldGuardManager {
         if(player == null)
             return false;
 
-        BukkitPlayer localPlayer = BukkitAdapter.adapt(player);
-        com.sk89q.worldedit.util.Location loc = localPlayer.getLocation();
-
-        //WorldGuardPlugin worldGuard = getWorldGuard();
-        RegionQuery query = WorldGuard.getInstance().getPlatform().getRegionContainer().createQuery();
-
-        //ApplicableRegionSet set = query.getApplicableRegions(loc);
-
-        return query.testState(loc, WorldGuardPlugin.inst().wrapPlayer(player), WorldGuardFlags.MCMMO_XP_WG_FLAG);
+        return flagCache.testState(player, WorldGuardFlags.MCMMO_XP_WG_FLAG);
     }
 
     public boolean hasHardcoreFlag(Player player)
@@ -61,15 +45,15 @@ public class WorldGuardManager {
         if(player == null)
             return false;
 
-        BukkitPlayer localPlayer = BukkitAdapter.adapt(player);
-        com.sk89q.worldedit.util.Location loc = localPlayer.getLocation();
-
-        //WorldGuardPlugin worldGuard = getWorldGuard();
-        RegionQuery query = WorldGuard.getInstance().getPlatform().getRegionContainer().createQuery();
-
-        //ApplicableRegionSet set = query.getApplicableRegions(loc);
+        return flagCache.testState(player, WorldGuardFlags.MCMMO_HARDCORE_WG_FLAG);
+    }
 
-        return query.testState(loc, WorldGuardPlugin.inst().wrapPlayer(player), WorldGuardFlags.MCMMO_HARDCORE_WG_FLAG);
+    /**
+     * Forget the cached flag states of a player, called when they leave
+     */
+    public void invalidateFlagCache(@NotNull Player player)
+    {
+        flagCache.invalidate(player.getUniqueId());
     }
 
     private WorldGuardPlugin getWorldGuard() {
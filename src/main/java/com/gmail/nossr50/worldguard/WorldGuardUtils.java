@@ -27,6 +27,9 @@ public class WorldGuardUtils {
             com.sk89q.worldguard.protection.flags.registry.FlagRegistry
             com.sk89q.worldguard.protection.regions.RegionContainer
             com.sk89q.worldguard.protection.regions.RegionQuery
+            com.sk89q.worldguard.protection.managers.RegionManager
+            com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion
+            com.sk89q.worldedit.math.BlockVector3
          */
 
         WGClassList = new ArrayList<>();
@@ -38,6 +41,9 @@ public class WorldGuardUtils {
         WGClassList.add("com.sk89q.worldguard.protection.flags.registry.FlagRegistry");
         WGClassList.add("com.sk89q.worldguard.protection.regions.RegionContainer");
         WGClassList.add("com.sk89q.worldguard.protection.regions.RegionQuery");
+        WGClassList.add("com.sk89q.worldguard.protection.managers.RegionManager");
+        WGClassList.add("com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion");
+        WGClassList.add("com.sk89q.worldedit.math.BlockVector3");
     }
 
     public static boolean isWorldGuardLoaded()
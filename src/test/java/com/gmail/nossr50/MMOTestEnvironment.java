@@ -0,0 +1,264 @@
+package com.gmail.nossr50;
+
+import com.gmail.nossr50.config.Config;
+import com.gmail.nossr50.config.ConfigLoader;
+import com.gmail.nossr50.datatypes.player.McMMOPlayer;
+import com.gmail.nossr50.datatypes.player.PlayerProfile;
+import com.gmail.nossr50.runnables.skills.AbilityWorkQueueTask;
+import com.gmail.nossr50.util.MaterialMapStore;
+import com.gmail.nossr50.util.ModManager;
+import com.gmail.nossr50.util.NearbyEntityIndex;
+import com.gmail.nossr50.util.TransientMetadataTools;
+import com.gmail.nossr50.util.blockmeta.chunkmeta.HashChunkManager;
+import com.gmail.nossr50.util.experience.FormulaManager;
+import com.gmail.nossr50.util.metrics.MetricsRegistry;
+import com.gmail.nossr50.util.platform.PlatformManager;
+import com.gmail.nossr50.util.player.UserManager;
+import com.gmail.nossr50.util.skills.SmeltingTracker;
+import com.gmail.nossr50.util.upgrade.UpgradeManager;
+import net.kyori.adventure.platform.bukkit.BukkitAudiences;
+import org.bukkit.*;
+import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.metadata.FixedMetadataValue;
+import org.bukkit.metadata.MetadataValue;
+import org.bukkit.plugin.SimplePluginManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * A mocked mcMMO for tests and benchmarks that need the configs or the database managers without a server
+ * The configs are the defaults from the jar, saved to a temporary data folder the first time they're loaded.
+ * The config loaders remember the plugin statically, so there is only ever one per JVM.
+ * Benchmarks of the listeners also call {@link #getServer()}, which mocks just enough of Bukkit for a player to break
+ * blocks and hit mobs. Events go through a real plugin manager with nothing listening.
+ */
+public final class MMOTestEnvironment {
+    private static mcMMO plugin;
+    private static File dataFolder;
+    private static Server server;
+
+    private MMOTestEnvironment() {}
+
+    public static synchronized mcMMO getPlugin() {
+        if (plugin != null) {
+            return plugin;
+        }
+
+        try {
+            dataFolder = Files.createTempDirectory("mcmmo-test").toFile();
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Could not create a data folder for the tests", e);
+        }
+
+        dataFolder.deleteOnExit();
+
+        plugin = mock(mcMMO.class);
+        Logger logger = Logger.getLogger("mcMMO");
+
+        when(plugin.getName()).thenReturn("mcMMO");
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getLogger()).thenReturn(logger);
+        when(plugin.getResource(anyString())).thenAnswer(invocation -> getResource(invocation.getArgument(0)));
+        when(plugin.getResourceAsReader(anyString())).thenCallRealMethod();
+        doAnswer(invocation -> {
+            saveResource(invocation.getArgument(0));
+            return null;
+        }).when(plugin).saveResource(anyString(), anyBoolean());
+
+        mcMMO.p = plugin;
+        setStaticField("upgradeManager", mock(UpgradeManager.class));
+        useFreshFlatFileDirectory();
+
+        return plugin;
+    }
+
+    /**
+     * Point the flatfile and SQLite databases at a new, empty directory
+     *
+     * @return the new directory
+     */
+    public static synchronized File useFreshFlatFileDirectory() {
+        getPlugin();
+
+        File flatFileDirectory;
+
+        try {
+            flatFileDirectory = Files.createTempDirectory(dataFolder.toPath(), "flatfile").toFile();
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Could not create a flatfile directory for the tests", e);
+        }
+
+        setStaticField("flatFileDirectory", flatFileDirectory.getPath() + File.separator);
+        setStaticField("usersFile", new File(flatFileDirectory, "mcmmo.users").getPath());
+        return flatFileDirectory;
+    }
+
+    /**
+     * Mock the server and start the managers the listeners use, the way mcMMO does when it enables
+     *
+     * @return the mocked server
+     */
+    public static synchronized Server getServer() {
+        getPlugin();
+
+        if (server != null) {
+            return server;
+        }
+
+        server = mock(Server.class, RETURNS_DEEP_STUBS);
+        Logger logger = Logger.getLogger("Minecraft");
+
+        when(server.getLogger()).thenReturn(logger);
+        when(server.getName()).thenReturn("MockServer");
+        when(server.getVersion()).thenReturn("1.16.4");
+        when(server.getBukkitVersion()).thenReturn("1.16.4-R0.1-SNAPSHOT");
+        when(server.isPrimaryThread()).thenReturn(true);
+        doReturn(Collections.emptyList()).when(server).getOnlinePlayers();
+        when(server.getWorlds()).thenReturn(Collections.emptyList());
+        when(server.getPluginManager()).thenReturn(new SimplePluginManager(server, new SimpleCommandMap(server)));
+        Bukkit.setServer(server);
+        when(plugin.getServer()).thenReturn(server);
+
+        setStaticField("localesDirectory", dataFolder.getPath() + File.separator + "locales" + File.separator);
+        setStaticField("platformManager", mock(PlatformManager.class, RETURNS_DEEP_STUBS));
+        setStaticField("audiences", mock(BukkitAudiences.class, RETURNS_DEEP_STUBS));
+        setStaticField("metricsRegistry", new MetricsRegistry(false, 1));
+        setStaticField("modManager", new ModManager());
+        setStaticField("materialMapStore", new MaterialMapStore());
+        setStaticField("formulaManager", new FormulaManager());
+        setStaticField("placeStore", new HashChunkManager());
+        setStaticField("smeltingTracker", new SmeltingTracker());
+        setStaticField("nearbyEntityIndex", new NearbyEntityIndex());
+        setStaticField("transientMetadataTools", new TransientMetadataTools(plugin));
+        setStaticField("abilityWorkQueue", new AbilityWorkQueueTask(false, 0));
+
+        return server;
+    }
+
+    /**
+     * @return a mocked world saving its mcMMO region files to a temporary folder
+     */
+    public static World createWorld(String name) {
+        getServer();
+
+        World world = mock(World.class, RETURNS_DEEP_STUBS);
+        File worldFolder = new File(dataFolder, "worlds" + File.separator + name);
+        worldFolder.mkdirs();
+
+        when(world.getName()).thenReturn(name);
+        when(world.getUID()).thenReturn(UUID.nameUUIDFromBytes(name.getBytes()));
+        when(world.getWorldFolder()).thenReturn(worldFolder);
+        when(world.getMaxHeight()).thenReturn(256);
+        when(world.getEnvironment()).thenReturn(World.Environment.NORMAL);
+        return world;
+    }
+
+    /**
+     * Mock an online survival player with every permission, holding the given item, and load a new mcMMO profile for them
+     *
+     * @return the player's McMMOPlayer, {@link McMMOPlayer#getPlayer()} is the mocked player
+     */
+    public static McMMOPlayer createPlayer(String name, World world, ItemStack heldItem) {
+        getServer();
+
+        Player player = mock(Player.class, RETURNS_DEEP_STUBS);
+        UUID uuid = UUID.nameUUIDFromBytes(name.getBytes());
+        PlayerInventory inventory = mock(PlayerInventory.class, RETURNS_DEEP_STUBS);
+        Location location = new Location(world, 0.5, 64, 0.5);
+
+        when(player.getName()).thenReturn(name);
+        when(player.getDisplayName()).thenReturn(name);
+        when(player.getUniqueId()).thenReturn(uuid);
+        when(player.getType()).thenReturn(EntityType.PLAYER);
+        when(player.getGameMode()).thenReturn(GameMode.SURVIVAL);
+        when(player.getWorld()).thenReturn(world);
+        when(player.getLocation()).thenReturn(location);
+        when(player.getServer()).thenReturn(server);
+        when(player.isOnline()).thenReturn(true);
+        when(player.isValid()).thenReturn(true);
+        when(player.getHealth()).thenReturn(20.0);
+        when(player.hasPermission(anyString())).thenReturn(true);
+        when(player.isPermissionSet(anyString())).thenReturn(true);
+        when(player.getInventory()).thenReturn(inventory);
+        when(inventory.getItemInMainHand()).thenReturn(heldItem);
+        when(inventory.getItemInOffHand()).thenReturn(new ItemStack(Material.AIR));
+
+        McMMOPlayer mcMMOPlayer = new McMMOPlayer(player, new PlayerProfile(name, uuid, true));
+        when(player.hasMetadata(anyString())).thenReturn(false);
+        when(player.getMetadata(anyString())).thenReturn(Collections.emptyList());
+        when(player.hasMetadata(mcMMO.playerDataKey)).thenReturn(true);
+        when(player.getMetadata(mcMMO.playerDataKey)).thenReturn(Collections.<MetadataValue>singletonList(new FixedMetadataValue(plugin, mcMMOPlayer)));
+        UserManager.track(mcMMOPlayer);
+
+        return mcMMOPlayer;
+    }
+
+    /**
+     * Change a setting of the loaded config.yml and rebuild its snapshot, the file on disk is left as it is
+     */
+    public static void setConfigValue(String path, Object value) {
+        getPlugin();
+
+        Config config = Config.getInstance();
+
+        try {
+            Field field = ConfigLoader.class.getDeclaredField("config");
+            field.setAccessible(true);
+            ((FileConfiguration) field.get(config)).set(path, value);
+
+            Method loadKeys = Config.class.getDeclaredMethod("loadKeys");
+            loadKeys.setAccessible(true);
+            loadKeys.invoke(config);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not set " + path + " in config.yml", e);
+        }
+    }
+
+    private static InputStream getResource(String fileName) {
+        return MMOTestEnvironment.class.getClassLoader().getResourceAsStream(fileName.replace('\\', '/'));
+    }
+
+    private static void saveResource(String fileName) throws IOException {
+        try (InputStream in = getResource(fileName)) {
+            if (in == null) {
+                throw new IllegalArgumentException("The embedded resource '" + fileName + "' cannot be found");
+            }
+
+            File outFile = new File(dataFolder, fileName);
+            outFile.getParentFile().mkdirs();
+            Files.copy(in, outFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void setStaticField(String name, Object value) {
+        try {
+            Field field = mcMMO.class.getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(null, value);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not set mcMMO." + name, e);
+        }
+    }
+}
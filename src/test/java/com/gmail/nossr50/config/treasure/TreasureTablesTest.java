@@ -0,0 +1,143 @@
+package com.gmail.nossr50.config.treasure;
+
+import com.gmail.nossr50.util.random.AliasTable;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static com.gmail.nossr50.util.random.WeightedDraws.DRAWS;
+import static com.gmail.nossr50.util.random.WeightedDraws.assertDrawsMatchWeights;
+import static com.gmail.nossr50.util.random.WeightedDraws.assertWithinTolerance;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TreasureTablesTest {
+    @Test
+    public void fishingRaritiesMatchTheDiceRoll() {
+        double[] dropRates = {0.01, 0.1, 1.5, 7.5, 12.5, 40};
+
+        assertFishingRaritiesMatchTheDiceRoll(dropRates, 1.0);
+        assertFishingRaritiesMatchTheDiceRoll(dropRates, 0.85);
+        // The roll is scaled below the cumulative drop rates, the rarest rarities take everything
+        assertFishingRaritiesMatchTheDiceRoll(dropRates, 0.05);
+    }
+
+    @Test
+    public void fishingRaritiesWithZeroRates() {
+        double[] dropRates = {0, 0, 5, 0, 20, 0};
+        double[] weights = TreasureTables.getFishingRarityWeights(dropRates, 1.0);
+
+        assertArrayEquals(new double[] {0, 0, 5, 0, 20, 0, 75}, weights, 1e-9);
+        assertFishingRaritiesMatchTheDiceRoll(dropRates, 1.0);
+    }
+
+    @Test
+    public void fishingRaritiesWithNoDropRates() {
+        double[] weights = TreasureTables.getFishingRarityWeights(new double[6], 1.0);
+
+        assertArrayEquals(new double[] {0, 0, 0, 0, 0, 0, 100}, weights, 1e-9);
+    }
+
+    @Test
+    public void fishingRollScaledToZeroAlwaysGivesTheFirstRarity() {
+        double[] dropRates = {0, 0.1, 1.5, 7.5, 12.5, 40};
+
+        for (double scale : new double[] {0, -0.5}) {
+            double[] weights = TreasureTables.getFishingRarityWeights(dropRates, scale);
+            AliasTable aliasTable = new AliasTable(weights);
+            Random random = new Random(42);
+
+            assertArrayEquals(new double[] {1, 0, 0, 0, 0, 0, 0}, weights, 0);
+
+            for (int i = 0; i < 10000; i++) {
+                assertEquals(0, aliasTable.sample(random));
+            }
+        }
+    }
+
+    @Test
+    public void shakeWeightsMatchTheDiceRoll() {
+        assertShakeWeightsMatchTheDiceRoll(new double[] {10.5, 20, 0, 80});
+        assertShakeWeightsMatchTheDiceRoll(new double[] {0.5, 0.25, 33.3, 15});
+        assertShakeWeightsMatchTheDiceRoll(new double[] {100});
+        assertShakeWeightsMatchTheDiceRoll(new double[] {0, 0});
+        assertShakeWeightsMatchTheDiceRoll(new double[] {150, 25});
+    }
+
+    @Test
+    public void singleShakeTreasure() {
+        double[] weights = TreasureTables.getShakeWeights(new double[] {25});
+
+        assertArrayEquals(new double[] {25, 75}, weights, 0);
+        assertDrawsMatchWeights(new AliasTable(weights), weights);
+    }
+
+    /**
+     * The dice roll the alias tables replace, a roll from 0 to 100 scaled by luck that falls into the cumulative drop rates
+     */
+    private static int rollFishingRarity(double[] dropRates, double scale, Random random) {
+        double diceRoll = random.nextDouble() * 100 * scale;
+
+        for (int i = 0; i < dropRates.length; i++) {
+            if (diceRoll <= dropRates[i]) {
+                return i;
+            }
+
+            diceRoll -= dropRates[i];
+        }
+
+        return dropRates.length;
+    }
+
+    private static void assertFishingRaritiesMatchTheDiceRoll(double[] dropRates, double scale) {
+        double[] weights = TreasureTables.getFishingRarityWeights(dropRates, scale);
+        int[] rolled = new int[dropRates.length + 1];
+        Random random = new Random(4321);
+
+        for (int i = 0; i < DRAWS; i++) {
+            rolled[rollFishingRarity(dropRates, scale, random)]++;
+        }
+
+        double total = 0;
+
+        for (double weight : weights) {
+            total += weight;
+        }
+
+        assertEquals(100 * scale, total, 1e-9);
+
+        for (int i = 0; i < weights.length; i++) {
+            assertWithinTolerance(i, rolled[i], weights[i] / total);
+        }
+
+        assertDrawsMatchWeights(new AliasTable(weights), weights);
+    }
+
+    /**
+     * Every whole number the Shake roll can give lands on exactly one outcome, so the weights must be exact counts
+     */
+    private static void assertShakeWeightsMatchTheDiceRoll(double[] dropChances) {
+        double[] expected = new double[dropChances.length + 1];
+
+        for (int dropProbability = 0; dropProbability < 100; dropProbability++) {
+            double cumulatedProbability = 0;
+            int outcome = dropChances.length;
+
+            for (int i = 0; i < dropChances.length; i++) {
+                cumulatedProbability += dropChances[i];
+
+                if (dropProbability < cumulatedProbability) {
+                    outcome = i;
+                    break;
+                }
+            }
+
+            expected[outcome]++;
+        }
+
+        double[] weights = TreasureTables.getShakeWeights(dropChances);
+
+        assertArrayEquals(expected, weights, 0);
+        assertDrawsMatchWeights(new AliasTable(weights), weights);
+    }
+}
@@ -0,0 +1,82 @@
+package com.gmail.nossr50.database;
+
+import com.gmail.nossr50.MMOTestEnvironment;
+import com.gmail.nossr50.datatypes.player.PlayerProfile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.gmail.nossr50.database.DatabaseManagerConformanceTest.assertProfilesMatch;
+import static com.gmail.nossr50.database.DatabaseManagerConformanceTest.createProfile;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DatabaseConversionPipelineTest {
+    // More than one batch, with a partial batch at the end
+    private static final int USERS = 620;
+
+    private DatabaseManager flatfile;
+    private DatabaseManager sqlite;
+
+    @BeforeClass
+    public static void setUpPlugin() {
+        MMOTestEnvironment.getPlugin();
+    }
+
+    @Before
+    public void setUpDatabases() {
+        MMOTestEnvironment.useFreshFlatFileDirectory();
+        flatfile = new FlatfileDatabaseManager();
+        sqlite = new SQLiteDatabaseManager();
+    }
+
+    @After
+    public void tearDownDatabases() {
+        flatfile.onDisable();
+        sqlite.onDisable();
+    }
+
+    @Test
+    public void flatfileConvertsToSQLite() {
+        assertConverts(flatfile, sqlite);
+    }
+
+    @Test
+    public void sqliteConvertsToFlatfile() {
+        assertConverts(sqlite, flatfile);
+    }
+
+    @Test
+    public void conversionKeepsUsersAlreadyInTheDestination() {
+        PlayerProfile existing = createProfile("Existing", UUID.randomUUID(), 1);
+        PlayerProfile converted = createProfile("Converted", UUID.randomUUID(), 2);
+
+        assertTrue(flatfile.saveUser(existing));
+        assertTrue(sqlite.saveUser(converted));
+        assertTrue(sqlite.convertUsers(flatfile));
+
+        assertProfilesMatch(existing, flatfile.loadPlayerProfile(existing.getUniqueId()));
+        assertProfilesMatch(converted, flatfile.loadPlayerProfile(converted.getUniqueId()));
+    }
+
+    private static void assertConverts(DatabaseManager source, DatabaseManager destination) {
+        List<PlayerProfile> profiles = new ArrayList<>();
+
+        for (int i = 0; i < USERS; i++) {
+            profiles.add(createProfile("Player" + i, UUID.randomUUID(), i));
+        }
+
+        assertTrue(source.saveUsers(profiles));
+        assertTrue(source.convertUsers(destination));
+        assertEquals(USERS, destination.getStoredUsers().size());
+
+        for (PlayerProfile profile : profiles) {
+            assertProfilesMatch(profile, destination.loadPlayerProfile(profile.getUniqueId()));
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.gmail.nossr50.database;
+
+import com.gmail.nossr50.MMOTestEnvironment;
+import com.gmail.nossr50.datatypes.MobHealthbarType;
+import com.gmail.nossr50.datatypes.player.PlayerProfile;
+import com.gmail.nossr50.datatypes.player.UniqueDataType;
+import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
+import com.gmail.nossr50.datatypes.skills.SuperAbilityType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The behaviour every database backend has to share, so users convert between them without losing anything
+ * Each backend runs these against a fresh database.
+ */
+public abstract class DatabaseManagerConformanceTest {
+    protected DatabaseManager databaseManager;
+
+    @BeforeClass
+    public static void setUpPlugin() {
+        MMOTestEnvironment.getPlugin();
+    }
+
+    @Before
+    public void setUpDatabase() {
+        MMOTestEnvironment.useFreshFlatFileDirectory();
+        databaseManager = createDatabaseManager();
+    }
+
+    @After
+    public void tearDownDatabase() {
+        databaseManager.onDisable();
+    }
+
+    protected abstract DatabaseManager createDatabaseManager();
+
+    @Test
+    public void savedProfileLoadsBackUnchanged() {
+        PlayerProfile profile = createProfile("Steve", UUID.randomUUID(), 1);
+
+        assertTrue(databaseManager.saveUser(profile));
+        assertProfilesMatch(profile, databaseManager.loadPlayerProfile(profile.getPlayerName(), profile.getUniqueId(), false));
+        assertProfilesMatch(profile, databaseManager.loadPlayerProfile(profile.getUniqueId()));
+    }
+
+    @Test
+    public void savingAgainOverwritesTheUser() {
+        UUID uuid = UUID.randomUUID();
+
+        assertTrue(databaseManager.saveUser(createProfile("Steve", uuid, 1)));
+        PlayerProfile profile = createProfile("Steve", uuid, 7);
+        assertTrue(databaseManager.saveUser(profile));
+
+        assertProfilesMatch(profile, databaseManager.loadPlayerProfile("Steve", uuid, false));
+        assertEquals(Collections.singletonList("Steve"), databaseManager.getStoredUsers());
+    }
+
+    @Test
+    public void missingUserIsUnloaded() {
+        assertFalse(databaseManager.loadPlayerProfile("Nobody", UUID.randomUUID(), false).isLoaded());
+        assertTrue(databaseManager.getStoredUsers().isEmpty());
+    }
+
+    @Test
+    public void createdUserStartsAtTheStartingLevel() {
+        UUID uuid = UUID.randomUUID();
+        PlayerProfile profile = databaseManager.loadPlayerProfile("Alex", uuid, true);
+
+        assertTrue(profile.isLoaded());
+        assertEquals(uuid, profile.getUniqueId());
+        assertEquals(Collections.singletonList("Alex"), databaseManager.getStoredUsers());
+
+        PlayerProfile starting = new PlayerProfile("Alex", uuid);
+
+        for (PrimarySkillType primarySkillType : PrimarySkillType.NON_CHILD_SKILLS) {
+            assertEquals(starting.getSkillLevel(primarySkillType), profile.getSkillLevel(primarySkillType));
+            assertEquals(0, profile.getSkillXpLevel(primarySkillType));
+        }
+    }
+
+    @Test
+    public void renamedPlayerKeepsTheirData() {
+        UUID uuid = UUID.randomUUID();
+        PlayerProfile profile = createProfile("OldName", uuid, 3);
+
+        assertTrue(databaseManager.saveUser(profile));
+
+        PlayerProfile renamed = databaseManager.loadPlayerProfile("NewName", uuid, false);
+
+        assertTrue(renamed.isLoaded());
+        assertEquals("NewName", renamed.getPlayerName());
+        assertEquals(profile.getSkillLevel(PrimarySkillType.MINING), renamed.getSkillLevel(PrimarySkillType.MINING));
+    }
+
+    @Test
+    public void removingByUniqueIdLeavesOtherUsers() {
+        PlayerProfile kept = createProfile("Kept", UUID.randomUUID(), 1);
+        PlayerProfile removed = createProfile("Removed", UUID.randomUUID(), 2);
+
+        assertTrue(databaseManager.saveUsers(Arrays.asList(kept, removed)));
+        assertEquals(1, databaseManager.removeUsersByUniqueId(Arrays.asList(removed.getUniqueId(), UUID.randomUUID())));
+
+        assertFalse(databaseManager.loadPlayerProfile(removed.getUniqueId()).isLoaded());
+        assertProfilesMatch(kept, databaseManager.loadPlayerProfile(kept.getUniqueId()));
+    }
+
+    @Test
+    public void readUsersResumesWhereItStopped() {
+        List<PlayerProfile> profiles = new ArrayList<>();
+
+        for (int i = 0; i < 50; i++) {
+            profiles.add(createProfile("Player" + i, UUID.randomUUID(), i));
+        }
+
+        assertTrue(databaseManager.saveUsers(profiles));
+
+        List<PlayerProfile> read = new ArrayList<>();
+        databaseManager.readUsers(0, read::add);
+        assertEquals(profiles.size(), read.size());
+
+        for (int i = 0; i < profiles.size(); i++) {
+            assertProfilesMatch(profiles.get(i), read.get(i));
+        }
+
+        List<PlayerProfile> resumed = new ArrayList<>();
+        databaseManager.readUsers(20, resumed::add);
+        assertEquals(profiles.size() - 20, resumed.size());
+
+        for (int i = 0; i < resumed.size(); i++) {
+            assertProfilesMatch(profiles.get(i + 20), resumed.get(i));
+        }
+    }
+
+    @Test
+    public void fingerprintChangesWithTheUsers() {
+        assertTrue(databaseManager.saveUser(createProfile("First", UUID.randomUUID(), 1)));
+        String fingerprint = databaseManager.getUsersFingerprint();
+
+        assertEquals(fingerprint, databaseManager.getUsersFingerprint());
+        assertTrue(databaseManager.saveUser(createProfile("Second", UUID.randomUUID(), 1)));
+        assertNotEquals(fingerprint, databaseManager.getUsersFingerprint());
+    }
+
+    @Test
+    public void batchSharingAUniqueIdIsStillSaved() {
+        UUID uuid = UUID.randomUUID();
+        PlayerProfile other = createProfile("Other", UUID.randomUUID(), 2);
+
+        assertTrue(databaseManager.saveUsers(Arrays.asList(createProfile("First", uuid, 1), createProfile("Second", uuid, 5), other)));
+        assertTrue(databaseManager.loadPlayerProfile(uuid).isLoaded());
+        assertProfilesMatch(other, databaseManager.loadPlayerProfile(other.getUniqueId()));
+    }
+
+    /**
+     * A profile where every saved value depends on the seed, so two profiles never match by accident
+     */
+    protected static PlayerProfile createProfile(String playerName, UUID uuid, int seed) {
+        Map<PrimarySkillType, Integer> levels = new EnumMap<>(PrimarySkillType.class);
+        Map<PrimarySkillType, Float> xp = new EnumMap<>(PrimarySkillType.class);
+        Map<SuperAbilityType, Integer> cooldowns = new EnumMap<>(SuperAbilityType.class);
+        Map<UniqueDataType, Integer> uniqueData = new EnumMap<>(UniqueDataType.class);
+
+        for (PrimarySkillType primarySkillType : PrimarySkillType.NON_CHILD_SKILLS) {
+            levels.put(primarySkillType, seed * 10 + primarySkillType.ordinal());
+            xp.put(primarySkillType, (float) (seed + primarySkillType.ordinal() * 3));
+        }
+
+        for (SuperAbilityType superAbilityType : SuperAbilityType.values()) {
+            cooldowns.put(superAbilityType, 1600000000 + seed * 100 + superAbilityType.ordinal());
+        }
+
+        uniqueData.put(UniqueDataType.CHIMAERA_WING_DATS, 1600000000 + seed);
+
+        MobHealthbarType[] healthbarTypes = MobHealthbarType.values();
+        return new PlayerProfile(playerName, uuid, levels, xp, cooldowns, healthbarTypes[seed % healthbarTypes.length], seed, uniqueData);
+    }
+
+    protected static void assertProfilesMatch(PlayerProfile expected, PlayerProfile actual) {
+        assertTrue(actual.isLoaded());
+        assertEquals(expected.getPlayerName(), actual.getPlayerName());
+        assertEquals(expected.getUniqueId(), actual.getUniqueId());
+
+        for (PrimarySkillType primarySkillType : PrimarySkillType.NON_CHILD_SKILLS) {
+            assertEquals(primarySkillType.name(), expected.getSkillLevel(primarySkillType), actual.getSkillLevel(primarySkillType));
+            assertEquals(primarySkillType.name(), expected.getSkillXpLevel(primarySkillType), actual.getSkillXpLevel(primarySkillType));
+        }
+
+        for (SuperAbilityType superAbilityType : SuperAbilityType.values()) {
+            assertEquals(superAbilityType.name(), expected.getAbilityDATS(superAbilityType), actual.getAbilityDATS(superAbilityType));
+        }
+
+        assertEquals(expected.getUniqueData(UniqueDataType.CHIMAERA_WING_DATS), actual.getUniqueData(UniqueDataType.CHIMAERA_WING_DATS));
+        assertEquals(expected.getMobHealthbarType(), actual.getMobHealthbarType());
+        assertEquals(expected.getScoreboardTipsShown(), actual.getScoreboardTipsShown());
+    }
+}
@@ -0,0 +1,8 @@
+package com.gmail.nossr50.database;
+
+public class FlatfileDatabaseManagerTest extends DatabaseManagerConformanceTest {
+    @Override
+    protected DatabaseManager createDatabaseManager() {
+        return new FlatfileDatabaseManager();
+    }
+}
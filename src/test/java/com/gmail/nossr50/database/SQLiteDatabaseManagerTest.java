@@ -0,0 +1,51 @@
+package com.gmail.nossr50.database;
+
+import com.gmail.nossr50.datatypes.player.PlayerProfile;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SQLiteDatabaseManagerTest extends DatabaseManagerConformanceTest {
+    @Override
+    protected DatabaseManager createDatabaseManager() {
+        return new SQLiteDatabaseManager();
+    }
+
+    @Test
+    public void profilesSurviveReopeningTheDatabase() {
+        List<PlayerProfile> profiles = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            profiles.add(createProfile("Player" + i, UUID.randomUUID(), i));
+        }
+
+        assertTrue(databaseManager.saveUsers(profiles));
+        databaseManager.onDisable();
+        databaseManager = createDatabaseManager();
+
+        for (PlayerProfile profile : profiles) {
+            assertProfilesMatch(profile, databaseManager.loadPlayerProfile(profile.getPlayerName(), profile.getUniqueId(), false));
+        }
+    }
+
+    @Test
+    public void closedDatabaseFailsWithoutWaiting() {
+        PlayerProfile profile = createProfile("Steve", UUID.randomUUID(), 1);
+
+        assertTrue(databaseManager.saveUser(profile));
+        databaseManager.onDisable();
+
+        long start = System.nanoTime();
+        assertFalse(databaseManager.loadPlayerProfile(profile.getUniqueId()).isLoaded());
+        assertTrue(System.nanoTime() - start < 1000000000L);
+
+        databaseManager = createDatabaseManager();
+        assertEquals(1, databaseManager.getStoredUsers().size());
+    }
+}
@@ -0,0 +1,129 @@
+package com.gmail.nossr50.util.compat.layers.persistentdata;
+
+import com.gmail.nossr50.MMOTestEnvironment;
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs with the default persistent_data.yml, where COTW_SUMMONED_MOB is the only flag saved to disk
+ */
+public class SpigotPersistentDataLayer_1_14Test {
+    private final Map<NamespacedKey, Object> savedData = new HashMap<>();
+    private final Set<String> metadataKeys = new HashSet<>();
+    private PersistentDataContainer persistentDataContainer;
+    private LivingEntity livingEntity;
+    private SpigotPersistentDataLayer_1_14 dataLayer;
+
+    @BeforeClass
+    public static void setUpPlugin() {
+        MMOTestEnvironment.getPlugin();
+    }
+
+    @Before
+    public void setUpEntity() {
+        persistentDataContainer = mock(PersistentDataContainer.class);
+        livingEntity = mock(LivingEntity.class);
+        dataLayer = new SpigotPersistentDataLayer_1_14();
+
+        doAnswer(invocation -> savedData.get(invocation.<NamespacedKey>getArgument(0))).when(persistentDataContainer).get(any(), any());
+        doAnswer(invocation -> savedData.containsKey(invocation.<NamespacedKey>getArgument(0))).when(persistentDataContainer).has(any(), any());
+        doAnswer(invocation -> savedData.put(invocation.getArgument(0), invocation.getArgument(2))).when(persistentDataContainer).set(any(), any(), any());
+        doAnswer(invocation -> savedData.remove(invocation.<NamespacedKey>getArgument(0))).when(persistentDataContainer).remove(any());
+
+        when(livingEntity.getPersistentDataContainer()).thenReturn(persistentDataContainer);
+        when(livingEntity.hasMetadata(anyString())).thenAnswer(invocation -> metadataKeys.contains(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> metadataKeys.add(invocation.getArgument(0))).when(livingEntity).setMetadata(anyString(), any());
+        doAnswer(invocation -> metadataKeys.remove(invocation.<String>getArgument(0))).when(livingEntity).removeMetadata(anyString(), any());
+    }
+
+    @Test
+    public void legacyKeyIsMigratedToTheBitfield() {
+        savedData.put(dataLayer.NSK_COTW_SUMMONED_MOB, (byte) 1);
+
+        assertEquals(MobMetaFlagType.COTW_SUMMONED_MOB.getBit(), dataLayer.getMobFlagBits(livingEntity));
+        assertFalse(savedData.containsKey(dataLayer.NSK_COTW_SUMMONED_MOB));
+        assertEquals(MobMetaFlagType.COTW_SUMMONED_MOB.getBit(), savedData.get(dataLayer.NSK_MOB_FLAGS));
+    }
+
+    @Test
+    public void legacyKeyOfTransientFlagIsLeftAlone() {
+        savedData.put(dataLayer.NSK_EGG_MOB, (byte) 1);
+
+        assertFalse(dataLayer.hasMobFlags(livingEntity));
+        assertTrue(savedData.containsKey(dataLayer.NSK_EGG_MOB));
+        assertFalse(savedData.containsKey(dataLayer.NSK_MOB_FLAGS));
+    }
+
+    @Test
+    public void legacyKeysAreIgnoredOnceTheBitfieldExists() {
+        savedData.put(dataLayer.NSK_MOB_FLAGS, 0);
+        savedData.put(dataLayer.NSK_COTW_SUMMONED_MOB, (byte) 1);
+
+        assertFalse(dataLayer.hasMobFlags(livingEntity));
+        assertTrue(savedData.containsKey(dataLayer.NSK_COTW_SUMMONED_MOB));
+    }
+
+    @Test
+    public void savedBitsOfFlagsNoLongerSavedAreDropped() {
+        savedData.put(dataLayer.NSK_MOB_FLAGS, MobMetaFlagType.COTW_SUMMONED_MOB.getBit() | MobMetaFlagType.EGG_MOB.getBit());
+
+        assertTrue(dataLayer.hasMobFlag(MobMetaFlagType.COTW_SUMMONED_MOB, livingEntity));
+        assertFalse(dataLayer.hasMobFlag(MobMetaFlagType.EGG_MOB, livingEntity));
+    }
+
+    @Test
+    public void flagsAreSavedOrKeptAsMetadata() {
+        dataLayer.flagMetadata(MobMetaFlagType.COTW_SUMMONED_MOB, livingEntity);
+        dataLayer.flagMetadata(MobMetaFlagType.EGG_MOB, livingEntity);
+        dataLayer.flagMetadata(MobMetaFlagType.EGG_MOB, livingEntity);
+
+        assertEquals(MobMetaFlagType.COTW_SUMMONED_MOB.getBit(), savedData.get(dataLayer.NSK_MOB_FLAGS));
+        assertEquals(1, metadataKeys.size());
+        verify(persistentDataContainer, times(1)).set(eq(dataLayer.NSK_MOB_FLAGS), eq(PersistentDataType.INTEGER), any());
+
+        SpigotPersistentDataLayer_1_14 reloadedLayer = new SpigotPersistentDataLayer_1_14();
+        assertEquals(MobMetaFlagType.COTW_SUMMONED_MOB.getBit() | MobMetaFlagType.EGG_MOB.getBit(), reloadedLayer.getMobFlagBits(livingEntity));
+    }
+
+    @Test
+    public void removingAllFlagsClearsTheBitfieldAndMetadata() {
+        dataLayer.flagMetadata(MobMetaFlagType.COTW_SUMMONED_MOB, livingEntity);
+        dataLayer.flagMetadata(MobMetaFlagType.PLAYER_BRED_MOB, livingEntity);
+        dataLayer.removeMobFlags(livingEntity);
+
+        assertFalse(dataLayer.hasMobFlags(livingEntity));
+        assertFalse(savedData.containsKey(dataLayer.NSK_MOB_FLAGS));
+        assertTrue(metadataKeys.isEmpty());
+    }
+
+    @Test
+    public void flagsAreCopiedToAnotherEntity() {
+        LivingEntity targetEntity = mock(LivingEntity.class);
+        PersistentDataContainer targetContainer = mock(PersistentDataContainer.class);
+        when(targetEntity.getPersistentDataContainer()).thenReturn(targetContainer);
+
+        dataLayer.flagMetadata(MobMetaFlagType.COTW_SUMMONED_MOB, livingEntity);
+        dataLayer.addMobFlags(livingEntity, targetEntity);
+
+        assertTrue(dataLayer.hasMobFlag(MobMetaFlagType.COTW_SUMMONED_MOB, targetEntity));
+        verify(targetContainer).set(dataLayer.NSK_MOB_FLAGS, PersistentDataType.INTEGER, MobMetaFlagType.COTW_SUMMONED_MOB.getBit());
+    }
+}
@@ -0,0 +1,146 @@
+package com.gmail.nossr50.util.player;
+
+import com.gmail.nossr50.MMOTestEnvironment;
+import com.gmail.nossr50.datatypes.player.PlayerProfile;
+import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+public class OfflineProfileCacheTest {
+    @BeforeClass
+    public static void setUpPlugin() {
+        MMOTestEnvironment.getPlugin();
+    }
+
+    @After
+    public void restoreConfig() {
+        MMOTestEnvironment.setConfigValue("Offline_Profile_Cache.Max_Profiles", 1000);
+        MMOTestEnvironment.setConfigValue("Offline_Profile_Cache.Expiry_Seconds", 300);
+    }
+
+    @Test
+    public void leastRecentlyUsedProfileIsEvicted() {
+        OfflineProfileCache cache = createCache(3, 300);
+        PlayerProfile first = createProfile("First");
+        PlayerProfile second = createProfile("Second");
+        PlayerProfile third = createProfile("Third");
+        PlayerProfile fourth = createProfile("Fourth");
+
+        cache.put(first);
+        cache.put(second);
+        cache.put(third);
+        assertNotNull(cache.get(first.getUniqueId()));
+        cache.put(fourth);
+
+        assertEquals(3, cache.getSize());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get(second.getUniqueId()));
+        assertNull(cache.get("Second"));
+        assertNotNull(cache.get(first.getUniqueId()));
+        assertNotNull(cache.get(third.getUniqueId()));
+        assertNotNull(cache.get(fourth.getUniqueId()));
+    }
+
+    @Test
+    public void expiredProfileIsDropped() throws InterruptedException {
+        OfflineProfileCache cache = createCache(10, 1);
+        PlayerProfile profile = createProfile("Steve");
+
+        cache.put(profile);
+        assertNotNull(cache.get(profile.getUniqueId()));
+
+        Thread.sleep(1100);
+
+        assertNull(cache.get(profile.getUniqueId()));
+        assertEquals(0, cache.getSize());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void lookupsHandOutCopies() {
+        OfflineProfileCache cache = createCache(10, 300);
+        PlayerProfile profile = createProfile("Steve");
+
+        cache.put(profile);
+
+        PlayerProfile copy = cache.get("STEVE");
+        assertNotNull(copy);
+        assertNotSame(profile, copy);
+        copy.modifySkill(PrimarySkillType.MINING, 500);
+
+        assertEquals(profile.getSkillLevel(PrimarySkillType.MINING), cache.get(profile.getUniqueId()).getSkillLevel(PrimarySkillType.MINING));
+    }
+
+    @Test
+    public void updateOnlyReplacesCachedProfiles() {
+        OfflineProfileCache cache = createCache(10, 300);
+        UUID uuid = UUID.randomUUID();
+
+        cache.update(new PlayerProfile("Steve", uuid, true));
+        assertEquals(0, cache.getSize());
+
+        cache.put(new PlayerProfile("Steve", uuid, true));
+        PlayerProfile saved = new PlayerProfile("Steve", uuid, true);
+        saved.modifySkill(PrimarySkillType.MINING, 500);
+        cache.update(saved);
+
+        assertEquals(500, cache.get(uuid).getSkillLevel(PrimarySkillType.MINING));
+    }
+
+    @Test
+    public void loginTakesTheProfileOut() {
+        OfflineProfileCache cache = createCache(10, 300);
+        PlayerProfile profile = createProfile("Steve");
+
+        cache.put(profile);
+
+        assertNotNull(cache.takeForLogin(profile.getUniqueId(), "steve"));
+        assertEquals(0, cache.getSize());
+        assertNull(cache.takeForLogin(profile.getUniqueId(), "Steve"));
+    }
+
+    @Test
+    public void renamedPlayerIsNotServedTheirOldProfile() {
+        OfflineProfileCache cache = createCache(10, 300);
+        PlayerProfile profile = createProfile("OldName");
+
+        cache.put(profile);
+
+        assertNull(cache.takeForLogin(profile.getUniqueId(), "NewName"));
+        assertNull(cache.get(profile.getUniqueId()));
+        assertNull(cache.get("OldName"));
+    }
+
+    @Test
+    public void nameTakenByAnotherPlayerSurvivesTheOldOwnerLeaving() {
+        OfflineProfileCache cache = createCache(10, 300);
+        PlayerProfile oldOwner = createProfile("Steve");
+        PlayerProfile newOwner = createProfile("Steve");
+
+        cache.put(oldOwner);
+        cache.put(newOwner);
+        cache.invalidate(oldOwner.getUniqueId());
+
+        PlayerProfile profile = cache.get("Steve");
+        assertNotNull(profile);
+        assertEquals(newOwner.getUniqueId(), profile.getUniqueId());
+    }
+
+    private static OfflineProfileCache createCache(int maxProfiles, int expirySeconds) {
+        MMOTestEnvironment.setConfigValue("Offline_Profile_Cache.Max_Profiles", maxProfiles);
+        MMOTestEnvironment.setConfigValue("Offline_Profile_Cache.Expiry_Seconds", expirySeconds);
+        return new OfflineProfileCache();
+    }
+
+    private static PlayerProfile createProfile(String playerName) {
+        return new PlayerProfile(playerName, UUID.randomUUID(), true);
+    }
+}
@@ -0,0 +1,97 @@
+package com.gmail.nossr50.util.random;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static com.gmail.nossr50.util.random.WeightedDraws.DRAWS;
+import static com.gmail.nossr50.util.random.WeightedDraws.draw;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class AliasTableTest {
+    @Test
+    public void drawsMatchWeights() {
+        assertDrawsMatchWeights(new double[] {1, 2, 3, 4});
+        assertDrawsMatchWeights(new double[] {0.5, 99.5});
+        assertDrawsMatchWeights(new double[] {7, 7, 7, 7, 7, 7, 7});
+        assertDrawsMatchWeights(new double[] {0.01, 0.1, 1, 10, 100, 1000});
+    }
+
+    @Test
+    public void zeroWeightsAreNeverDrawn() {
+        double[] weights = {0, 3, 0, 1, 0};
+        int[] counts = draw(new AliasTable(weights), new Random(42), DRAWS);
+
+        assertEquals(0, counts[0]);
+        assertEquals(0, counts[2]);
+        assertEquals(0, counts[4]);
+        assertDrawsMatchWeights(weights);
+    }
+
+    @Test
+    public void zeroWeightColumnsAlwaysGiveTheirAlias() {
+        double[] weights = {0, 1, 1, 1, 0};
+        AliasTable aliasTable = new AliasTable(weights);
+        // Always lands on the column itself whenever the column has any probability of its own
+        Random random = new Random(42) {
+            @Override
+            public double nextDouble() {
+                return 0;
+            }
+        };
+
+        for (int i = 0; i < 10000; i++) {
+            int outcome = aliasTable.sample(random);
+
+            assertNotEquals(0, outcome);
+            assertNotEquals(4, outcome);
+        }
+    }
+
+    @Test
+    public void singleEntryIsAlwaysDrawn() {
+        AliasTable aliasTable = new AliasTable(new double[] {0.25});
+        Random random = new Random(42);
+
+        assertEquals(1, aliasTable.size());
+
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(0, aliasTable.sample(random));
+        }
+    }
+
+    @Test
+    public void singlePositiveWeightIsAlwaysDrawn() {
+        AliasTable aliasTable = new AliasTable(new double[] {0, 0, 5, 0});
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(2, aliasTable.sample(random));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyWeightsAreRejected() {
+        new AliasTable(new double[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void allZeroWeightsAreRejected() {
+        new AliasTable(new double[] {0, 0, 0});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeWeightsAreRejected() {
+        new AliasTable(new double[] {1, -1, 2});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nanWeightsAreRejected() {
+        new AliasTable(new double[] {1, Double.NaN});
+    }
+
+    private static void assertDrawsMatchWeights(double[] weights) {
+        WeightedDraws.assertDrawsMatchWeights(new AliasTable(weights), weights);
+    }
+}
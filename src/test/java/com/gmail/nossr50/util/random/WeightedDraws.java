@@ -0,0 +1,53 @@
+package com.gmail.nossr50.util.random;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Statistical checks shared by the tests of anything drawn from weights
+ * Every check is allowed 5 standard deviations, so a correct table fails about once in a few million runs.
+ */
+public final class WeightedDraws {
+    public static final int DRAWS = 1000000;
+
+    private WeightedDraws() {}
+
+    /**
+     * Checks every outcome of the table is drawn about as often as its share of the total weight
+     */
+    public static void assertDrawsMatchWeights(AliasTable aliasTable, double[] weights) {
+        double total = 0;
+
+        for (double weight : weights) {
+            total += weight;
+        }
+
+        int[] counts = draw(aliasTable, new Random(1234), DRAWS);
+
+        for (int i = 0; i < weights.length; i++) {
+            assertWithinTolerance(i, counts[i], weights[i] / total);
+        }
+    }
+
+    /**
+     * Checks an outcome was seen within 5 standard deviations of its expected count out of {@link #DRAWS}
+     */
+    public static void assertWithinTolerance(int outcome, int count, double probability) {
+        double expected = probability * DRAWS;
+        double tolerance = 5 * Math.sqrt(DRAWS * probability * (1 - probability)) + 1;
+
+        assertTrue("Outcome " + outcome + " was seen " + count + " times, expected about " + expected,
+                Math.abs(count - expected) <= tolerance);
+    }
+
+    public static int[] draw(AliasTable aliasTable, Random random, int draws) {
+        int[] counts = new int[aliasTable.size()];
+
+        for (int i = 0; i < draws; i++) {
+            counts[aliasTable.sample(random)]++;
+        }
+
+        return counts;
+    }
+}